@@ -1,15 +1,28 @@
 package com.benji.coincap.service;
 
 import com.benji.coincap.service.dto.CoinCapAssetResponse;
-import com.benji.coincap.service.dto.CoinCapAssetsResponse;
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.benji.events.AssetPricesUpdatedEvent;
 import com.benji.exception.InvalidCoinCapApiKeyException;
 import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.monitoring.AssetRefreshCycleEvent;
+import com.benji.monitoring.CoinCapRequestEvent;
 import com.benji.repositories.AssetRepository;
-import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.services.AssetMappingSnapshotStore;
+import com.benji.services.AssetPriceCache;
+import com.benji.services.AssetSymbolIndex;
+import com.benji.services.ClusterCoordinator;
+import com.benji.services.SharedPriceSnapshotService;
+import com.benji.services.models.AssetMappingSnapshot;
+import com.benji.services.models.PriceQuote;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -22,9 +35,17 @@ import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -33,7 +54,13 @@ public class CoinCapAssetUpdateService {
 
     private final WebClient coinCapClient;
     private final AssetRepository assetRepository;
-    private final AssetSymbolMappingRepository assetSymbolMappingRepository;
+    private final CoinCapResponseDecoder coinCapResponseDecoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final AssetPriceCache assetPriceCache;
+    private final AssetMappingSnapshotStore assetMappingSnapshotStore;
+    private final ClusterCoordinator clusterCoordinator;
+    private final SharedPriceSnapshotService sharedPriceSnapshotService;
 
     @Value("${coincap.api.url}")
     private String coinCapApiUrl;
@@ -53,19 +80,43 @@ public class CoinCapAssetUpdateService {
             throw new InvalidCoinCapApiKeyException("CoinCap API key is required but not configured.");
         }
 
-        fetchAllAssets()
-                .doOnNext(coinCapAssetsResponse -> {
-                    List<AssetSymbolMapping> mappings = coinCapAssetsResponse.data().stream()
-                            .map(assetData -> AssetSymbolMapping.builder()
-                                    .id(assetData.id())
-                                    .symbol(assetData.symbol())
-                                    .build())
-                            .toList();
-                    assetSymbolMappingRepository.saveAll(mappings);
-                    log.info("Saved {} asset mappings.", mappings.size());
+        restoreFromSnapshot();
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        if (assetSymbolIndex.size() == 0) {
+            return;
+        }
+
+        List<AssetMappingSnapshot.Entry> entries = assetSymbolIndex.mappings().stream()
+                .map(mapping -> {
+                    Optional<PriceQuote> quote = assetPriceCache.get(mapping.id());
+                    return new AssetMappingSnapshot.Entry(
+                            mapping.id(),
+                            mapping.symbol(),
+                            quote.map(PriceQuote::priceUsd).orElse(null),
+                            quote.map(PriceQuote::updatedAt).orElse(null));
                 })
-                .doOnError(e -> log.error("Error updating asset mappings on startup: {}", e.getMessage()))
-                .subscribe();
+                .toList();
+        assetMappingSnapshotStore.write(new AssetMappingSnapshot(Instant.now(), entries));
+    }
+
+    private void restoreFromSnapshot() {
+        assetMappingSnapshotStore.load().ifPresent(snapshot -> {
+            List<AssetSymbolMapping> mappings = snapshot.entries().stream()
+                    .map(entry -> AssetSymbolMapping.builder()
+                            .id(entry.id())
+                            .symbol(entry.symbol())
+                            .build())
+                    .toList();
+            assetSymbolIndex.rebuild(mappings);
+            assetPriceCache.putAll(snapshot.entries().stream()
+                    .filter(entry -> entry.priceUsd() != null)
+                    .map(entry -> new PriceQuote(entry.id(), entry.priceUsd(), entry.priceUpdatedAt()))
+                    .toList());
+            log.info("Restored {} asset mappings from snapshot taken at {}", mappings.size(), snapshot.createdAt());
+        });
     }
 
     public Mono<CoinCapAssetResponse> fetchLatestPrice(String tokenId) {
@@ -77,55 +128,144 @@ public class CoinCapAssetUpdateService {
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, CoinCapAssetUpdateService::handle4xxCoinCapError)
                 .onStatus(HttpStatusCode::is5xxServerError, CoinCapAssetUpdateService::handle5xxCoinCapError)
-                .bodyToMono(CoinCapAssetResponse.class)
-                .doOnNext(response -> log.info("Received CoinCapResponse: {}", response))
-                .doOnError(e -> log.error("Error fetching token price for {}: {}", tokenId, e.getMessage()));
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> decodeBody(buffer, coinCapResponseDecoder::decodeAsset))
+                .doOnNext(response -> log.debug("Received CoinCap price for {}", tokenId))
+                .doOnError(e -> log.error("Error fetching token price for {}: {}", tokenId, e.getMessage()))
+                .transform(mono -> recordCoinCapRequest(mono, "/assets/{slug}", tokenId));
     }
 
-    public Mono<CoinCapAssetsResponse> fetchAllAssets() {
-        log.info("Fetching CoinCapApi /assets data containing all asset types...");
+    public Mono<List<CoinCapData>> fetchAssetsPage(int limit, int offset) {
+        log.info("Fetching CoinCapApi /assets page with limit {} and offset {}...", limit, offset);
         return coinCapClient.get()
-                .uri(coinCapApiUrl + "/assets")
+                .uri(coinCapApiUrl + "/assets?limit={limit}&offset={offset}", limit, offset)
                 .header("accept", "application/json")
                 .header("Authorization", "Bearer " + coinCapApiKey)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, CoinCapAssetUpdateService::handle4xxCoinCapError)
                 .onStatus(HttpStatusCode::is5xxServerError, CoinCapAssetUpdateService::handle5xxCoinCapError)
-                .bodyToMono(CoinCapAssetsResponse.class)
-                .doOnNext(response -> log.info("Fetched {} assets.", response.data().size()))
-                .doOnError(e -> log.error("Error fetching assets: {}", e.getMessage()));
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> decodeBody(buffer, coinCapResponseDecoder::decodeAssets))
+                .defaultIfEmpty(List.of())
+                .doOnNext(page -> log.info("Fetched {} assets at offset {}.", page.size(), offset))
+                .doOnError(e -> log.error("Error fetching assets page at offset {}: {}", offset, e.getMessage()))
+                .transform(mono -> recordCoinCapRequest(mono, "/assets", null));
+    }
+
+    public Mono<List<CoinCapHistoryPoint>> fetchDailyHistory(String tokenId, Instant start, Instant end) {
+        log.info("Fetching CoinCapApi /assets/{}/history daily data from {} to {}...", tokenId, start, end);
+        return coinCapClient.get()
+                .uri(coinCapApiUrl + "/assets/{slug}/history?interval=d1&start={start}&end={end}",
+                        tokenId.toLowerCase(), start.toEpochMilli(), end.toEpochMilli())
+                .header("accept", "application/json")
+                .header("Authorization", "Bearer " + coinCapApiKey)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, CoinCapAssetUpdateService::handle4xxCoinCapError)
+                .onStatus(HttpStatusCode::is5xxServerError, CoinCapAssetUpdateService::handle5xxCoinCapError)
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> decodeBody(buffer, coinCapResponseDecoder::decodeHistory))
+                .defaultIfEmpty(List.of())
+                .doOnNext(history -> log.info("Fetched {} daily prices for {}.", history.size(), tokenId))
+                .doOnError(e -> log.error("Error fetching price history for {}: {}", tokenId, e.getMessage()))
+                .transform(mono -> recordCoinCapRequest(mono, "/assets/{slug}/history", tokenId));
     }
 
     @Scheduled(fixedDelayString = "${coincap.api.refresh-rate}")
     public void updateAssetPrices() {
         log.info("Initiating Scheduled updateAssetPrices job, next run in {} s", Duration.ofMillis(Long.parseLong(refreshRate)).toSeconds());
-        List<String> assetsToUpdate = assetRepository.findDistinctAssetNames();
+        List<String> assetsToUpdate = clusterCoordinator.assetsToRefresh(assetRepository.findDistinctAssetNames());
         if (assetsToUpdate.isEmpty()) {
             log.info("No asset prices to update - skipping scheduled task.");
             return;
         }
 
         log.info("Updating prices for {} distinct assets: {}", assetsToUpdate.size(), assetsToUpdate);
+        AssetRefreshCycleEvent refreshCycleEvent = new AssetRefreshCycleEvent();
+        refreshCycleEvent.begin();
+        Map<String, BigDecimal> refreshedPrices = new ConcurrentHashMap<>();
+        Map<String, BigDecimal> changedPrices = new ConcurrentHashMap<>();
         Flux.fromIterable(assetsToUpdate)
                 .flatMap(this::fetchLatestPriceWithMapping, maxThreads)
-                .flatMap(this::updateAssets)
+                .flatMap(priceUpdate -> updateAssets(priceUpdate, refreshedPrices, changedPrices))
                 .collectList()
                 .subscribe(
-                        updatedCountList -> log.info("Updated asset prices for {} distinct tokens", updatedCountList.size()),
-                        error -> log.error("Error updating asset prices: {}", error.getMessage())
+                        updatedCountList -> {
+                            log.info("Updated asset prices for {} distinct tokens", updatedCountList.size());
+                            sharedPriceSnapshotService.publish(refreshedPrices, Instant.now());
+                            if (!changedPrices.isEmpty()) {
+                                eventPublisher.publishEvent(new AssetPricesUpdatedEvent(Map.copyOf(changedPrices), Instant.now()));
+                            }
+                            commitRefreshCycleEvent(refreshCycleEvent, assetsToUpdate.size(), updatedCountList.size(), null);
+                        },
+                        error -> {
+                            log.error("Error updating asset prices: {}", error.getMessage());
+                            commitRefreshCycleEvent(refreshCycleEvent, assetsToUpdate.size(), 0, error);
+                        }
                 );
     }
 
+    private static void commitRefreshCycleEvent(AssetRefreshCycleEvent event, int assetCount, int updatedCount, Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.assetCount = assetCount;
+            event.updatedCount = updatedCount;
+            event.success = error == null;
+            event.error = error != null ? error.getMessage() : null;
+            event.commit();
+        }
+    }
+
+    private static <T> T decodeBody(DataBuffer buffer, Function<InputStream, T> decoder) {
+        try (InputStream body = buffer.asInputStream(true)) {
+            return decoder.apply(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read CoinCap response body", e);
+        }
+    }
+
+    private static <T> Mono<T> recordCoinCapRequest(Mono<T> request, String endpoint, String tokenId) {
+        return Mono.defer(() -> {
+            CoinCapRequestEvent event = new CoinCapRequestEvent();
+            if (!event.isEnabled()) {
+                return request;
+            }
+            event.begin();
+            return request
+                    .doOnSuccess(response -> commitCoinCapRequestEvent(event, endpoint, tokenId, null))
+                    .doOnError(error -> commitCoinCapRequestEvent(event, endpoint, tokenId, error));
+        });
+    }
+
+    private static void commitCoinCapRequestEvent(CoinCapRequestEvent event, String endpoint, String tokenId, Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.tokenId = tokenId;
+            event.success = error == null;
+            event.error = error != null ? error.getMessage() : null;
+            event.commit();
+        }
+    }
+
     private Mono<Tuple2<String, BigDecimal>> fetchLatestPriceWithMapping(String assetName) {
         CoinCapAssetResponse response = fetchLatestPrice(assetName.toLowerCase())
                 .blockOptional()
                 .orElseThrow(() -> new IllegalArgumentException("Token price not found for: " + assetName));
 
-        return Mono.just(Tuples.of(assetName, new BigDecimal(response.data().priceUsd())));
+        return Mono.just(Tuples.of(assetName, response.data().priceUsd()));
     }
 
-    private Mono<Integer> updateAssets(Tuple2<String, BigDecimal> priceUpdate) {
-        return Mono.fromCallable(() -> assetRepository.updatePriceUsdByName(priceUpdate.getT1(), priceUpdate.getT2()))
+    private Mono<Integer> updateAssets(Tuple2<String, BigDecimal> priceUpdate, Map<String, BigDecimal> refreshedPrices,
+                                       Map<String, BigDecimal> changedPrices) {
+        return Mono.fromCallable(() -> {
+                    assetPriceCache.put(priceUpdate.getT1(), priceUpdate.getT2(), Instant.now());
+                    refreshedPrices.put(priceUpdate.getT1(), priceUpdate.getT2());
+                    int updatedRows = assetRepository.updatePriceUsdByName(priceUpdate.getT1(), priceUpdate.getT2());
+                    if (updatedRows > 0) {
+                        changedPrices.put(priceUpdate.getT1(), priceUpdate.getT2());
+                    }
+                    return updatedRows;
+                })
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
@@ -0,0 +1,224 @@
+package com.benji.coincap.service;
+
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.config.HibernateCacheConfig;
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.services.AssetPriceCache;
+import com.benji.services.AssetSymbolIndex;
+import com.benji.services.ClusterCoordinator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CoinCapCatalogSyncService {
+
+    private static final String INSERT_MAPPING_SQL = "INSERT INTO asset_symbol_mappings (id, symbol) VALUES (?, ?)";
+    private static final String UPDATE_MAPPING_SQL = "UPDATE asset_symbol_mappings SET symbol = ? WHERE id = ?";
+    private static final String SYNC_OWNER_KEY = "catalog-sync";
+
+    private final CoinCapAssetUpdateService coinCapAssetUpdateService;
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final AssetPriceCache assetPriceCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Value("${coincap.catalog.page-size:500}")
+    private int pageSize;
+
+    @Value("${coincap.catalog.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean syncInProgress = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        if (!clusterCoordinator.owns(SYNC_OWNER_KEY)) {
+            return;
+        }
+        syncCatalog().subscribe(
+                result -> log.info("Asset mappings synced on startup."),
+                error -> log.error("Error updating asset mappings on startup: {}", error.getMessage())
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${coincap.catalog.sync-rate:3600000}", initialDelayString = "${coincap.catalog.sync-rate:3600000}")
+    public void scheduledCatalogSync() {
+        if (!clusterCoordinator.owns(SYNC_OWNER_KEY)) {
+            reloadMappings();
+            return;
+        }
+        log.info("Initiating Scheduled catalog sync job");
+        syncCatalog().subscribe(
+                result -> log.info("Scheduled catalog sync finished."),
+                error -> log.error("Error running scheduled catalog sync: {}", error.getMessage())
+        );
+    }
+
+    public Mono<CatalogSyncResult> syncCatalog() {
+        return Mono.defer(() -> {
+            if (!syncInProgress.compareAndSet(false, true)) {
+                log.info("Catalog sync already in progress - skipping.");
+                return Mono.empty();
+            }
+
+            return Mono.fromCallable(this::loadExistingMappings)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(catalog -> fetchPage(catalog, 0)
+                            .expand(page -> page.size() < pageSize ? Mono.empty() : fetchPage(catalog, page.nextOffset()))
+                            .then(Mono.fromCallable(() -> completeSync(catalog))
+                                    .subscribeOn(Schedulers.boundedElastic())))
+                    .doFinally(signal -> syncInProgress.set(false));
+        });
+    }
+
+    private Mono<CatalogPage> fetchPage(CatalogState catalog, int offset) {
+        return coinCapAssetUpdateService.fetchAssetsPage(pageSize, offset)
+                .publishOn(Schedulers.boundedElastic())
+                .map(assets -> {
+                    applyPage(catalog, assets);
+                    return new CatalogPage(offset, assets.size());
+                });
+    }
+
+    private CatalogState loadExistingMappings() {
+        CatalogState catalog = new CatalogState();
+        jdbcTemplate.query("SELECT id, symbol FROM asset_symbol_mappings", resultSet -> {
+            catalog.symbolsById.put(resultSet.getString("id"), resultSet.getString("symbol"));
+            catalog.idsBySymbol.put(resultSet.getString("symbol"), resultSet.getString("id"));
+        });
+        log.info("Loaded {} existing asset mappings for catalog diff.", catalog.symbolsById.size());
+        return catalog;
+    }
+
+    private void applyPage(CatalogState catalog, List<CoinCapData> assets) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Instant fetchedAt = Instant.now();
+
+        for (CoinCapData asset : assets) {
+            if (asset.id() == null || asset.symbol() == null) {
+                continue;
+            }
+            if (asset.priceUsd() != null) {
+                assetPriceCache.put(asset.id(), asset.priceUsd(), fetchedAt);
+            }
+
+            String currentSymbol = catalog.symbolsById.get(asset.id());
+            if (asset.symbol().equals(currentSymbol)) {
+                catalog.unchanged++;
+                continue;
+            }
+
+            String symbolOwner = catalog.idsBySymbol.get(asset.symbol());
+            if (symbolOwner != null) {
+                // Symbols are unique in asset_symbol_mappings; the first (highest ranked) asset keeps it.
+                catalog.skipped++;
+                continue;
+            }
+
+            if (currentSymbol == null) {
+                inserts.add(new Object[]{asset.id(), asset.symbol()});
+            } else {
+                catalog.idsBySymbol.remove(currentSymbol);
+                updates.add(new Object[]{asset.symbol(), asset.id()});
+            }
+            catalog.symbolsById.put(asset.id(), asset.symbol());
+            catalog.idsBySymbol.put(asset.symbol(), asset.id());
+        }
+
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_MAPPING_SQL, updates, batchSize, (ps, row) -> {
+                        ps.setString(1, (String) row[0]);
+                        ps.setString(2, (String) row[1]);
+                    });
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_MAPPING_SQL, inserts, batchSize, (ps, row) -> {
+                        ps.setString(1, (String) row[0]);
+                        ps.setString(2, (String) row[1]);
+                    });
+                }
+            });
+            evictCachedMappings();
+        }
+        catalog.inserted += inserts.size();
+        catalog.updated += updates.size();
+    }
+
+    /** Picks up the mappings written by the node that owns the sync. */
+    private void reloadMappings() {
+        evictCachedMappings();
+        assetSymbolIndex.reload();
+        log.info("Reloaded asset mappings synced by another node.");
+    }
+
+    /** Mappings are written through JDBC, which Hibernate's caches cannot see. */
+    private void evictCachedMappings() {
+        entityManagerFactory.getCache().evict(AssetSymbolMapping.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(HibernateCacheConfig.SYMBOL_MAPPING_QUERIES_REGION);
+    }
+
+    private CatalogSyncResult completeSync(CatalogState catalog) {
+        List<AssetSymbolMapping> mappings = catalog.symbolsById.entrySet().stream()
+                .map(entry -> AssetSymbolMapping.builder()
+                        .id(entry.getKey())
+                        .symbol(entry.getValue())
+                        .build())
+                .toList();
+        assetSymbolIndex.rebuild(mappings);
+        coinCapAssetUpdateService.writeSnapshot();
+
+        CatalogSyncResult result = new CatalogSyncResult(catalog.inserted, catalog.updated, catalog.unchanged, catalog.skipped);
+        log.info("Catalog sync completed: {}", result);
+        return result;
+    }
+
+    public record CatalogSyncResult(
+            int inserted,
+            int updated,
+            int unchanged,
+            int skipped) {
+    }
+
+    private record CatalogPage(
+            int offset,
+            int size) {
+
+        int nextOffset() {
+            return offset + size;
+        }
+    }
+
+    private static class CatalogState {
+        private final Map<String, String> symbolsById = new HashMap<>();
+        private final Map<String, String> idsBySymbol = new HashMap<>();
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int skipped;
+    }
+}
@@ -0,0 +1,157 @@
+package com.benji.coincap.service;
+
+import com.benji.coincap.service.dto.CoinCapAssetResponse;
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-level decoder for CoinCap /assets payloads. Only id, symbol and priceUsd are read,
+ * the price goes straight from the parser buffer into a BigDecimal and every other field
+ * is skipped without being materialized.
+ */
+@Component
+public class CoinCapResponseDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public CoinCapResponseDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public CoinCapAssetResponse decodeAsset(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            CoinCapData data = null;
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new CoinCapAssetResponse(null);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    data = readData(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new CoinCapAssetResponse(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode CoinCap /assets/{slug} response", e);
+        }
+    }
+
+    public List<CoinCapData> decodeAssets(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            List<CoinCapData> assets = new ArrayList<>();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return assets;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    JsonToken element;
+                    while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (element == JsonToken.START_OBJECT) {
+                            assets.add(readData(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return assets;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode CoinCap /assets response", e);
+        }
+    }
+
+    public List<CoinCapHistoryPoint> decodeHistory(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            List<CoinCapHistoryPoint> points = new ArrayList<>();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return points;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    JsonToken element;
+                    while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (element == JsonToken.START_OBJECT) {
+                            CoinCapHistoryPoint point = readHistoryPoint(parser);
+                            if (point != null) {
+                                points.add(point);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return points;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode CoinCap /assets/{slug}/history response", e);
+        }
+    }
+
+    private static CoinCapHistoryPoint readHistoryPoint(JsonParser parser) throws IOException {
+        Long time = null;
+        BigDecimal priceUsd = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "time" -> time = value.isNumeric() ? parser.getLongValue() : null;
+                case "priceUsd" -> priceUsd = readDecimal(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return time != null && priceUsd != null ? new CoinCapHistoryPoint(time, priceUsd) : null;
+    }
+
+    private static CoinCapData readData(JsonParser parser) throws IOException {
+        String id = null;
+        String symbol = null;
+        BigDecimal priceUsd = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                case "symbol" -> symbol = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                case "priceUsd" -> priceUsd = readDecimal(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return new CoinCapData(id, symbol, priceUsd);
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_STRING -> parser.getTextLength() == 0
+                    ? null
+                    : new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            default -> {
+                parser.skipChildren();
+                yield null;
+            }
+        };
+    }
+}
@@ -1,7 +1,9 @@
 package com.benji.coincap.service.dto;
 
+import java.math.BigDecimal;
+
 public record CoinCapData(
         String id,
         String symbol,
-        String priceUsd
+        BigDecimal priceUsd
 ) {}
@@ -0,0 +1,8 @@
+package com.benji.coincap.service.dto;
+
+import java.math.BigDecimal;
+
+public record CoinCapHistoryPoint(
+        long time,
+        BigDecimal priceUsd
+) {}
@@ -1,14 +1,18 @@
 package com.benji.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class CoinCapClientConfig {
 
     @Bean
-    public WebClient coinCapClient() {
-        return WebClient.builder().build();
+    public WebClient coinCapClient(@Value("${coincap.api.max-in-memory-size:4MB}") DataSize maxInMemorySize) {
+        return WebClient.builder()
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .build();
     }
 }
@@ -0,0 +1,78 @@
+package com.benji.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Bounded Caffeine regions behind Hibernate's second-level and query caches. Reference data
+ * (symbol mappings) and wallet headers (users, wallets) get separate sizes and TTLs; the update
+ * timestamps region must never evict, or cached query results could outlive their tables.
+ * User and wallet regions are node-local, so they are disabled in the cluster modes.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String SYMBOL_MAPPINGS_REGION = "asset-symbol-mappings";
+    public static final String SYMBOL_MAPPING_QUERIES_REGION = "asset-symbol-mapping-queries";
+    public static final String USERS_REGION = "users";
+    public static final String WALLETS_REGION = "wallets";
+    public static final String USER_QUERIES_REGION = "user-queries";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${benji.hibernate-cache.reference.max-entries:20000}") long referenceMaxEntries,
+            @Value("${benji.hibernate-cache.reference.ttl:1h}") Duration referenceTtl,
+            @Value("${benji.hibernate-cache.wallets.max-entries:100000}") long walletMaxEntries,
+            @Value("${benji.hibernate-cache.wallets.ttl:30m}") Duration walletTtl,
+            @Value("${benji.cluster.mode:single}") String clusterMode) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager per application context, so test contexts on other databases never share entries.
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("benji:hibernate-cache/" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(SYMBOL_MAPPINGS_REGION, region(referenceMaxEntries, referenceTtl));
+        cacheManager.createCache(SYMBOL_MAPPING_QUERIES_REGION, region(referenceMaxEntries, referenceTtl));
+        // Other nodes write users and wallets without evicting this node's entries.
+        CaffeineConfiguration<Object, Object> walletRegion = "single".equalsIgnoreCase(clusterMode)
+                ? region(walletMaxEntries, walletTtl)
+                : region(0, Duration.ZERO);
+        cacheManager.createCache(USERS_REGION, walletRegion);
+        cacheManager.createCache(WALLETS_REGION, walletRegion);
+        cacheManager.createCache(USER_QUERIES_REGION, walletRegion);
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(referenceMaxEntries, referenceTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unboundedRegion());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = unboundedRegion();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unboundedRegion() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,35 @@
+package com.benji.config;
+
+import com.benji.services.ReplicaRoutingService;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out primary or replica connections as decided by {@link ReplicaRoutingService}. Must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * decision is taken at the first statement, after the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaRoutingService replicaRoutingService;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaRoutingService replicaRoutingService) {
+        this.replicaRoutingService = replicaRoutingService;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaRoutingService.useReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+}
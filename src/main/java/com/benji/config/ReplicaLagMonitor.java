@@ -0,0 +1,64 @@
+package com.benji.config;
+
+import com.benji.services.ReplicaRoutingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Measures replica lag with a heartbeat row: each beat writes the current time on the primary and
+ * reads back whatever beat the replica has replayed so far.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int HEARTBEAT_ROW = 1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final Clock clock;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaRoutingService replicaRoutingService) {
+        this(primary, replica, replicaRoutingService, Clock.systemUTC());
+    }
+
+    ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaRoutingService replicaRoutingService, Clock clock) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replicaRoutingService = replicaRoutingService;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${benji.datasource.replica.heartbeat-rate:1000}")
+    public void heartbeat() {
+        Timestamp now = Timestamp.from(clock.instant());
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = ?", now, HEARTBEAT_ROW) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (?, ?)", HEARTBEAT_ROW, now);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not write the replica heartbeat on the primary: {}", e.getMessage());
+        }
+
+        try {
+            List<Timestamp> replayed = replica.queryForList(
+                    "SELECT beat_at FROM replica_heartbeat WHERE id = ?", Timestamp.class, HEARTBEAT_ROW);
+            if (replayed.isEmpty()) {
+                replicaRoutingService.onReplicaUnavailable();
+            } else {
+                Instant replayedUpTo = replayed.get(0).toInstant();
+                replicaRoutingService.onReplicaPosition(replayedUpTo);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Replica heartbeat read failed: {}", e.getMessage());
+            replicaRoutingService.onReplicaUnavailable();
+        }
+    }
+}
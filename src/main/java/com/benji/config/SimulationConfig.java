@@ -0,0 +1,16 @@
+package com.benji.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class SimulationConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool simulationPool(@Value("${benji.simulation.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,64 @@
+package com.benji.config;
+
+import com.benji.services.ReplicaRoutingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Round-trips the commit time of a client's last write in a cookie, so a read served by another
+ * node still waits for the replica to replay it.
+ */
+public class WritePositionFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "benji-write-position";
+
+    private final ReplicaRoutingService replicaRoutingService;
+
+    public WritePositionFilter(ReplicaRoutingService replicaRoutingService) {
+        this.replicaRoutingService = replicaRoutingService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.client(lastWrite(request),
+                committedAt -> response.addHeader(HttpHeaders.SET_COOKIE, cookie(committedAt)))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private String cookie(Instant committedAt) {
+        return ResponseCookie.from(COOKIE_NAME, Long.toString(committedAt.toEpochMilli()))
+                .path("/")
+                .httpOnly(true)
+                .maxAge(replicaRoutingService.maxLag())
+                .build()
+                .toString();
+    }
+
+    private static Instant lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Instant.ofEpochMilli(Long.parseLong(cookie.getValue()));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.benji.controllers;
+
+import com.benji.controllers.dto.ExposureReportResponse;
+import com.benji.services.AssetExposureService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Admin", description = "Platform-wide reports for operations")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final AssetExposureService assetExposureService;
+
+    @Operation(
+            summary = "Exposure report",
+            description = "Total assets under management and the assets with the largest USD exposure across all wallets.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Exposure report",
+                            content = @Content(schema = @Schema(implementation = ExposureReportResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit")
+            }
+    )
+    @GetMapping("/exposure")
+    public ResponseEntity<ExposureReportResponse> getExposureReport(
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(assetExposureService.getReport(limit));
+    }
+}
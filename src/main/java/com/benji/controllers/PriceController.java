@@ -0,0 +1,98 @@
+package com.benji.controllers;
+
+import com.benji.controllers.dto.PriceHistoryResponse;
+import com.benji.services.PriceHistoryStore;
+import com.benji.services.PriceTickerService;
+import com.benji.services.models.PricePoint;
+import com.benji.services.models.PriceTick;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/prices")
+@Tag(name = "Prices", description = "Endpoints for live asset prices")
+@RequiredArgsConstructor
+public class PriceController {
+
+    private final PriceTickerService priceTickerService;
+    private final PriceHistoryStore priceHistoryStore;
+
+    @Value("${benji.stream.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    @Value("${benji.price-history.max-points:10000}")
+    private int maxHistoryPoints;
+
+    @Operation(
+            summary = "Stream live prices",
+            description = "Server-Sent Events ticker of refreshed asset prices, optionally filtered by CoinCap asset ids. "
+                    + "Consumers that fall behind receive only the latest price per asset.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Price stream opened",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = PriceTick.class)))
+            }
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PriceTick>> streamPrices(
+            @RequestParam(value = "assets", required = false) Set<String> assets) {
+        Flux<ServerSentEvent<PriceTick>> ticks = priceTickerService.subscribe(assets != null ? assets : Set.of())
+                .map(tick -> ServerSentEvent.builder(tick)
+                        .event("price")
+                        .build());
+
+        Flux<ServerSentEvent<PriceTick>> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<PriceTick>builder()
+                        .comment("keep-alive")
+                        .build());
+
+        return Flux.merge(ticks, heartbeats);
+    }
+
+    @Operation(
+            summary = "Read price history",
+            description = "Returns recorded prices of a CoinCap asset between from and to (ISO-8601, default the last 24 hours). "
+                    + "Older ranges are served at the downsampled resolution; at most max-points points are returned.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Price history retrieved",
+                            content = @Content(schema = @Schema(implementation = PriceHistoryResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid asset id or time range")
+            }
+    )
+    @GetMapping("/{assetId}/history")
+    public ResponseEntity<PriceHistoryResponse> getPriceHistory(
+            @PathVariable("assetId") String assetId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant rangeEnd = to != null ? to : Instant.now();
+        Instant rangeStart = from != null ? from : rangeEnd.minus(Duration.ofDays(1));
+        if (rangeStart.isAfter(rangeEnd)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+
+        List<PricePoint> points = priceHistoryStore.read(assetId, rangeStart, rangeEnd, maxHistoryPoints + 1);
+        boolean truncated = points.size() > maxHistoryPoints;
+        return ResponseEntity.ok(new PriceHistoryResponse(assetId, rangeStart, rangeEnd,
+                truncated ? points.subList(0, maxHistoryPoints) : points, truncated));
+    }
+}
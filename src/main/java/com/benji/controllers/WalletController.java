@@ -1,8 +1,19 @@
 package com.benji.controllers;
 
 import com.benji.controllers.dto.*;
+import com.benji.services.PriceAlertService;
+import com.benji.services.StrategySweepService;
+import com.benji.services.WalletAssetQueryService;
+import com.benji.services.WalletBacktestService;
+import com.benji.services.WalletImportService;
+import com.benji.services.WalletLedgerService;
+import com.benji.services.WalletMonteCarloService;
+import com.benji.services.WalletResponseCache;
+import com.benji.services.WalletRiskService;
 import com.benji.services.WalletService;
 import com.benji.services.WalletSimulationService;
+import com.benji.services.WalletValuationStreamService;
+import com.benji.services.WalletValueHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,10 +21,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/wallets")
@@ -23,6 +44,17 @@ public class WalletController {
 
     private final WalletService walletService;
     private final WalletSimulationService walletSimulationService;
+    private final WalletValuationStreamService walletValuationStreamService;
+    private final WalletResponseCache walletResponseCache;
+    private final WalletAssetQueryService walletAssetQueryService;
+    private final WalletBacktestService walletBacktestService;
+    private final WalletMonteCarloService walletMonteCarloService;
+    private final StrategySweepService strategySweepService;
+    private final WalletRiskService walletRiskService;
+    private final PriceAlertService priceAlertService;
+    private final WalletLedgerService walletLedgerService;
+    private final WalletValueHistoryService walletValueHistoryService;
+    private final WalletImportService walletImportService;
 
     @Operation(
             summary = "Create a new wallet",
@@ -42,19 +74,226 @@ public class WalletController {
 
     @Operation(
             summary = "Retrieve wallet information",
-            description = "Fetches wallet details using the wallet ID.",
+            description = "Fetches wallet details using the wallet ID. Responses carry a strong ETag; "
+                    + "sending it back in If-None-Match returns 304 while the wallet is unchanged.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Wallet details retrieved",
                             content = @Content(schema = @Schema(implementation = CreateUserWalletResponse.class))),
+                    @ApiResponse(responseCode = "304", description = "Wallet unchanged since the supplied ETag"),
                     @ApiResponse(responseCode = "404", description = "Wallet not found")
             }
     )
     @GetMapping("/{walletId}")
-    public ResponseEntity<CreateUserWalletResponse> getWalletInformation(
+    public ResponseEntity<byte[]> getWalletInformation(
+            @PathVariable("walletId") Long walletId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(walletResponseCache.currentETag(walletId))) {
+            return null;
+        }
+
+        WalletResponseCache.CachedWalletResponse cachedResponse = walletResponseCache.getWalletInformation(walletId);
+        return ResponseEntity.ok()
+                .eTag(cachedResponse.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cachedResponse.json());
+    }
+
+    @Operation(
+            summary = "Stream wallet valuations",
+            description = "Server-Sent Events stream that pushes the wallet whenever an asset price or quantity changes. "
+                    + "Slow clients always receive the latest state instead of a backlog.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Wallet valuation stream opened",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = CreateUserWalletResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping(value = "/{walletId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CreateUserWalletResponse>> streamWalletInformation(
             @PathVariable("walletId") Long walletId) {
-        CreateUserWalletResponse responseBody = walletService.getWalletInformation(walletId);
-        return ResponseEntity.ok(responseBody);
+        return walletValuationStreamService.streamWallet(walletId);
+    }
 
+    @Operation(
+            summary = "List wallet assets page by page",
+            description = "Returns one page of holdings sorted by value, symbol or quantity. "
+                    + "Pass the returned nextCursor to fetch the following page; it is null on the last page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of wallet assets",
+                            content = @Content(schema = @Schema(implementation = WalletAssetsPageResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid sort, direction, limit or cursor"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/assets")
+    public ResponseEntity<WalletAssetsPageResponse> getWalletAssets(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam(value = "sort", defaultValue = "value") String sort,
+            @RequestParam(value = "direction", defaultValue = "desc") String direction,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return ResponseEntity.ok(walletAssetQueryService.getWalletAssetsPage(walletId, sort, direction, limit, cursor));
+    }
+
+    @Operation(
+            summary = "Export all wallet assets",
+            description = "Streams every holding as newline-delimited JSON in constant memory, regardless of wallet size.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Wallet assets streamed",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = CreateUserWalletResponse.UserAssets.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping(value = "/{walletId}/assets/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamWalletAssets(
+            @PathVariable("walletId") Long walletId) {
+        walletAssetQueryService.ensureWalletExists(walletId);
+        StreamingResponseBody body = outputStream -> walletAssetQueryService.writeWalletAssets(walletId, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Analyze wallet risk",
+            description = "Volatility, historical Value-at-Risk and expected shortfall at the given confidence, maximum drawdown "
+                    + "and the pairwise asset correlation matrix over the last windowDays daily closes. "
+                    + "Reports are cached until the wallet or one of its prices changes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Risk report",
+                            content = @Content(schema = @Schema(implementation = WalletRiskResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid window or confidence, or no usable price history"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/risk")
+    public ResponseEntity<WalletRiskResponse> getWalletRisk(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam(value = "windowDays", defaultValue = "90") int windowDays,
+            @RequestParam(value = "confidence", defaultValue = "0.95") BigDecimal confidence) {
+        return ResponseEntity.ok(walletRiskService.getWalletRisk(walletId, windowDays, confidence));
+    }
+
+    @Operation(
+            summary = "List wallet ledger entries",
+            description = "Pages through the append-only deposit history of a wallet in recording order. "
+                    + "Pass the returned nextAfter as after to fetch the next page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ledger page",
+                            content = @Content(schema = @Schema(implementation = WalletLedgerResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/ledger")
+    public ResponseEntity<WalletLedgerResponse> getWalletLedger(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok(walletLedgerService.getLedger(walletId, after, limit));
+    }
+
+    @Operation(
+            summary = "Get wallet balances at a point in time",
+            description = "Rebuilds the wallet's holdings from the latest balance snapshot at or before at plus the "
+                    + "ledger entries recorded after it. Defaults to now.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Wallet balances",
+                            content = @Content(schema = @Schema(implementation = WalletBalancesResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/balances")
+    public ResponseEntity<WalletBalancesResponse> getWalletBalances(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam(value = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return ResponseEntity.ok(walletLedgerService.getBalances(walletId, at));
+    }
+
+    @Operation(
+            summary = "Bulk import wallets",
+            description = "Streams NDJSON, one {\"email\": ..., \"holdings\": [{\"symbol\": ..., \"quantity\": ...}]} object "
+                    + "per line, and creates a wallet with its holdings for every valid line. Invalid lines are skipped and "
+                    + "reported with their line number.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Import finished",
+                            content = @Content(schema = @Schema(implementation = WalletImportResponse.class)))
+            }
+    )
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<WalletImportResponse> importWallets(InputStream body) {
+        return ResponseEntity.ok(walletImportService.importWallets(body));
+    }
+
+    @Operation(
+            summary = "Chart wallet value",
+            description = "Returns open/high/low/close buckets of the wallet's total value between from and to (ISO-8601, "
+                    + "default the last 24 hours). Without a resolution the finest of minute, hour and day that fits the "
+                    + "range into max-points buckets is used.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Wallet value history",
+                            content = @Content(schema = @Schema(implementation = WalletValueHistoryResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid range or resolution"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/value-history")
+    public ResponseEntity<WalletValueHistoryResponse> getWalletValueHistory(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(value = "resolution", required = false) String resolution) {
+        return ResponseEntity.ok(walletValueHistoryService.getValueHistory(walletId, from, to, resolution));
+    }
+
+    @Operation(
+            summary = "Create a price alert",
+            description = "Fires once when the price of a held asset crosses the threshold in the given direction "
+                    + "between two refresh cycles.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Alert created",
+                            content = @Content(schema = @Schema(implementation = PriceAlertResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid symbol, asset not held, threshold already crossed or too many alerts"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @PostMapping("/{walletId}/alerts")
+    public ResponseEntity<PriceAlertResponse> createPriceAlert(
+            @PathVariable("walletId") Long walletId,
+            @Valid @RequestBody CreatePriceAlertRequest request) {
+        PriceAlertResponse response = priceAlertService.createAlert(walletId, request);
+        return ResponseEntity.created(URI.create("/api/wallets/" + walletId + "/alerts/" + response.id())).body(response);
+    }
+
+    @Operation(
+            summary = "List price alerts",
+            description = "Returns the active and triggered alerts of a wallet.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Wallet alerts"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @GetMapping("/{walletId}/alerts")
+    public ResponseEntity<List<PriceAlertResponse>> getPriceAlerts(
+            @PathVariable("walletId") Long walletId) {
+        return ResponseEntity.ok(priceAlertService.getAlerts(walletId));
+    }
+
+    @Operation(
+            summary = "Delete a price alert",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Alert deleted"),
+                    @ApiResponse(responseCode = "404", description = "Alert does not exist for the wallet")
+            }
+    )
+    @DeleteMapping("/{walletId}/alerts/{alertId}")
+    public ResponseEntity<Void> deletePriceAlert(
+            @PathVariable("walletId") Long walletId,
+            @PathVariable("alertId") Long alertId) {
+        priceAlertService.deleteAlert(walletId, alertId);
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(
@@ -75,6 +314,42 @@ public class WalletController {
         return ResponseEntity.ok(createUserWalletResponse);
     }
 
+    @Operation(
+            summary = "Withdraw an asset from a wallet",
+            description = "Removes quantity of a held asset at the current price and realizes the P&L of the lots it "
+                    + "disposes of according to the wallet's cost basis method.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Asset withdrawn",
+                            content = @Content(schema = @Schema(implementation = CreateUserWalletResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid symbol, asset not held or quantity above the holding"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @PostMapping("/{walletId}/assets/withdrawals")
+    public ResponseEntity<CreateUserWalletResponse> withdrawAssetFromWallet(
+            @PathVariable("walletId") Long walletId,
+            @Valid @RequestBody WithdrawAssetRequest request) {
+        return ResponseEntity.ok(walletService.withdrawAssetFromWallet(walletId, request));
+    }
+
+    @Operation(
+            summary = "Set the cost basis method",
+            description = "Chooses whether withdrawals dispose of the oldest lots (FIFO), the newest lots (LIFO) or "
+                    + "release cost at the position's average (AVERAGE). Fixed once the wallet made its first withdrawal.",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Method updated"),
+                    @ApiResponse(responseCode = "400", description = "Invalid method or wallet already has withdrawals"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @PutMapping("/{walletId}/cost-basis-method")
+    public ResponseEntity<Void> setCostBasisMethod(
+            @PathVariable("walletId") Long walletId,
+            @Valid @RequestBody CostBasisMethodRequest request) {
+        walletService.setCostBasisMethod(walletId, request.method());
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(
             summary = "Simulate wallet performance",
             description = "Runs a wallet simulation based on asset price evolution.",
@@ -91,4 +366,52 @@ public class WalletController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(
+            summary = "Backtest a portfolio",
+            description = "Replays the portfolio over CoinCap daily closes between from and to and returns the value curve, "
+                    + "return, maximum drawdown and best/worst asset. Histories are cached on disk after the first request.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Backtest completed",
+                            content = @Content(schema = @Schema(implementation = WalletBacktestResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid symbols, quantities or date range")
+            }
+    )
+    @PostMapping("/simulate/backtest")
+    public ResponseEntity<WalletBacktestResponse> backtestWallet(
+            @Valid @RequestBody WalletBacktestRequest request) {
+        return ResponseEntity.ok(walletBacktestService.backtest(request));
+    }
+
+    @Operation(
+            summary = "Project a portfolio forward",
+            description = "Monte Carlo simulation of correlated price paths estimated from recent daily closes. "
+                    + "Returns percentile bands of portfolio value at evenly spaced checkpoints; the same seed reproduces the same result.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Simulation completed",
+                            content = @Content(schema = @Schema(implementation = WalletMonteCarloResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid symbols, horizon or path count")
+            }
+    )
+    @PostMapping("/simulate/monte-carlo")
+    public ResponseEntity<WalletMonteCarloResponse> simulateWalletMonteCarlo(
+            @Valid @RequestBody WalletMonteCarloRequest request) {
+        return ResponseEntity.ok(walletMonteCarloService.simulate(request));
+    }
+
+    @Operation(
+            summary = "Sweep strategy parameters",
+            description = "Runs a DCA or rebalancing strategy for every combination of the parameter grid against cached "
+                    + "daily closes in one server-side job and returns the best combinations ranked by the chosen metric.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Sweep completed",
+                            content = @Content(schema = @Schema(implementation = StrategySweepResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid symbols, grid or date range")
+            }
+    )
+    @PostMapping("/simulate/sweep")
+    public ResponseEntity<StrategySweepResponse> sweepStrategy(
+            @Valid @RequestBody StrategySweepRequest request) {
+        return ResponseEntity.ok(strategySweepService.sweep(request));
+    }
 }
@@ -0,0 +1,9 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.Wallet;
+import jakarta.validation.constraints.NotNull;
+
+public record CostBasisMethodRequest(
+        @NotNull(message = "Method must be provided")
+        Wallet.CostBasisMethod method
+) {}
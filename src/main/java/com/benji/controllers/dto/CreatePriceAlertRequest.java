@@ -0,0 +1,20 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.PriceAlert;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record CreatePriceAlertRequest(
+        @NotBlank(message = "Symbol must not be blank")
+        String symbol,
+
+        @NotNull(message = "Direction must be provided")
+        PriceAlert.Direction direction,
+
+        @NotNull(message = "Threshold must be provided")
+        @Positive(message = "Threshold must be greater than zero")
+        BigDecimal threshold
+) {}
@@ -1,6 +1,7 @@
 package com.benji.controllers.dto;
 
 import com.benji.models.entities.Asset;
+import com.benji.models.projections.WalletAssetRow;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -14,16 +15,32 @@ public record CreateUserWalletResponse(
             String symbol,
             String quantity,
             BigDecimal price,
-            BigDecimal value
+            BigDecimal value,
+            BigDecimal costBasis,
+            BigDecimal unrealizedPnl,
+            BigDecimal realizedPnl
     ) {
         public static UserAssets fromAssetEntity(Asset assetEntity) {
-            BigDecimal quantity = assetEntity.getQuantity();
-            BigDecimal price = assetEntity.getPriceUsd();
+            return of(assetEntity.getSymbol(), assetEntity.getQuantity(), assetEntity.getPriceUsd(),
+                    assetEntity.getCostBasis(), assetEntity.getRealizedPnl());
+        }
+
+        public static UserAssets fromAssetRow(WalletAssetRow assetRow) {
+            return of(assetRow.symbol(), assetRow.quantity(), assetRow.priceUsd(),
+                    assetRow.costBasis(), assetRow.realizedPnl());
+        }
+
+        private static UserAssets of(String symbol, BigDecimal quantity, BigDecimal price,
+                                     BigDecimal costBasis, BigDecimal realizedPnl) {
+            BigDecimal value = quantity.multiply(price);
             return new UserAssets(
-                    assetEntity.getSymbol(),
+                    symbol,
                     quantity.toString(),
                     price,
-                    quantity.multiply(price)
+                    value,
+                    costBasis,
+                    value.subtract(costBasis),
+                    realizedPnl
             );
         }
     }
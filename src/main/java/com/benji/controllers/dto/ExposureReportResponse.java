@@ -0,0 +1,32 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.AssetExposure;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ExposureReportResponse(
+        BigDecimal totalAumUsd,
+        long assetCount,
+        long holdingCount,
+        List<AssetExposureEntry> topAssets
+) {
+    public record AssetExposureEntry(
+            String name,
+            String symbol,
+            BigDecimal totalQuantity,
+            long holderCount,
+            BigDecimal priceUsd,
+            BigDecimal exposureUsd
+    ) {
+        public static AssetExposureEntry fromEntity(AssetExposure exposure) {
+            return new AssetExposureEntry(
+                    exposure.getAssetName(),
+                    exposure.getSymbol(),
+                    exposure.getTotalQuantity(),
+                    exposure.getHolderCount(),
+                    exposure.getPriceUsd(),
+                    exposure.getExposureUsd());
+        }
+    }
+}
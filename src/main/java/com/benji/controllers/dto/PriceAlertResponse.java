@@ -0,0 +1,33 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.PriceAlert;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PriceAlertResponse(
+        Long id,
+        String symbol,
+        String assetId,
+        PriceAlert.Direction direction,
+        BigDecimal threshold,
+        BigDecimal referencePrice,
+        PriceAlert.Status status,
+        Instant createdAt,
+        Instant triggeredAt,
+        BigDecimal triggeredPrice
+) {
+    public static PriceAlertResponse fromEntity(PriceAlert alert) {
+        return new PriceAlertResponse(
+                alert.getId(),
+                alert.getSymbol(),
+                alert.getAssetName(),
+                alert.getDirection(),
+                alert.getThreshold(),
+                alert.getReferencePrice(),
+                alert.getStatus(),
+                alert.getCreatedAt(),
+                alert.getTriggeredAt(),
+                alert.getTriggeredPrice());
+    }
+}
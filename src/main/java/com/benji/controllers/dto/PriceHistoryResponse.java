@@ -0,0 +1,15 @@
+package com.benji.controllers.dto;
+
+import com.benji.services.models.PricePoint;
+
+import java.time.Instant;
+import java.util.List;
+
+public record PriceHistoryResponse(
+        String assetId,
+        Instant from,
+        Instant to,
+        List<PricePoint> points,
+        boolean truncated
+) {
+}
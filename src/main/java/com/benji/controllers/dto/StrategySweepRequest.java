@@ -0,0 +1,71 @@
+package com.benji.controllers.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record StrategySweepRequest(
+        @NotEmpty(message = "Assets list must not be empty")
+        List<@Valid TargetAsset> assets,
+
+        @NotNull(message = "Strategy must be provided")
+        Strategy strategy,
+
+        @NotNull(message = "From date must be provided")
+        LocalDate from,
+
+        @NotNull(message = "To date must be provided")
+        LocalDate to,
+
+        @NotNull(message = "Initial investment must be provided")
+        @PositiveOrZero(message = "Initial investment must not be negative")
+        BigDecimal initialInvestment,
+
+        @PositiveOrZero(message = "Fee must not be negative")
+        BigDecimal feePercentage,
+
+        @NotNull(message = "Parameter grid must be provided")
+        @Valid
+        ParameterGrid grid,
+
+        @Positive(message = "Top must be greater than zero")
+        Integer top,
+
+        Ranking rankBy
+) {
+    public enum Strategy {
+        DCA,
+        REBALANCE
+    }
+
+    public enum Ranking {
+        RETURN,
+        TIME_WEIGHTED_RETURN,
+        MAX_DRAWDOWN
+    }
+
+    public record TargetAsset(
+            @NotBlank(message = "Symbol must not be blank")
+            String symbol,
+
+            @NotNull(message = "Weight must be provided")
+            @Positive(message = "Weight must be greater than zero")
+            BigDecimal weight
+    ) {}
+
+    public record ParameterGrid(
+            List<@Positive(message = "Contribution amounts must be greater than zero") BigDecimal> contributionAmounts,
+
+            @NotEmpty(message = "Interval days must not be empty")
+            List<@NotNull @Positive(message = "Interval days must be greater than zero") Integer> intervalDays,
+
+            List<@Positive(message = "Rebalance thresholds must be greater than zero") BigDecimal> rebalanceThresholds
+    ) {}
+}
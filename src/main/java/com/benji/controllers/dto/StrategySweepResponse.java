@@ -0,0 +1,27 @@
+package com.benji.controllers.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record StrategySweepResponse(
+        String strategy,
+        LocalDate from,
+        LocalDate to,
+        int combinations,
+        String rankBy,
+        List<SweepResult> results
+) {
+    public record SweepResult(
+            int rank,
+            BigDecimal contributionAmount,
+            int intervalDays,
+            BigDecimal rebalanceThreshold,
+            BigDecimal totalInvested,
+            BigDecimal finalValue,
+            BigDecimal returnPercentage,
+            BigDecimal timeWeightedReturnPercentage,
+            BigDecimal maxDrawdownPercentage,
+            int trades
+    ) {}
+}
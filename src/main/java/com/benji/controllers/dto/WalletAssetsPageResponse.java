@@ -0,0 +1,12 @@
+package com.benji.controllers.dto;
+
+import java.util.List;
+
+public record WalletAssetsPageResponse(
+        String walletId,
+        String sort,
+        String direction,
+        List<CreateUserWalletResponse.UserAssets> assets,
+        String nextCursor
+) {
+}
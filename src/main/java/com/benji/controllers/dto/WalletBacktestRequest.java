@@ -0,0 +1,31 @@
+package com.benji.controllers.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record WalletBacktestRequest(
+        @NotEmpty(message = "Assets list must not be empty")
+        List<@Valid BacktestAsset> assets,
+
+        @NotNull(message = "From date must be provided")
+        LocalDate from,
+
+        @NotNull(message = "To date must be provided")
+        LocalDate to
+) {
+    public record BacktestAsset(
+            @NotBlank(message = "Symbol must not be blank")
+            String symbol,
+
+            @NotNull(message = "Quantity must be provided")
+            @Positive(message = "Quantity must be greater than zero")
+            BigDecimal quantity
+    ) {}
+}
@@ -0,0 +1,24 @@
+package com.benji.controllers.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record WalletBacktestResponse(
+        LocalDate from,
+        LocalDate to,
+        BigDecimal startValue,
+        BigDecimal endValue,
+        BigDecimal returnPercentage,
+        BigDecimal maxDrawdownPercentage,
+        String bestAsset,
+        BigDecimal bestPerformance,
+        String worstAsset,
+        BigDecimal worstPerformance,
+        List<ValuePoint> series
+) {
+    public record ValuePoint(
+            LocalDate date,
+            BigDecimal value
+    ) {}
+}
@@ -0,0 +1,19 @@
+package com.benji.controllers.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record WalletBalancesResponse(
+        String walletId,
+        Instant at,
+        Long snapshotEntryId,
+        List<Balance> balances
+) {
+    public record Balance(
+            String symbol,
+            String assetId,
+            BigDecimal quantity
+    ) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.benji.controllers.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+/** One line of a bulk import: a new user's wallet and its opening holdings. */
+public record WalletImportLine(
+        @NotBlank(message = "Email must not be blank")
+        @Email(message = "Must be a valid email address")
+        String email,
+        List<@Valid AddAssetRequest> holdings
+) {}
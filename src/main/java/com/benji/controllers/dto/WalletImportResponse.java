@@ -0,0 +1,16 @@
+package com.benji.controllers.dto;
+
+import java.util.List;
+
+public record WalletImportResponse(
+        long lines,
+        long walletsCreated,
+        long holdingsImported,
+        long errorCount,
+        List<LineError> errors
+) {
+    public record LineError(
+            long line,
+            String message
+    ) {}
+}
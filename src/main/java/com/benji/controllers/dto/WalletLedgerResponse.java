@@ -0,0 +1,34 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.WalletLedgerEntry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record WalletLedgerResponse(
+        String walletId,
+        List<Entry> entries,
+        Long nextAfter
+) {
+    public record Entry(
+            Long id,
+            WalletLedgerEntry.Type type,
+            String symbol,
+            String assetId,
+            BigDecimal quantity,
+            BigDecimal priceUsd,
+            Instant recordedAt
+    ) {
+        public static Entry fromEntity(WalletLedgerEntry entry) {
+            return new Entry(
+                    entry.getId(),
+                    entry.getType(),
+                    entry.getSymbol(),
+                    entry.getAssetName(),
+                    entry.getQuantity(),
+                    entry.getPriceUsd(),
+                    entry.getRecordedAt());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.benji.controllers.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record WalletMonteCarloRequest(
+        @NotEmpty(message = "Assets list must not be empty")
+        List<@Valid ProjectedAsset> assets,
+
+        @NotNull(message = "Horizon must be provided")
+        @Positive(message = "Horizon must be greater than zero")
+        @Max(value = 3650, message = "Horizon must not exceed 3650 days")
+        Integer horizonDays,
+
+        @Positive(message = "Paths must be greater than zero")
+        Integer paths,
+
+        @Positive(message = "Checkpoints must be greater than zero")
+        @Max(value = 100, message = "Checkpoints must not exceed 100")
+        Integer checkpoints,
+
+        @Positive(message = "Lookback must be greater than zero")
+        Integer lookbackDays,
+
+        Long seed
+) {
+    public record ProjectedAsset(
+            @NotBlank(message = "Symbol must not be blank")
+            String symbol,
+
+            @NotNull(message = "Quantity must be provided")
+            @Positive(message = "Quantity must be greater than zero")
+            BigDecimal quantity
+    ) {}
+}
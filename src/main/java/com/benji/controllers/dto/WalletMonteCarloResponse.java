@@ -0,0 +1,24 @@
+package com.benji.controllers.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record WalletMonteCarloResponse(
+        BigDecimal startValue,
+        int paths,
+        long seed,
+        int horizonDays,
+        int lookbackDays,
+        BigDecimal probabilityOfLoss,
+        List<PercentileBand> bands
+) {
+    public record PercentileBand(
+            int day,
+            BigDecimal p5,
+            BigDecimal p25,
+            BigDecimal p50,
+            BigDecimal p75,
+            BigDecimal p95,
+            BigDecimal mean
+    ) {}
+}
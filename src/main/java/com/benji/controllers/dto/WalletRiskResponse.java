@@ -0,0 +1,28 @@
+package com.benji.controllers.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record WalletRiskResponse(
+        Long walletId,
+        LocalDate from,
+        LocalDate to,
+        int observations,
+        BigDecimal confidence,
+        BigDecimal currentValue,
+        BigDecimal dailyVolatilityPercentage,
+        BigDecimal annualizedVolatilityPercentage,
+        BigDecimal valueAtRisk,
+        BigDecimal expectedShortfall,
+        BigDecimal maxDrawdownPercentage,
+        List<AssetRisk> assets,
+        double[][] correlation
+) {
+    public record AssetRisk(
+            String symbol,
+            String assetId,
+            BigDecimal weightPercentage,
+            BigDecimal annualizedVolatilityPercentage
+    ) {}
+}
@@ -0,0 +1,32 @@
+package com.benji.controllers.dto;
+
+import com.benji.models.entities.WalletValueBucket;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record WalletValueHistoryResponse(
+        String walletId,
+        WalletValueBucket.Resolution resolution,
+        Instant from,
+        Instant to,
+        List<Point> points
+) {
+    public record Point(
+            Instant start,
+            BigDecimal open,
+            BigDecimal high,
+            BigDecimal low,
+            BigDecimal close
+    ) {
+        public static Point fromEntity(WalletValueBucket bucket) {
+            return new Point(
+                    bucket.getKey().getBucketStart(),
+                    bucket.getOpenUsd(),
+                    bucket.getHighUsd(),
+                    bucket.getLowUsd(),
+                    bucket.getCloseUsd());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.benji.events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+public record AssetPricesUpdatedEvent(
+        Map<String, BigDecimal> pricesByAssetName,
+        Instant updatedAt) {
+}
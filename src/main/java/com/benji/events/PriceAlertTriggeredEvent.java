@@ -0,0 +1,14 @@
+package com.benji.events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PriceAlertTriggeredEvent(
+        Long alertId,
+        Long walletId,
+        String assetName,
+        String direction,
+        BigDecimal threshold,
+        BigDecimal priceUsd,
+        Instant triggeredAt) {
+}
@@ -0,0 +1,8 @@
+package com.benji.events;
+
+import java.util.Set;
+
+public record SharedVersionsChangedEvent(
+        Set<Long> walletIds,
+        Set<String> assetNames) {
+}
@@ -0,0 +1,6 @@
+package com.benji.events;
+
+public record WalletAssetsChangedEvent(
+        Long walletId,
+        String assetName) {
+}
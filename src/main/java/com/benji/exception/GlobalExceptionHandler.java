@@ -24,6 +24,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(PriceAlertDoesNotExistException.class)
+    public ResponseEntity<String> handlePriceAlertDoesNotExist(PriceAlertDoesNotExistException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
     @ExceptionHandler(AssetDoesNotExistException.class)
     public ResponseEntity<String> handleAssetDoesNotExist(AssetDoesNotExistException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
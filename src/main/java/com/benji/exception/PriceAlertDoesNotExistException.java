@@ -0,0 +1,7 @@
+package com.benji.exception;
+
+public class PriceAlertDoesNotExistException extends RuntimeException {
+    public PriceAlertDoesNotExistException(String message) {
+        super(message);
+    }
+}
@@ -6,7 +6,11 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "assets")
+@Table(name = "assets", indexes = {
+        @Index(name = "idx_assets_name_wallet", columnList = "name, wallet_id"),
+        @Index(name = "idx_assets_wallet_symbol", columnList = "wallet_id, symbol"),
+        @Index(name = "idx_assets_wallet_value", columnList = "wallet_id, value_usd, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +34,26 @@ public class Asset {
     @Column(nullable = false)
     private BigDecimal priceUsd;
 
+    // quantity * priceUsd, computed by the database on every write so value sorts can use an index.
+    // Only read by queries; the field is not refreshed after the entity is written.
+    @Column(precision = 38, scale = 4, insertable = false, updatable = false,
+            columnDefinition = "numeric(38,4) generated always as (quantity * price_usd)")
+    private BigDecimal valueUsd;
+
+    // Cost of the quantity still held; unrealized P&L is quantity * priceUsd - costBasis.
+    @Column(nullable = false, precision = 38, scale = 18)
+    @Builder.Default
+    private BigDecimal costBasis = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 38, scale = 18)
+    @Builder.Default
+    private BigDecimal realizedPnl = BigDecimal.ZERO;
+
+    // False only for rows that predate the ledger and still need an opening-balance entry.
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean ledgerTracked = true;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id")
     private Wallet wallet;
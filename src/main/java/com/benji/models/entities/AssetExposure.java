@@ -0,0 +1,41 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Platform-wide totals for one asset, kept in step with deposits, withdrawals and price refreshes
+ * so exposure reports read one row per asset instead of every holding.
+ */
+@Entity
+@Table(name = "asset_exposure", indexes = {
+        @Index(name = "idx_asset_exposure_usd", columnList = "exposure_usd")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetExposure {
+
+    @Id
+    private String assetName;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private BigDecimal totalQuantity;
+
+    // Wallets holding a positive quantity.
+    @Column(nullable = false)
+    private long holderCount;
+
+    @Column(nullable = false)
+    private BigDecimal priceUsd;
+
+    @Column(nullable = false)
+    private BigDecimal exposureUsd;
+}
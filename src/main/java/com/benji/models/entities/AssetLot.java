@@ -0,0 +1,43 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Quantity of an asset acquired at one unit cost that is still held. Withdrawals consume lots from
+ * the oldest or newest end by id and delete the ones they use up, so the table only holds open
+ * lots.
+ */
+@Entity
+@Table(name = "asset_lots", indexes = {
+        @Index(name = "idx_asset_lots_wallet_asset", columnList = "wallet_id, asset_name, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "asset_name", nullable = false)
+    private String assetName;
+
+    @Column(nullable = false)
+    private BigDecimal quantity;
+
+    @Column(nullable = false, precision = 38, scale = 18)
+    private BigDecimal unitCost;
+
+    @Column(nullable = false)
+    private Instant acquiredAt;
+}
@@ -1,12 +1,18 @@
 package com.benji.models.entities;
 
+import com.benji.config.HibernateCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.SYMBOL_MAPPINGS_REGION)
 @Table(name = "asset_symbol_mappings")
 @Getter
 @Setter
@@ -0,0 +1,65 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "price_alerts", indexes = {
+        @Index(name = "idx_price_alerts_wallet", columnList = "wallet_id"),
+        @Index(name = "idx_price_alerts_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private String assetName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Direction direction;
+
+    @Column(nullable = false)
+    private BigDecimal threshold;
+
+    @Column(nullable = false)
+    private BigDecimal referencePrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant triggeredAt;
+
+    private BigDecimal triggeredPrice;
+
+    public enum Direction {
+        ABOVE,
+        BELOW
+    }
+
+    public enum Status {
+        ACTIVE,
+        TRIGGERED
+    }
+}
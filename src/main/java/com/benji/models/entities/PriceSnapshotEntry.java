@@ -0,0 +1,35 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "price_snapshot_entries", indexes = {
+        @Index(name = "idx_price_snapshot_entries_version", columnList = "version")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceSnapshotEntry {
+
+    @Id
+    private String assetId;
+
+    @Column(nullable = false, precision = 38, scale = 18)
+    private BigDecimal priceUsd;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Version that last moved the price, unlike version which every publish re-stamps.
+    @Column(nullable = false)
+    private long changedVersion;
+}
@@ -0,0 +1,20 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "price_snapshot_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceSnapshotVersion {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long version;
+}
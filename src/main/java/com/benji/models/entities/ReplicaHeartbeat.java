@@ -0,0 +1,22 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "replica_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Instant beatAt;
+}
@@ -1,12 +1,17 @@
 package com.benji.models.entities;
 
+import com.benji.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.WALLETS_REGION)
 @Table(name = "wallets")
 @Getter
 @Setter
@@ -25,4 +30,15 @@ public class Wallet {
 
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Asset> assets = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private CostBasisMethod costBasisMethod = CostBasisMethod.FIFO;
+
+    public enum CostBasisMethod {
+        FIFO,
+        LIFO,
+        AVERAGE
+    }
 }
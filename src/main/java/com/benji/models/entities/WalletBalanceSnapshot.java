@@ -0,0 +1,47 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Balance of one asset in a wallet after applying every ledger entry up to
+ * {@code throughEntryId}. All rows of a wallet sharing the same {@code throughEntryId} form one
+ * snapshot; {@code asOf} is the latest {@code recordedAt} among the entries it covers.
+ */
+@Entity
+@Immutable
+@Table(name = "wallet_balance_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_balance_snapshots",
+                columnNames = {"wallet_id", "through_entry_id", "asset_name"}))
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "through_entry_id", nullable = false)
+    private Long throughEntryId;
+
+    @Column(name = "asset_name", nullable = false)
+    private String assetName;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private BigDecimal quantity;
+
+    @Column(nullable = false)
+    private Instant asOf;
+}
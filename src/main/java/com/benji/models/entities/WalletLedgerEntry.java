@@ -0,0 +1,58 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One movement of an asset in or out of a wallet. Entries are only ever inserted; the id orders
+ * them within the log and balances at any point are the sum of the entries up to it.
+ */
+@Entity
+@Immutable
+@Table(name = "wallet_ledger", indexes = {
+        @Index(name = "idx_wallet_ledger_wallet_asset", columnList = "wallet_id, asset_name, id"),
+        @Index(name = "idx_wallet_ledger_wallet_recorded", columnList = "wallet_id, recorded_at")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Column(name = "asset_name", nullable = false)
+    private String assetName;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    // Same column type as Asset.quantity, so the ledger sums to exactly what the asset row holds.
+    @Column(nullable = false)
+    private BigDecimal quantity;
+
+    @Column(nullable = false)
+    private BigDecimal priceUsd;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    public enum Type {
+        OPENING_BALANCE,
+        DEPOSIT,
+        WITHDRAWAL
+    }
+}
@@ -0,0 +1,86 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Open, high, low and close of a wallet's total value within one time bucket. Each resolution is
+ * kept as its own rollup, so a chart reads at most one row per bucket of the resolution it uses.
+ */
+@Entity
+@Table(name = "wallet_value_buckets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletValueBucket {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private BigDecimal openUsd;
+
+    @Column(nullable = false)
+    private BigDecimal highUsd;
+
+    @Column(nullable = false)
+    private BigDecimal lowUsd;
+
+    @Column(nullable = false)
+    private BigDecimal closeUsd;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "wallet_id", nullable = false)
+        private Long walletId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false)
+        private Resolution resolution;
+
+        @Column(name = "bucket_start", nullable = false)
+        private Instant bucketStart;
+    }
+
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Duration duration() {
+            return unit.getDuration();
+        }
+
+        public Instant bucketStart(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+
+        public static Resolution fromParameter(String parameter) {
+            try {
+                return valueOf(parameter.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported resolution: " + parameter + ". Use minute, hour or day.");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.benji.models.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "wallet_versions", indexes = {
+        @Index(name = "idx_wallet_versions_version", columnList = "version")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletVersion {
+
+    @Id
+    private Long walletId;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -0,0 +1,14 @@
+package com.benji.models.projections;
+
+import java.math.BigDecimal;
+
+public record AssetBalanceRow(
+        Long walletId,
+        String assetName,
+        String symbol,
+        BigDecimal quantity) {
+
+    public AssetBalanceRow plus(AssetBalanceRow later) {
+        return new AssetBalanceRow(walletId, assetName, later.symbol(), quantity.add(later.quantity()));
+    }
+}
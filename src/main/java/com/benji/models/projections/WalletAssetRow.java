@@ -0,0 +1,17 @@
+package com.benji.models.projections;
+
+import java.math.BigDecimal;
+
+public record WalletAssetRow(
+        Long id,
+        String symbol,
+        String name,
+        BigDecimal quantity,
+        BigDecimal priceUsd,
+        BigDecimal costBasis,
+        BigDecimal realizedPnl) {
+
+    public WalletAssetRow(Long id, String symbol, String name, BigDecimal quantity, BigDecimal priceUsd) {
+        this(id, symbol, name, quantity, priceUsd, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,27 @@
+package com.benji.models.projections;
+
+import java.util.Locale;
+
+public enum WalletAssetSort {
+    VALUE("a.valueUsd"),
+    SYMBOL("a.symbol"),
+    QUANTITY("a.quantity");
+
+    private final String expression;
+
+    WalletAssetSort(String expression) {
+        this.expression = expression;
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    public static WalletAssetSort fromParameter(String parameter) {
+        try {
+            return valueOf(parameter.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort field: " + parameter + ". Use value, symbol or quantity.");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.benji.models.projections;
+
+import java.math.BigDecimal;
+
+public record WalletValueRow(
+        Long walletId,
+        BigDecimal valueUsd) {
+}
@@ -0,0 +1,27 @@
+package com.benji.monitoring;
+
+import com.benji.services.AssetSymbolIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("assetMappingsHealthIndicator")
+@RequiredArgsConstructor
+public class AssetMappingsHealthIndicator implements HealthIndicator {
+
+    private final AssetSymbolIndex assetSymbolIndex;
+
+    @Override
+    public Health health() {
+        int mappings = assetSymbolIndex.size();
+        if (mappings == 0) {
+            return Health.outOfService()
+                    .withDetail("reason", "No asset symbol mappings loaded yet")
+                    .build();
+        }
+        return Health.up()
+                .withDetail("mappings", mappings)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.benji.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.benji.AssetRefreshCycle")
+@Label("Asset Refresh Cycle")
+@Category({"BENJI", "CoinCap"})
+@Description("One scheduled updateAssetPrices run, from start until the last price is written")
+@StackTrace(false)
+@Threshold("0 ms")
+public class AssetRefreshCycleEvent extends Event {
+
+    @Label("Distinct Assets")
+    public int assetCount;
+
+    @Label("Updated Assets")
+    public int updatedCount;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,30 @@
+package com.benji.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.benji.CoinCapRequest")
+@Label("CoinCap Request")
+@Category({"BENJI", "CoinCap"})
+@Description("A single upstream call to the CoinCap API")
+@StackTrace(false)
+@Threshold("10 ms")
+public class CoinCapRequestEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Token Id")
+    public String tokenId;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
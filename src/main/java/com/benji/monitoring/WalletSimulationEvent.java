@@ -0,0 +1,27 @@
+package com.benji.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.benji.WalletSimulation")
+@Label("Wallet Simulation")
+@Category({"BENJI", "Wallet"})
+@Description("A wallet simulation request evaluated by WalletSimulationService")
+@StackTrace(false)
+@Threshold("5 ms")
+public class WalletSimulationEvent extends Event {
+
+    @Label("Simulation Type")
+    public String simulationType;
+
+    @Label("Asset Count")
+    public int assetCount;
+
+    @Label("Success")
+    public boolean success;
+}
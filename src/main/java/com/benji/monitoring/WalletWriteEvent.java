@@ -0,0 +1,30 @@
+package com.benji.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.benji.WalletWrite")
+@Label("Wallet Write")
+@Category({"BENJI", "Wallet"})
+@Description("A write operation performed by WalletService")
+@StackTrace(false)
+@Threshold("5 ms")
+public class WalletWriteEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Wallet Id")
+    public long walletId;
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,22 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.AssetExposure;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AssetExposureRepository extends JpaRepository<AssetExposure, String> {
+
+    List<AssetExposure> findAllByOrderByExposureUsdDesc(Limit limit);
+
+    @Query("SELECT COALESCE(SUM(e.exposureUsd), 0) FROM AssetExposure e")
+    BigDecimal sumExposureUsd();
+
+    @Query("SELECT COALESCE(SUM(e.holderCount), 0) FROM AssetExposure e")
+    long sumHolderCount();
+}
@@ -0,0 +1,16 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.AssetLot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AssetLotRepository extends JpaRepository<AssetLot, Long> {
+
+    List<AssetLot> findByWalletIdAndAssetNameOrderByIdAsc(Long walletId, String assetName, Limit limit);
+
+    List<AssetLot> findByWalletIdAndAssetNameOrderByIdDesc(Long walletId, String assetName, Limit limit);
+}
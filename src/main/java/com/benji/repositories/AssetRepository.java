@@ -1,25 +1,61 @@
 package com.benji.repositories;
 
 import com.benji.models.entities.Asset;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.models.projections.WalletValueRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AssetRepository extends JpaRepository<Asset, Long> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, AssetRepositoryCustom {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Asset a WHERE a.wallet.id = :walletId AND a.symbol = :symbol ORDER BY a.id")
+    List<Asset> findForUpdate(@Param("walletId") Long walletId, @Param("symbol") String symbol);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Asset a WHERE a.wallet.id = :walletId ORDER BY a.id")
+    List<Asset> findAllForUpdate(@Param("walletId") Long walletId);
 
     @Query("SELECT DISTINCT a.name FROM Asset a")
     List<String> findDistinctAssetNames();
 
     @Modifying
     @Transactional
-    @Query("UPDATE Asset a SET a.priceUsd = :price WHERE a.name = :name")
+    @Query("UPDATE Asset a SET a.priceUsd = :price WHERE a.name = :name AND a.priceUsd <> :price")
     int updatePriceUsdByName(@Param("name") String name, @Param("price") BigDecimal price);
 
+    @Query("SELECT DISTINCT a.wallet.id FROM Asset a WHERE a.name IN :names")
+    List<Long> findDistinctWalletIdsByAssetNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT DISTINCT a.name FROM Asset a WHERE a.wallet.id = :walletId")
+    List<String> findDistinctAssetNamesByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT new com.benji.models.projections.WalletAssetRow(a.id, a.symbol, a.name, a.quantity, a.priceUsd, a.costBasis, a.realizedPnl) "
+            + "FROM Asset a WHERE a.wallet.id = :walletId ORDER BY a.id")
+    List<WalletAssetRow> findWalletAssetRows(@Param("walletId") Long walletId);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.benji.models.projections.WalletAssetRow(a.id, a.symbol, a.name, a.quantity, a.priceUsd, a.costBasis, a.realizedPnl) "
+            + "FROM Asset a WHERE a.wallet.id = :walletId ORDER BY a.id")
+    Stream<WalletAssetRow> streamWalletAssets(@Param("walletId") Long walletId);
+
+    @Query("SELECT new com.benji.models.projections.WalletValueRow(a.wallet.id, SUM(a.quantity * a.priceUsd)) "
+            + "FROM Asset a WHERE a.wallet.id IN :walletIds GROUP BY a.wallet.id")
+    List<WalletValueRow> sumValuesByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+
 }
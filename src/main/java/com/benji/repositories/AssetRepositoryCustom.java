@@ -0,0 +1,12 @@
+package com.benji.repositories;
+
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.models.projections.WalletAssetSort;
+
+import java.util.List;
+
+public interface AssetRepositoryCustom {
+
+    List<WalletAssetRow> findWalletAssetsAfter(Long walletId, WalletAssetSort sort, boolean ascending,
+                                               Object afterValue, Long afterId, int limit);
+}
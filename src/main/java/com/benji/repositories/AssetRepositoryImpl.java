@@ -0,0 +1,42 @@
+package com.benji.repositories;
+
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.models.projections.WalletAssetSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+public class AssetRepositoryImpl implements AssetRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<WalletAssetRow> findWalletAssetsAfter(Long walletId, WalletAssetSort sort, boolean ascending,
+                                                      Object afterValue, Long afterId, int limit) {
+        String expression = sort.expression();
+        String comparison = ascending ? ">" : "<";
+        String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.benji.models.projections.WalletAssetRow(a.id, a.symbol, a.name, a.quantity, a.priceUsd, a.costBasis, a.realizedPnl)
+                FROM Asset a
+                WHERE a.wallet.id = :walletId""");
+        if (afterId != null) {
+            jpql.append(" AND (").append(expression).append(' ').append(comparison).append(" :afterValue")
+                    .append(" OR (").append(expression).append(" = :afterValue AND a.id > :afterId))");
+        }
+        jpql.append(" ORDER BY ").append(expression).append(' ').append(direction).append(", a.id ASC");
+
+        TypedQuery<WalletAssetRow> query = entityManager.createQuery(jpql.toString(), WalletAssetRow.class)
+                .setParameter("walletId", walletId)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
@@ -1,7 +1,11 @@
 package com.benji.repositories;
 
+import com.benji.config.HibernateCacheConfig;
 import com.benji.models.entities.AssetSymbolMapping;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,5 +13,15 @@ import java.util.Optional;
 @Repository
 public interface AssetSymbolMappingRepository extends JpaRepository<AssetSymbolMapping, String> {
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = HibernateCacheConfig.SYMBOL_MAPPING_QUERIES_REGION)
+    })
     Optional<AssetSymbolMapping> findBySymbol(String symbol);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = HibernateCacheConfig.SYMBOL_MAPPING_QUERIES_REGION)
+    })
+    Optional<AssetSymbolMapping> findBySymbolIgnoreCase(String symbol);
 }
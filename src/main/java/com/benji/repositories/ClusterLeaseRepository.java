@@ -0,0 +1,37 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.ClusterLease;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClusterLeaseRepository extends JpaRepository<ClusterLease, String> {
+
+    /**
+     * Takes or extends the lease when this node already owns it or the previous owner let it
+     * expire. The single conditional UPDATE is what makes acquisition safe across nodes, and
+     * expiry is set and compared on the database clock so skewed node clocks cannot overlap leases.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClusterLease l SET l.owner = :owner, "
+            + "l.expiresAt = timestampadd(second, :leaseSeconds, current_instant) "
+            + "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < current_instant)")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    /** Plain INSERT, so two nodes creating the lease at once collide on the primary key. */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO ClusterLease (name, owner, expiresAt) "
+            + "VALUES (:name, :owner, timestampadd(second, :leaseSeconds, current_instant))")
+    int create(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterLease l WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,36 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.ClusterNode;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    // Leases are set and compared on the database clock, so skew between nodes cannot split the ring.
+    @Query("SELECT n.nodeId FROM ClusterNode n WHERE n.leaseExpiresAt > current_instant ORDER BY n.nodeId")
+    List<String> findLiveNodeIds();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClusterNode n SET n.leaseExpiresAt = timestampadd(second, :leaseSeconds, current_instant) "
+            + "WHERE n.nodeId = :nodeId")
+    int renewLease(@Param("nodeId") String nodeId, @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO ClusterNode (nodeId, startedAt, leaseExpiresAt) "
+            + "VALUES (:nodeId, current_instant, timestampadd(second, :leaseSeconds, current_instant))")
+    int join(@Param("nodeId") String nodeId, @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterNode n WHERE n.leaseExpiresAt < timestampadd(second, -:graceSeconds, current_instant)")
+    int deleteExpired(@Param("graceSeconds") long graceSeconds);
+}
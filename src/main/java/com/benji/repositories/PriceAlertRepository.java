@@ -0,0 +1,41 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.PriceAlert;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+
+    List<PriceAlert> findByWalletIdOrderById(Long walletId);
+
+    Optional<PriceAlert> findByIdAndWalletId(Long id, Long walletId);
+
+    long countByWalletIdAndStatus(Long walletId, PriceAlert.Status status);
+
+    @Query("SELECT p FROM PriceAlert p JOIN FETCH p.wallet WHERE p.status = :status")
+    List<PriceAlert> findAllByStatusWithWallet(@Param("status") PriceAlert.Status status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PriceAlert p SET p.status = :newStatus, p.triggeredAt = :triggeredAt, p.triggeredPrice = :price "
+            + "WHERE p.id = :id AND p.status = :currentStatus")
+    int updateStatus(@Param("id") Long id,
+                     @Param("currentStatus") PriceAlert.Status currentStatus,
+                     @Param("newStatus") PriceAlert.Status newStatus,
+                     @Param("triggeredAt") Instant triggeredAt,
+                     @Param("price") BigDecimal price);
+
+    default int markTriggered(Long id, Instant triggeredAt, BigDecimal price) {
+        return updateStatus(id, PriceAlert.Status.ACTIVE, PriceAlert.Status.TRIGGERED, triggeredAt, price);
+    }
+}
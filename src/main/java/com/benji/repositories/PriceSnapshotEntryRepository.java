@@ -0,0 +1,13 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.PriceSnapshotEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceSnapshotEntryRepository extends JpaRepository<PriceSnapshotEntry, String> {
+
+    List<PriceSnapshotEntry> findByVersionGreaterThan(long version);
+}
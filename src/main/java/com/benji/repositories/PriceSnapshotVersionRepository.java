@@ -0,0 +1,22 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.PriceSnapshotVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PriceSnapshotVersionRepository extends JpaRepository<PriceSnapshotVersion, Integer> {
+
+    /** Row-locks the version counter, which serializes concurrent publishers until they commit. */
+    @Modifying
+    @Query("UPDATE PriceSnapshotVersion v SET v.version = v.version + 1 WHERE v.id = :id")
+    int increment(@Param("id") Integer id);
+
+    @Query("SELECT v.version FROM PriceSnapshotVersion v WHERE v.id = :id")
+    Optional<Long> findVersion(@Param("id") Integer id);
+}
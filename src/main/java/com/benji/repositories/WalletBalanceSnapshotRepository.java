@@ -0,0 +1,23 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.WalletBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, Long> {
+
+    List<WalletBalanceSnapshot> findByWalletIdAndThroughEntryId(Long walletId, Long throughEntryId);
+
+    @Query("SELECT MAX(s.throughEntryId) FROM WalletBalanceSnapshot s WHERE s.walletId = :walletId")
+    Optional<Long> findLatestThroughEntryId(@Param("walletId") Long walletId);
+
+    @Query("SELECT MAX(s.throughEntryId) FROM WalletBalanceSnapshot s WHERE s.walletId = :walletId AND s.asOf <= :at")
+    Optional<Long> findLatestThroughEntryId(@Param("walletId") Long walletId, @Param("at") Instant at);
+}
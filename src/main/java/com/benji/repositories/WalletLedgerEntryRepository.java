@@ -0,0 +1,53 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.WalletLedgerEntry;
+import com.benji.models.projections.AssetBalanceRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletLedgerEntryRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+    List<WalletLedgerEntry> findByWalletIdAndIdGreaterThanOrderById(Long walletId, Long afterId, Limit limit);
+
+    boolean existsByWalletIdAndType(Long walletId, WalletLedgerEntry.Type type);
+
+    @Query("SELECT new com.benji.models.projections.AssetBalanceRow(e.walletId, e.assetName, MAX(e.symbol), SUM(e.quantity)) "
+            + "FROM WalletLedgerEntry e WHERE e.walletId = :walletId AND e.id > :afterId AND e.recordedAt <= :at "
+            + "GROUP BY e.walletId, e.assetName")
+    List<AssetBalanceRow> sumRecordedUntil(@Param("walletId") Long walletId,
+                                           @Param("afterId") long afterId,
+                                           @Param("at") Instant at);
+
+    @Query("SELECT new com.benji.models.projections.AssetBalanceRow(e.walletId, e.assetName, MAX(e.symbol), SUM(e.quantity)) "
+            + "FROM WalletLedgerEntry e WHERE e.walletId = :walletId AND e.id > :afterId AND e.id <= :throughId "
+            + "GROUP BY e.walletId, e.assetName")
+    List<AssetBalanceRow> sumRange(@Param("walletId") Long walletId,
+                                   @Param("afterId") long afterId,
+                                   @Param("throughId") long throughId);
+
+    @Query("SELECT new com.benji.models.projections.AssetBalanceRow(e.walletId, e.assetName, MAX(e.symbol), SUM(e.quantity)) "
+            + "FROM WalletLedgerEntry e WHERE e.walletId = :walletId AND e.id > :afterId GROUP BY e.walletId, e.assetName")
+    List<AssetBalanceRow> sumAfter(@Param("walletId") Long walletId, @Param("afterId") long afterId);
+
+    @Query("SELECT MAX(e.id) FROM WalletLedgerEntry e WHERE e.walletId = :walletId AND e.recordedAt < :before")
+    Optional<Long> findLastIdRecordedBefore(@Param("walletId") Long walletId, @Param("before") Instant before);
+
+    @Query("SELECT MAX(e.recordedAt) FROM WalletLedgerEntry e "
+            + "WHERE e.walletId = :walletId AND e.id > :afterId AND e.id <= :throughId")
+    Optional<Instant> findLastRecordedAt(@Param("walletId") Long walletId,
+                                         @Param("afterId") long afterId,
+                                         @Param("throughId") long throughId);
+
+    @Query("SELECT e.walletId FROM WalletLedgerEntry e WHERE e.recordedAt < :before AND e.id > COALESCE("
+            + "(SELECT MAX(s.throughEntryId) FROM WalletBalanceSnapshot s WHERE s.walletId = e.walletId), 0) "
+            + "GROUP BY e.walletId HAVING COUNT(e) >= :minEntries")
+    List<Long> findWalletIdsDueForSnapshot(@Param("before") Instant before, @Param("minEntries") long minEntries);
+}
@@ -1,9 +1,33 @@
 package com.benji.repositories;
 
 import com.benji.models.entities.Wallet;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.id > :afterId ORDER BY w.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads the method from the database rather than the cached wallet, and locks the row so a
+     * switch cannot commit between a withdrawal reading the method and disposing of lots.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w.costBasisMethod FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet.CostBasisMethod> lockCostBasisMethod(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.costBasisMethod = :method WHERE w.id = :id")
+    int updateCostBasisMethod(@Param("id") Long id, @Param("method") Wallet.CostBasisMethod method);
 }
@@ -0,0 +1,30 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.WalletValueBucket;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface WalletValueBucketRepository extends JpaRepository<WalletValueBucket, WalletValueBucket.Key> {
+
+    @Query("SELECT b FROM WalletValueBucket b WHERE b.key.walletId = :walletId AND b.key.resolution = :resolution "
+            + "AND b.key.bucketStart >= :from AND b.key.bucketStart <= :to ORDER BY b.key.bucketStart")
+    List<WalletValueBucket> findRange(@Param("walletId") Long walletId,
+                                      @Param("resolution") WalletValueBucket.Resolution resolution,
+                                      @Param("from") Instant from,
+                                      @Param("to") Instant to,
+                                      Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WalletValueBucket b WHERE b.key.resolution = :resolution AND b.key.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") WalletValueBucket.Resolution resolution, @Param("before") Instant before);
+}
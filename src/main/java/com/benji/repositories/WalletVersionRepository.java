@@ -0,0 +1,25 @@
+package com.benji.repositories;
+
+import com.benji.models.entities.WalletVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WalletVersionRepository extends JpaRepository<WalletVersion, Long> {
+
+    List<WalletVersion> findByVersionGreaterThan(long version);
+
+    /**
+     * The snapshot version of the wallet's last holdings change or of the last price move of an
+     * asset it holds, whichever is later. Every node derives the same value from the shared tables.
+     */
+    @Query(value = "SELECT GREATEST("
+            + "COALESCE((SELECT v.version FROM wallet_versions v WHERE v.wallet_id = :walletId), 0), "
+            + "COALESCE((SELECT MAX(e.changed_version) FROM price_snapshot_entries e "
+            + "JOIN assets a ON a.name = e.asset_id WHERE a.wallet_id = :walletId), 0))", nativeQuery = true)
+    long findSharedVersion(@Param("walletId") Long walletId);
+}
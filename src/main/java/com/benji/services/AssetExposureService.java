@@ -0,0 +1,227 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.ExposureReportResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.repositories.AssetExposureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains one {@link com.benji.models.entities.AssetExposure} row per asset from deltas queued after
+ * commit and applied in batches, rebuilt from the asset table by {@link #reconcile()}.
+ */
+@Slf4j
+@Service
+public class AssetExposureService {
+
+    private static final String APPLY_DELTA_SQL = """
+            MERGE INTO asset_exposure e
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS NUMERIC(38,2)), CAST(? AS BIGINT),
+                           CAST(? AS NUMERIC(38,2)))) s(asset_name, symbol, quantity_delta, holder_delta, price_usd)
+            ON e.asset_name = s.asset_name
+            WHEN MATCHED THEN UPDATE SET
+                total_quantity = e.total_quantity + s.quantity_delta,
+                holder_count = e.holder_count + s.holder_delta,
+                exposure_usd = (e.total_quantity + s.quantity_delta) * e.price_usd
+            WHEN NOT MATCHED THEN INSERT (asset_name, symbol, total_quantity, holder_count, price_usd, exposure_usd)
+                VALUES (s.asset_name, s.symbol, s.quantity_delta, s.holder_delta, s.price_usd, s.quantity_delta * s.price_usd)
+            """;
+
+    private static final String REPRICE_SQL =
+            "UPDATE asset_exposure SET price_usd = ?, exposure_usd = total_quantity * ? WHERE asset_name = ?";
+
+    private static final String REBUILD_SQL = """
+            MERGE INTO asset_exposure e
+            USING (SELECT name AS asset_name, MAX(symbol) AS symbol, SUM(quantity) AS total_quantity,
+                          COUNT(CASE WHEN quantity > 0 THEN 1 END) AS holder_count, MAX(price_usd) AS price_usd
+                   FROM assets GROUP BY name) s
+            ON e.asset_name = s.asset_name
+            WHEN MATCHED THEN UPDATE SET
+                total_quantity = s.total_quantity,
+                holder_count = s.holder_count,
+                price_usd = s.price_usd,
+                exposure_usd = s.total_quantity * s.price_usd
+            WHEN NOT MATCHED THEN INSERT (asset_name, symbol, total_quantity, holder_count, price_usd, exposure_usd)
+                VALUES (s.asset_name, s.symbol, s.total_quantity, s.holder_count, s.price_usd, s.total_quantity * s.price_usd)
+            """;
+
+    private static final String DELETE_STALE_SQL =
+            "DELETE FROM asset_exposure WHERE asset_name NOT IN (SELECT DISTINCT name FROM assets)";
+
+    private final AssetExposureRepository assetExposureRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterCoordinator clusterCoordinator;
+    private final int maxTopAssets;
+    private final Map<String, PendingDelta> pendingByAssetName = new ConcurrentHashMap<>();
+    private final Lock flushLock = new ReentrantLock();
+    // Shared by committing holdings changes, exclusive while a rebuild reads the asset table.
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public AssetExposureService(AssetExposureRepository assetExposureRepository, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, ClusterCoordinator clusterCoordinator,
+                                @Value("${benji.exposure.max-top-assets:100}") int maxTopAssets) {
+        this.assetExposureRepository = assetExposureRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterCoordinator = clusterCoordinator;
+        this.maxTopAssets = maxTopAssets;
+    }
+
+    /**
+     * Applies a wallet's holding of {@code assetName} going from {@code quantityBefore} to
+     * {@code quantityAfter}. {@code priceUsd} only prices an asset the report has not seen yet;
+     * known assets keep the price of the last refresh, like the asset rows themselves.
+     */
+    public void recordHoldingChange(String assetName, String symbol, BigDecimal quantityBefore, BigDecimal quantityAfter,
+                                    BigDecimal priceUsd) {
+        int holderDelta = Integer.compare(quantityAfter.signum() > 0 ? 1 : 0, quantityBefore.signum() > 0 ? 1 : 0);
+        queueAfterCommit(assetName, new PendingDelta(symbol, quantityAfter.subtract(quantityBefore), holderDelta, priceUsd));
+    }
+
+    /** Applies {@code holders} new holdings of {@code assetName} adding up to {@code quantity}. */
+    public void recordNewHoldings(String assetName, String symbol, BigDecimal quantity, long holders, BigDecimal priceUsd) {
+        queueAfterCommit(assetName, new PendingDelta(symbol, quantity, holders, priceUsd));
+    }
+
+    /** Applies the deltas queued since the last flush, one row per asset. */
+    @Scheduled(fixedDelayString = "${benji.exposure.flush-rate:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            applyPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void applyPending() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Map.Entry<String, PendingDelta>> drained = new ArrayList<>();
+        // Sorted so concurrent flushes on several nodes lock the rows in the same order.
+        for (String assetName : new TreeSet<>(pendingByAssetName.keySet())) {
+            PendingDelta delta = pendingByAssetName.remove(assetName);
+            if (delta != null) {
+                drained.add(Map.entry(assetName, delta));
+                rows.add(new Object[]{assetName, delta.symbol(), delta.quantity(), delta.holders(), delta.priceUsd()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, rows);
+        } catch (RuntimeException e) {
+            log.error("Error applying exposure deltas of {} assets, retrying on the next flush: {}", rows.size(), e.getMessage());
+            drained.forEach(entry -> pendingByAssetName.merge(entry.getKey(), entry.getValue(), PendingDelta::plus));
+        }
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        if (!clusterCoordinator.owns("exposure")) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(event.pricesByAssetName().size());
+        event.pricesByAssetName().forEach((assetName, priceUsd) -> rows.add(new Object[]{priceUsd, priceUsd, assetName}));
+        try {
+            jdbcTemplate.batchUpdate(REPRICE_SQL, rows);
+        } catch (RuntimeException e) {
+            log.error("Error repricing asset exposure: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.exposure.reconcile-rate:3600000}",
+            initialDelayString = "${benji.exposure.reconcile-rate:3600000}")
+    public void reconcile() {
+        if (!clusterCoordinator.owns("exposure")) {
+            return;
+        }
+        flushLock.lock();
+        rebuildLock.writeLock().lock();
+        try {
+            // No holdings change can commit until the rebuild does, and every queued delta is already in the asset table.
+            pendingByAssetName.clear();
+            int[] counts = transactionTemplate.execute(status ->
+                    new int[]{jdbcTemplate.update(REBUILD_SQL), jdbcTemplate.update(DELETE_STALE_SQL)});
+            log.info("Reconciled exposure of {} assets, removed {} no longer held.", counts[0], counts[1]);
+        } finally {
+            rebuildLock.writeLock().unlock();
+            flushLock.unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ExposureReportResponse getReport(int limit) {
+        if (limit < 1 || limit > maxTopAssets) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxTopAssets + ".");
+        }
+        List<ExposureReportResponse.AssetExposureEntry> topAssets = assetExposureRepository
+                .findAllByOrderByExposureUsdDesc(Limit.of(limit))
+                .stream()
+                .map(ExposureReportResponse.AssetExposureEntry::fromEntity)
+                .toList();
+        return new ExposureReportResponse(assetExposureRepository.sumExposureUsd(), assetExposureRepository.count(),
+                assetExposureRepository.sumHolderCount(), topAssets);
+    }
+
+    private void queueAfterCommit(String assetName, PendingDelta delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    rebuildLock.readLock().lock();
+                    locked = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    pendingByAssetName.merge(assetName, delta, PendingDelta::plus);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (locked) {
+                        rebuildLock.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            rebuildLock.readLock().lock();
+            try {
+                pendingByAssetName.merge(assetName, delta, PendingDelta::plus);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    }
+
+    private record PendingDelta(String symbol, BigDecimal quantity, long holders, BigDecimal priceUsd) {
+
+        PendingDelta plus(PendingDelta later) {
+            return new PendingDelta(symbol, quantity.add(later.quantity), holders + later.holders, priceUsd);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.benji.exception.NoCoinCapApiResponseException;
+import com.benji.services.models.DailyPriceSeries;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Local copy of CoinCap daily closes per asset. Each asset file records the day range already
+ * requested from CoinCap, so only days outside that range are ever fetched again.
+ * Layout: magic, version, covered first and last epoch day, count, then per close an int epoch
+ * day and a long price scaled by 10^10.
+ */
+@Slf4j
+@Component
+public class AssetHistoryCache {
+
+    private static final int MAGIC = 0x42484331;
+    private static final int VERSION = 1;
+    private static final int PRICE_SCALE = 10;
+    private static final double PRICE_UNIT = Math.pow(10, PRICE_SCALE);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final Pattern ASSET_ID_PATTERN = Pattern.compile("[a-z0-9][a-z0-9._-]*");
+
+    private final CoinCapAssetUpdateService coinCapAssetUpdateService;
+    private final Path directory;
+    private final boolean enabled;
+    private final Clock clock;
+    private final Map<String, CachedHistory> historiesByAssetId = new ConcurrentHashMap<>();
+    private final Map<String, Object> locksByAssetId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AssetHistoryCache(
+            CoinCapAssetUpdateService coinCapAssetUpdateService,
+            @Value("${benji.history-cache.path:data/history-cache}") String directory,
+            @Value("${benji.history-cache.enabled:true}") boolean enabled) {
+        this(coinCapAssetUpdateService, Path.of(directory), enabled, Clock.systemUTC());
+    }
+
+    AssetHistoryCache(CoinCapAssetUpdateService coinCapAssetUpdateService, Path directory, boolean enabled, Clock clock) {
+        this.coinCapAssetUpdateService = coinCapAssetUpdateService;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns daily closes between {@code from} and {@code to}, clamped to the last completed UTC
+     * day. The series starts at {@code from} when an earlier close is known, otherwise at the first
+     * day CoinCap has data for.
+     */
+    public DailyPriceSeries dailyCloses(String assetId, LocalDate from, LocalDate to) {
+        if (!ASSET_ID_PATTERN.matcher(assetId).matches()) {
+            throw new IllegalArgumentException("Invalid asset id: " + assetId);
+        }
+        LocalDate lastCompleteDay = LocalDate.now(clock.withZone(ZoneOffset.UTC)).minusDays(1);
+        LocalDate end = to.isAfter(lastCompleteDay) ? lastCompleteDay : to;
+        if (from.isAfter(end)) {
+            return new DailyPriceSeries(assetId, from, new double[0]);
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) end.toEpochDay();
+        CachedHistory history;
+        synchronized (locksByAssetId.computeIfAbsent(assetId, id -> new Object())) {
+            history = historiesByAssetId.get(assetId);
+            if (history == null) {
+                history = load(assetId);
+            }
+            CachedHistory extended = extend(assetId, history, fromDay, toDay);
+            if (extended != history) {
+                write(assetId, extended);
+                history = extended;
+            }
+            historiesByAssetId.put(assetId, history);
+        }
+        return history.slice(assetId, fromDay, toDay);
+    }
+
+    private CachedHistory extend(String assetId, CachedHistory history, int fromDay, int toDay) {
+        if (history == null) {
+            return merge(null, fromDay, toDay, fetch(assetId, fromDay, toDay));
+        }
+        CachedHistory extended = history;
+        if (fromDay < extended.coveredFrom()) {
+            extended = merge(extended, fromDay, extended.coveredTo(), fetch(assetId, fromDay, extended.coveredFrom() - 1));
+        }
+        if (toDay > extended.coveredTo()) {
+            extended = merge(extended, extended.coveredFrom(), toDay, fetch(assetId, extended.coveredTo() + 1, toDay));
+        }
+        return extended;
+    }
+
+    private List<CoinCapHistoryPoint> fetch(String assetId, int fromDay, int toDay) {
+        Instant start = Instant.ofEpochMilli(fromDay * MILLIS_PER_DAY);
+        Instant end = Instant.ofEpochMilli((toDay + 1L) * MILLIS_PER_DAY - 1);
+        return coinCapAssetUpdateService.fetchDailyHistory(assetId, start, end)
+                .blockOptional()
+                .orElseThrow(() -> new NoCoinCapApiResponseException("CoinCap history not retrieved for : " + assetId));
+    }
+
+    private static CachedHistory merge(CachedHistory history, int coveredFrom, int coveredTo, List<CoinCapHistoryPoint> points) {
+        TreeMap<Integer, Long> closesByDay = new TreeMap<>();
+        if (history != null) {
+            for (int i = 0; i < history.days().length; i++) {
+                closesByDay.put(history.days()[i], history.prices()[i]);
+            }
+        }
+        for (CoinCapHistoryPoint point : points) {
+            int day = (int) Math.floorDiv(point.time(), MILLIS_PER_DAY);
+            try {
+                closesByDay.put(day, point.priceUsd().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+            } catch (ArithmeticException e) {
+                log.warn("Skipping history price {} that does not fit the scaled encoding.", point.priceUsd());
+            }
+        }
+
+        int[] days = new int[closesByDay.size()];
+        long[] prices = new long[closesByDay.size()];
+        int index = 0;
+        for (Map.Entry<Integer, Long> entry : closesByDay.entrySet()) {
+            days[index] = entry.getKey();
+            prices[index] = entry.getValue();
+            index++;
+        }
+        return new CachedHistory(coveredFrom, coveredTo, days, prices);
+    }
+
+    private CachedHistory load(String assetId) {
+        Path file = directory.resolve(assetId + ".d1");
+        if (!enabled || !Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring price history cache {} with unknown format.", file);
+                return null;
+            }
+            int coveredFrom = in.readInt();
+            int coveredTo = in.readInt();
+            int count = in.readInt();
+            int[] days = new int[count];
+            long[] prices = new long[count];
+            for (int i = 0; i < count; i++) {
+                days[i] = in.readInt();
+                prices[i] = in.readLong();
+            }
+            return new CachedHistory(coveredFrom, coveredTo, days, prices);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error reading price history cache {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String assetId, CachedHistory history) {
+        if (!enabled) {
+            return;
+        }
+
+        Path file = directory.resolve(assetId + ".d1");
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, assetId, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(history.coveredFrom());
+                out.writeInt(history.coveredTo());
+                out.writeInt(history.days().length);
+                for (int i = 0; i < history.days().length; i++) {
+                    out.writeInt(history.days()[i]);
+                    out.writeLong(history.prices()[i]);
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error writing price history cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record CachedHistory(int coveredFrom, int coveredTo, int[] days, long[] prices) {
+
+        DailyPriceSeries slice(String assetId, int fromDay, int toDay) {
+            int index = Arrays.binarySearch(days, fromDay);
+            int first;
+            int startDay;
+            if (index >= 0) {
+                first = index;
+                startDay = fromDay;
+            } else if (-index - 2 >= 0) {
+                first = -index - 2;
+                startDay = fromDay;
+            } else {
+                first = -index - 1;
+                if (first >= days.length || days[first] > toDay) {
+                    return new DailyPriceSeries(assetId, LocalDate.ofEpochDay(fromDay), new double[0]);
+                }
+                startDay = days[first];
+            }
+
+            double[] closes = new double[toDay - startDay + 1];
+            int cursor = first;
+            for (int day = startDay; day <= toDay; day++) {
+                while (cursor + 1 < days.length && days[cursor + 1] <= day) {
+                    cursor++;
+                }
+                closes[day - startDay] = prices[cursor] / PRICE_UNIT;
+            }
+            return new DailyPriceSeries(assetId, LocalDate.ofEpochDay(startDay), closes);
+        }
+    }
+}
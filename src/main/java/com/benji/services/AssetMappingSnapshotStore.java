@@ -0,0 +1,112 @@
+package com.benji.services;
+
+import com.benji.services.models.AssetMappingSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Binary snapshot of the last good asset mapping set and prices, so a restart can serve
+ * symbol lookups before CoinCap has answered.
+ * Layout: magic, version, createdAt, count, then per entry id, symbol and an optional price.
+ */
+@Slf4j
+@Component
+public class AssetMappingSnapshotStore {
+
+    private static final int MAGIC = 0x42454E4A;
+    private static final int VERSION = 1;
+
+    private final Path snapshotPath;
+    private final boolean enabled;
+
+    public AssetMappingSnapshotStore(
+            @Value("${benji.snapshot.path:data/asset-mappings.snapshot}") String snapshotPath,
+            @Value("${benji.snapshot.enabled:true}") boolean enabled) {
+        this.snapshotPath = Path.of(snapshotPath);
+        this.enabled = enabled;
+    }
+
+    public Optional<AssetMappingSnapshot> load() {
+        if (!enabled || !Files.isRegularFile(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring asset mapping snapshot {} with unknown format.", snapshotPath);
+                return Optional.empty();
+            }
+            Instant createdAt = Instant.ofEpochMilli(in.readLong());
+            int count = in.readInt();
+            List<AssetMappingSnapshot.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String symbol = in.readUTF();
+                BigDecimal priceUsd = null;
+                Instant priceUpdatedAt = null;
+                if (in.readBoolean()) {
+                    int scale = in.readInt();
+                    byte[] unscaled = new byte[in.readUnsignedShort()];
+                    in.readFully(unscaled);
+                    priceUsd = new BigDecimal(new BigInteger(unscaled), scale);
+                    priceUpdatedAt = Instant.ofEpochMilli(in.readLong());
+                }
+                entries.add(new AssetMappingSnapshot.Entry(id, symbol, priceUsd, priceUpdatedAt));
+            }
+            return Optional.of(new AssetMappingSnapshot(createdAt, entries));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error reading asset mapping snapshot {}: {}", snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(AssetMappingSnapshot snapshot) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Path directory = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshot.createdAt().toEpochMilli());
+                out.writeInt(snapshot.entries().size());
+                for (AssetMappingSnapshot.Entry entry : snapshot.entries()) {
+                    out.writeUTF(entry.id());
+                    out.writeUTF(entry.symbol());
+                    out.writeBoolean(entry.priceUsd() != null);
+                    if (entry.priceUsd() != null) {
+                        byte[] unscaled = entry.priceUsd().unscaledValue().toByteArray();
+                        out.writeInt(entry.priceUsd().scale());
+                        out.writeShort(unscaled.length);
+                        out.write(unscaled);
+                        out.writeLong((entry.priceUpdatedAt() != null ? entry.priceUpdatedAt() : snapshot.createdAt()).toEpochMilli());
+                    }
+                }
+            }
+            Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote asset mapping snapshot with {} entries to {}", snapshot.entries().size(), snapshotPath);
+        } catch (IOException e) {
+            log.error("Error writing asset mapping snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.benji.services;
+
+import com.benji.services.models.PriceQuote;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class AssetPriceCache {
+
+    private final Map<String, PriceQuote> quotesByAssetId = new ConcurrentHashMap<>();
+
+    public Optional<PriceQuote> get(String assetId) {
+        return Optional.ofNullable(quotesByAssetId.get(assetId));
+    }
+
+    public PriceQuote put(String assetId, BigDecimal priceUsd, Instant updatedAt) {
+        return quotesByAssetId.put(assetId, new PriceQuote(assetId, priceUsd, updatedAt));
+    }
+
+    public void putAll(Collection<PriceQuote> quotes) {
+        quotes.forEach(quote -> quotesByAssetId.merge(quote.assetId(), quote,
+                (current, loaded) -> loaded.updatedAt().isAfter(current.updatedAt()) ? loaded : current));
+    }
+
+    public List<PriceQuote> all() {
+        return List.copyOf(quotesByAssetId.values());
+    }
+
+    public void clear() {
+        quotesByAssetId.clear();
+    }
+}
@@ -0,0 +1,105 @@
+package com.benji.services;
+
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.services.models.SymbolMapping;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable symbol -> CoinCap id index held in memory. Readers only ever see a complete
+ * snapshot; writers build a new map and publish it with a single volatile write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AssetSymbolIndex {
+
+    private final AssetSymbolMappingRepository assetSymbolMappingRepository;
+
+    @Value("${benji.symbol-index.max-unknown-symbols:10000}")
+    private int maxUnknownSymbols;
+
+    private volatile Map<String, SymbolMapping> symbolsByKey = Map.of();
+    private final Set<String> unknownSymbols = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public void reload() {
+        rebuild(assetSymbolMappingRepository.findAll());
+    }
+
+    public Optional<SymbolMapping> lookup(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            return Optional.empty();
+        }
+
+        String key = normalize(symbol);
+        SymbolMapping mapping = symbolsByKey.get(key);
+        if (mapping != null) {
+            return Optional.of(mapping);
+        }
+        if (unknownSymbols.contains(key)) {
+            return Optional.empty();
+        }
+
+        log.info("Symbol {} missing from in-memory index, checking asset_symbol_mappings...", key);
+        Optional<SymbolMapping> loaded = assetSymbolMappingRepository.findBySymbolIgnoreCase(key)
+                .map(AssetSymbolIndex::toSymbolMapping);
+        loaded.ifPresentOrElse(this::put, () -> rememberUnknown(key));
+        return loaded;
+    }
+
+    public synchronized void rebuild(Collection<AssetSymbolMapping> mappings) {
+        Map<String, SymbolMapping> rebuilt = new HashMap<>(mappings.size() * 2);
+        for (AssetSymbolMapping mapping : mappings) {
+            rebuilt.putIfAbsent(normalize(mapping.getSymbol()), toSymbolMapping(mapping));
+        }
+        symbolsByKey = Map.copyOf(rebuilt);
+        unknownSymbols.clear();
+        log.info("Asset symbol index rebuilt with {} symbols.", rebuilt.size());
+    }
+
+    public Collection<SymbolMapping> mappings() {
+        return symbolsByKey.values();
+    }
+
+    public int size() {
+        return symbolsByKey.size();
+    }
+
+    private synchronized void put(SymbolMapping mapping) {
+        Map<String, SymbolMapping> updated = new HashMap<>(symbolsByKey);
+        updated.put(normalize(mapping.symbol()), mapping);
+        symbolsByKey = Map.copyOf(updated);
+    }
+
+    private void rememberUnknown(String key) {
+        if (unknownSymbols.size() >= maxUnknownSymbols) {
+            unknownSymbols.clear();
+        }
+        unknownSymbols.add(key);
+    }
+
+    private static SymbolMapping toSymbolMapping(AssetSymbolMapping mapping) {
+        return new SymbolMapping(mapping.getId(), mapping.getSymbol());
+    }
+
+    static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,198 @@
+package com.benji.services;
+
+import com.benji.repositories.ClusterLeaseRepository;
+import com.benji.repositories.ClusterNodeRepository;
+import com.benji.services.models.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides which keys this node owns when several nodes share one database: everything in
+ * {@code single} mode, everything for the lease holder in {@code leader} mode, and a consistent-hash
+ * share in {@code sharded} mode. A node whose lease has lapsed owns nothing.
+ */
+@Slf4j
+@Service
+public class ClusterCoordinator {
+
+    static final String REFRESH_LEASE = "asset-refresh";
+
+    public enum Mode {
+        SINGLE,
+        LEADER,
+        SHARDED
+    }
+
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final ClusterLeaseRepository clusterLeaseRepository;
+    private final Mode mode;
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final int virtualNodes;
+    private final Clock clock;
+    private volatile ConsistentHashRing ring;
+    private volatile Instant leaseValidUntil = Instant.MIN;
+    private volatile boolean leader;
+
+    @Autowired
+    public ClusterCoordinator(
+            ClusterNodeRepository clusterNodeRepository,
+            ClusterLeaseRepository clusterLeaseRepository,
+            @Value("${benji.cluster.mode:single}") String mode,
+            @Value("${benji.cluster.node-id:}") String nodeId,
+            @Value("${benji.cluster.lease-duration:30s}") Duration leaseDuration,
+            @Value("${benji.cluster.virtual-nodes:128}") int virtualNodes) {
+        this(clusterNodeRepository, clusterLeaseRepository, Mode.valueOf(mode.toUpperCase(Locale.ROOT)),
+                nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId,
+                leaseDuration, virtualNodes, Clock.systemUTC());
+    }
+
+    ClusterCoordinator(ClusterNodeRepository clusterNodeRepository, ClusterLeaseRepository clusterLeaseRepository,
+                       Mode mode, String nodeId, Duration leaseDuration, int virtualNodes, Clock clock) {
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.clusterLeaseRepository = clusterLeaseRepository;
+        this.mode = mode;
+        this.nodeId = nodeId;
+        this.leaseDuration = leaseDuration;
+        this.virtualNodes = virtualNodes;
+        this.clock = clock;
+        this.ring = new ConsistentHashRing(List.of(), virtualNodes);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (mode != Mode.SINGLE) {
+            log.info("Joining cluster as {} in {} mode.", nodeId, mode);
+            heartbeat();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.cluster.heartbeat-rate:10000}")
+    public void heartbeat() {
+        if (mode == Mode.SINGLE) {
+            return;
+        }
+
+        // The database decides expiry; locally the lease is only trusted for its duration from now.
+        Instant expiresAt = clock.instant().plus(leaseDuration);
+        try {
+            if (mode == Mode.LEADER) {
+                boolean acquired = acquireRefreshLease();
+                if (acquired != leader) {
+                    log.info("Node {} {} the refresh lease.", nodeId, acquired ? "acquired" : "lost");
+                }
+                leader = acquired;
+            } else {
+                if (clusterNodeRepository.renewLease(nodeId, leaseDuration.toSeconds()) == 0) {
+                    clusterNodeRepository.join(nodeId, leaseDuration.toSeconds());
+                }
+                clusterNodeRepository.deleteExpired(leaseDuration.toSeconds());
+                List<String> liveNodeIds = clusterNodeRepository.findLiveNodeIds();
+                if (!liveNodeIds.equals(ring.nodeIds())) {
+                    ring = new ConsistentHashRing(liveNodeIds, virtualNodes);
+                    log.info("Cluster membership changed, sharding assets across {}", liveNodeIds);
+                }
+            }
+            leaseValidUntil = expiresAt;
+        } catch (RuntimeException e) {
+            log.error("Cluster heartbeat for node {} failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Filters the distinct asset names down to the ones this node should refresh in the current
+     * cycle. Across all live nodes the results cover every asset exactly once, apart from the
+     * short window in which nodes have not yet seen the same membership.
+     */
+    public List<String> assetsToRefresh(List<String> assetNames) {
+        if (mode == Mode.SINGLE) {
+            return assetNames;
+        }
+        if (!clock.instant().isBefore(leaseValidUntil)) {
+            log.warn("Lease of node {} has lapsed, skipping refresh until the next heartbeat.", nodeId);
+            return List.of();
+        }
+        if (mode == Mode.LEADER) {
+            return leader ? assetNames : List.of();
+        }
+
+        ConsistentHashRing currentRing = ring;
+        return assetNames.stream()
+                .filter(assetName -> nodeId.equals(currentRing.owner(assetName)))
+                .toList();
+    }
+
+    /** Whether this node runs background work keyed by {@code key}. */
+    public boolean owns(String key) {
+        if (mode == Mode.SINGLE) {
+            return true;
+        }
+        if (!clock.instant().isBefore(leaseValidUntil)) {
+            return false;
+        }
+        if (mode == Mode.LEADER) {
+            return leader;
+        }
+        return nodeId.equals(ring.owner(key));
+    }
+
+    /** Whether another live node owns {@code key}; unknown, so false, while this node's lease has lapsed. */
+    public boolean ownedElsewhere(String key) {
+        if (mode == Mode.SINGLE || !clock.instant().isBefore(leaseValidUntil)) {
+            return false;
+        }
+        if (mode == Mode.LEADER) {
+            return !leader;
+        }
+        String owner = ring.owner(key);
+        return owner != null && !nodeId.equals(owner);
+    }
+
+        public Mode mode() {
+        return mode;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            if (mode == Mode.LEADER && leader) {
+                clusterLeaseRepository.release(REFRESH_LEASE, nodeId);
+            } else if (mode == Mode.SHARDED) {
+                clusterNodeRepository.deleteById(nodeId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Node {} could not leave the cluster cleanly: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private boolean acquireRefreshLease() {
+        if (clusterLeaseRepository.tryAcquire(REFRESH_LEASE, nodeId, leaseDuration.toSeconds()) == 1) {
+            return true;
+        }
+        if (clusterLeaseRepository.existsById(REFRESH_LEASE)) {
+            return false;
+        }
+        try {
+            return clusterLeaseRepository.create(REFRESH_LEASE, nodeId, leaseDuration.toSeconds()) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.benji.services;
+
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.AssetLot;
+import com.benji.models.entities.Wallet;
+import com.benji.repositories.AssetLotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the running cost basis and realized P&L of each asset row and the lots behind them.
+ * Runs in the caller's transaction.
+ */
+@Slf4j
+@Service
+public class CostBasisService {
+
+    private static final int LOT_BATCH_SIZE = 256;
+    private static final MathContext COST_CONTEXT = new MathContext(38, RoundingMode.HALF_EVEN);
+
+    private final AssetLotRepository assetLotRepository;
+    private final Clock clock;
+
+    @Autowired
+    public CostBasisService(AssetLotRepository assetLotRepository) {
+        this(assetLotRepository, Clock.systemUTC());
+    }
+
+    CostBasisService(AssetLotRepository assetLotRepository, Clock clock) {
+        this.assetLotRepository = assetLotRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Opens a lot for {@code quantity} bought at {@code unitCost}. Call before the quantity is
+     * added to an existing {@code asset}; a new, unsaved asset may already hold it.
+     */
+    public void acquire(Long walletId, Asset asset, BigDecimal quantity, BigDecimal unitCost) {
+        Instant now = clock.instant();
+        openIfUntracked(walletId, asset, now);
+        assetLotRepository.save(lot(walletId, asset.getName(), quantity, unitCost, now));
+        asset.setCostBasis(asset.getCostBasis().add(quantity.multiply(unitCost)));
+    }
+
+    /**
+     * Releases the cost of {@code quantity} sold at {@code unitPrice} according to the wallet's
+     * method and returns the realized P&L. Call before the quantity is removed from {@code asset}.
+     */
+    public BigDecimal dispose(Long walletId, Wallet.CostBasisMethod method, Asset asset,
+                              BigDecimal quantity, BigDecimal unitPrice) {
+        BigDecimal realized = quantity.multiply(unitPrice).subtract(release(walletId, method, asset, quantity));
+        asset.setRealizedPnl(asset.getRealizedPnl().add(realized));
+        return realized;
+    }
+
+    /**
+     * Brings the lots and cost basis of {@code asset} in line with a corrected {@code quantity}
+     * without realizing P&L. Call before the quantity on {@code asset} is changed.
+     */
+    public void adjust(Long walletId, Wallet.CostBasisMethod method, Asset asset, BigDecimal quantity) {
+        BigDecimal difference = quantity.subtract(asset.getQuantity());
+        if (difference.signum() > 0) {
+            acquire(walletId, asset, difference, asset.getPriceUsd());
+        } else if (difference.signum() < 0) {
+            release(walletId, method, asset, difference.negate());
+        }
+    }
+
+    private BigDecimal release(Long walletId, Wallet.CostBasisMethod method, Asset asset, BigDecimal quantity) {
+        openIfUntracked(walletId, asset, clock.instant());
+        BigDecimal held = asset.getQuantity();
+        BigDecimal costBasis = asset.getCostBasis();
+
+        BigDecimal lotCost = consumeLots(walletId, asset.getName(), quantity, method == Wallet.CostBasisMethod.LIFO,
+                averageCost(costBasis, held));
+        BigDecimal releasedCost;
+        if (quantity.compareTo(held) >= 0) {
+            releasedCost = costBasis;
+        } else if (method == Wallet.CostBasisMethod.AVERAGE) {
+            releasedCost = costBasis.multiply(quantity).divide(held, COST_CONTEXT);
+        } else {
+            releasedCost = lotCost;
+        }
+        asset.setCostBasis(costBasis.subtract(releasedCost));
+        return releasedCost;
+    }
+
+    /**
+     * Consumes lots from one end until {@code quantity} is covered and returns their cost. Any
+     * quantity the lots do not cover is costed at {@code fallbackUnitCost}.
+     */
+    private BigDecimal consumeLots(Long walletId, String assetName, BigDecimal quantity, boolean newestFirst,
+                                   BigDecimal fallbackUnitCost) {
+        BigDecimal remaining = quantity;
+        BigDecimal cost = BigDecimal.ZERO;
+        while (remaining.signum() > 0) {
+            List<AssetLot> lots = newestFirst
+                    ? assetLotRepository.findByWalletIdAndAssetNameOrderByIdDesc(walletId, assetName, Limit.of(LOT_BATCH_SIZE))
+                    : assetLotRepository.findByWalletIdAndAssetNameOrderByIdAsc(walletId, assetName, Limit.of(LOT_BATCH_SIZE));
+            if (lots.isEmpty()) {
+                log.warn("Lots of {} in wallet {} cover {} less than the quantity held, costing it at the average.",
+                        assetName, walletId, remaining);
+                return cost.add(remaining.multiply(fallbackUnitCost));
+            }
+
+            List<AssetLot> consumed = new ArrayList<>();
+            for (AssetLot lot : lots) {
+                BigDecimal taken = remaining.min(lot.getQuantity());
+                cost = cost.add(taken.multiply(lot.getUnitCost()));
+                remaining = remaining.subtract(taken);
+                if (taken.compareTo(lot.getQuantity()) == 0) {
+                    consumed.add(lot);
+                } else {
+                    lot.setQuantity(lot.getQuantity().subtract(taken));
+                }
+                if (remaining.signum() == 0) {
+                    break;
+                }
+            }
+            assetLotRepository.deleteAllInBatch(consumed);
+        }
+        return cost;
+    }
+
+    private void openIfUntracked(Long walletId, Asset asset, Instant now) {
+        if (asset.getId() != null && asset.getQuantity().signum() > 0 && asset.getCostBasis().signum() == 0) {
+            assetLotRepository.save(lot(walletId, asset.getName(), asset.getQuantity(), asset.getPriceUsd(), now));
+            asset.setCostBasis(asset.getQuantity().multiply(asset.getPriceUsd()));
+        }
+    }
+
+    private static BigDecimal averageCost(BigDecimal costBasis, BigDecimal held) {
+        return held.signum() == 0 ? BigDecimal.ZERO : costBasis.divide(held, COST_CONTEXT);
+    }
+
+    private static AssetLot lot(Long walletId, String assetName, BigDecimal quantity, BigDecimal unitCost, Instant acquiredAt) {
+        return AssetLot.builder()
+                .walletId(walletId)
+                .assetName(assetName)
+                .quantity(quantity)
+                .unitCost(unitCost)
+                .acquiredAt(acquiredAt)
+                .build();
+    }
+}
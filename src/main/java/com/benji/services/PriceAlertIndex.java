@@ -0,0 +1,130 @@
+package com.benji.services;
+
+import com.benji.models.entities.PriceAlert;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active price alerts per asset, kept in two threshold-sorted sets. A tick from the previous price
+ * to the new one only visits the thresholds inside that interval, so evaluating it costs
+ * O(log n + k) for k fired alerts no matter how many alerts stay untriggered. Alerts fire once
+ * and are removed from the index.
+ */
+@Component
+public class PriceAlertIndex {
+
+    private static final Comparator<IndexedAlert> BY_THRESHOLD = Comparator
+            .comparing(IndexedAlert::threshold)
+            .thenComparingLong(IndexedAlert::alertId);
+
+    private final Map<String, AssetAlerts> alertsByAssetId = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an alert. {@code currentPrice} seeds the previous price of the asset when no tick
+     * has been seen for it yet.
+     */
+    public void add(String assetId, IndexedAlert alert, BigDecimal currentPrice) {
+        AssetAlerts assetAlerts = alertsByAssetId.computeIfAbsent(assetId, id -> new AssetAlerts());
+        synchronized (assetAlerts) {
+            if (assetAlerts.lastPrice == null) {
+                assetAlerts.lastPrice = currentPrice;
+            }
+            assetAlerts.setFor(alert.direction()).add(alert);
+        }
+    }
+
+    public boolean remove(String assetId, IndexedAlert alert) {
+        AssetAlerts assetAlerts = alertsByAssetId.get(assetId);
+        if (assetAlerts == null) {
+            return false;
+        }
+        synchronized (assetAlerts) {
+            return assetAlerts.setFor(alert.direction()).remove(alert);
+        }
+    }
+
+    /**
+     * Records a new price for the asset and returns, in threshold order, the alerts whose
+     * threshold was crossed since the previous price.
+     */
+    public List<IndexedAlert> evaluate(String assetId, BigDecimal price) {
+        AssetAlerts assetAlerts = alertsByAssetId.get(assetId);
+        if (assetAlerts == null) {
+            return List.of();
+        }
+        synchronized (assetAlerts) {
+            BigDecimal previous = assetAlerts.lastPrice;
+            assetAlerts.lastPrice = price;
+            if (previous == null) {
+                return List.of();
+            }
+
+            int move = price.compareTo(previous);
+            NavigableSet<IndexedAlert> crossed;
+            if (move > 0) {
+                // Rising: ABOVE alerts with previous < threshold <= price.
+                crossed = assetAlerts.above.subSet(
+                        IndexedAlert.bound(previous, Long.MAX_VALUE), false,
+                        IndexedAlert.bound(price, Long.MAX_VALUE), true);
+            } else if (move < 0) {
+                // Falling: BELOW alerts with price <= threshold < previous.
+                crossed = assetAlerts.below.subSet(
+                        IndexedAlert.bound(price, Long.MIN_VALUE), true,
+                        IndexedAlert.bound(previous, Long.MIN_VALUE), false);
+            } else {
+                return List.of();
+            }
+
+            List<IndexedAlert> fired = new ArrayList<>(crossed.size());
+            for (Iterator<IndexedAlert> iterator = crossed.iterator(); iterator.hasNext(); ) {
+                fired.add(iterator.next());
+                iterator.remove();
+            }
+            return fired;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (AssetAlerts assetAlerts : alertsByAssetId.values()) {
+            synchronized (assetAlerts) {
+                size += assetAlerts.above.size() + assetAlerts.below.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        alertsByAssetId.clear();
+    }
+
+    public record IndexedAlert(
+            long alertId,
+            long walletId,
+            PriceAlert.Direction direction,
+            BigDecimal threshold) {
+
+        private static IndexedAlert bound(BigDecimal threshold, long alertId) {
+            return new IndexedAlert(alertId, 0, null, threshold);
+        }
+    }
+
+    private static final class AssetAlerts {
+        private final NavigableSet<IndexedAlert> above = new TreeSet<>(BY_THRESHOLD);
+        private final NavigableSet<IndexedAlert> below = new TreeSet<>(BY_THRESHOLD);
+        private BigDecimal lastPrice;
+
+        private NavigableSet<IndexedAlert> setFor(PriceAlert.Direction direction) {
+            return direction == PriceAlert.Direction.ABOVE ? above : below;
+        }
+    }
+}
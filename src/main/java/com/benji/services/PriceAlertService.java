@@ -0,0 +1,208 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.CreatePriceAlertRequest;
+import com.benji.controllers.dto.PriceAlertResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.events.PriceAlertTriggeredEvent;
+import com.benji.exception.AssetDoesNotExistException;
+import com.benji.exception.PriceAlertDoesNotExistException;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.PriceAlert;
+import com.benji.models.entities.Wallet;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.PriceAlertRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.services.models.SymbolMapping;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages per-wallet price alerts and evaluates them on every refresh cycle through
+ * {@link PriceAlertIndex}. Fired alerts are handed to a local queue whose single consumer marks
+ * them triggered and publishes {@link PriceAlertTriggeredEvent}, keeping database work off the
+ * refresh path.
+ */
+@Slf4j
+@Service
+public class PriceAlertService {
+
+    private static final int DISPATCH_BATCH_SIZE = 256;
+
+    private final PriceAlertRepository priceAlertRepository;
+    private final WalletRepository walletRepository;
+    private final AssetRepository assetRepository;
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final PriceAlertIndex priceAlertIndex;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxActivePerWallet;
+    private final BlockingQueue<FiredAlert> firedAlerts = new LinkedBlockingQueue<>();
+    private volatile Thread dispatcher;
+
+    public PriceAlertService(
+            PriceAlertRepository priceAlertRepository,
+            WalletRepository walletRepository,
+            AssetRepository assetRepository,
+            AssetSymbolIndex assetSymbolIndex,
+            PriceAlertIndex priceAlertIndex,
+            ReplicaRoutingService replicaRoutingService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${benji.alerts.max-active-per-wallet:1000}") int maxActivePerWallet) {
+        this.priceAlertRepository = priceAlertRepository;
+        this.walletRepository = walletRepository;
+        this.assetRepository = assetRepository;
+        this.assetSymbolIndex = assetSymbolIndex;
+        this.priceAlertIndex = priceAlertIndex;
+        this.replicaRoutingService = replicaRoutingService;
+        this.eventPublisher = eventPublisher;
+        this.maxActivePerWallet = maxActivePerWallet;
+    }
+
+    @PostConstruct
+    public void init() {
+        List<PriceAlert> activeAlerts = priceAlertRepository.findAllByStatusWithWallet(PriceAlert.Status.ACTIVE);
+        for (PriceAlert alert : activeAlerts) {
+            priceAlertIndex.add(alert.getAssetName(), toIndexedAlert(alert), alert.getReferencePrice());
+        }
+        log.info("Loaded {} active price alerts.", activeAlerts.size());
+
+        dispatcher = Thread.ofPlatform().name("price-alert-dispatcher").daemon().start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public PriceAlertResponse createAlert(Long walletId, CreatePriceAlertRequest request) {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            return doCreateAlert(walletId, request);
+        }
+    }
+
+    private PriceAlertResponse doCreateAlert(Long walletId, CreatePriceAlertRequest request) {
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new WalletDoesNotExistException("Wallet not found!"));
+        SymbolMapping symbolMapping = assetSymbolIndex.lookup(request.symbol())
+                .orElseThrow(() -> new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + request.symbol()));
+        // Prices are only refreshed for assets held in some wallet, so alerts are limited to held assets.
+        BigDecimal currentPrice = assetRepository.findWalletAssetRows(walletId).stream()
+                .filter(row -> row.name().equals(symbolMapping.id()))
+                .map(WalletAssetRow::priceUsd)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Wallet does not hold " + symbolMapping.symbol() + "."));
+        boolean crossed = request.direction() == PriceAlert.Direction.ABOVE
+                ? currentPrice.compareTo(request.threshold()) >= 0
+                : currentPrice.compareTo(request.threshold()) <= 0;
+        if (crossed) {
+            throw new IllegalArgumentException(symbolMapping.symbol() + " is already at " + currentPrice.toPlainString()
+                    + ", which crosses the " + request.direction() + " threshold.");
+        }
+        if (priceAlertRepository.countByWalletIdAndStatus(walletId, PriceAlert.Status.ACTIVE) >= maxActivePerWallet) {
+            throw new IllegalArgumentException("A wallet can have at most " + maxActivePerWallet + " active alerts.");
+        }
+
+        PriceAlert alert = priceAlertRepository.save(PriceAlert.builder()
+                .wallet(wallet)
+                .symbol(symbolMapping.symbol())
+                .assetName(symbolMapping.id())
+                .direction(request.direction())
+                .threshold(request.threshold())
+                .referencePrice(currentPrice)
+                .status(PriceAlert.Status.ACTIVE)
+                .createdAt(Instant.now())
+                .build());
+        replicaRoutingService.recordWrite(walletId);
+        priceAlertIndex.add(alert.getAssetName(), toIndexedAlert(alert), currentPrice);
+        log.info("Created {} {} alert {} for wallet {}", alert.getDirection(), alert.getSymbol(), alert.getId(), walletId);
+        return PriceAlertResponse.fromEntity(alert);
+    }
+
+    public List<PriceAlertResponse> getAlerts(Long walletId) {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            if (!walletRepository.existsById(walletId)) {
+                throw new WalletDoesNotExistException("Wallet not found!");
+            }
+            return priceAlertRepository.findByWalletIdOrderById(walletId).stream()
+                    .map(PriceAlertResponse::fromEntity)
+                    .toList();
+        }
+    }
+
+    public void deleteAlert(Long walletId, Long alertId) {
+        PriceAlert alert = priceAlertRepository.findByIdAndWalletId(alertId, walletId)
+                .orElseThrow(() -> new PriceAlertDoesNotExistException("Alert " + alertId + " does not exist for wallet " + walletId + "."));
+        priceAlertIndex.remove(alert.getAssetName(), new PriceAlertIndex.IndexedAlert(
+                alert.getId(), walletId, alert.getDirection(), alert.getThreshold()));
+        priceAlertRepository.delete(alert);
+        replicaRoutingService.recordWrite(walletId);
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        event.pricesByAssetName().forEach((assetId, priceUsd) -> {
+            for (PriceAlertIndex.IndexedAlert alert : priceAlertIndex.evaluate(assetId, priceUsd)) {
+                firedAlerts.add(new FiredAlert(alert, assetId, priceUsd, event.updatedAt()));
+            }
+        });
+    }
+
+    private void dispatchLoop() {
+        List<FiredAlert> batch = new ArrayList<>(DISPATCH_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                FiredAlert first = firedAlerts.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                firedAlerts.drainTo(batch, DISPATCH_BATCH_SIZE - 1);
+                for (FiredAlert fired : batch) {
+                    try {
+                        dispatch(fired);
+                    } catch (RuntimeException e) {
+                        log.error("Error dispatching price alert {}: {}", fired.alert().alertId(), e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(FiredAlert fired) {
+        PriceAlertIndex.IndexedAlert alert = fired.alert();
+        if (priceAlertRepository.markTriggered(alert.alertId(), fired.triggeredAt(), fired.priceUsd()) == 0) {
+            return;
+        }
+        log.info("Price alert {} for wallet {} fired: {} {} {} at {}", alert.alertId(), alert.walletId(),
+                fired.assetId(), alert.direction(), alert.threshold(), fired.priceUsd());
+        eventPublisher.publishEvent(new PriceAlertTriggeredEvent(alert.alertId(), alert.walletId(), fired.assetId(),
+                alert.direction().name(), alert.threshold(), fired.priceUsd(), fired.triggeredAt()));
+    }
+
+    private static PriceAlertIndex.IndexedAlert toIndexedAlert(PriceAlert alert) {
+        return new PriceAlertIndex.IndexedAlert(alert.getId(), alert.getWallet().getId(), alert.getDirection(), alert.getThreshold());
+    }
+
+    private record FiredAlert(PriceAlertIndex.IndexedAlert alert, String assetId, BigDecimal priceUsd, Instant triggeredAt) {
+    }
+}
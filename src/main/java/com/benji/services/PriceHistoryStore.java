@@ -0,0 +1,400 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.PricePoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only price history kept outside the heap in memory-mapped segment files, one directory
+ * per asset and one or more segments per time window.
+ * Segment layout: a 32 byte header (magic, version, flags, window start, record count) followed by
+ * 12 byte records of an int millisecond offset from the window start and a long price scaled by 10^10.
+ * Segments older than the downsample age are rewritten to one close price per interval, and
+ * segments past the retention period are deleted.
+ */
+@Slf4j
+@Component
+public class PriceHistoryStore {
+
+    private static final int MAGIC = 0x42504853;
+    private static final short VERSION = 1;
+    private static final short FLAG_DOWNSAMPLED = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 16;
+    private static final int RECORD_BYTES = 12;
+    private static final int PRICE_SCALE = 10;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Pattern ASSET_ID_PATTERN = Pattern.compile("[a-z0-9][a-z0-9._-]*");
+
+    private final Path directory;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int segmentCapacity;
+    private final Duration retention;
+    private final Duration downsampleAfter;
+    private final long downsampleIntervalMillis;
+    private final Clock clock;
+    private final Map<String, ActiveSegment> activeSegments = new HashMap<>();
+
+    @Autowired
+    public PriceHistoryStore(
+            @Value("${benji.price-history.path:data/price-history}") String directory,
+            @Value("${benji.price-history.enabled:true}") boolean enabled,
+            @Value("${benji.price-history.segment-duration:1d}") Duration segmentDuration,
+            @Value("${benji.price-history.segment-capacity:4096}") int segmentCapacity,
+            @Value("${benji.price-history.retention:1825d}") Duration retention,
+            @Value("${benji.price-history.downsample-after:7d}") Duration downsampleAfter,
+            @Value("${benji.price-history.downsample-interval:1h}") Duration downsampleInterval) {
+        this(Path.of(directory), enabled, segmentDuration, segmentCapacity, retention, downsampleAfter,
+                downsampleInterval, Clock.systemUTC());
+    }
+
+    PriceHistoryStore(Path directory, boolean enabled, Duration segmentDuration, int segmentCapacity,
+                      Duration retention, Duration downsampleAfter, Duration downsampleInterval, Clock clock) {
+        if (segmentDuration.toMillis() <= 0 || segmentDuration.toMillis() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Price history segment duration must be between 1ms and 24 days.");
+        }
+        this.directory = directory;
+        this.enabled = enabled;
+        this.windowMillis = segmentDuration.toMillis();
+        this.segmentCapacity = segmentCapacity;
+        this.retention = retention;
+        this.downsampleAfter = downsampleAfter;
+        this.downsampleIntervalMillis = downsampleInterval.toMillis();
+        this.clock = clock;
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        long timestamp = event.updatedAt().toEpochMilli();
+        event.pricesByAssetName().forEach((assetId, price) -> append(assetId, price, timestamp));
+    }
+
+    public synchronized void append(String assetId, BigDecimal priceUsd, long timestampMillis) {
+        if (!enabled || !ASSET_ID_PATTERN.matcher(assetId).matches()) {
+            return;
+        }
+
+        long scaledPrice;
+        try {
+            scaledPrice = priceUsd.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            log.warn("Skipping price history for {}: {} does not fit the scaled encoding.", assetId, priceUsd);
+            return;
+        }
+
+        try {
+            ActiveSegment active = activeSegments.get(assetId);
+            if (active == null) {
+                active = reopenLatestSegment(assetId);
+            }
+            long timestamp = active != null ? Math.max(timestampMillis, active.lastTimestamp) : timestampMillis;
+            long windowStart = Math.floorDiv(timestamp, windowMillis) * windowMillis;
+            if (active == null || active.windowStart != windowStart || active.count == active.capacity) {
+                int sequence = active != null && active.windowStart == windowStart ? active.sequence + 1 : 0;
+                active = createSegment(assetId, windowStart, sequence);
+                activeSegments.put(assetId, active);
+            }
+            active.append(timestamp, scaledPrice);
+        } catch (IOException e) {
+            log.error("Error appending price history for {}: {}", assetId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} points for the asset between {@code from} and {@code to},
+     * both inclusive, in timestamp order.
+     */
+    public List<PricePoint> read(String assetId, Instant from, Instant to, int limit) {
+        if (!ASSET_ID_PATTERN.matcher(assetId).matches()) {
+            throw new IllegalArgumentException("Invalid asset id: " + assetId);
+        }
+        List<PricePoint> points = new ArrayList<>();
+        if (!enabled) {
+            return points;
+        }
+
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        for (SegmentFile segmentFile : listSegments(assetId)) {
+            if (segmentFile.windowStart > toMillis || segmentFile.windowStart + windowMillis <= fromMillis) {
+                continue;
+            }
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segmentFile.path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                log.warn("Skipping unreadable price history segment {}: {}", segmentFile.path, e.getMessage());
+                continue;
+            }
+            if (buffer.getInt(0) != MAGIC) {
+                continue;
+            }
+            int count = buffer.getInt(COUNT_OFFSET);
+            for (int i = 0; i < count; i++) {
+                int position = HEADER_BYTES + i * RECORD_BYTES;
+                long timestamp = segmentFile.windowStart + buffer.getInt(position);
+                if (timestamp < fromMillis) {
+                    continue;
+                }
+                if (timestamp > toMillis) {
+                    break;
+                }
+                points.add(new PricePoint(Instant.ofEpochMilli(timestamp),
+                        BigDecimal.valueOf(buffer.getLong(position + 4), PRICE_SCALE)));
+                if (points.size() == limit) {
+                    return points;
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Last captured price of every UTC day between {@code from} and {@code to}, both inclusive.
+     * The series runs from the first to the last day with a capture; days in between without one
+     * carry the previous close forward.
+     */
+    public DailyPriceSeries dailyCloses(String assetId, LocalDate from, LocalDate to) {
+        List<PricePoint> points = read(assetId, from.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1), Integer.MAX_VALUE);
+        if (points.isEmpty()) {
+            return new DailyPriceSeries(assetId, from, new double[0]);
+        }
+
+        long firstDay = LocalDate.ofInstant(points.get(0).timestamp(), ZoneOffset.UTC).toEpochDay();
+        long lastDay = LocalDate.ofInstant(points.get(points.size() - 1).timestamp(), ZoneOffset.UTC).toEpochDay();
+        double[] closes = new double[(int) (lastDay - firstDay) + 1];
+        int filled = 0;
+        for (PricePoint point : points) {
+            int day = (int) (LocalDate.ofInstant(point.timestamp(), ZoneOffset.UTC).toEpochDay() - firstDay);
+            if (day > filled) {
+                Arrays.fill(closes, filled, day, closes[filled - 1]);
+            }
+            closes[day] = point.priceUsd().doubleValue();
+            filled = day + 1;
+        }
+        return new DailyPriceSeries(assetId, LocalDate.ofEpochDay(firstDay), closes);
+    }
+
+    @Scheduled(fixedDelayString = "${benji.price-history.maintenance-rate:3600000}",
+            initialDelayString = "${benji.price-history.maintenance-rate:3600000}")
+    public synchronized void runMaintenance() {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return;
+        }
+
+        long now = clock.millis();
+        long retentionCutoff = now - retention.toMillis();
+        long downsampleCutoff = now - downsampleAfter.toMillis();
+        int deleted = 0;
+        int downsampled = 0;
+        try (Stream<Path> assetDirectories = Files.list(directory)) {
+            for (Path assetDirectory : assetDirectories.filter(Files::isDirectory).toList()) {
+                String assetId = assetDirectory.getFileName().toString();
+                for (SegmentFile segmentFile : listSegments(assetId)) {
+                    long windowEnd = segmentFile.windowStart + windowMillis;
+                    if (windowEnd <= retentionCutoff) {
+                        dropActive(assetId, segmentFile.path);
+                        Files.deleteIfExists(segmentFile.path);
+                        deleted++;
+                    } else if (windowEnd <= downsampleCutoff && downsample(assetId, segmentFile)) {
+                        downsampled++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error maintaining price history in {}: {}", directory, e.getMessage());
+        }
+        if (deleted > 0 || downsampled > 0) {
+            log.info("Price history maintenance deleted {} and downsampled {} segments.", deleted, downsampled);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        activeSegments.values().forEach(active -> active.buffer.force());
+    }
+
+    private boolean downsample(String assetId, SegmentFile segmentFile) throws IOException {
+        ByteBuffer source;
+        try (FileChannel channel = FileChannel.open(segmentFile.path, StandardOpenOption.READ)) {
+            source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (source.getInt(0) != MAGIC || (source.getShort(6) & FLAG_DOWNSAMPLED) != 0) {
+            return false;
+        }
+
+        int count = source.getInt(COUNT_OFFSET);
+        int[] offsets = new int[count];
+        long[] prices = new long[count];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int position = HEADER_BYTES + i * RECORD_BYTES;
+            int offset = source.getInt(position);
+            long price = source.getLong(position + 4);
+            if (kept > 0 && offset / downsampleIntervalMillis == offsets[kept - 1] / downsampleIntervalMillis) {
+                kept--;
+            }
+            offsets[kept] = offset;
+            prices[kept] = price;
+            kept++;
+        }
+
+        dropActive(assetId, segmentFile.path);
+        Path tempFile = segmentFile.path.resolveSibling(segmentFile.path.getFileName() + ".tmp");
+        MappedByteBuffer target = mapNewSegment(tempFile, segmentFile.windowStart, kept, FLAG_DOWNSAMPLED);
+        for (int i = 0; i < kept; i++) {
+            int position = HEADER_BYTES + i * RECORD_BYTES;
+            target.putInt(position, offsets[i]);
+            target.putLong(position + 4, prices[i]);
+        }
+        target.putInt(COUNT_OFFSET, kept);
+        target.force();
+        Files.move(tempFile, segmentFile.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private void dropActive(String assetId, Path segmentPath) {
+        ActiveSegment active = activeSegments.get(assetId);
+        if (active != null && active.path.equals(segmentPath)) {
+            activeSegments.remove(assetId);
+        }
+    }
+
+    private ActiveSegment reopenLatestSegment(String assetId) throws IOException {
+        List<SegmentFile> segments = listSegments(assetId);
+        if (segments.isEmpty()) {
+            return null;
+        }
+        SegmentFile latest = segments.get(segments.size() - 1);
+        try (FileChannel channel = FileChannel.open(latest.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || (buffer.getShort(6) & FLAG_DOWNSAMPLED) != 0) {
+                return null;
+            }
+            ActiveSegment active = new ActiveSegment(latest.path, latest.windowStart, latest.sequence, buffer);
+            activeSegments.put(assetId, active);
+            return active;
+        }
+    }
+
+    private ActiveSegment createSegment(String assetId, long windowStart, int sequence) throws IOException {
+        Path assetDirectory = directory.resolve(assetId);
+        Files.createDirectories(assetDirectory);
+        Path path = assetDirectory.resolve(windowStart + "-" + sequence + SEGMENT_SUFFIX);
+        while (Files.exists(path)) {
+            path = assetDirectory.resolve(windowStart + "-" + ++sequence + SEGMENT_SUFFIX);
+        }
+        return new ActiveSegment(path, windowStart, sequence, mapNewSegment(path, windowStart, segmentCapacity, (short) 0));
+    }
+
+    private static MappedByteBuffer mapNewSegment(Path path, long windowStart, int capacity, short flags) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, flags);
+            buffer.putLong(8, windowStart);
+            buffer.putInt(COUNT_OFFSET, 0);
+            return buffer;
+        }
+    }
+
+    private List<SegmentFile> listSegments(String assetId) {
+        Path assetDirectory = directory.resolve(assetId);
+        if (!Files.isDirectory(assetDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(assetDirectory)) {
+            return files.map(SegmentFile::parse)
+                    .filter(segmentFile -> segmentFile != null)
+                    .sorted(Comparator.comparingLong(SegmentFile::windowStart).thenComparingInt(SegmentFile::sequence))
+                    .toList();
+        } catch (IOException e) {
+            log.error("Error listing price history segments for {}: {}", assetId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private record SegmentFile(Path path, long windowStart, int sequence) {
+
+        static SegmentFile parse(Path path) {
+            String name = path.getFileName().toString();
+            if (!name.endsWith(SEGMENT_SUFFIX)) {
+                return null;
+            }
+            String[] parts = name.substring(0, name.length() - SEGMENT_SUFFIX.length()).split("-");
+            try {
+                return new SegmentFile(path, Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class ActiveSegment {
+
+        private final Path path;
+        private final long windowStart;
+        private final int sequence;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int count;
+        private long lastTimestamp;
+
+        ActiveSegment(Path path, long windowStart, int sequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.windowStart = windowStart;
+            this.sequence = sequence;
+            this.buffer = buffer;
+            this.capacity = (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+            this.count = buffer.getInt(COUNT_OFFSET);
+            this.lastTimestamp = count > 0
+                    ? windowStart + buffer.getInt(HEADER_BYTES + (count - 1) * RECORD_BYTES)
+                    : windowStart;
+        }
+
+        void append(long timestamp, long scaledPrice) {
+            int position = HEADER_BYTES + count * RECORD_BYTES;
+            buffer.putInt(position, (int) (timestamp - windowStart));
+            buffer.putLong(position + 4, scaledPrice);
+            count++;
+            buffer.putInt(COUNT_OFFSET, count);
+            lastTimestamp = timestamp;
+        }
+    }
+}
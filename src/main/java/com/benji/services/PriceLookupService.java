@@ -0,0 +1,58 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.services.models.PriceQuote;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Current price for request paths. Served from {@link AssetPriceCache}, which the refresh cycle or
+ * the shared snapshot keeps warm on every node; CoinCap is only called for assets nobody has
+ * priced within {@code benji.prices.max-age}, and that price is shared with the other nodes.
+ */
+@Slf4j
+@Service
+public class PriceLookupService {
+
+    private final AssetPriceCache assetPriceCache;
+    private final CoinCapAssetUpdateService coinCapAssetUpdateService;
+    private final SharedPriceSnapshotService sharedPriceSnapshotService;
+    private final Duration maxAge;
+
+    public PriceLookupService(
+            AssetPriceCache assetPriceCache,
+            CoinCapAssetUpdateService coinCapAssetUpdateService,
+            SharedPriceSnapshotService sharedPriceSnapshotService,
+            @Value("${benji.prices.max-age:60s}") Duration maxAge) {
+        this.assetPriceCache = assetPriceCache;
+        this.coinCapAssetUpdateService = coinCapAssetUpdateService;
+        this.sharedPriceSnapshotService = sharedPriceSnapshotService;
+        this.maxAge = maxAge;
+    }
+
+    public Optional<BigDecimal> currentPrice(String assetId) {
+        Instant now = Instant.now();
+        Optional<PriceQuote> cached = assetPriceCache.get(assetId)
+                .filter(quote -> quote.updatedAt() != null && quote.updatedAt().isAfter(now.minus(maxAge)));
+        if (cached.isPresent()) {
+            return cached.map(PriceQuote::priceUsd);
+        }
+
+        log.info("No fresh local price for {}, fetching from CoinCap...", assetId);
+        Optional<BigDecimal> fetched = coinCapAssetUpdateService.fetchLatestPrice(assetId)
+                .blockOptional()
+                .map(response -> response.data().priceUsd());
+        fetched.ifPresent(priceUsd -> {
+            assetPriceCache.put(assetId, priceUsd, now);
+            sharedPriceSnapshotService.publish(Map.of(assetId, priceUsd), now);
+        });
+        return fetched;
+    }
+}
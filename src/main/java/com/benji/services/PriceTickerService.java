@@ -0,0 +1,96 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.services.models.PriceQuote;
+import com.benji.services.models.PriceTick;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multicasts refreshed prices to any number of subscribers. Each subscriber owns a
+ * latest-value-wins buffer keyed by asset id, so publishing never blocks on a slow consumer
+ * and a consumer that falls behind only ever receives the newest price per asset.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceTickerService {
+
+    private final AssetPriceCache assetPriceCache;
+
+    private final Set<TickerSubscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    public Flux<PriceTick> subscribe(Set<String> assetIds) {
+        Set<String> filter = Set.copyOf(assetIds);
+        return Flux.create(sink -> {
+            TickerSubscription subscription = new TickerSubscription(filter, sink);
+            subscriptions.add(subscription);
+            sink.onRequest(requested -> subscription.drain());
+            sink.onDispose(() -> subscriptions.remove(subscription));
+
+            for (PriceQuote quote : assetPriceCache.all()) {
+                subscription.offer(new PriceTick(quote.assetId(), quote.priceUsd(), quote.updatedAt()));
+            }
+        });
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        for (TickerSubscription subscription : subscriptions) {
+            event.pricesByAssetName().forEach((assetId, priceUsd) ->
+                    subscription.offer(new PriceTick(assetId, priceUsd, event.updatedAt())));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private static final class TickerSubscription {
+        private final Set<String> assetIds;
+        private final FluxSink<PriceTick> sink;
+        private final Map<String, PriceTick> pending = new ConcurrentHashMap<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private TickerSubscription(Set<String> assetIds, FluxSink<PriceTick> sink) {
+            this.assetIds = assetIds;
+            this.sink = sink;
+        }
+
+        private void offer(PriceTick tick) {
+            if (!assetIds.isEmpty() && !assetIds.contains(tick.assetId())) {
+                return;
+            }
+            pending.put(tick.assetId(), tick);
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                Iterator<String> pendingAssets = pending.keySet().iterator();
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled() && pendingAssets.hasNext()) {
+                    PriceTick tick = pending.remove(pendingAssets.next());
+                    if (tick != null) {
+                        sink.next(tick);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
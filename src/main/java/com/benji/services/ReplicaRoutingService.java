@@ -0,0 +1,168 @@
+package com.benji.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Routes read-only transactions to the replica while its lag is within
+ * {@code benji.datasource.replica.max-lag}, and reads of recently written wallets to the primary.
+ * Clients carry the time of their last write between requests, so any node can honour it.
+ */
+@Slf4j
+@Service
+public class ReplicaRoutingService {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Client> CLIENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Duration maxLag;
+    private final Clock clock;
+    private final Cache<Long, Instant> lastWriteByWalletId;
+    private volatile Instant replayedUpTo;
+
+    @Autowired
+    public ReplicaRoutingService(
+            @Value("${benji.datasource.replica.enabled:false}") boolean enabled,
+            @Value("${benji.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this(enabled, maxLag, Clock.systemUTC());
+    }
+
+    public ReplicaRoutingService(boolean enabled, Duration maxLag, Clock clock) {
+        this.enabled = enabled;
+        this.maxLag = maxLag;
+        this.clock = clock;
+        // A write older than max-lag is either replayed already or the replica counts as stale.
+        this.lastWriteByWalletId = Caffeine.newBuilder()
+                .expireAfterWrite(maxLag)
+                .ticker(() -> clock.millis() * 1_000_000L)
+                .build();
+    }
+
+    public boolean useReplica() {
+        return enabled
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PINNED_TO_PRIMARY.get()
+                && replicaFresh();
+    }
+
+    public boolean replicaFresh() {
+        Instant position = replayedUpTo;
+        return position != null && !position.isBefore(clock.instant().minus(maxLag));
+    }
+
+    /**
+     * Remembers a write to the wallet, stamped when the surrounding transaction commits.
+     */
+    public void recordWrite(Long walletId) {
+        if (!enabled || walletId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed(walletId);
+                }
+            });
+        } else {
+            committed(walletId);
+        }
+    }
+
+    private void committed(Long walletId) {
+        Instant committedAt = clock.instant();
+        lastWriteByWalletId.put(walletId, committedAt);
+        Client client = CLIENT.get();
+        if (client != null) {
+            client.onWrite().accept(committedAt);
+        }
+    }
+
+    /**
+     * Opens a scope for one client request: {@code lastWrite} is the newest write the client saw
+     * committed, on any node, and {@code onWrite} hands the client the commit time of its writes.
+     */
+    public Scope client(Instant lastWrite, Consumer<Instant> onWrite) {
+        Client previous = CLIENT.get();
+        CLIENT.set(new Client(lastWrite, onWrite));
+        return () -> {
+            if (previous == null) {
+                CLIENT.remove();
+            } else {
+                CLIENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Opens a scope in which reads go to the primary if the wallet, or the current client, wrote
+     * since the replica's last replayed heartbeat. Must be opened before the first query of the
+     * transaction.
+     */
+    public Scope readYourWrites(Long walletId) {
+        boolean previous = PINNED_TO_PRIMARY.get();
+        if (enabled && !previous && walletId != null) {
+            Instant writtenAt = lastWriteByWalletId.getIfPresent(walletId);
+            Client client = CLIENT.get();
+            if (client != null && client.lastWrite() != null && (writtenAt == null || client.lastWrite().isAfter(writtenAt))) {
+                writtenAt = client.lastWrite();
+            }
+            Instant position = replayedUpTo;
+            if (writtenAt != null && (position == null || !position.isAfter(writtenAt))) {
+                log.debug("Reading wallet {} from the primary until the replica replays its last write.", walletId);
+                PINNED_TO_PRIMARY.set(true);
+            }
+        }
+        return () -> PINNED_TO_PRIMARY.set(previous);
+    }
+
+    /**
+     * Records the newest primary heartbeat seen on the replica.
+     */
+    public void onReplicaPosition(Instant heartbeatAt) {
+        boolean wasFresh = replicaFresh();
+        replayedUpTo = heartbeatAt;
+        boolean fresh = replicaFresh();
+        if (fresh && !wasFresh) {
+            log.info("Read replica caught up at {}, routing read-only transactions to it.", heartbeatAt);
+        } else if (wasFresh && !fresh) {
+            log.warn("Read replica lags behind {}, reading from the primary.", heartbeatAt);
+        }
+    }
+
+    public void onReplicaUnavailable() {
+        if (replayedUpTo != null) {
+            log.warn("Read replica unavailable, reading from the primary.");
+        }
+        replayedUpTo = null;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public Duration maxLag() {
+        return maxLag;
+    }
+
+    private record Client(Instant lastWrite, Consumer<Instant> onWrite) {
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
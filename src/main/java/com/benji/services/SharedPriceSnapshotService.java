@@ -0,0 +1,208 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.events.SharedVersionsChangedEvent;
+import com.benji.models.entities.PriceSnapshotEntry;
+import com.benji.models.entities.PriceSnapshotVersion;
+import com.benji.models.entities.WalletVersion;
+import com.benji.repositories.PriceSnapshotEntryRepository;
+import com.benji.repositories.PriceSnapshotVersionRepository;
+import com.benji.repositories.WalletVersionRepository;
+import com.benji.services.models.PriceQuote;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shares refreshed prices and wallet changes between nodes through a version counter in the
+ * database, re-published locally as {@link AssetPricesUpdatedEvent} and {@link SharedVersionsChangedEvent}.
+ */
+@Slf4j
+@Service
+public class SharedPriceSnapshotService {
+
+    private static final int VERSION_ROW = 1;
+
+    private final PriceSnapshotEntryRepository priceSnapshotEntryRepository;
+    private final PriceSnapshotVersionRepository priceSnapshotVersionRepository;
+    private final WalletVersionRepository walletVersionRepository;
+    private final AssetPriceCache assetPriceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final boolean enabled;
+    private volatile long localVersion;
+    private volatile boolean polled;
+
+    @Autowired
+    public SharedPriceSnapshotService(
+            PriceSnapshotEntryRepository priceSnapshotEntryRepository,
+            PriceSnapshotVersionRepository priceSnapshotVersionRepository,
+            WalletVersionRepository walletVersionRepository,
+            AssetPriceCache assetPriceCache,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            ClusterCoordinator clusterCoordinator) {
+        this(priceSnapshotEntryRepository, priceSnapshotVersionRepository, walletVersionRepository, assetPriceCache,
+                eventPublisher, transactionManager, clusterCoordinator.mode() != ClusterCoordinator.Mode.SINGLE);
+    }
+
+    SharedPriceSnapshotService(PriceSnapshotEntryRepository priceSnapshotEntryRepository,
+                               PriceSnapshotVersionRepository priceSnapshotVersionRepository,
+                               WalletVersionRepository walletVersionRepository,
+                               AssetPriceCache assetPriceCache,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               boolean enabled) {
+        this.priceSnapshotEntryRepository = priceSnapshotEntryRepository;
+        this.priceSnapshotVersionRepository = priceSnapshotVersionRepository;
+        this.walletVersionRepository = walletVersionRepository;
+        this.assetPriceCache = assetPriceCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Wallet changes are stamped from after-commit listeners, where a joined transaction would never commit.
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (priceSnapshotVersionRepository.findVersion(VERSION_ROW).isEmpty()) {
+            try {
+                priceSnapshotVersionRepository.saveAndFlush(new PriceSnapshotVersion(VERSION_ROW, 0));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Price snapshot version row created concurrently by another node.");
+            }
+        }
+        poll();
+    }
+
+    public void publish(Map<String, BigDecimal> pricesByAssetId, Instant updatedAt) {
+        if (!enabled || pricesByAssetId.isEmpty()) {
+            return;
+        }
+
+        Long version = transactionTemplate.execute(status -> {
+            priceSnapshotVersionRepository.increment(VERSION_ROW);
+            long next = priceSnapshotVersionRepository.findVersion(VERSION_ROW).orElseThrow();
+            Map<String, PriceSnapshotEntry> existing = priceSnapshotEntryRepository.findAllById(pricesByAssetId.keySet()).stream()
+                    .collect(Collectors.toMap(PriceSnapshotEntry::getAssetId, Function.identity()));
+            List<PriceSnapshotEntry> entries = new ArrayList<>(pricesByAssetId.size());
+            pricesByAssetId.forEach((assetId, priceUsd) -> {
+                PriceSnapshotEntry entry = existing.getOrDefault(assetId, PriceSnapshotEntry.builder().assetId(assetId).build());
+                if (entry.getPriceUsd() == null || entry.getPriceUsd().compareTo(priceUsd) != 0) {
+                    entry.setChangedVersion(next);
+                }
+                entry.setPriceUsd(priceUsd);
+                entry.setUpdatedAt(updatedAt);
+                entry.setVersion(next);
+                entries.add(entry);
+            });
+            priceSnapshotEntryRepository.saveAll(entries);
+            return next;
+        });
+        log.debug("Published {} prices as snapshot version {}", pricesByAssetId.size(), version);
+    }
+
+    /**
+     * Stamps a committed holdings change of the wallet with the next snapshot version, in its own
+     * transaction.
+     */
+    public void publishWalletChange(Long walletId) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> {
+                priceSnapshotVersionRepository.increment(VERSION_ROW);
+                long next = priceSnapshotVersionRepository.findVersion(VERSION_ROW).orElseThrow();
+                walletVersionRepository.save(new WalletVersion(walletId, next));
+            });
+        } catch (RuntimeException e) {
+            log.error("Error publishing the version of wallet {}: {}", walletId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.price-snapshot.poll-rate:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            long sharedVersion = priceSnapshotVersionRepository.findVersion(VERSION_ROW).orElse(0L);
+            if (sharedVersion <= localVersion) {
+                polled = true;
+                return;
+            }
+
+            long previousVersion = localVersion;
+            List<PriceSnapshotEntry> entries = priceSnapshotEntryRepository.findByVersionGreaterThan(previousVersion);
+            Map<String, BigDecimal> changedPrices = new HashMap<>();
+            Set<String> movedAssetNames = new HashSet<>();
+            List<PriceQuote> quotes = new ArrayList<>(entries.size());
+            long latestVersion = sharedVersion;
+            for (PriceSnapshotEntry entry : entries) {
+                if (entry.getChangedVersion() > previousVersion) {
+                    movedAssetNames.add(entry.getAssetId());
+                }
+                Optional<PriceQuote> current = assetPriceCache.get(entry.getAssetId());
+                if (current.isEmpty() || current.get().priceUsd().compareTo(entry.getPriceUsd()) != 0) {
+                    changedPrices.put(entry.getAssetId(), entry.getPriceUsd());
+                }
+                quotes.add(new PriceQuote(entry.getAssetId(), entry.getPriceUsd(), entry.getUpdatedAt()));
+                latestVersion = Math.max(latestVersion, entry.getVersion());
+            }
+            // Nothing is cached before the first poll, so only later polls announce changes.
+            boolean announce = polled;
+            Set<Long> changedWalletIds = new HashSet<>();
+            if (announce) {
+                for (WalletVersion walletVersion : walletVersionRepository.findByVersionGreaterThan(previousVersion)) {
+                    changedWalletIds.add(walletVersion.getWalletId());
+                    latestVersion = Math.max(latestVersion, walletVersion.getVersion());
+                }
+            }
+            assetPriceCache.putAll(quotes);
+            localVersion = latestVersion;
+            polled = true;
+
+            if (!changedPrices.isEmpty()) {
+                eventPublisher.publishEvent(new AssetPricesUpdatedEvent(Map.copyOf(changedPrices), Instant.now()));
+            }
+            if (announce && (!changedWalletIds.isEmpty() || !movedAssetNames.isEmpty())) {
+                eventPublisher.publishEvent(new SharedVersionsChangedEvent(Set.copyOf(changedWalletIds), Set.copyOf(movedAssetNames)));
+            }
+            log.debug("Pulled {} prices up to snapshot version {}", entries.size(), latestVersion);
+        } catch (RuntimeException e) {
+            log.error("Error polling the shared price snapshot: {}", e.getMessage());
+        }
+    }
+
+    public long localVersion() {
+        return localVersion;
+    }
+}
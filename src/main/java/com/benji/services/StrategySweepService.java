@@ -0,0 +1,339 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.StrategySweepRequest;
+import com.benji.controllers.dto.StrategySweepResponse;
+import com.benji.exception.AssetDoesNotExistException;
+import com.benji.monitoring.WalletSimulationEvent;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.PriceMatrix;
+import com.benji.services.models.SymbolMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Runs every combination of a strategy parameter grid against the same cached price history.
+ * Combinations are split across the shared simulation pool by work-stealing; all runs read one
+ * {@link PriceMatrix} and write their metrics into primitive result arrays by combination index.
+ */
+@Slf4j
+@Service
+public class StrategySweepService {
+
+    private static final int LEAF_COMBINATIONS = 16;
+
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final AssetHistoryCache assetHistoryCache;
+    private final ForkJoinPool simulationPool;
+    private final int maxCombinations;
+    private final int defaultTop;
+    private final long maxDays;
+
+    public StrategySweepService(
+            AssetSymbolIndex assetSymbolIndex,
+            AssetHistoryCache assetHistoryCache,
+            ForkJoinPool simulationPool,
+            @Value("${benji.sweep.max-combinations:50000}") int maxCombinations,
+            @Value("${benji.sweep.default-top:50}") int defaultTop,
+            @Value("${benji.backtest.max-days:3650}") long maxDays) {
+        this.assetSymbolIndex = assetSymbolIndex;
+        this.assetHistoryCache = assetHistoryCache;
+        this.simulationPool = simulationPool;
+        this.maxCombinations = maxCombinations;
+        this.defaultTop = defaultTop;
+        this.maxDays = maxDays;
+    }
+
+    public StrategySweepResponse sweep(StrategySweepRequest request) {
+        WalletSimulationEvent simulationEvent = new WalletSimulationEvent();
+        simulationEvent.begin();
+        boolean success = false;
+        try {
+            StrategySweepResponse response = runSweep(request);
+            success = true;
+            return response;
+        } finally {
+            simulationEvent.end();
+            if (simulationEvent.shouldCommit()) {
+                simulationEvent.simulationType = "sweep-" + request.strategy().name().toLowerCase(Locale.ROOT);
+                simulationEvent.assetCount = request.assets().size();
+                simulationEvent.success = success;
+                simulationEvent.commit();
+            }
+        }
+    }
+
+    private StrategySweepResponse runSweep(StrategySweepRequest request) {
+        if (request.from().isAfter(request.to())) {
+            throw new IllegalArgumentException("Sweep from date must not be after to date.");
+        }
+        if (ChronoUnit.DAYS.between(request.from(), request.to()) >= maxDays) {
+            throw new IllegalArgumentException("Sweep range must not exceed " + maxDays + " days.");
+        }
+
+        boolean dca = request.strategy() == StrategySweepRequest.Strategy.DCA;
+        List<BigDecimal> primaryValues = dca ? request.grid().contributionAmounts() : request.grid().rebalanceThresholds();
+        if (primaryValues == null || primaryValues.isEmpty()) {
+            throw new IllegalArgumentException(dca
+                    ? "DCA sweeps need at least one contribution amount."
+                    : "Rebalance sweeps need at least one rebalance threshold.");
+        }
+        if (!dca && request.initialInvestment().signum() == 0) {
+            throw new IllegalArgumentException("Rebalance sweeps need an initial investment.");
+        }
+        long combinations = (long) primaryValues.size() * request.grid().intervalDays().size();
+        if (combinations > maxCombinations) {
+            throw new IllegalArgumentException("Sweep must not exceed " + maxCombinations + " combinations.");
+        }
+
+        Map<String, Double> weightsByAssetId = new LinkedHashMap<>();
+        for (StrategySweepRequest.TargetAsset asset : request.assets()) {
+            SymbolMapping symbolMapping = assetSymbolIndex.lookup(asset.symbol())
+                    .orElseThrow(() -> new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + asset.symbol()));
+            weightsByAssetId.merge(symbolMapping.id(), asset.weight().doubleValue(), Double::sum);
+        }
+        double totalWeight = weightsByAssetId.values().stream().mapToDouble(Double::doubleValue).sum();
+        double[] weights = weightsByAssetId.values().stream().mapToDouble(weight -> weight / totalWeight).toArray();
+
+        List<DailyPriceSeries> histories = new ArrayList<>(weightsByAssetId.size());
+        for (String assetId : weightsByAssetId.keySet()) {
+            histories.add(assetHistoryCache.dailyCloses(assetId, request.from(), request.to()));
+        }
+        PriceMatrix prices = PriceMatrix.align(histories);
+
+        double[] primary = primaryValues.stream().mapToDouble(BigDecimal::doubleValue).toArray();
+        int[] intervals = request.grid().intervalDays().stream().mapToInt(Integer::intValue).toArray();
+        double fee = request.feePercentage() != null ? request.feePercentage().doubleValue() / 100 : 0;
+        SweepPlan plan = new SweepPlan(prices.closes(), weights, request.initialInvestment().doubleValue(), fee,
+                dca, primary, intervals);
+        SweepResults results = new SweepResults((int) combinations);
+
+        long startedAt = System.nanoTime();
+        simulationPool.invoke(new SweepTask(plan, results, 0, (int) combinations));
+        log.info("Swept {} {} combinations over {} days in {} ms", combinations, request.strategy(), prices.days(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+
+        StrategySweepRequest.Ranking ranking = request.rankBy() != null ? request.rankBy() : StrategySweepRequest.Ranking.RETURN;
+        int top = request.top() != null ? request.top() : defaultTop;
+        List<Integer> ranked = IntStream.range(0, (int) combinations)
+                .boxed()
+                .sorted(comparator(ranking, results).thenComparingInt(Integer::intValue))
+                .limit(top)
+                .toList();
+
+        List<StrategySweepResponse.SweepResult> rows = new ArrayList<>(ranked.size());
+        for (int position = 0; position < ranked.size(); position++) {
+            int combination = ranked.get(position);
+            int primaryIndex = combination / intervals.length;
+            rows.add(new StrategySweepResponse.SweepResult(
+                    position + 1,
+                    dca ? primaryValues.get(primaryIndex) : null,
+                    intervals[combination % intervals.length],
+                    dca ? null : primaryValues.get(primaryIndex),
+                    round(results.invested[combination]),
+                    round(results.finalValues[combination]),
+                    round(results.moneyReturn(combination) * 100),
+                    round(results.timeWeightedReturns[combination] * 100),
+                    round(results.maxDrawdowns[combination] * 100),
+                    results.trades[combination]));
+        }
+
+        return new StrategySweepResponse(
+                request.strategy().name(),
+                prices.firstDay(),
+                prices.lastDay(),
+                (int) combinations,
+                ranking.name(),
+                rows);
+    }
+
+    private static Comparator<Integer> comparator(StrategySweepRequest.Ranking ranking, SweepResults results) {
+        return switch (ranking) {
+            case RETURN -> Comparator.comparingDouble((Integer c) -> results.moneyReturn(c)).reversed();
+            case TIME_WEIGHTED_RETURN -> Comparator.comparingDouble((Integer c) -> results.timeWeightedReturns[c]).reversed();
+            case MAX_DRAWDOWN -> Comparator.comparingDouble((Integer c) -> results.maxDrawdowns[c]);
+        };
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record SweepPlan(double[][] closes, double[] weights, double initialInvestment, double fee,
+                             boolean dca, double[] primary, int[] intervals) {
+    }
+
+    private static final class SweepResults {
+
+        private final double[] invested;
+        private final double[] finalValues;
+        private final double[] timeWeightedReturns;
+        private final double[] maxDrawdowns;
+        private final int[] trades;
+
+        SweepResults(int combinations) {
+            this.invested = new double[combinations];
+            this.finalValues = new double[combinations];
+            this.timeWeightedReturns = new double[combinations];
+            this.maxDrawdowns = new double[combinations];
+            this.trades = new int[combinations];
+        }
+
+        double moneyReturn(int combination) {
+            return invested[combination] > 0 ? (finalValues[combination] - invested[combination]) / invested[combination] : 0;
+        }
+    }
+
+    private static final class SweepTask extends RecursiveAction {
+
+        private final SweepPlan plan;
+        private final SweepResults results;
+        private final int from;
+        private final int to;
+
+        SweepTask(SweepPlan plan, SweepResults results, int from, int to) {
+            this.plan = plan;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_COMBINATIONS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SweepTask(plan, results, from, middle), new SweepTask(plan, results, middle, to));
+                return;
+            }
+            double[] units = new double[plan.weights().length];
+            for (int combination = from; combination < to; combination++) {
+                double primary = plan.primary()[combination / plan.intervals().length];
+                int interval = plan.intervals()[combination % plan.intervals().length];
+                if (plan.dca()) {
+                    simulateDca(combination, primary, interval, units);
+                } else {
+                    simulateRebalance(combination, primary / 100, interval, units);
+                }
+            }
+        }
+
+        /**
+         * Buys the target weights with the initial investment, then adds {@code amount} every
+         * {@code interval} days. Time-weighted return and drawdown ignore the contributions themselves.
+         */
+        private void simulateDca(int combination, double amount, int interval, double[] units) {
+            int days = plan.closes()[0].length;
+            double invested = 0;
+            int trades = 0;
+            if (plan.initialInvestment() > 0) {
+                buy(units, plan.initialInvestment() * (1 - plan.fee()), 0, true);
+                invested = plan.initialInvestment();
+                trades++;
+            } else {
+                Arrays.fill(units, 0);
+            }
+
+            double previousValue = value(units, 0);
+            double nav = 1;
+            double peak = 1;
+            double maxDrawdown = 0;
+            for (int day = 0; day < days; day++) {
+                double value = value(units, day);
+                if (day > 0 && previousValue > 0) {
+                    nav *= value / previousValue;
+                }
+                if (day % interval == 0 && (day > 0 || plan.initialInvestment() == 0)) {
+                    buy(units, amount * (1 - plan.fee()), day, false);
+                    invested += amount;
+                    trades++;
+                    value += amount * (1 - plan.fee());
+                }
+                peak = Math.max(peak, nav);
+                maxDrawdown = Math.max(maxDrawdown, (peak - nav) / peak);
+                previousValue = value;
+            }
+            record(combination, invested, previousValue, nav - 1, maxDrawdown, trades);
+        }
+
+        /**
+         * Buys the target weights once, then every {@code interval} days rebalances back to them when
+         * any weight has drifted by more than {@code threshold}, paying the fee on traded value.
+         */
+        private void simulateRebalance(int combination, double threshold, int interval, double[] units) {
+            double[][] closes = plan.closes();
+            double[] weights = plan.weights();
+            int days = closes[0].length;
+            buy(units, plan.initialInvestment() * (1 - plan.fee()), 0, true);
+            int trades = 1;
+
+            double previousValue = value(units, 0);
+            double nav = 1;
+            double peak = 1;
+            double maxDrawdown = 0;
+            for (int day = 0; day < days; day++) {
+                double value = value(units, day);
+                if (day > 0 && previousValue > 0) {
+                    nav *= value / previousValue;
+                }
+                if (day > 0 && day % interval == 0 && value > 0) {
+                    double maxDrift = 0;
+                    double turnover = 0;
+                    for (int asset = 0; asset < units.length; asset++) {
+                        double holding = units[asset] * closes[asset][day];
+                        maxDrift = Math.max(maxDrift, Math.abs(holding / value - weights[asset]));
+                        turnover += Math.abs(weights[asset] * value - holding);
+                    }
+                    if (maxDrift > threshold) {
+                        double rebalancedValue = value - turnover * plan.fee();
+                        buy(units, rebalancedValue, day, true);
+                        nav *= rebalancedValue / value;
+                        value = rebalancedValue;
+                        trades++;
+                    }
+                }
+                peak = Math.max(peak, nav);
+                maxDrawdown = Math.max(maxDrawdown, (peak - nav) / peak);
+                previousValue = value;
+            }
+            record(combination, plan.initialInvestment(), previousValue, nav - 1, maxDrawdown, trades);
+        }
+
+        private void buy(double[] units, double amount, int day, boolean replace) {
+            for (int asset = 0; asset < units.length; asset++) {
+                double bought = amount * plan.weights()[asset] / plan.closes()[asset][day];
+                units[asset] = replace ? bought : units[asset] + bought;
+            }
+        }
+
+        private double value(double[] units, int day) {
+            double value = 0;
+            for (int asset = 0; asset < units.length; asset++) {
+                value += units[asset] * plan.closes()[asset][day];
+            }
+            return value;
+        }
+
+        private void record(int combination, double invested, double finalValue, double timeWeightedReturn,
+                            double maxDrawdown, int trades) {
+            results.invested[combination] = invested;
+            results.finalValues[combination] = finalValue;
+            results.timeWeightedReturns[combination] = timeWeightedReturn;
+            results.maxDrawdowns[combination] = maxDrawdown;
+            results.trades[combination] = trades;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.controllers.dto.WalletAssetsPageResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.models.projections.WalletAssetSort;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Reads wallet holdings without loading the whole wallet: keyset-paginated pages for UIs and a
+ * constant-memory NDJSON export backed by a streamed projection query.
+ */
+@Slf4j
+@Service
+public class WalletAssetQueryService {
+
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
+    private final AssetRepository assetRepository;
+    private final WalletRepository walletRepository;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter assetRowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPageSize;
+
+    public WalletAssetQueryService(
+            AssetRepository assetRepository,
+            WalletRepository walletRepository,
+            ReplicaRoutingService replicaRoutingService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${benji.wallet-assets.max-page-size:500}") int maxPageSize) {
+        this.assetRepository = assetRepository;
+        this.walletRepository = walletRepository;
+        this.replicaRoutingService = replicaRoutingService;
+        this.objectMapper = objectMapper;
+        this.assetRowWriter = objectMapper.writerFor(CreateUserWalletResponse.UserAssets.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPageSize = maxPageSize;
+    }
+
+    public WalletAssetsPageResponse getWalletAssetsPage(Long walletId, String sortParameter, String directionParameter,
+                                                        int limit, String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize + ".");
+        }
+        WalletAssetSort sort = WalletAssetSort.fromParameter(sortParameter);
+        boolean ascending = parseDirection(directionParameter);
+        ensureWalletExists(walletId);
+
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            if (pageCursor.sort() != sort || pageCursor.ascending() != ascending) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order.");
+            }
+            afterValue = pageCursor.value();
+            afterId = pageCursor.id();
+        }
+
+        List<WalletAssetRow> rows;
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            rows = assetRepository.findWalletAssetsAfter(walletId, sort, ascending, afterValue, afterId, limit + 1);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<WalletAssetRow> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            WalletAssetRow last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(sort, ascending, sortValue(sort, last), last.id()).encode();
+        }
+
+        return new WalletAssetsPageResponse(
+                walletId.toString(),
+                sort.name().toLowerCase(Locale.ROOT),
+                ascending ? "asc" : "desc",
+                page.stream().map(CreateUserWalletResponse.UserAssets::fromAssetRow).toList(),
+                nextCursor);
+    }
+
+    public void ensureWalletExists(Long walletId) {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            if (!walletRepository.existsById(walletId)) {
+                throw new WalletDoesNotExistException("Wallet not found!");
+            }
+        }
+    }
+
+    /**
+     * Writes every holding of the wallet as one JSON object per line. Rows are read through a
+     * forward-only cursor of projections, so neither the persistence context nor the response
+     * buffer grows with the wallet size.
+     */
+    public void writeWalletAssets(Long walletId, OutputStream outputStream) {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            streamWalletAssets(walletId, outputStream);
+        }
+    }
+
+    private void streamWalletAssets(Long walletId, OutputStream outputStream) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<WalletAssetRow> rows = assetRepository.streamWalletAssets(walletId);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                Iterator<WalletAssetRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    assetRowWriter.writeValue(generator, CreateUserWalletResponse.UserAssets.fromAssetRow(iterator.next()));
+                    generator.writeRaw('\n');
+                    if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+                log.debug("Streamed {} assets for wallet {}", written, walletId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static boolean parseDirection(String directionParameter) {
+        return switch (directionParameter.trim().toLowerCase(Locale.ROOT)) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> throw new IllegalArgumentException("Unsupported direction: " + directionParameter + ". Use asc or desc.");
+        };
+    }
+
+    private static Object sortValue(WalletAssetSort sort, WalletAssetRow row) {
+        return switch (sort) {
+            case VALUE -> row.quantity().multiply(row.priceUsd());
+            case SYMBOL -> row.symbol();
+            case QUANTITY -> row.quantity();
+        };
+    }
+
+    private record PageCursor(WalletAssetSort sort, boolean ascending, Object value, long id) {
+
+        String encode() {
+            String raw = sort.name() + '|' + (ascending ? "A" : "D") + '|' + id + '|'
+                    + (value instanceof BigDecimal decimal ? decimal.toPlainString() : value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 4);
+                WalletAssetSort sort = WalletAssetSort.valueOf(parts[0]);
+                boolean ascending = "A".equals(parts[1]);
+                long id = Long.parseLong(parts[2]);
+                Object value = sort == WalletAssetSort.SYMBOL ? parts[3] : new BigDecimal(parts[3]);
+                return new PageCursor(sort, ascending, value, id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+        }
+    }
+}
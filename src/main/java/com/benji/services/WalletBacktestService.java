@@ -0,0 +1,162 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletBacktestRequest;
+import com.benji.controllers.dto.WalletBacktestResponse;
+import com.benji.exception.AssetDoesNotExistException;
+import com.benji.monitoring.WalletSimulationEvent;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.SymbolMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a portfolio over CoinCap daily closes. Histories come from {@link AssetHistoryCache},
+ * so a repeated backtest over an already fetched range never leaves the machine.
+ */
+@Slf4j
+@Service
+public class WalletBacktestService {
+
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final AssetHistoryCache assetHistoryCache;
+    private final long maxDays;
+
+    public WalletBacktestService(
+            AssetSymbolIndex assetSymbolIndex,
+            AssetHistoryCache assetHistoryCache,
+            @Value("${benji.backtest.max-days:3650}") long maxDays) {
+        this.assetSymbolIndex = assetSymbolIndex;
+        this.assetHistoryCache = assetHistoryCache;
+        this.maxDays = maxDays;
+    }
+
+    public WalletBacktestResponse backtest(WalletBacktestRequest request) {
+        WalletSimulationEvent simulationEvent = new WalletSimulationEvent();
+        simulationEvent.begin();
+        boolean success = false;
+        try {
+            WalletBacktestResponse response = runBacktest(request);
+            success = true;
+            return response;
+        } finally {
+            simulationEvent.end();
+            if (simulationEvent.shouldCommit()) {
+                simulationEvent.simulationType = "backtest";
+                simulationEvent.assetCount = request.assets().size();
+                simulationEvent.success = success;
+                simulationEvent.commit();
+            }
+        }
+    }
+
+    private WalletBacktestResponse runBacktest(WalletBacktestRequest request) {
+        if (request.from().isAfter(request.to())) {
+            throw new IllegalArgumentException("Backtest from date must not be after to date.");
+        }
+        if (ChronoUnit.DAYS.between(request.from(), request.to()) >= maxDays) {
+            throw new IllegalArgumentException("Backtest range must not exceed " + maxDays + " days.");
+        }
+
+        Map<String, BacktestPosition> positionsByAssetId = new LinkedHashMap<>();
+        for (WalletBacktestRequest.BacktestAsset asset : request.assets()) {
+            SymbolMapping symbolMapping = assetSymbolIndex.lookup(asset.symbol())
+                    .orElseThrow(() -> new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + asset.symbol()));
+            positionsByAssetId.merge(symbolMapping.id(),
+                    new BacktestPosition(symbolMapping.symbol(), asset.quantity().doubleValue(), null),
+                    (existing, added) -> new BacktestPosition(existing.symbol(), existing.quantity() + added.quantity(), null));
+        }
+
+        List<BacktestPosition> positions = new ArrayList<>(positionsByAssetId.size());
+        LocalDate start = request.from();
+        LocalDate end = request.to();
+        for (Map.Entry<String, BacktestPosition> entry : positionsByAssetId.entrySet()) {
+            DailyPriceSeries series = assetHistoryCache.dailyCloses(entry.getKey(), request.from(), request.to());
+            if (series.isEmpty()) {
+                throw new IllegalArgumentException("No price history available for " + entry.getValue().symbol()
+                        + " between " + request.from() + " and " + request.to() + ".");
+            }
+            start = series.firstDay().isAfter(start) ? series.firstDay() : start;
+            end = series.lastDay().isBefore(end) ? series.lastDay() : end;
+            positions.add(new BacktestPosition(entry.getValue().symbol(), entry.getValue().quantity(), series));
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("The requested assets have no overlapping price history in the requested range.");
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        double[] values = new double[days];
+        for (BacktestPosition position : positions) {
+            DailyPriceSeries series = position.series();
+            int offset = (int) ChronoUnit.DAYS.between(series.firstDay(), start);
+            double[] closes = series.closes();
+            for (int day = 0; day < days; day++) {
+                values[day] += position.quantity() * closes[offset + day];
+            }
+        }
+
+        double peak = values[0];
+        double maxDrawdown = 0;
+        for (double value : values) {
+            peak = Math.max(peak, value);
+            if (peak > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+            }
+        }
+
+        BacktestPosition bestPosition = null;
+        BacktestPosition worstPosition = null;
+        double bestPerformance = 0;
+        double worstPerformance = 0;
+        for (BacktestPosition position : positions) {
+            double performance = percentageChange(position.series().closeOn(start), position.series().closeOn(end));
+            if (bestPosition == null || performance > bestPerformance) {
+                bestPosition = position;
+                bestPerformance = performance;
+            }
+            if (worstPosition == null || performance < worstPerformance) {
+                worstPosition = position;
+                worstPerformance = performance;
+            }
+        }
+
+        List<WalletBacktestResponse.ValuePoint> series = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            series.add(new WalletBacktestResponse.ValuePoint(start.plusDays(day), round(values[day])));
+        }
+
+        log.info("Backtested {} assets over {} days", positions.size(), days);
+        return new WalletBacktestResponse(
+                start,
+                end,
+                round(values[0]),
+                round(values[days - 1]),
+                round(percentageChange(values[0], values[days - 1])),
+                round(maxDrawdown * 100),
+                bestPosition.symbol(),
+                round(bestPerformance),
+                worstPosition.symbol(),
+                round(worstPerformance),
+                series);
+    }
+
+    private static double percentageChange(double startValue, double endValue) {
+        return startValue > 0 ? (endValue - startValue) / startValue * 100 : 0;
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record BacktestPosition(String symbol, double quantity, DailyPriceSeries series) {
+    }
+}
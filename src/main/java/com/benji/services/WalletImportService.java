@@ -0,0 +1,301 @@
+package com.benji.services;
+
+import com.benji.config.HibernateCacheConfig;
+import com.benji.controllers.dto.AddAssetRequest;
+import com.benji.controllers.dto.WalletImportLine;
+import com.benji.controllers.dto.WalletImportResponse;
+import com.benji.services.models.SymbolMapping;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports wallets and their opening holdings from NDJSON in chunks of {@code benji.import.batch-size}
+ * lines, one transaction and one JDBC batch per table each. Invalid lines are reported and skipped.
+ */
+@Slf4j
+@Service
+public class WalletImportService {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (email) VALUES (?)";
+    private static final String INSERT_WALLET_SQL = "INSERT INTO wallets (user_id, cost_basis_method) VALUES (?, 'FIFO')";
+    private static final String INSERT_ASSET_SQL = "INSERT INTO assets (symbol, name, quantity, price_usd, cost_basis, "
+            + "realized_pnl, ledger_tracked, wallet_id) VALUES (?, ?, ?, ?, ?, 0, TRUE, ?)";
+    private static final String INSERT_LOT_SQL = "INSERT INTO asset_lots (wallet_id, asset_name, quantity, unit_cost, "
+            + "acquired_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_LEDGER_SQL = "INSERT INTO wallet_ledger (wallet_id, type, asset_name, symbol, "
+            + "quantity, price_usd, recorded_at) VALUES (?, 'DEPOSIT', ?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final PriceLookupService priceLookupService;
+    private final AssetExposureService assetExposureService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public WalletImportService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            AssetSymbolIndex assetSymbolIndex,
+            PriceLookupService priceLookupService,
+            AssetExposureService assetExposureService,
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${benji.import.batch-size:1000}") int batchSize,
+            @Value("${benji.import.max-errors:1000}") int maxErrors) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.assetSymbolIndex = assetSymbolIndex;
+        this.priceLookupService = priceLookupService;
+        this.assetExposureService = assetExposureService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public WalletImportResponse importWallets(InputStream ndjson) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            List<ImportedWallet> chunk = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                run.lines++;
+                parse(lineNumber, text, run).ifPresent(chunk::add);
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the import body", e);
+        }
+
+        log.info("Imported {} wallets with {} holdings from {} lines, {} lines rejected.",
+                run.walletsCreated, run.holdingsImported, run.lines, run.errorCount);
+        return new WalletImportResponse(run.lines, run.walletsCreated, run.holdingsImported, run.errorCount, run.errors);
+    }
+
+    private Optional<ImportedWallet> parse(long lineNumber, String text, ImportRun run) {
+        WalletImportLine line;
+        try {
+            line = objectMapper.readValue(text, WalletImportLine.class);
+        } catch (JsonProcessingException e) {
+            run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            return Optional.empty();
+        }
+        if (line == null) {
+            run.reject(lineNumber, "Malformed JSON: expected an object");
+            return Optional.empty();
+        }
+
+        Set<ConstraintViolation<WalletImportLine>> violations = validator.validate(line);
+        if (!violations.isEmpty()) {
+            run.reject(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return Optional.empty();
+        }
+
+        // Repeated symbols on one line are one holding, like repeated deposits into the same asset.
+        Map<String, ImportedHolding> holdings = new LinkedHashMap<>();
+        for (AddAssetRequest holding : line.holdings() != null ? line.holdings() : List.<AddAssetRequest>of()) {
+            if (holding == null) {
+                run.reject(lineNumber, "Holding must not be null");
+                return Optional.empty();
+            }
+            Optional<SymbolMapping> mapping = assetSymbolIndex.lookup(holding.symbol());
+            if (mapping.isEmpty()) {
+                run.reject(lineNumber, "Invalid incoming Symbol, no Asset exists for Symbol: " + holding.symbol());
+                return Optional.empty();
+            }
+            Optional<BigDecimal> priceUsd = run.pricesByAssetName.computeIfAbsent(mapping.get().id(), priceLookupService::currentPrice);
+            if (priceUsd.isEmpty()) {
+                run.reject(lineNumber, "CoinCap Data not retrived for : " + holding.symbol());
+                return Optional.empty();
+            }
+            holdings.merge(mapping.get().id(),
+                    new ImportedHolding(mapping.get().id(), mapping.get().symbol(), holding.quantity(), priceUsd.get()),
+                    ImportedHolding::plus);
+        }
+        return Optional.of(new ImportedWallet(lineNumber, line.email(), List.copyOf(holdings.values())));
+    }
+
+    private void importChunk(List<ImportedWallet> chunk, ImportRun run) {
+        Map<String, ImportedWallet> walletsByEmail = new LinkedHashMap<>();
+        for (ImportedWallet wallet : chunk) {
+            if (walletsByEmail.putIfAbsent(wallet.email(), wallet) != null) {
+                run.reject(wallet.lineNumber(), "Duplicate email in import: " + wallet.email());
+            }
+        }
+
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> writeChunk(walletsByEmail));
+            result.existingEmailLines().forEach(lineNumber -> run.reject(lineNumber, "A wallet for this email already exists"));
+            run.walletsCreated += result.wallets();
+            run.holdingsImported += result.holdings();
+            if (result.wallets() > 0) {
+                evictCachedUserQueries();
+            }
+        } catch (DataAccessException e) {
+            log.error("Import of lines {} to {} failed: {}", chunk.get(0).lineNumber(),
+                    chunk.get(chunk.size() - 1).lineNumber(), e.getMessage());
+            walletsByEmail.values().forEach(wallet -> run.reject(wallet.lineNumber(), "Import batch failed: " + e.getMessage()));
+        }
+    }
+
+    private ChunkResult writeChunk(Map<String, ImportedWallet> walletsByEmail) {
+        Map<String, ImportedWallet> pending = new LinkedHashMap<>(walletsByEmail);
+        List<Long> existingEmailLines = namedParameterJdbcTemplate.queryForList("SELECT email FROM users WHERE email IN (:emails)",
+                        Map.of("emails", pending.keySet()), String.class)
+                .stream()
+                .map(email -> pending.remove(email).lineNumber())
+                .toList();
+        if (pending.isEmpty()) {
+            return new ChunkResult(0, 0, existingEmailLines);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, pending.keySet().stream().map(email -> new Object[]{email}).toList());
+        Map<Long, String> emailsByUserId = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, email FROM users WHERE email IN (:emails)",
+                Map.of("emails", pending.keySet()),
+                resultSet -> {
+                    emailsByUserId.put(resultSet.getLong("id"), resultSet.getString("email"));
+                });
+
+        jdbcTemplate.batchUpdate(INSERT_WALLET_SQL, emailsByUserId.keySet().stream().map(userId -> new Object[]{userId}).toList());
+        Map<String, Long> walletIdsByEmail = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, user_id FROM wallets WHERE user_id IN (:userIds)",
+                Map.of("userIds", emailsByUserId.keySet()),
+                resultSet -> {
+                    walletIdsByEmail.put(emailsByUserId.get(resultSet.getLong("user_id")), resultSet.getLong("id"));
+                });
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Object[]> assets = new ArrayList<>();
+        List<Object[]> lots = new ArrayList<>();
+        List<Object[]> ledgerEntries = new ArrayList<>();
+        Map<String, ExposureDelta> exposure = new HashMap<>();
+        pending.forEach((email, wallet) -> {
+            Long walletId = walletIdsByEmail.get(email);
+            for (ImportedHolding holding : wallet.holdings()) {
+                assets.add(new Object[]{holding.symbol(), holding.assetName(), holding.quantity(), holding.priceUsd(),
+                        holding.quantity().multiply(holding.priceUsd()), walletId});
+                lots.add(new Object[]{walletId, holding.assetName(), holding.quantity(), holding.priceUsd(), now});
+                ledgerEntries.add(new Object[]{walletId, holding.assetName(), holding.symbol(), holding.quantity(),
+                        holding.priceUsd(), now});
+                exposure.merge(holding.assetName(), new ExposureDelta(holding.symbol(), holding.quantity(), 1, holding.priceUsd()),
+                        ExposureDelta::plus);
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_ASSET_SQL, assets);
+        jdbcTemplate.batchUpdate(INSERT_LOT_SQL, lots);
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, ledgerEntries);
+        exposure.forEach((assetName, delta) -> assetExposureService.recordNewHoldings(
+                assetName, delta.symbol(), delta.quantity(), delta.holders(), delta.priceUsd()));
+        return new ChunkResult(pending.size(), assets.size(), existingEmailLines);
+    }
+
+    /** Users are written through JDBC, which the cached email lookups cannot see. */
+    private void evictCachedUserQueries() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(HibernateCacheConfig.USER_QUERIES_REGION);
+    }
+
+    private record ImportedWallet(
+            long lineNumber,
+            String email,
+            List<ImportedHolding> holdings) {
+    }
+
+    private record ImportedHolding(
+            String assetName,
+            String symbol,
+            BigDecimal quantity,
+            BigDecimal priceUsd) {
+
+        ImportedHolding plus(ImportedHolding other) {
+            return new ImportedHolding(assetName, symbol, quantity.add(other.quantity), priceUsd);
+        }
+    }
+
+    private record ExposureDelta(
+            String symbol,
+            BigDecimal quantity,
+            long holders,
+            BigDecimal priceUsd) {
+
+        ExposureDelta plus(ExposureDelta other) {
+            return new ExposureDelta(symbol, quantity.add(other.quantity), holders + other.holders, priceUsd);
+        }
+    }
+
+    private record ChunkResult(
+            int wallets,
+            int holdings,
+            List<Long> existingEmailLines) {
+    }
+
+    private class ImportRun {
+        private final Map<String, Optional<BigDecimal>> pricesByAssetName = new HashMap<>();
+        private final List<WalletImportResponse.LineError> errors = new ArrayList<>();
+        private long lines;
+        private long walletsCreated;
+        private long holdingsImported;
+        private long errorCount;
+
+        void reject(long lineNumber, String message) {
+            errorCount++;
+            if (errors.size() < maxErrors) {
+                errors.add(new WalletImportResponse.LineError(lineNumber, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletBalancesResponse;
+import com.benji.controllers.dto.WalletLedgerResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.WalletBalanceSnapshot;
+import com.benji.models.entities.WalletLedgerEntry;
+import com.benji.models.projections.AssetBalanceRow;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletBalanceSnapshotRepository;
+import com.benji.repositories.WalletLedgerEntryRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.services.models.LedgerReconciliation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only ledger of wallet deposits and withdrawals. Balances at any instant are rebuilt from
+ * the latest {@link WalletBalanceSnapshot} plus the entries recorded after it.
+ */
+@Slf4j
+@Service
+public class WalletLedgerService {
+
+    // Entries are only folded into a snapshot once older than this, so a slow transaction that
+    // took a lower id but commits later is not skipped by a snapshot that already covers its id.
+    static final Duration SNAPSHOT_SETTLE = Duration.ofMinutes(1);
+
+    private static final int RECONCILE_PAGE_SIZE = 500;
+
+    private final WalletLedgerEntryRepository walletLedgerEntryRepository;
+    private final WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+    private final AssetRepository assetRepository;
+    private final WalletRepository walletRepository;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final ClusterCoordinator clusterCoordinator;
+    private final CostBasisService costBasisService;
+    private final AssetExposureService assetExposureService;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotEvery;
+    private final int maxPageSize;
+    private final boolean reconcileOnStartup;
+    private final boolean repairDrift;
+    private final Clock clock;
+
+    @Autowired
+    public WalletLedgerService(
+            WalletLedgerEntryRepository walletLedgerEntryRepository,
+            WalletBalanceSnapshotRepository walletBalanceSnapshotRepository,
+            AssetRepository assetRepository,
+            WalletRepository walletRepository,
+            ReplicaRoutingService replicaRoutingService,
+            ClusterCoordinator clusterCoordinator,
+            CostBasisService costBasisService,
+            AssetExposureService assetExposureService,
+            PlatformTransactionManager transactionManager,
+            @Value("${benji.ledger.snapshot-every:100}") int snapshotEvery,
+            @Value("${benji.ledger.max-page-size:500}") int maxPageSize,
+            @Value("${benji.ledger.reconcile-on-startup:false}") boolean reconcileOnStartup,
+            @Value("${benji.ledger.repair-drift:false}") boolean repairDrift) {
+        this(walletLedgerEntryRepository, walletBalanceSnapshotRepository, assetRepository, walletRepository,
+                replicaRoutingService, clusterCoordinator, costBasisService, assetExposureService, transactionManager,
+                snapshotEvery, maxPageSize, reconcileOnStartup, repairDrift, Clock.systemUTC());
+    }
+
+    WalletLedgerService(WalletLedgerEntryRepository walletLedgerEntryRepository,
+                        WalletBalanceSnapshotRepository walletBalanceSnapshotRepository,
+                        AssetRepository assetRepository,
+                        WalletRepository walletRepository,
+                        ReplicaRoutingService replicaRoutingService,
+                        ClusterCoordinator clusterCoordinator,
+                        CostBasisService costBasisService,
+                        AssetExposureService assetExposureService,
+                        PlatformTransactionManager transactionManager,
+                        int snapshotEvery,
+                        int maxPageSize,
+                        boolean reconcileOnStartup,
+                        boolean repairDrift,
+                        Clock clock) {
+        this.walletLedgerEntryRepository = walletLedgerEntryRepository;
+        this.walletBalanceSnapshotRepository = walletBalanceSnapshotRepository;
+        this.assetRepository = assetRepository;
+        this.walletRepository = walletRepository;
+        this.replicaRoutingService = replicaRoutingService;
+        this.clusterCoordinator = clusterCoordinator;
+        this.costBasisService = costBasisService;
+        this.assetExposureService = assetExposureService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotEvery = snapshotEvery;
+        this.maxPageSize = maxPageSize;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.repairDrift = repairDrift;
+        this.clock = clock;
+    }
+
+    // Runs once on the scheduler thread, so a large wallet table does not hold up startup.
+    @Scheduled(initialDelayString = "${benji.ledger.reconcile-delay:0}")
+    public void reconcileAfterStartup() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Appends a deposit to the ledger in the caller's transaction. {@code held} is the wallet's
+     * asset row before the deposit, or {@code null} for a new asset.
+     */
+    public void recordDeposit(Long walletId, Asset held, String assetName, String symbol,
+                              BigDecimal quantity, BigDecimal priceUsd) {
+        Instant now = clock.instant();
+        // Keyed like the asset row the deposit lands on, so reconciliation can match the two.
+        String ledgerAssetName = held != null ? held.getName() : assetName;
+        if (held != null) {
+            openIfUntracked(walletId, held, now);
+        }
+        walletLedgerEntryRepository.save(entry(walletId, WalletLedgerEntry.Type.DEPOSIT,
+                ledgerAssetName, symbol, quantity, priceUsd, now));
+    }
+
+    /**
+     * Appends a withdrawal of {@code quantity} from the {@code held} asset row, before the row is
+     * reduced, in the caller's transaction.
+     */
+    public void recordWithdrawal(Long walletId, Asset held, BigDecimal quantity, BigDecimal priceUsd) {
+        Instant now = clock.instant();
+        openIfUntracked(walletId, held, now);
+        walletLedgerEntryRepository.save(entry(walletId, WalletLedgerEntry.Type.WITHDRAWAL,
+                held.getName(), held.getSymbol(), quantity.negate(), priceUsd, now));
+    }
+
+    public boolean hasWithdrawals(Long walletId) {
+        return walletLedgerEntryRepository.existsByWalletIdAndType(walletId, WalletLedgerEntry.Type.WITHDRAWAL);
+    }
+
+    public WalletLedgerResponse getLedger(Long walletId, long afterId, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize + ".");
+        }
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            ensureWalletExists(walletId);
+            List<WalletLedgerEntry> entries = walletLedgerEntryRepository
+                    .findByWalletIdAndIdGreaterThanOrderById(walletId, afterId, Limit.of(limit));
+            Long nextAfter = entries.size() == limit ? entries.get(entries.size() - 1).getId() : null;
+            return new WalletLedgerResponse(walletId.toString(),
+                    entries.stream().map(WalletLedgerResponse.Entry::fromEntity).toList(), nextAfter);
+        }
+    }
+
+    /**
+     * Balances of the wallet as they were at {@code at}, or now when {@code at} is {@code null}.
+     */
+    public WalletBalancesResponse getBalances(Long walletId, Instant at) {
+        Instant asOf = at != null ? at : clock.instant();
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            ensureWalletExists(walletId);
+            long snapshotEntryId = walletBalanceSnapshotRepository.findLatestThroughEntryId(walletId, asOf).orElse(0L);
+            Map<String, AssetBalanceRow> balances = new TreeMap<>();
+            if (snapshotEntryId > 0) {
+                for (WalletBalanceSnapshot snapshot : walletBalanceSnapshotRepository.findByWalletIdAndThroughEntryId(walletId, snapshotEntryId)) {
+                    balances.put(snapshot.getAssetName(), toRow(snapshot));
+                }
+            }
+            for (AssetBalanceRow tail : walletLedgerEntryRepository.sumRecordedUntil(walletId, snapshotEntryId, asOf)) {
+                balances.merge(tail.assetName(), tail, AssetBalanceRow::plus);
+            }
+
+            return new WalletBalancesResponse(walletId.toString(), asOf, snapshotEntryId > 0 ? snapshotEntryId : null,
+                    balances.values().stream()
+                            .map(row -> new WalletBalancesResponse.Balance(row.symbol(), row.assetName(), row.quantity()))
+                            .toList());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.ledger.snapshot-rate:300000}")
+    public void snapshotDueWallets() {
+        try {
+            List<Long> walletIds = walletLedgerEntryRepository.findWalletIdsDueForSnapshot(
+                    clock.instant().minus(SNAPSHOT_SETTLE), snapshotEvery);
+            int written = 0;
+            for (Long walletId : walletIds) {
+                try {
+                    if (snapshot(walletId)) {
+                        written++;
+                    }
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Snapshot of wallet {} written concurrently by another node.", walletId);
+                }
+            }
+            if (written > 0) {
+                log.info("Wrote balance snapshots for {} wallets.", written);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error writing wallet balance snapshots: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the settled entries recorded since the wallet's latest snapshot into a new one.
+     * Returns whether a snapshot was written.
+     */
+    public boolean snapshot(Long walletId) {
+        Boolean written = transactionTemplate.execute(status -> {
+            long previous = walletBalanceSnapshotRepository.findLatestThroughEntryId(walletId).orElse(0L);
+            long through = walletLedgerEntryRepository
+                    .findLastIdRecordedBefore(walletId, clock.instant().minus(SNAPSHOT_SETTLE)).orElse(0L);
+            if (through <= previous) {
+                return false;
+            }
+
+            Map<String, AssetBalanceRow> balances = new TreeMap<>();
+            Instant asOf = Instant.EPOCH;
+            for (WalletBalanceSnapshot snapshot : walletBalanceSnapshotRepository.findByWalletIdAndThroughEntryId(walletId, previous)) {
+                balances.put(snapshot.getAssetName(), toRow(snapshot));
+                asOf = snapshot.getAsOf();
+            }
+            for (AssetBalanceRow range : walletLedgerEntryRepository.sumRange(walletId, previous, through)) {
+                balances.merge(range.assetName(), range, AssetBalanceRow::plus);
+            }
+            Instant lastRecordedAt = walletLedgerEntryRepository.findLastRecordedAt(walletId, previous, through).orElse(asOf);
+            Instant snapshotAsOf = lastRecordedAt.isAfter(asOf) ? lastRecordedAt : asOf;
+
+            walletBalanceSnapshotRepository.saveAll(balances.values().stream()
+                    .map(row -> WalletBalanceSnapshot.builder()
+                            .walletId(walletId)
+                            .throughEntryId(through)
+                            .assetName(row.assetName())
+                            .symbol(row.symbol())
+                            .quantity(row.quantity())
+                            .asOf(snapshotAsOf)
+                            .build())
+                    .toList());
+            return true;
+        });
+        return Boolean.TRUE.equals(written);
+    }
+
+    /**
+     * Compares every wallet this node owns with its ledger, one wallet per transaction under its
+     * asset row locks. Drift is repaired only when {@code benji.ledger.repair-drift} is set.
+     */
+    public LedgerReconciliation reconcile() {
+        long start = System.nanoTime();
+        LedgerReconciliation result = new LedgerReconciliation(0, 0, 0, 0, 0);
+        long afterId = 0;
+        List<Long> walletIds;
+        do {
+            walletIds = walletRepository.findIdsAfter(afterId, Limit.of(RECONCILE_PAGE_SIZE));
+            for (Long walletId : walletIds) {
+                if (!clusterCoordinator.owns("wallet:" + walletId)) {
+                    continue;
+                }
+                try {
+                    result = result.plus(transactionTemplate.execute(status -> reconcile(walletId)));
+                } catch (RuntimeException e) {
+                    log.error("Error reconciling wallet {} against the ledger: {}", walletId, e.getMessage());
+                }
+            }
+            if (!walletIds.isEmpty()) {
+                afterId = walletIds.get(walletIds.size() - 1);
+            }
+        } while (walletIds.size() == RECONCILE_PAGE_SIZE);
+        log.info("Reconciled {} wallet assets against the ledger in {} ms: {} opening entries, {} drifted, {} repaired, {} missing.",
+                result.assetsChecked(), (System.nanoTime() - start) / 1_000_000, result.openingEntries(),
+                result.driftedAssets(), result.repairedAssets(), result.missingAssets());
+        return result;
+    }
+
+    private LedgerReconciliation reconcile(Long walletId) {
+        Map<String, List<Asset>> held = new HashMap<>();
+        for (Asset asset : assetRepository.findAllForUpdate(walletId)) {
+            held.computeIfAbsent(asset.getName(), name -> new ArrayList<>(1)).add(asset);
+        }
+
+        long snapshotEntryId = walletBalanceSnapshotRepository.findLatestThroughEntryId(walletId).orElse(0L);
+        Map<String, AssetBalanceRow> ledger = new HashMap<>();
+        if (snapshotEntryId > 0) {
+            for (WalletBalanceSnapshot snapshot : walletBalanceSnapshotRepository.findByWalletIdAndThroughEntryId(walletId, snapshotEntryId)) {
+                ledger.put(snapshot.getAssetName(), toRow(snapshot));
+            }
+        }
+        for (AssetBalanceRow tail : walletLedgerEntryRepository.sumAfter(walletId, snapshotEntryId)) {
+            ledger.merge(tail.assetName(), tail, AssetBalanceRow::plus);
+        }
+
+        int openingEntries = 0;
+        int driftedAssets = 0;
+        int repairedAssets = 0;
+        Instant now = clock.instant();
+        for (Map.Entry<String, List<Asset>> entry : held.entrySet()) {
+            String assetName = entry.getKey();
+            List<Asset> rows = entry.getValue();
+            BigDecimal heldQuantity = rows.stream().map(Asset::getQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
+            AssetBalanceRow balance = ledger.remove(assetName);
+            if (balance == null) {
+                Asset asset = rows.get(0);
+                walletLedgerEntryRepository.save(entry(walletId, WalletLedgerEntry.Type.OPENING_BALANCE,
+                        assetName, asset.getSymbol(), heldQuantity, asset.getPriceUsd(), now));
+                rows.forEach(row -> row.setLedgerTracked(true));
+                openingEntries++;
+            } else if (balance.quantity().compareTo(heldQuantity) != 0) {
+                driftedAssets++;
+                if (!repairDrift) {
+                    log.warn("Wallet {} holds {} {} but its ledger sums to {}.",
+                            walletId, heldQuantity, assetName, balance.quantity());
+                } else if (rows.size() == 1) {
+                    log.warn("Wallet {} holds {} {} but its ledger sums to {}, resetting to the ledger balance.",
+                            walletId, heldQuantity, assetName, balance.quantity());
+                    repair(walletId, rows.get(0), balance.quantity());
+                    repairedAssets++;
+                } else {
+                    log.warn("Wallet {} holds {} in {} rows that sum to {} but its ledger sums to {}, not repairing.",
+                            walletId, assetName, rows.size(), heldQuantity, balance.quantity());
+                }
+            }
+        }
+        ledger.keySet().forEach(assetName -> log.warn("Wallet {} has ledger entries for {} but no asset row.",
+                walletId, assetName));
+
+        return new LedgerReconciliation(held.size(), openingEntries, driftedAssets, repairedAssets, ledger.size());
+    }
+
+    private void repair(Long walletId, Asset asset, BigDecimal quantity) {
+        BigDecimal before = asset.getQuantity();
+        costBasisService.adjust(walletId, asset.getWallet().getCostBasisMethod(), asset, quantity);
+        asset.setQuantity(quantity);
+        assetExposureService.recordHoldingChange(asset.getName(), asset.getSymbol(), before, quantity, asset.getPriceUsd());
+    }
+
+    private void openIfUntracked(Long walletId, Asset held, Instant now) {
+        if (!held.isLedgerTracked()) {
+            walletLedgerEntryRepository.save(entry(walletId, WalletLedgerEntry.Type.OPENING_BALANCE,
+                    held.getName(), held.getSymbol(), held.getQuantity(), held.getPriceUsd(), now));
+            held.setLedgerTracked(true);
+        }
+    }
+
+    private void ensureWalletExists(Long walletId) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletDoesNotExistException("Wallet not found!");
+        }
+    }
+
+    private static WalletLedgerEntry entry(Long walletId, WalletLedgerEntry.Type type, String assetName, String symbol,
+                                           BigDecimal quantity, BigDecimal priceUsd, Instant recordedAt) {
+        return WalletLedgerEntry.builder()
+                .walletId(walletId)
+                .type(type)
+                .assetName(assetName)
+                .symbol(symbol)
+                .quantity(quantity)
+                .priceUsd(priceUsd)
+                .recordedAt(recordedAt)
+                .build();
+    }
+
+    private static AssetBalanceRow toRow(WalletBalanceSnapshot snapshot) {
+        return new AssetBalanceRow(snapshot.getWalletId(), snapshot.getAssetName(), snapshot.getSymbol(), snapshot.getQuantity());
+    }
+}
@@ -0,0 +1,273 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletMonteCarloRequest;
+import com.benji.controllers.dto.WalletMonteCarloResponse;
+import com.benji.exception.AssetDoesNotExistException;
+import com.benji.monitoring.WalletSimulationEvent;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.PriceQuote;
+import com.benji.services.models.ReturnStatistics;
+import com.benji.services.models.SymbolMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Projects portfolio value forward with correlated geometric Brownian motion. Drift and covariance
+ * are estimated from cached CoinCap daily closes; paths are simulated on the shared simulation pool
+ * in fixed-size chunks, each with its own RNG derived from the request seed, so results do not
+ * depend on how chunks are scheduled across threads.
+ */
+@Slf4j
+@Service
+public class WalletMonteCarloService {
+
+    private static final int CHUNK_PATHS = 2048;
+    private static final double[] PERCENTILES = {5, 25, 50, 75, 95};
+    private static final long CHUNK_SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final AssetSymbolIndex assetSymbolIndex;
+    private final AssetHistoryCache assetHistoryCache;
+    private final AssetPriceCache assetPriceCache;
+    private final ForkJoinPool simulationPool;
+    private final int maxPaths;
+    private final long maxSamples;
+    private final int defaultPaths;
+    private final int defaultCheckpoints;
+    private final int defaultLookbackDays;
+    private final int maxLookbackDays;
+
+    public WalletMonteCarloService(
+            AssetSymbolIndex assetSymbolIndex,
+            AssetHistoryCache assetHistoryCache,
+            AssetPriceCache assetPriceCache,
+            ForkJoinPool simulationPool,
+            @Value("${benji.monte-carlo.max-paths:1000000}") int maxPaths,
+            @Value("${benji.monte-carlo.max-samples:12000000}") long maxSamples,
+            @Value("${benji.monte-carlo.default-paths:10000}") int defaultPaths,
+            @Value("${benji.monte-carlo.default-checkpoints:12}") int defaultCheckpoints,
+            @Value("${benji.monte-carlo.default-lookback-days:365}") int defaultLookbackDays,
+            @Value("${benji.backtest.max-days:3650}") int maxLookbackDays) {
+        this.assetSymbolIndex = assetSymbolIndex;
+        this.assetHistoryCache = assetHistoryCache;
+        this.assetPriceCache = assetPriceCache;
+        this.simulationPool = simulationPool;
+        this.maxPaths = maxPaths;
+        this.maxSamples = maxSamples;
+        this.defaultPaths = defaultPaths;
+        this.defaultCheckpoints = defaultCheckpoints;
+        this.defaultLookbackDays = defaultLookbackDays;
+        this.maxLookbackDays = maxLookbackDays;
+    }
+
+    public WalletMonteCarloResponse simulate(WalletMonteCarloRequest request) {
+        WalletSimulationEvent simulationEvent = new WalletSimulationEvent();
+        simulationEvent.begin();
+        boolean success = false;
+        try {
+            WalletMonteCarloResponse response = runSimulation(request);
+            success = true;
+            return response;
+        } finally {
+            simulationEvent.end();
+            if (simulationEvent.shouldCommit()) {
+                simulationEvent.simulationType = "monte-carlo";
+                simulationEvent.assetCount = request.assets().size();
+                simulationEvent.success = success;
+                simulationEvent.commit();
+            }
+        }
+    }
+
+    private WalletMonteCarloResponse runSimulation(WalletMonteCarloRequest request) {
+        int paths = request.paths() != null ? request.paths() : defaultPaths;
+        if (paths > maxPaths) {
+            throw new IllegalArgumentException("Paths must not exceed " + maxPaths + ".");
+        }
+        int horizonDays = request.horizonDays();
+        int checkpoints = Math.min(request.checkpoints() != null ? request.checkpoints() : defaultCheckpoints, horizonDays);
+        // Every path keeps one float per checkpoint until the percentiles are taken.
+        if ((long) paths * checkpoints > maxSamples) {
+            throw new IllegalArgumentException("Paths times checkpoints must not exceed " + maxSamples + ".");
+        }
+        int lookbackDays = request.lookbackDays() != null ? request.lookbackDays() : defaultLookbackDays;
+        if (lookbackDays > maxLookbackDays) {
+            throw new IllegalArgumentException("Lookback must not exceed " + maxLookbackDays + " days.");
+        }
+        long seed = request.seed() != null ? request.seed() : ThreadLocalRandom.current().nextLong();
+
+        Map<String, Double> quantitiesByAssetId = new LinkedHashMap<>();
+        for (WalletMonteCarloRequest.ProjectedAsset asset : request.assets()) {
+            SymbolMapping symbolMapping = assetSymbolIndex.lookup(asset.symbol())
+                    .orElseThrow(() -> new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + asset.symbol()));
+            quantitiesByAssetId.merge(symbolMapping.id(), asset.quantity().doubleValue(), Double::sum);
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<String> assetIds = new ArrayList<>(quantitiesByAssetId.keySet());
+        List<DailyPriceSeries> histories = new ArrayList<>(assetIds.size());
+        for (String assetId : assetIds) {
+            DailyPriceSeries series = assetHistoryCache.dailyCloses(assetId, today.minusDays(lookbackDays + 1L), today);
+            if (series.isEmpty()) {
+                throw new IllegalArgumentException("No price history available for " + assetId + ".");
+            }
+            histories.add(series);
+        }
+        ReturnStatistics statistics = ReturnStatistics.estimate(histories);
+
+        int assets = assetIds.size();
+        double[] quantities = new double[assets];
+        double[] logStartPrices = new double[assets];
+        double startValue = 0;
+        for (int i = 0; i < assets; i++) {
+            DailyPriceSeries series = histories.get(i);
+            double startPrice = assetPriceCache.get(assetIds.get(i))
+                    .map(PriceQuote::priceUsd)
+                    .map(BigDecimal::doubleValue)
+                    .orElse(series.closes()[series.closes().length - 1]);
+            quantities[i] = quantitiesByAssetId.get(assetIds.get(i));
+            logStartPrices[i] = Math.log(startPrice);
+            startValue += quantities[i] * startPrice;
+        }
+
+        int[] checkpointDays = new int[checkpoints];
+        for (int k = 0; k < checkpoints; k++) {
+            checkpointDays[k] = (int) Math.round((double) horizonDays * (k + 1) / checkpoints);
+        }
+
+        PathModel model = new PathModel(logStartPrices, quantities, statistics.means(), statistics.choleskyFactor(),
+                checkpointDays, seed);
+        float[][] values = new float[checkpoints][paths];
+        long startedAt = System.nanoTime();
+        simulationPool.invoke(new PathChunkTask(model, values, 0, (paths + CHUNK_PATHS - 1) / CHUNK_PATHS));
+        log.info("Simulated {} paths for {} assets over {} days in {} ms", paths, assets, horizonDays,
+                (System.nanoTime() - startedAt) / 1_000_000);
+
+        float[] horizonValues = values[checkpoints - 1];
+        float lossThreshold = (float) startValue;
+        int losses = 0;
+        for (float value : horizonValues) {
+            if (value < lossThreshold) {
+                losses++;
+            }
+        }
+
+        List<WalletMonteCarloResponse.PercentileBand> bands = new ArrayList<>(checkpoints);
+        for (int k = 0; k < checkpoints; k++) {
+            float[] checkpointValues = values[k];
+            double sum = 0;
+            for (float value : checkpointValues) {
+                sum += value;
+            }
+            Arrays.parallelSort(checkpointValues);
+            bands.add(new WalletMonteCarloResponse.PercentileBand(
+                    checkpointDays[k],
+                    round(percentile(checkpointValues, PERCENTILES[0])),
+                    round(percentile(checkpointValues, PERCENTILES[1])),
+                    round(percentile(checkpointValues, PERCENTILES[2])),
+                    round(percentile(checkpointValues, PERCENTILES[3])),
+                    round(percentile(checkpointValues, PERCENTILES[4])),
+                    round(sum / paths)));
+        }
+
+        return new WalletMonteCarloResponse(
+                round(startValue),
+                paths,
+                seed,
+                horizonDays,
+                lookbackDays,
+                BigDecimal.valueOf((double) losses / paths).setScale(4, RoundingMode.HALF_UP),
+                bands);
+    }
+
+    private static double percentile(float[] sortedValues, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(rank, sortedValues.length - 1))];
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record PathModel(double[] logStartPrices, double[] quantities, double[] drifts, double[] cholesky,
+                             int[] checkpointDays, long seed) {
+    }
+
+    private static final class PathChunkTask extends RecursiveAction {
+
+        private final PathModel model;
+        private final float[][] values;
+        private final int fromChunk;
+        private final int toChunk;
+
+        PathChunkTask(PathModel model, float[][] values, int fromChunk, int toChunk) {
+            this.model = model;
+            this.values = values;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new PathChunkTask(model, values, fromChunk, middle),
+                        new PathChunkTask(model, values, middle, toChunk));
+                return;
+            }
+            simulateChunk(fromChunk);
+        }
+
+        private void simulateChunk(int chunk) {
+            int assets = model.quantities().length;
+            int paths = values[0].length;
+            int firstPath = chunk * CHUNK_PATHS;
+            int lastPath = Math.min(firstPath + CHUNK_PATHS, paths);
+            SplittableRandom random = new SplittableRandom(model.seed() + chunk * CHUNK_SEED_STRIDE);
+            double[] cholesky = model.cholesky();
+            double[] drifts = model.drifts();
+            double[] quantities = model.quantities();
+            int[] checkpointDays = model.checkpointDays();
+            double[] logPrices = new double[assets];
+            double[] shocks = new double[assets];
+
+            for (int path = firstPath; path < lastPath; path++) {
+                System.arraycopy(model.logStartPrices(), 0, logPrices, 0, assets);
+                int previousDay = 0;
+                for (int k = 0; k < checkpointDays.length; k++) {
+                    int stepDays = checkpointDays[k] - previousDay;
+                    previousDay = checkpointDays[k];
+                    double stepScale = Math.sqrt(stepDays);
+                    for (int i = 0; i < assets; i++) {
+                        shocks[i] = random.nextGaussian();
+                    }
+                    double value = 0;
+                    for (int i = 0; i < assets; i++) {
+                        int row = i * (i + 1) / 2;
+                        double correlatedShock = 0;
+                        for (int j = 0; j <= i; j++) {
+                            correlatedShock += cholesky[row + j] * shocks[j];
+                        }
+                        logPrices[i] += drifts[i] * stepDays + correlatedShock * stepScale;
+                        value += quantities[i] * Math.exp(logPrices[i]);
+                    }
+                    values[k][path] = (float) value;
+                }
+            }
+        }
+    }
+}
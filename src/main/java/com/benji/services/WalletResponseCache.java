@@ -0,0 +1,80 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bounded cache of already-serialized wallet responses keyed by wallet id and tagged with the
+ * wallet version they were built from. Unchanged wallets are served without JPA or Jackson.
+ */
+@Slf4j
+@Service
+public class WalletResponseCache {
+
+    private final WalletService walletService;
+    private final WalletVersionService walletVersionService;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CachedWalletResponse> responsesByWalletId;
+
+    public WalletResponseCache(
+            WalletService walletService,
+            WalletVersionService walletVersionService,
+            ObjectMapper objectMapper,
+            @Value("${benji.wallet-cache.max-entries:10000}") long maxEntries) {
+        this.walletService = walletService;
+        this.walletVersionService = walletVersionService;
+        this.objectMapper = objectMapper;
+        this.responsesByWalletId = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        walletVersionService.onVersionChange(responsesByWalletId::invalidate);
+    }
+
+    /**
+     * Unknown wallets are rejected here so a guessed ETag gets a 404 rather than a 304. Wallets
+     * are never deleted, so a cached response is proof enough and skips the query.
+     */
+    public String currentETag(Long walletId) {
+        if (responsesByWalletId.getIfPresent(walletId) == null && !walletService.walletExists(walletId)) {
+            throw new WalletDoesNotExistException("Wallet not found!");
+        }
+        return walletVersionService.currentETag(walletId);
+    }
+
+    public CachedWalletResponse getWalletInformation(Long walletId) {
+        long version = walletVersionService.currentVersion(walletId);
+        CachedWalletResponse cached = responsesByWalletId.getIfPresent(walletId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        String etag = walletVersionService.eTag(walletId, version);
+        CreateUserWalletResponse response = walletService.getWalletInformation(walletId);
+        CachedWalletResponse built = new CachedWalletResponse(version, etag, serialize(response));
+        if (walletVersionService.currentVersion(walletId) == version) {
+            responsesByWalletId.put(walletId, built);
+        }
+        return built;
+    }
+
+    private byte[] serialize(CreateUserWalletResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize wallet " + response.walletId(), e);
+        }
+    }
+
+    public record CachedWalletResponse(
+            long version,
+            String etag,
+            byte[] json) {
+    }
+}
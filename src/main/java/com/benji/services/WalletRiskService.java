@@ -0,0 +1,365 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletRiskResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.PriceMatrix;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Volatility, historical Value-at-Risk, drawdown and pairwise correlation of a wallet over daily
+ * closes. Returns are kept in one flat row-major array and the correlation matrix is
+ * built from standardized rows in cache-sized tiles on the shared simulation pool. Reports are
+ * cached per wallet version, so they are reused until a tick or a holding change moves the wallet.
+ */
+@Slf4j
+@Service
+public class WalletRiskService {
+
+    private static final int CORRELATION_BLOCK = 32;
+    private static final int OBSERVATION_TILE = 256;
+    private static final double DAYS_PER_YEAR = 365;
+
+    private final AssetRepository assetRepository;
+    private final WalletRepository walletRepository;
+    private final WalletVersionService walletVersionService;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final PriceHistoryStore priceHistoryStore;
+    private final AssetHistoryCache assetHistoryCache;
+    private final ForkJoinPool simulationPool;
+    private final int maxWindowDays;
+    private final Cache<Long, CachedReports> reportsByWalletId;
+
+    public WalletRiskService(
+            AssetRepository assetRepository,
+            WalletRepository walletRepository,
+            WalletVersionService walletVersionService,
+            ReplicaRoutingService replicaRoutingService,
+            PriceHistoryStore priceHistoryStore,
+            AssetHistoryCache assetHistoryCache,
+            ForkJoinPool simulationPool,
+            @Value("${benji.risk.max-window-days:1825}") int maxWindowDays,
+            @Value("${benji.risk.max-cached-wallets:1000}") long maxCachedWallets) {
+        this.assetRepository = assetRepository;
+        this.walletRepository = walletRepository;
+        this.walletVersionService = walletVersionService;
+        this.replicaRoutingService = replicaRoutingService;
+        this.priceHistoryStore = priceHistoryStore;
+        this.assetHistoryCache = assetHistoryCache;
+        this.simulationPool = simulationPool;
+        this.maxWindowDays = maxWindowDays;
+        this.reportsByWalletId = Caffeine.newBuilder()
+                .maximumSize(maxCachedWallets)
+                .build();
+        walletVersionService.onVersionChange(reportsByWalletId::invalidate);
+    }
+
+    public WalletRiskResponse getWalletRisk(Long walletId, int windowDays, BigDecimal confidence) {
+        if (windowDays < 2 || windowDays > maxWindowDays) {
+            throw new IllegalArgumentException("Window must be between 2 and " + maxWindowDays + " days.");
+        }
+        if (confidence.compareTo(new BigDecimal("0.5")) < 0 || confidence.compareTo(BigDecimal.ONE) >= 0) {
+            throw new IllegalArgumentException("Confidence must be at least 0.5 and below 1.");
+        }
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            if (!walletRepository.existsById(walletId)) {
+                throw new WalletDoesNotExistException("Wallet not found!");
+            }
+        }
+
+        RiskWindow window = new RiskWindow(windowDays, confidence.stripTrailingZeros());
+        long version = walletVersionService.currentVersion(walletId);
+        CachedReports cached = reportsByWalletId.getIfPresent(walletId);
+        if (cached != null && cached.version() == version) {
+            WalletRiskResponse report = cached.reports().get(window);
+            if (report != null) {
+                return report;
+            }
+        }
+
+        WalletRiskResponse report = analyze(walletId, window);
+        if (walletVersionService.currentVersion(walletId) == version) {
+            reportsByWalletId.asMap().compute(walletId, (id, existing) -> {
+                CachedReports reports = existing != null && existing.version() == version
+                        ? existing
+                        : new CachedReports(version, new ConcurrentHashMap<>());
+                reports.reports().put(window, report);
+                return reports;
+            });
+        }
+        return report;
+    }
+
+    private WalletRiskResponse analyze(Long walletId, RiskWindow window) {
+        Map<String, Holding> holdingsByAssetId = new LinkedHashMap<>();
+        List<WalletAssetRow> rows;
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            rows = assetRepository.findWalletAssetRows(walletId);
+        }
+        for (WalletAssetRow row : rows) {
+            holdingsByAssetId.merge(row.name(),
+                    new Holding(row.symbol(), row.quantity().doubleValue(), row.priceUsd().doubleValue()),
+                    (existing, added) -> new Holding(existing.symbol(), existing.quantity() + added.quantity(), added.priceUsd()));
+        }
+        if (holdingsByAssetId.isEmpty()) {
+            throw new IllegalArgumentException("Wallet holds no assets to analyze.");
+        }
+
+        LocalDate to = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate from = to.minusDays(window.days());
+        List<String> assetIds = new ArrayList<>(holdingsByAssetId.keySet());
+        List<DailyPriceSeries> histories = new ArrayList<>(assetIds.size());
+        for (String assetId : assetIds) {
+            histories.add(dailyCloses(assetId, from, to));
+        }
+        PriceMatrix matrix = PriceMatrix.align(histories);
+        int observations = matrix.days() - 1;
+        if (observations < 2) {
+            throw new IllegalArgumentException("Not enough overlapping price history to analyze the wallet.");
+        }
+
+        int assets = matrix.assetCount();
+        double[] quantities = new double[assets];
+        double[] weights = new double[assets];
+        double currentValue = 0;
+        for (int i = 0; i < assets; i++) {
+            Holding holding = holdingsByAssetId.get(assetIds.get(i));
+            quantities[i] = holding.quantity();
+            weights[i] = holding.quantity() * holding.priceUsd();
+            currentValue += weights[i];
+        }
+
+        double[] values = new double[matrix.days()];
+        double[] returns = new double[assets * observations];
+        for (int i = 0; i < assets; i++) {
+            double[] closes = matrix.closes()[i];
+            int row = i * observations;
+            for (int day = 0; day < observations; day++) {
+                returns[row + day] = Math.log(closes[day + 1] / closes[day]);
+            }
+            for (int day = 0; day < closes.length; day++) {
+                values[day] += quantities[i] * closes[day];
+            }
+        }
+
+        double[] portfolioReturns = new double[observations];
+        double logReturnSum = 0;
+        for (int day = 0; day < observations; day++) {
+            portfolioReturns[day] = values[day + 1] / values[day] - 1;
+            logReturnSum += Math.log1p(portfolioReturns[day]);
+        }
+        double logReturnMean = logReturnSum / observations;
+        double squaredDeviations = 0;
+        for (double portfolioReturn : portfolioReturns) {
+            double deviation = Math.log1p(portfolioReturn) - logReturnMean;
+            squaredDeviations += deviation * deviation;
+        }
+        double dailyVolatility = Math.sqrt(squaredDeviations / (observations - 1));
+
+        Arrays.sort(portfolioReturns);
+        int tail = Math.max(1, (int) Math.floor((1 - window.confidence().doubleValue()) * observations));
+        double tailSum = 0;
+        for (int day = 0; day < tail; day++) {
+            tailSum += portfolioReturns[day];
+        }
+        double valueAtRisk = Math.max(0, -portfolioReturns[tail - 1]) * currentValue;
+        double expectedShortfall = Math.max(0, -tailSum / tail) * currentValue;
+
+        double peak = values[0];
+        double maxDrawdown = 0;
+        for (double value : values) {
+            peak = Math.max(peak, value);
+            if (peak > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+            }
+        }
+
+        double[] volatilities = standardizeRows(returns, assets, observations);
+        double[][] correlation = new double[assets][assets];
+        long startedAt = System.nanoTime();
+        int blocks = (assets + CORRELATION_BLOCK - 1) / CORRELATION_BLOCK;
+        simulationPool.invoke(new CorrelationTask(returns, observations, correlation, 0, blocks));
+        log.debug("Computed {}x{} correlation over {} days for wallet {} in {} ms", assets, assets, observations,
+                walletId, (System.nanoTime() - startedAt) / 1_000_000);
+
+        List<WalletRiskResponse.AssetRisk> assetRisks = new ArrayList<>(assets);
+        for (int i = 0; i < assets; i++) {
+            assetRisks.add(new WalletRiskResponse.AssetRisk(
+                    holdingsByAssetId.get(assetIds.get(i)).symbol(),
+                    assetIds.get(i),
+                    round(currentValue > 0 ? weights[i] / currentValue * 100 : 0),
+                    round(volatilities[i] * Math.sqrt(DAYS_PER_YEAR) * 100)));
+        }
+
+        return new WalletRiskResponse(
+                walletId,
+                matrix.firstDay(),
+                matrix.lastDay(),
+                observations,
+                window.confidence(),
+                round(currentValue),
+                round(dailyVolatility * 100),
+                round(dailyVolatility * Math.sqrt(DAYS_PER_YEAR) * 100),
+                round(valueAtRisk),
+                round(expectedShortfall),
+                round(maxDrawdown * 100),
+                assetRisks,
+                correlation);
+    }
+
+    /**
+     * Prefers the closes captured from the price ticks the wallet is valued at. The capture only
+     * starts with the first tick this deployment saw and can be disabled, so a window it does not
+     * cover end to end is read from the CoinCap daily history instead.
+     */
+    private DailyPriceSeries dailyCloses(String assetId, LocalDate from, LocalDate to) {
+        DailyPriceSeries captured = priceHistoryStore.dailyCloses(assetId, from, to);
+        if (!captured.isEmpty() && captured.firstDay().equals(from) && captured.lastDay().equals(to)) {
+            return captured;
+        }
+        return assetHistoryCache.dailyCloses(assetId, from, to);
+    }
+
+    /**
+     * Rescales each row of {@code returns} in place to zero mean and unit length, so the
+     * correlation of two assets becomes the dot product of their rows. Returns the sample standard
+     * deviation of every row; flat rows become all zeros.
+     */
+    private static double[] standardizeRows(double[] returns, int assets, int observations) {
+        double[] volatilities = new double[assets];
+        for (int i = 0; i < assets; i++) {
+            int row = i * observations;
+            double sum = 0;
+            for (int day = 0; day < observations; day++) {
+                sum += returns[row + day];
+            }
+            double mean = sum / observations;
+            double squaredDeviations = 0;
+            for (int day = 0; day < observations; day++) {
+                double deviation = returns[row + day] - mean;
+                returns[row + day] = deviation;
+                squaredDeviations += deviation * deviation;
+            }
+            volatilities[i] = Math.sqrt(squaredDeviations / (observations - 1));
+            double scale = squaredDeviations > 0 ? 1 / Math.sqrt(squaredDeviations) : 0;
+            for (int day = 0; day < observations; day++) {
+                returns[row + day] *= scale;
+            }
+        }
+        return volatilities;
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record Holding(String symbol, double quantity, double priceUsd) {
+    }
+
+    private record RiskWindow(int days, BigDecimal confidence) {
+    }
+
+    private record CachedReports(long version, Map<RiskWindow, WalletRiskResponse> reports) {
+    }
+
+    /**
+     * Fills the lower triangle of the correlation matrix one block row at a time and mirrors it.
+     * Each tile accumulates dot products over slices of the observations so the rows it touches
+     * stay in cache.
+     */
+    private static final class CorrelationTask extends RecursiveAction {
+
+        private final double[] standardized;
+        private final int observations;
+        private final double[][] correlation;
+        private final int fromBlock;
+        private final int toBlock;
+
+        CorrelationTask(double[] standardized, int observations, double[][] correlation, int fromBlock, int toBlock) {
+            this.standardized = standardized;
+            this.observations = observations;
+            this.correlation = correlation;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                invokeAll(new CorrelationTask(standardized, observations, correlation, fromBlock, middle),
+                        new CorrelationTask(standardized, observations, correlation, middle, toBlock));
+                return;
+            }
+            int assets = correlation.length;
+            int firstRow = fromBlock * CORRELATION_BLOCK;
+            int lastRow = Math.min(firstRow + CORRELATION_BLOCK, assets);
+            double[][] tile = new double[CORRELATION_BLOCK][CORRELATION_BLOCK];
+            for (int firstColumn = 0; firstColumn <= firstRow; firstColumn += CORRELATION_BLOCK) {
+                int lastColumn = Math.min(firstColumn + CORRELATION_BLOCK, assets);
+                for (double[] tileRow : tile) {
+                    Arrays.fill(tileRow, 0);
+                }
+                for (int offset = 0; offset < observations; offset += OBSERVATION_TILE) {
+                    int length = Math.min(OBSERVATION_TILE, observations - offset);
+                    for (int i = firstRow; i < lastRow; i++) {
+                        int columnLimit = Math.min(lastColumn, i);
+                        for (int j = firstColumn; j < columnLimit; j++) {
+                            tile[i - firstRow][j - firstColumn] +=
+                                    dot(standardized, i * observations + offset, j * observations + offset, length);
+                        }
+                    }
+                }
+                for (int i = firstRow; i < lastRow; i++) {
+                    int columnLimit = Math.min(lastColumn, i);
+                    for (int j = firstColumn; j < columnLimit; j++) {
+                        double value = Math.max(-1, Math.min(1, tile[i - firstRow][j - firstColumn]));
+                        correlation[i][j] = Math.round(value * 10_000) / 10_000.0;
+                        correlation[j][i] = correlation[i][j];
+                    }
+                }
+            }
+            for (int i = firstRow; i < lastRow; i++) {
+                correlation[i][i] = 1;
+            }
+        }
+
+        private static double dot(double[] values, int left, int right, int length) {
+            double sum0 = 0;
+            double sum1 = 0;
+            double sum2 = 0;
+            double sum3 = 0;
+            int k = 0;
+            for (; k + 3 < length; k += 4) {
+                sum0 += values[left + k] * values[right + k];
+                sum1 += values[left + k + 1] * values[right + k + 1];
+                sum2 += values[left + k + 2] * values[right + k + 2];
+                sum3 += values[left + k + 3] * values[right + k + 3];
+            }
+            for (; k < length; k++) {
+                sum0 += values[left + k] * values[right + k];
+            }
+            return (sum0 + sum1) + (sum2 + sum3);
+        }
+    }
+}
@@ -1,26 +1,26 @@
 package com.benji.services;
 
-import com.benji.coincap.service.CoinCapAssetUpdateService;
-import com.benji.coincap.service.dto.CoinCapAssetResponse;
-import com.benji.coincap.service.dto.CoinCapData;
 import com.benji.controllers.dto.AddAssetRequest;
 import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.controllers.dto.WithdrawAssetRequest;
+import com.benji.events.WalletAssetsChangedEvent;
 import com.benji.exception.AssetDoesNotExistException;
 import com.benji.exception.NoCoinCapApiResponseException;
 import com.benji.exception.WalletAlreadyExistsException;
 import com.benji.exception.WalletDoesNotExistException;
 import com.benji.models.entities.Asset;
-import com.benji.models.entities.AssetSymbolMapping;
 import com.benji.models.entities.User;
 import com.benji.models.entities.Wallet;
+import com.benji.monitoring.WalletWriteEvent;
 import com.benji.repositories.AssetRepository;
-import com.benji.repositories.AssetSymbolMappingRepository;
 import com.benji.repositories.UserRepository;
 import com.benji.repositories.WalletRepository;
-import jakarta.transaction.Transactional;
+import com.benji.services.models.SymbolMapping;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -34,12 +34,30 @@ public class WalletService {
     private final UserRepository userRepository;
     private final AssetRepository assetRepository;
     private final WalletRepository walletRepository;
-    private final AssetSymbolMappingRepository assetSymbolMappingRepository;
+    private final AssetSymbolIndex assetSymbolIndex;
 
-    private final CoinCapAssetUpdateService coinCapAssetUpdateService;
+    private final PriceLookupService priceLookupService;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final WalletLedgerService walletLedgerService;
+    private final CostBasisService costBasisService;
+    private final AssetExposureService assetExposureService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CreateUserWalletResponse createWallet(String email) {
+        WalletWriteEvent writeEvent = new WalletWriteEvent();
+        writeEvent.begin();
+        CreateUserWalletResponse response = null;
+        try {
+            response = doCreateWallet(email);
+            return response;
+        } finally {
+            commitWalletWriteEvent(writeEvent, "createWallet",
+                    response != null ? Long.parseLong(response.walletId()) : 0L, null, response != null);
+        }
+    }
+
+    private CreateUserWalletResponse doCreateWallet(String email) {
         log.info("createWallet request received for email: {}", email);
 
         User user = userRepository.findByEmail(email).orElseGet(() -> {
@@ -58,13 +76,28 @@ public class WalletService {
         user.setWallet(wallet);
 
         userRepository.save(user);
+        replicaRoutingService.recordWrite(wallet.getId());
 
         log.info("Wallet created for user with email: {}", email);
         return new CreateUserWalletResponse(wallet.getId().toString(), user.getEmail(), List.of());
     }
 
 
+    @Transactional
     public CreateUserWalletResponse addAssetToWallet(Long walletId, AddAssetRequest request) {
+        WalletWriteEvent writeEvent = new WalletWriteEvent();
+        writeEvent.begin();
+        boolean success = false;
+        try {
+            CreateUserWalletResponse response = doAddAssetToWallet(walletId, request);
+            success = true;
+            return response;
+        } finally {
+            commitWalletWriteEvent(writeEvent, "addAssetToWallet", walletId, request.symbol(), success);
+        }
+    }
+
+    private CreateUserWalletResponse doAddAssetToWallet(Long walletId, AddAssetRequest request) {
         log.info("addAssetToWallet request received for walletId: {}", walletId);
         log.info("AddAssetRequest: {}", request);
         Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> {
@@ -74,54 +107,152 @@ public class WalletService {
 
         String requestSymbol = request.symbol();
         log.info("Checking if asset symbol exists on assetName <-> assetSymbol map for symbol: {}", requestSymbol);
-        AssetSymbolMapping assetSymbolMapping = assetSymbolMappingRepository.findBySymbol(requestSymbol)
+        SymbolMapping symbolMapping = assetSymbolIndex.lookup(requestSymbol)
                 .orElseThrow(() -> {
                     log.error("Invalid incoming Symbol, no Asset exists for Symbol: " + requestSymbol);
                     return new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + requestSymbol);
                 });
+        String assetSymbol = symbolMapping.symbol();
 
-        log.info("Fetching Asset Symbol {}, latest price from CoinCap API...", assetSymbolMapping.getId());
-        CoinCapAssetResponse coinCapAssetResponse = coinCapAssetUpdateService.fetchLatestPrice(assetSymbolMapping.getId())
-                .blockOptional()
+        log.info("Resolving latest price for Asset Symbol {}...", symbolMapping.id());
+        BigDecimal priceUsd = priceLookupService.currentPrice(symbolMapping.id())
                 .orElseThrow(() -> {
                     log.error("CoinCap Data not retrived for : " + requestSymbol);
                     return new NoCoinCapApiResponseException("CoinCap Data not retrived for : " + requestSymbol);
                 });
 
         log.info("Updating Asset Data on User Wallet...");
-        CoinCapData coinCapAssetData = coinCapAssetResponse.data();
 
-        Optional<Asset> existingAsset = wallet.getAssets().stream()
-                .filter(asset -> asset.getSymbol().equals(requestSymbol))
+        // Locked like withdrawals, so a concurrent withdrawal's cost basis and realized P&L are not
+        // overwritten by a deposit that read the row before it committed.
+        Optional<Asset> existingAsset = assetRepository.findForUpdate(wallet.getId(), assetSymbol).stream()
                 .findFirst();
 
+        walletLedgerService.recordDeposit(wallet.getId(), existingAsset.orElse(null), symbolMapping.id(), assetSymbol,
+                request.quantity(), priceUsd);
+
         if(existingAsset.isPresent()) {
             Asset assetToUpdate = existingAsset.get();
-            assetToUpdate.setQuantity(assetToUpdate.getQuantity().add(request.quantity()));
+            BigDecimal quantityBefore = assetToUpdate.getQuantity();
+            costBasisService.acquire(wallet.getId(), assetToUpdate, request.quantity(), priceUsd);
+            assetToUpdate.setQuantity(quantityBefore.add(request.quantity()));
+            assetExposureService.recordHoldingChange(symbolMapping.id(), assetSymbol, quantityBefore,
+                    assetToUpdate.getQuantity(), priceUsd);
 
             assetRepository.save(assetToUpdate);
         } else {
             Asset asset = new Asset();
-            asset.setSymbol(requestSymbol);
-            asset.setName(coinCapAssetData.id());
-            asset.setPriceUsd(new BigDecimal(coinCapAssetData.priceUsd()));
+            asset.setSymbol(assetSymbol);
+            asset.setName(symbolMapping.id());
+            asset.setPriceUsd(priceUsd);
             asset.setQuantity(request.quantity());
             asset.setWallet(wallet);
+            costBasisService.acquire(wallet.getId(), asset, request.quantity(), priceUsd);
+            assetExposureService.recordHoldingChange(symbolMapping.id(), assetSymbol, BigDecimal.ZERO, request.quantity(), priceUsd);
 
             assetRepository.save(asset);
             wallet.getAssets().add(asset);
             walletRepository.save(wallet);
         }
 
+        replicaRoutingService.recordWrite(wallet.getId());
+        eventPublisher.publishEvent(new WalletAssetsChangedEvent(wallet.getId(), symbolMapping.id()));
         log.info("Asset Updated on User Wallet!");
         return new CreateUserWalletResponse(wallet.getId().toString(), wallet.getUser().getEmail(), wallet.getAssets().stream().map(CreateUserWalletResponse.UserAssets::fromAssetEntity).toList());
     }
 
 
-    public CreateUserWalletResponse getWalletInformation(Long walletId) {
-        log.info("getWalletInformation request received for walletId {}", walletId);
+    @Transactional
+    public CreateUserWalletResponse withdrawAssetFromWallet(Long walletId, WithdrawAssetRequest request) {
+        WalletWriteEvent writeEvent = new WalletWriteEvent();
+        writeEvent.begin();
+        boolean success = false;
+        try {
+            CreateUserWalletResponse response = doWithdrawAssetFromWallet(walletId, request);
+            success = true;
+            return response;
+        } finally {
+            commitWalletWriteEvent(writeEvent, "withdrawAssetFromWallet", walletId, request.symbol(), success);
+        }
+    }
+
+    private CreateUserWalletResponse doWithdrawAssetFromWallet(Long walletId, WithdrawAssetRequest request) {
+        log.info("withdrawAssetFromWallet request received for walletId: {}", walletId);
+        Wallet.CostBasisMethod costBasisMethod = walletRepository.lockCostBasisMethod(walletId)
+                .orElseThrow(() -> new WalletDoesNotExistException("Wallet not found!"));
         Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new WalletDoesNotExistException("Wallet not found!"));
+        SymbolMapping symbolMapping = assetSymbolIndex.lookup(request.symbol())
+                .orElseThrow(() -> new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + request.symbol()));
+
+        // Locked so concurrent withdrawals cannot consume the same lots.
+        Asset asset = assetRepository.findForUpdate(walletId, symbolMapping.symbol()).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Wallet does not hold " + symbolMapping.symbol() + "."));
+        if (request.quantity().compareTo(asset.getQuantity()) > 0) {
+            throw new IllegalArgumentException("Cannot withdraw " + request.quantity() + " " + symbolMapping.symbol()
+                    + ", the wallet holds " + asset.getQuantity() + ".");
+        }
+
+        BigDecimal priceUsd = priceLookupService.currentPrice(symbolMapping.id())
+                .orElseThrow(() -> new NoCoinCapApiResponseException("CoinCap Data not retrived for : " + request.symbol()));
+
+        walletLedgerService.recordWithdrawal(walletId, asset, request.quantity(), priceUsd);
+        BigDecimal realized = costBasisService.dispose(walletId, costBasisMethod, asset, request.quantity(), priceUsd);
+        BigDecimal quantityBefore = asset.getQuantity();
+        asset.setQuantity(quantityBefore.subtract(request.quantity()));
+        assetRepository.save(asset);
+        assetExposureService.recordHoldingChange(symbolMapping.id(), asset.getSymbol(), quantityBefore, asset.getQuantity(), priceUsd);
 
+        replicaRoutingService.recordWrite(walletId);
+        eventPublisher.publishEvent(new WalletAssetsChangedEvent(walletId, symbolMapping.id()));
+        log.info("Withdrew {} {} from wallet {}, realized P&L {}", request.quantity(), symbolMapping.symbol(), walletId, realized);
         return new CreateUserWalletResponse(wallet.getId().toString(), wallet.getUser().getEmail(), wallet.getAssets().stream().map(CreateUserWalletResponse.UserAssets::fromAssetEntity).toList());
     }
+
+    /**
+     * Switches how withdrawals pick the lots they dispose of. Only allowed before the first
+     * withdrawal, since the methods leave lots and cost basis in states the others cannot continue
+     * from.
+     */
+    @Transactional
+    public void setCostBasisMethod(Long walletId, Wallet.CostBasisMethod method) {
+        Wallet.CostBasisMethod current = walletRepository.lockCostBasisMethod(walletId)
+                .orElseThrow(() -> new WalletDoesNotExistException("Wallet not found!"));
+        if (current == method) {
+            return;
+        }
+        if (walletLedgerService.hasWithdrawals(walletId)) {
+            throw new IllegalArgumentException("The cost basis method cannot change after the first withdrawal.");
+        }
+        walletRepository.updateCostBasisMethod(walletId, method);
+        replicaRoutingService.recordWrite(walletId);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean walletExists(Long walletId) {
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            return walletRepository.existsById(walletId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CreateUserWalletResponse getWalletInformation(Long walletId) {
+        log.info("getWalletInformation request received for walletId {}", walletId);
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new WalletDoesNotExistException("Wallet not found!"));
+
+            return new CreateUserWalletResponse(wallet.getId().toString(), wallet.getUser().getEmail(), wallet.getAssets().stream().map(CreateUserWalletResponse.UserAssets::fromAssetEntity).toList());
+        }
+    }
+
+    private static void commitWalletWriteEvent(WalletWriteEvent event, String operation, Long walletId, String symbol, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.walletId = walletId != null ? walletId : 0L;
+            event.symbol = symbol;
+            event.success = success;
+            event.commit();
+        }
+    }
 }
@@ -1,14 +1,12 @@
 package com.benji.services;
 
-import com.benji.coincap.service.CoinCapAssetUpdateService;
-import com.benji.coincap.service.dto.CoinCapAssetResponse;
 import com.benji.controllers.dto.WalletSimulationRequest;
 import com.benji.controllers.dto.WalletSimulationResponse;
 import com.benji.exception.AssetDoesNotExistException;
 import com.benji.exception.NoCoinCapApiResponseException;
-import com.benji.models.entities.AssetSymbolMapping;
-import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.monitoring.WalletSimulationEvent;
 import com.benji.services.models.SimulatedAssetEvaluation;
+import com.benji.services.models.SymbolMapping;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,10 +22,29 @@ import java.util.List;
 @Slf4j
 public class WalletSimulationService {
 
-    private final CoinCapAssetUpdateService coinCapAssetUpdateService;
-    private final AssetSymbolMappingRepository assetSymbolMappingRepository;
+    private final PriceLookupService priceLookupService;
+    private final AssetSymbolIndex assetSymbolIndex;
 
     public WalletSimulationResponse simulateWalletEvolution(WalletSimulationRequest request) {
+        WalletSimulationEvent simulationEvent = new WalletSimulationEvent();
+        simulationEvent.begin();
+        boolean success = false;
+        try {
+            WalletSimulationResponse response = evaluateWalletEvolution(request);
+            success = true;
+            return response;
+        } finally {
+            simulationEvent.end();
+            if (simulationEvent.shouldCommit()) {
+                simulationEvent.simulationType = "evolution";
+                simulationEvent.assetCount = request.assets().size();
+                simulationEvent.success = success;
+                simulationEvent.commit();
+            }
+        }
+    }
+
+    private WalletSimulationResponse evaluateWalletEvolution(WalletSimulationRequest request) {
         log.info("simulateWalletEvolution request received");
         List<SimulatedAssetEvaluation> evaluatedAssets = new ArrayList<>();
 
@@ -36,23 +53,21 @@ public class WalletSimulationService {
             BigDecimal quantity = simulatedAsset.quantity();
             BigDecimal simulatedValue = simulatedAsset.value();
 
-            log.info("Fetching coinCap asset data for {}...", simulationSymbol);
-            AssetSymbolMapping assetSymbolMapping = assetSymbolMappingRepository.findBySymbol(simulationSymbol)
+            log.info("Resolving current price for {}...", simulationSymbol);
+            SymbolMapping symbolMapping = assetSymbolIndex.lookup(simulationSymbol)
                     .orElseThrow(() -> {
                         log.error("Invalid incoming Symbol, no Asset exists for Symbol: " + simulationSymbol);
                         return new AssetDoesNotExistException("Invalid incoming Symbol, no Asset exists for Symbol: " + simulationSymbol);
                     });
 
-            String requestSymbol = assetSymbolMapping.getId();
-            CoinCapAssetResponse coinCapAssetResponse = coinCapAssetUpdateService.fetchLatestPrice(requestSymbol)
-                    .blockOptional()
+            String requestSymbol = symbolMapping.id();
+            BigDecimal currentValue = priceLookupService.currentPrice(requestSymbol)
                     .orElseThrow(() -> {
                         log.error("CoinCap Data not retrieved for : " + requestSymbol);
                         return new NoCoinCapApiResponseException("CoinCap Data not retrieved for : " + requestSymbol);
                     });
 
             log.info("Calculating asset performance...");
-            BigDecimal currentValue = new BigDecimal(coinCapAssetResponse.data().priceUsd());
 
             // performance = (currentValue - simulatedValue) / simulatedValue * 100
             BigDecimal performance = currentValue.subtract(simulatedValue)
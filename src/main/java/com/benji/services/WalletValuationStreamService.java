@@ -0,0 +1,150 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.events.SharedVersionsChangedEvent;
+import com.benji.events.WalletAssetsChangedEvent;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.repositories.AssetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes wallet valuations to SSE subscribers. One stream is kept per watched wallet and the
+ * wallet is re-read at most once per change, regardless of how many clients are connected.
+ * Every subscriber conflates independently, so a slow client only ever sees the latest state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletValuationStreamService {
+
+    private final WalletService walletService;
+    private final AssetRepository assetRepository;
+
+    @Value("${benji.stream.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    private final Map<Long, WalletStream> streams = new ConcurrentHashMap<>();
+
+    public Flux<ServerSentEvent<CreateUserWalletResponse>> streamWallet(Long walletId) {
+        CreateUserWalletResponse current = walletService.getWalletInformation(walletId);
+
+        Flux<ServerSentEvent<CreateUserWalletResponse>> updates = Flux.defer(() -> {
+                    WalletStream stream = acquire(walletId, current);
+                    return stream.sink.asFlux()
+                            .onBackpressureLatest()
+                            .doFinally(signal -> release(walletId, stream));
+                })
+                .map(response -> ServerSentEvent.builder(response)
+                        .event("wallet")
+                        .build());
+
+        Flux<ServerSentEvent<CreateUserWalletResponse>> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<CreateUserWalletResponse>builder()
+                        .comment("keep-alive")
+                        .build());
+
+        return updates.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.then())));
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        streams.values().stream()
+                .filter(stream -> !Collections.disjoint(stream.assetNames, event.pricesByAssetName().keySet()))
+                .forEach(stream -> Schedulers.boundedElastic().schedule(() -> refresh(stream)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletAssetsChanged(WalletAssetsChangedEvent event) {
+        WalletStream stream = streams.get(event.walletId());
+        if (stream != null) {
+            Schedulers.boundedElastic().schedule(() -> refresh(stream));
+        }
+    }
+
+    @EventListener
+    public void onSharedVersionsChanged(SharedVersionsChangedEvent event) {
+        streams.values().stream()
+                .filter(stream -> event.walletIds().contains(stream.walletId)
+                        || !Collections.disjoint(stream.assetNames, event.assetNames()))
+                .forEach(stream -> Schedulers.boundedElastic().schedule(() -> refresh(stream)));
+    }
+
+    public int activeStreams() {
+        return streams.size();
+    }
+
+    private WalletStream acquire(Long walletId, CreateUserWalletResponse current) {
+        WalletStream stream = streams.compute(walletId, (id, existing) -> {
+            WalletStream acquired = existing != null ? existing : new WalletStream(id);
+            acquired.subscribers++;
+            return acquired;
+        });
+        stream.assetNames = Set.copyOf(assetRepository.findDistinctAssetNamesByWalletId(walletId));
+        stream.emitIfChanged(current);
+        return stream;
+    }
+
+    private void release(Long walletId, WalletStream stream) {
+        streams.computeIfPresent(walletId, (id, existing) -> {
+            if (existing != stream) {
+                return existing;
+            }
+            existing.subscribers--;
+            return existing.subscribers > 0 ? existing : null;
+        });
+    }
+
+    private void refresh(WalletStream stream) {
+        try {
+            stream.assetNames = Set.copyOf(assetRepository.findDistinctAssetNamesByWalletId(stream.walletId));
+            stream.emitIfChanged(walletService.getWalletInformation(stream.walletId));
+        } catch (WalletDoesNotExistException e) {
+            log.warn("Wallet {} no longer exists, closing its valuation stream.", stream.walletId);
+            streams.remove(stream.walletId, stream);
+            stream.complete();
+        } catch (RuntimeException e) {
+            log.error("Error refreshing valuation stream for wallet {}: {}", stream.walletId, e.getMessage());
+        }
+    }
+
+    private static final class WalletStream {
+        private final Long walletId;
+        private final Sinks.Many<CreateUserWalletResponse> sink = Sinks.many().replay().latest();
+        private volatile Set<String> assetNames = Set.of();
+        private CreateUserWalletResponse lastEmitted;
+        private int subscribers;
+
+        private WalletStream(Long walletId) {
+            this.walletId = walletId;
+        }
+
+        private synchronized void emitIfChanged(CreateUserWalletResponse response) {
+            if (Objects.equals(lastEmitted, response)) {
+                return;
+            }
+            lastEmitted = response;
+            sink.tryEmitNext(response);
+        }
+
+        private synchronized void complete() {
+            sink.tryEmitComplete();
+        }
+    }
+}
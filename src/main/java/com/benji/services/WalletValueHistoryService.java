@@ -0,0 +1,228 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletValueHistoryResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.WalletValueBucket;
+import com.benji.models.projections.WalletValueRow;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.repositories.WalletValueBucketRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the value of wallets whose version advanced into minute, hour and day OHLC buckets,
+ * on the node that owns each wallet.
+ */
+@Slf4j
+@Service
+public class WalletValueHistoryService {
+
+    private static final int WALLET_BATCH_SIZE = 1000;
+
+    private static final String MERGE_BUCKET_SQL = """
+            MERGE INTO wallet_value_buckets b
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP(6) WITH TIME ZONE),
+                           CAST(? AS NUMERIC(38,2)))) s(wallet_id, resolution, bucket_start, value_usd)
+            ON b.wallet_id = s.wallet_id AND b.resolution = s.resolution AND b.bucket_start = s.bucket_start
+            WHEN MATCHED THEN UPDATE SET
+                high_usd = GREATEST(b.high_usd, s.value_usd),
+                low_usd = LEAST(b.low_usd, s.value_usd),
+                close_usd = s.value_usd
+            WHEN NOT MATCHED THEN INSERT (wallet_id, resolution, bucket_start, open_usd, high_usd, low_usd, close_usd)
+                VALUES (s.wallet_id, s.resolution, s.bucket_start, s.value_usd, s.value_usd, s.value_usd, s.value_usd)
+            """;
+
+    private final AssetRepository assetRepository;
+    private final WalletRepository walletRepository;
+    private final WalletValueBucketRepository walletValueBucketRepository;
+    private final WalletVersionService walletVersionService;
+    private final ReplicaRoutingService replicaRoutingService;
+    private final ClusterCoordinator clusterCoordinator;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxPoints;
+    private final Map<WalletValueBucket.Resolution, Duration> retention;
+    private final Clock clock;
+    private final Set<Long> dirtyWalletIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WalletValueHistoryService(
+            AssetRepository assetRepository,
+            WalletRepository walletRepository,
+            WalletValueBucketRepository walletValueBucketRepository,
+            WalletVersionService walletVersionService,
+            ReplicaRoutingService replicaRoutingService,
+            ClusterCoordinator clusterCoordinator,
+            JdbcTemplate jdbcTemplate,
+            @Value("${benji.wallet-history.enabled:true}") boolean enabled,
+            @Value("${benji.wallet-history.max-points:1000}") int maxPoints,
+            @Value("${benji.wallet-history.minute-retention:2d}") Duration minuteRetention,
+            @Value("${benji.wallet-history.hour-retention:90d}") Duration hourRetention,
+            @Value("${benji.wallet-history.day-retention:1825d}") Duration dayRetention) {
+        this(assetRepository, walletRepository, walletValueBucketRepository, walletVersionService, replicaRoutingService,
+                clusterCoordinator, jdbcTemplate, enabled, maxPoints, Map.of(
+                        WalletValueBucket.Resolution.MINUTE, minuteRetention,
+                        WalletValueBucket.Resolution.HOUR, hourRetention,
+                        WalletValueBucket.Resolution.DAY, dayRetention),
+                Clock.systemUTC());
+    }
+
+    WalletValueHistoryService(AssetRepository assetRepository, WalletRepository walletRepository,
+                              WalletValueBucketRepository walletValueBucketRepository,
+                              WalletVersionService walletVersionService, ReplicaRoutingService replicaRoutingService,
+                              ClusterCoordinator clusterCoordinator, JdbcTemplate jdbcTemplate, boolean enabled, int maxPoints,
+                              Map<WalletValueBucket.Resolution, Duration> retention, Clock clock) {
+        this.assetRepository = assetRepository;
+        this.walletRepository = walletRepository;
+        this.walletValueBucketRepository = walletValueBucketRepository;
+        this.walletVersionService = walletVersionService;
+        this.replicaRoutingService = replicaRoutingService;
+        this.clusterCoordinator = clusterCoordinator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxPoints = maxPoints;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            walletVersionService.onVersionChange(dirtyWalletIds::add);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.wallet-history.flush-rate:5000}")
+    public void flush() {
+        if (!enabled || dirtyWalletIds.isEmpty()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        List<Long> batch = new ArrayList<>(WALLET_BATCH_SIZE);
+        int recorded = 0;
+        for (Long walletId : dirtyWalletIds) {
+            // Wallets stay dirty while ownership is unknown, so a lapsed lease does not lose their points.
+            String key = "wallet:" + walletId;
+            if (clusterCoordinator.owns(key)) {
+                batch.add(walletId);
+            } else if (clusterCoordinator.ownedElsewhere(key)) {
+                dirtyWalletIds.remove(walletId);
+            }
+            if (batch.size() == WALLET_BATCH_SIZE) {
+                recorded += record(batch, now);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            recorded += record(batch, now);
+        }
+        log.debug("Recorded the value of {} wallets.", recorded);
+    }
+
+    private int record(List<Long> walletIds, Instant at) {
+        // Cleared before the read, so a change committed meanwhile marks the wallet dirty again.
+        walletIds.forEach(dirtyWalletIds::remove);
+        try {
+            List<WalletValueRow> values = assetRepository.sumValuesByWalletIds(walletIds);
+            List<Object[]> rows = new ArrayList<>(values.size() * WalletValueBucket.Resolution.values().length);
+            for (WalletValueRow value : values) {
+                for (WalletValueBucket.Resolution resolution : WalletValueBucket.Resolution.values()) {
+                    rows.add(new Object[]{value.walletId(), resolution.name(),
+                            resolution.bucketStart(at).atOffset(ZoneOffset.UTC), value.valueUsd()});
+                }
+            }
+            jdbcTemplate.batchUpdate(MERGE_BUCKET_SQL, rows);
+            return values.size();
+        } catch (DataAccessException e) {
+            // Another node may have opened the same bucket concurrently; the next flush retries.
+            dirtyWalletIds.addAll(walletIds);
+            log.warn("Could not record the value of {} wallets: {}", walletIds.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${benji.wallet-history.prune-rate:3600000}")
+    public void prune() {
+        if (!enabled || !clusterCoordinator.owns("wallet-history:prune")) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        retention.forEach((resolution, keep) -> {
+            int deleted = walletValueBucketRepository.deleteOlderThan(resolution, now.minus(keep));
+            if (deleted > 0) {
+                log.info("Pruned {} {} wallet value buckets older than {}.", deleted, resolution, keep);
+            }
+        });
+    }
+
+    /**
+     * Buckets of the wallet's value between {@code from} and {@code to}. Without an explicit
+     * resolution the finest one that is still retained for {@code from} and fits the range into
+     * {@code max-points} buckets is used.
+     */
+    public WalletValueHistoryResponse getValueHistory(Long walletId, Instant from, Instant to, String resolutionParameter) {
+        Instant rangeEnd = to != null ? to : clock.instant();
+        Instant rangeStart = from != null ? from : rangeEnd.minus(Duration.ofDays(1));
+        if (rangeStart.isAfter(rangeEnd)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+
+        WalletValueBucket.Resolution resolution;
+        if (resolutionParameter != null && !resolutionParameter.isBlank()) {
+            resolution = WalletValueBucket.Resolution.fromParameter(resolutionParameter);
+            if (buckets(rangeStart, rangeEnd, resolution) > maxPoints) {
+                throw new IllegalArgumentException("The range spans more than " + maxPoints + " " + resolution
+                        + " buckets, use a coarser resolution or a shorter range.");
+            }
+        } else {
+            resolution = resolutionFor(rangeStart, rangeEnd);
+        }
+
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(walletId)) {
+            if (!walletRepository.existsById(walletId)) {
+                throw new WalletDoesNotExistException("Wallet not found!");
+            }
+            List<WalletValueHistoryResponse.Point> points = walletValueBucketRepository
+                    .findRange(walletId, resolution, resolution.bucketStart(rangeStart), rangeEnd, Limit.of(maxPoints))
+                    .stream()
+                    .map(WalletValueHistoryResponse.Point::fromEntity)
+                    .toList();
+            return new WalletValueHistoryResponse(walletId.toString(), resolution, rangeStart, rangeEnd, points);
+        }
+    }
+
+    private WalletValueBucket.Resolution resolutionFor(Instant from, Instant to) {
+        Instant now = clock.instant();
+        for (WalletValueBucket.Resolution resolution : WalletValueBucket.Resolution.values()) {
+            boolean retained = !from.isBefore(now.minus(retention.get(resolution)));
+            if (retained && buckets(from, to, resolution) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return WalletValueBucket.Resolution.DAY;
+    }
+
+    private static long buckets(Instant from, Instant to, WalletValueBucket.Resolution resolution) {
+        return Duration.between(resolution.bucketStart(from), to).dividedBy(resolution.duration()) + 1;
+    }
+}
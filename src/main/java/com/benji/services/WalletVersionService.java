@@ -0,0 +1,129 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.events.SharedVersionsChangedEvent;
+import com.benji.events.WalletAssetsChangedEvent;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Version per wallet, advanced after committed asset changes and price ticks of held assets.
+ * In the cluster modes it is read from the shared snapshot so every node serves the same ETag.
+ */
+@Slf4j
+@Service
+public class WalletVersionService {
+
+    private final AssetRepository assetRepository;
+    private final WalletVersionRepository walletVersionRepository;
+    private final SharedPriceSnapshotService sharedPriceSnapshotService;
+    private final boolean shared;
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final Map<Long, Long> versionsByWalletId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final List<LongConsumer> versionListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public WalletVersionService(AssetRepository assetRepository,
+                                WalletVersionRepository walletVersionRepository,
+                                SharedPriceSnapshotService sharedPriceSnapshotService,
+                                ClusterCoordinator clusterCoordinator) {
+        this(assetRepository, walletVersionRepository, sharedPriceSnapshotService,
+                clusterCoordinator.mode() != ClusterCoordinator.Mode.SINGLE);
+    }
+
+    WalletVersionService(AssetRepository assetRepository) {
+        this(assetRepository, null, null, false);
+    }
+
+    WalletVersionService(AssetRepository assetRepository,
+                         WalletVersionRepository walletVersionRepository,
+                         SharedPriceSnapshotService sharedPriceSnapshotService,
+                         boolean shared) {
+        this.assetRepository = assetRepository;
+        this.walletVersionRepository = walletVersionRepository;
+        this.sharedPriceSnapshotService = sharedPriceSnapshotService;
+        this.shared = shared;
+    }
+
+    public long currentVersion(Long walletId) {
+        if (!shared) {
+            return versionsByWalletId.getOrDefault(walletId, 0L);
+        }
+
+        Long cached = versionsByWalletId.get(walletId);
+        if (cached != null) {
+            return cached;
+        }
+        // Only kept when no change was announced while loading, which could have been missed by the read.
+        long seen = invalidations.get();
+        long version = walletVersionRepository.findSharedVersion(walletId);
+        if (invalidations.get() == seen) {
+            versionsByWalletId.putIfAbsent(walletId, version);
+        }
+        return version;
+    }
+
+    public String currentETag(Long walletId) {
+        return eTag(walletId, currentVersion(walletId));
+    }
+
+    public String eTag(Long walletId, long version) {
+        return shared
+                ? "\"" + walletId + "-" + version + "\""
+                : "\"" + epoch + "-" + walletId + "-" + version + "\"";
+    }
+
+    public void onVersionChange(LongConsumer listener) {
+        versionListeners.add(listener);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletAssetsChanged(WalletAssetsChangedEvent event) {
+        if (shared) {
+            sharedPriceSnapshotService.publishWalletChange(event.walletId());
+        }
+        advance(event.walletId());
+    }
+
+    @EventListener
+    public void onAssetPricesUpdated(AssetPricesUpdatedEvent event) {
+        List<Long> walletIds = assetRepository.findDistinctWalletIdsByAssetNames(event.pricesByAssetName().keySet());
+        walletIds.forEach(this::advance);
+        log.debug("Advanced versions of {} wallets after price refresh.", walletIds.size());
+    }
+
+    @EventListener
+    public void onSharedVersionsChanged(SharedVersionsChangedEvent event) {
+        Set<Long> walletIds = new HashSet<>(event.walletIds());
+        if (!event.assetNames().isEmpty()) {
+            walletIds.addAll(assetRepository.findDistinctWalletIdsByAssetNames(event.assetNames()));
+        }
+        walletIds.forEach(this::advance);
+        log.debug("Advanced versions of {} wallets changed on other nodes.", walletIds.size());
+    }
+
+    private void advance(Long walletId) {
+        if (shared) {
+            invalidations.incrementAndGet();
+            versionsByWalletId.remove(walletId);
+        } else {
+            versionsByWalletId.merge(walletId, 1L, Long::sum);
+        }
+        versionListeners.forEach(listener -> listener.accept(walletId));
+    }
+}
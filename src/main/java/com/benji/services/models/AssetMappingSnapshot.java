@@ -0,0 +1,17 @@
+package com.benji.services.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record AssetMappingSnapshot(
+        Instant createdAt,
+        List<Entry> entries) {
+
+    public record Entry(
+            String id,
+            String symbol,
+            BigDecimal priceUsd,
+            Instant priceUpdatedAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.benji.services.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over node ids with a fixed number of virtual points per node. Removing a
+ * node only moves the keys it owned; every other key keeps its owner.
+ */
+public final class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> nodeIds;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        this.nodeIds = List.copyOf(nodeIds);
+        for (String nodeId : this.nodeIds) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.put(hash(nodeId + "#" + point), nodeId);
+            }
+        }
+    }
+
+    public List<String> nodeIds() {
+        return nodeIds;
+    }
+
+    public String owner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /** FNV-1a over UTF-8 followed by a 64-bit finalizer, stable across JVMs and nodes. */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
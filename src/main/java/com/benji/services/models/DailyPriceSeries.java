@@ -0,0 +1,26 @@
+package com.benji.services.models;
+
+import java.time.LocalDate;
+
+/**
+ * Daily USD closes of one asset, one slot per UTC day starting at {@code firstDay}. Days without a
+ * CoinCap sample carry the previous close forward.
+ */
+public record DailyPriceSeries(
+        String assetId,
+        LocalDate firstDay,
+        double[] closes) {
+
+    public LocalDate lastDay() {
+        return firstDay.plusDays(closes.length - 1L);
+    }
+
+    public boolean isEmpty() {
+        return closes.length == 0;
+    }
+
+    public double closeOn(LocalDate day) {
+        long index = day.toEpochDay() - firstDay.toEpochDay();
+        return index >= 0 && index < closes.length ? closes[(int) index] : Double.NaN;
+    }
+}
@@ -0,0 +1,15 @@
+package com.benji.services.models;
+
+public record LedgerReconciliation(
+        int assetsChecked,
+        int openingEntries,
+        int driftedAssets,
+        int repairedAssets,
+        int missingAssets) {
+
+    public LedgerReconciliation plus(LedgerReconciliation other) {
+        return new LedgerReconciliation(assetsChecked + other.assetsChecked, openingEntries + other.openingEntries,
+                driftedAssets + other.driftedAssets, repairedAssets + other.repairedAssets,
+                missingAssets + other.missingAssets);
+    }
+}
@@ -0,0 +1,52 @@
+package com.benji.services.models;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily closes of several assets over their common date range, indexed {@code closes[asset][day]}.
+ * Instances are shared read-only between concurrent simulations.
+ */
+public record PriceMatrix(
+        LocalDate firstDay,
+        double[][] closes) {
+
+    public static PriceMatrix align(List<DailyPriceSeries> series) {
+        LocalDate start = series.get(0).firstDay();
+        LocalDate end = series.get(0).lastDay();
+        for (DailyPriceSeries assetSeries : series) {
+            if (assetSeries.isEmpty()) {
+                throw new IllegalArgumentException("No price history available for " + assetSeries.assetId() + ".");
+            }
+            start = assetSeries.firstDay().isAfter(start) ? assetSeries.firstDay() : start;
+            end = assetSeries.lastDay().isBefore(end) ? assetSeries.lastDay() : end;
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("The requested assets have no overlapping price history in the requested range.");
+        }
+
+        int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        double[][] closes = new double[series.size()][];
+        for (int asset = 0; asset < series.size(); asset++) {
+            DailyPriceSeries assetSeries = series.get(asset);
+            int offset = (int) (start.toEpochDay() - assetSeries.firstDay().toEpochDay());
+            closes[asset] = offset == 0 && assetSeries.closes().length == days
+                    ? assetSeries.closes()
+                    : Arrays.copyOfRange(assetSeries.closes(), offset, offset + days);
+        }
+        return new PriceMatrix(start, closes);
+    }
+
+    public int assetCount() {
+        return closes.length;
+    }
+
+    public int days() {
+        return closes.length == 0 ? 0 : closes[0].length;
+    }
+
+    public LocalDate lastDay() {
+        return firstDay.plusDays(days() - 1L);
+    }
+}
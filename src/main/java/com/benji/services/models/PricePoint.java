@@ -0,0 +1,9 @@
+package com.benji.services.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PricePoint(
+        Instant timestamp,
+        BigDecimal priceUsd) {
+}
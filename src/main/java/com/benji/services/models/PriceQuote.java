@@ -0,0 +1,10 @@
+package com.benji.services.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PriceQuote(
+        String assetId,
+        BigDecimal priceUsd,
+        Instant updatedAt) {
+}
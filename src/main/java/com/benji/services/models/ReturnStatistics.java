@@ -0,0 +1,112 @@
+package com.benji.services.models;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily log returns of several assets over their common date range, with per-asset means and the
+ * sample covariance matrix. Rows of {@code logReturns} follow the order of the input series.
+ */
+public record ReturnStatistics(
+        LocalDate firstDay,
+        double[][] logReturns,
+        double[] means,
+        double[][] covariance) {
+
+    public static ReturnStatistics estimate(List<DailyPriceSeries> series) {
+        LocalDate start = series.get(0).firstDay();
+        LocalDate end = series.get(0).lastDay();
+        for (DailyPriceSeries assetSeries : series) {
+            start = assetSeries.firstDay().isAfter(start) ? assetSeries.firstDay() : start;
+            end = assetSeries.lastDay().isBefore(end) ? assetSeries.lastDay() : end;
+        }
+        int observations = (int) (end.toEpochDay() - start.toEpochDay());
+        if (observations < 2) {
+            throw new IllegalArgumentException("Not enough overlapping price history to estimate returns.");
+        }
+
+        int assets = series.size();
+        double[][] logReturns = new double[assets][observations];
+        double[] means = new double[assets];
+        for (int asset = 0; asset < assets; asset++) {
+            DailyPriceSeries assetSeries = series.get(asset);
+            int offset = (int) (start.toEpochDay() - assetSeries.firstDay().toEpochDay());
+            double[] closes = assetSeries.closes();
+            double sum = 0;
+            for (int day = 0; day < observations; day++) {
+                double logReturn = Math.log(closes[offset + day + 1] / closes[offset + day]);
+                logReturns[asset][day] = logReturn;
+                sum += logReturn;
+            }
+            means[asset] = sum / observations;
+        }
+
+        double[][] covariance = new double[assets][assets];
+        for (int i = 0; i < assets; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = 0;
+                for (int day = 0; day < observations; day++) {
+                    sum += (logReturns[i][day] - means[i]) * (logReturns[j][day] - means[j]);
+                }
+                covariance[i][j] = sum / (observations - 1);
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+        return new ReturnStatistics(start.plusDays(1), logReturns, means, covariance);
+    }
+
+    public int assetCount() {
+        return means.length;
+    }
+
+    public int observations() {
+        return logReturns.length == 0 ? 0 : logReturns[0].length;
+    }
+
+    public double[] volatilities() {
+        double[] volatilities = new double[means.length];
+        for (int i = 0; i < means.length; i++) {
+            volatilities[i] = Math.sqrt(covariance[i][i]);
+        }
+        return volatilities;
+    }
+
+    public double[][] correlation() {
+        double[] volatilities = volatilities();
+        double[][] correlation = new double[means.length][means.length];
+        for (int i = 0; i < means.length; i++) {
+            for (int j = 0; j < means.length; j++) {
+                double denominator = volatilities[i] * volatilities[j];
+                correlation[i][j] = i == j ? 1 : denominator > 0 ? covariance[i][j] / denominator : 0;
+            }
+        }
+        return correlation;
+    }
+
+    /**
+     * Lower-triangular Cholesky factor of the covariance matrix, packed row by row so that entry
+     * (i, j) with j <= i lives at {@code i * (i + 1) / 2 + j}. Non-positive pivots, from flat or
+     * perfectly correlated assets, are clamped to zero instead of failing.
+     */
+    public double[] choleskyFactor() {
+        int n = means.length;
+        double[] factor = new double[n * (n + 1) / 2];
+        for (int i = 0; i < n; i++) {
+            int rowI = i * (i + 1) / 2;
+            for (int j = 0; j <= i; j++) {
+                int rowJ = j * (j + 1) / 2;
+                double sum = covariance[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= factor[rowI + k] * factor[rowJ + k];
+                }
+                if (i == j) {
+                    factor[rowI + i] = sum > 0 ? Math.sqrt(sum) : 0;
+                } else {
+                    double pivot = factor[rowJ + j];
+                    factor[rowI + j] = pivot > 0 ? sum / pivot : 0;
+                }
+            }
+        }
+        return factor;
+    }
+}
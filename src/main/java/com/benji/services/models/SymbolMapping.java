@@ -0,0 +1,6 @@
+package com.benji.services.models;
+
+public record SymbolMapping(
+        String id,
+        String symbol) {
+}
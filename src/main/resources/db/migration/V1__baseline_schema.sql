@@ -0,0 +1,89 @@
+-- Schema as previously generated by Hibernate auto-DDL.
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) not null,
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table wallets (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    primary key (id),
+    constraint uk_wallets_user unique (user_id),
+    constraint fk_wallets_user foreign key (user_id) references users
+);
+
+create table assets (
+    id bigint generated by default as identity,
+    symbol varchar(255) not null,
+    name varchar(255) not null,
+    quantity numeric(38,2) not null,
+    price_usd numeric(38,2) not null,
+    wallet_id bigint,
+    primary key (id),
+    constraint fk_assets_wallet foreign key (wallet_id) references wallets
+);
+
+create table asset_symbol_mappings (
+    id varchar(255) not null,
+    symbol varchar(255) not null,
+    primary key (id),
+    constraint uk_asset_symbol_mappings_symbol unique (symbol)
+);
+
+create table price_alerts (
+    id bigint generated by default as identity,
+    wallet_id bigint not null,
+    symbol varchar(255) not null,
+    asset_name varchar(255) not null,
+    direction varchar(255) not null check (direction in ('ABOVE','BELOW')),
+    threshold numeric(38,2) not null,
+    reference_price numeric(38,2) not null,
+    status varchar(255) not null check (status in ('ACTIVE','TRIGGERED')),
+    created_at timestamp(6) with time zone not null,
+    triggered_at timestamp(6) with time zone,
+    triggered_price numeric(38,2),
+    primary key (id),
+    constraint fk_price_alerts_wallet foreign key (wallet_id) references wallets
+);
+
+create index idx_price_alerts_wallet on price_alerts (wallet_id);
+create index idx_price_alerts_status on price_alerts (status);
+
+create table cluster_nodes (
+    node_id varchar(255) not null,
+    started_at timestamp(6) with time zone not null,
+    lease_expires_at timestamp(6) with time zone not null,
+    primary key (node_id)
+);
+
+create table cluster_leases (
+    name varchar(255) not null,
+    owner varchar(255) not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (name)
+);
+
+create table price_snapshot_entries (
+    asset_id varchar(255) not null,
+    price_usd numeric(38,18) not null,
+    updated_at timestamp(6) with time zone not null,
+    version bigint not null,
+    primary key (asset_id)
+);
+
+create index idx_price_snapshot_entries_version on price_snapshot_entries (version);
+
+create table price_snapshot_version (
+    id integer not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table replica_heartbeat (
+    id integer not null,
+    beat_at timestamp(6) with time zone not null,
+    primary key (id)
+);
@@ -0,0 +1,5 @@
+-- Refresh cycle: UPDATE ... WHERE name = ?, SELECT DISTINCT name and wallet ids by asset name.
+create index idx_assets_name_wallet on assets (name, wallet_id);
+
+-- Wallet reads, keyset pages and the per-wallet symbol match in addAssetToWallet.
+create index idx_assets_wallet_symbol on assets (wallet_id, symbol);
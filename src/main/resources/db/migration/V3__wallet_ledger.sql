@@ -0,0 +1,27 @@
+-- Append-only deposit history; asset rows are reconciled against it on startup.
+create table wallet_ledger (
+    id bigint generated by default as identity,
+    wallet_id bigint not null,
+    type varchar(255) not null check (type in ('OPENING_BALANCE','DEPOSIT')),
+    asset_name varchar(255) not null,
+    symbol varchar(255) not null,
+    quantity numeric(38,2) not null,
+    price_usd numeric(38,2) not null,
+    recorded_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index idx_wallet_ledger_wallet_asset on wallet_ledger (wallet_id, asset_name, id);
+create index idx_wallet_ledger_wallet_recorded on wallet_ledger (wallet_id, recorded_at);
+
+create table wallet_balance_snapshots (
+    id bigint generated by default as identity,
+    wallet_id bigint not null,
+    through_entry_id bigint not null,
+    asset_name varchar(255) not null,
+    symbol varchar(255) not null,
+    quantity numeric(38,2) not null,
+    as_of timestamp(6) with time zone not null,
+    primary key (id),
+    constraint uk_wallet_balance_snapshots unique (wallet_id, through_entry_id, asset_name)
+);
@@ -0,0 +1,34 @@
+-- Cost basis: per-wallet lot method, running totals on each holding and the open lots behind them.
+alter table wallets add column cost_basis_method varchar(255) default 'FIFO' not null
+    check (cost_basis_method in ('FIFO','LIFO','AVERAGE'));
+
+alter table assets add column cost_basis numeric(38,18) default 0 not null;
+alter table assets add column realized_pnl numeric(38,18) default 0 not null;
+
+create table asset_lots (
+    id bigint generated by default as identity,
+    wallet_id bigint not null,
+    asset_name varchar(255) not null,
+    quantity numeric(38,2) not null,
+    unit_cost numeric(38,18) not null,
+    acquired_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index idx_asset_lots_wallet_asset on asset_lots (wallet_id, asset_name, id);
+
+-- Holdings that predate cost tracking open as one lot at their last refreshed price.
+update assets set cost_basis = quantity * price_usd where wallet_id is not null;
+
+insert into asset_lots (wallet_id, asset_name, quantity, unit_cost, acquired_at)
+select wallet_id, name, quantity, price_usd, current_timestamp
+from assets
+where wallet_id is not null and quantity > 0;
+
+-- Withdrawals are recorded in the ledger; the column is rebuilt to replace its check constraint.
+alter table wallet_ledger add column entry_type varchar(255)
+    check (entry_type in ('OPENING_BALANCE','DEPOSIT','WITHDRAWAL'));
+update wallet_ledger set entry_type = type;
+alter table wallet_ledger drop column type;
+alter table wallet_ledger alter column entry_type rename to type;
+alter table wallet_ledger alter column type set not null;
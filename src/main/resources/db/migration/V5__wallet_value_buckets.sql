@@ -0,0 +1,11 @@
+-- Wallet value OHLC rollups, one row per wallet, resolution and bucket.
+create table wallet_value_buckets (
+    wallet_id bigint not null,
+    resolution varchar(255) not null check (resolution in ('MINUTE','HOUR','DAY')),
+    bucket_start timestamp(6) with time zone not null,
+    open_usd numeric(38,2) not null,
+    high_usd numeric(38,2) not null,
+    low_usd numeric(38,2) not null,
+    close_usd numeric(38,2) not null,
+    primary key (wallet_id, resolution, bucket_start)
+);
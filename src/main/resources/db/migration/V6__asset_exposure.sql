@@ -0,0 +1,18 @@
+-- Per-asset totals behind the exposure report, backfilled from the current holdings.
+create table asset_exposure (
+    asset_name varchar(255) not null,
+    symbol varchar(255) not null,
+    total_quantity numeric(38,2) not null,
+    holder_count bigint not null,
+    price_usd numeric(38,2) not null,
+    exposure_usd numeric(38,2) not null,
+    primary key (asset_name)
+);
+
+create index idx_asset_exposure_usd on asset_exposure (exposure_usd);
+
+insert into asset_exposure (asset_name, symbol, total_quantity, holder_count, price_usd, exposure_usd)
+select name, max(symbol), sum(quantity), count(case when quantity > 0 then 1 end), max(price_usd),
+       sum(quantity) * max(price_usd)
+from assets
+group by name;
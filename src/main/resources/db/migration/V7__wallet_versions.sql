@@ -0,0 +1,11 @@
+-- Cluster-wide wallet versions: the snapshot version of each wallet's last holdings change and of
+-- each asset's last price move, so every node derives the same ETag for a wallet.
+alter table price_snapshot_entries add column changed_version bigint default 0 not null;
+
+create table wallet_versions (
+    wallet_id bigint not null,
+    version bigint not null,
+    primary key (wallet_id)
+);
+
+create index idx_wallet_versions_version on wallet_versions (version);
@@ -0,0 +1,5 @@
+-- Value-sorted wallet asset pages: a stored value column the database keeps in step with quantity
+-- and price on every insert, write and price tick, so ORDER BY value_usd can walk an index.
+alter table assets add column value_usd numeric(38,4) generated always as (quantity * price_usd);
+
+create index idx_assets_wallet_value on assets (wallet_id, value_usd, id);
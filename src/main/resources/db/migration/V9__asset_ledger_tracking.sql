@@ -0,0 +1,9 @@
+-- Marks asset rows the ledger already accounts for, so deposits and withdrawals no longer query the
+-- ledger to find out whether a row needs an opening-balance entry. Rows created from now on are
+-- written together with their ledger entry.
+alter table assets add column ledger_tracked boolean default false not null;
+
+update assets a set ledger_tracked = true
+where exists (select 1 from wallet_ledger e where e.wallet_id = a.wallet_id and e.asset_name = a.name);
+
+alter table assets alter column ledger_tracked set default true;
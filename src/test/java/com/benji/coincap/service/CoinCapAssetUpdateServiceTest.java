@@ -17,6 +17,7 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.List;
 
@@ -106,7 +107,7 @@ public class CoinCapAssetUpdateServiceTest {
 
         CoinCapAssetResponse result = coinCapAssetUpdateService.fetchLatestPrice(tokenId).block();
         assertNotNull(result);
-        assertEquals("40000.00", result.data().priceUsd());
+        assertEquals(new BigDecimal("40000.00"), result.data().priceUsd());
     }
 
     @Test
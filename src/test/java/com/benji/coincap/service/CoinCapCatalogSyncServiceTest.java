@@ -0,0 +1,145 @@
+package com.benji.coincap.service;
+
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.services.AssetPriceCache;
+import com.benji.services.AssetSymbolIndex;
+import com.benji.services.ClusterCoordinator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CoinCapCatalogSyncServiceTest {
+
+    @Autowired
+    private CoinCapCatalogSyncService coinCapCatalogSyncService;
+
+    @Autowired
+    private AssetSymbolMappingRepository assetSymbolMappingRepository;
+
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private AssetPriceCache assetPriceCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coinCapCatalogSyncService, "pageSize", 2);
+        assetSymbolMappingRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(coinCapCatalogSyncService, "pageSize", 500);
+        assetSymbolMappingRepository.deleteAll();
+        assetSymbolIndex.rebuild(List.of());
+    }
+
+    @Test
+    public void syncCatalog_whenCatalogSpansPages_thenAllPagesAreInserted() {
+        when(coinCapAssetUpdateService.fetchAssetsPage(2, 0)).thenReturn(Mono.just(List.of(
+                new CoinCapData("bitcoin", "BTC", new BigDecimal("64000.00")),
+                new CoinCapData("ethereum", "ETH", new BigDecimal("3000.00")))));
+        when(coinCapAssetUpdateService.fetchAssetsPage(2, 2)).thenReturn(Mono.just(List.of(
+                new CoinCapData("solana", "SOL", new BigDecimal("150.00")))));
+
+        CoinCapCatalogSyncService.CatalogSyncResult result = coinCapCatalogSyncService.syncCatalog().block();
+
+        assertNotNull(result);
+        assertEquals(3, result.inserted());
+        assertEquals(3, assetSymbolMappingRepository.count());
+        assertEquals("solana", assetSymbolIndex.lookup("SOL").orElseThrow().id());
+    }
+
+    @Test
+    public void syncCatalog_whenMappingsAlreadyKnown_thenOnlyChangedRowsAreWritten() {
+        assetSymbolMappingRepository.saveAll(List.of(
+                AssetSymbolMapping.builder().id("bitcoin").symbol("BTC").build(),
+                AssetSymbolMapping.builder().id("matic-network").symbol("MATIC").build()));
+
+        when(coinCapAssetUpdateService.fetchAssetsPage(2, 0)).thenReturn(Mono.just(List.of(
+                new CoinCapData("bitcoin", "BTC", new BigDecimal("64000.00")),
+                new CoinCapData("matic-network", "POL", new BigDecimal("0.50")))));
+        when(coinCapAssetUpdateService.fetchAssetsPage(2, 2)).thenReturn(Mono.just(List.of(
+                new CoinCapData("bitcoin-clone", "BTC", new BigDecimal("0.01")))));
+
+        CoinCapCatalogSyncService.CatalogSyncResult result = coinCapCatalogSyncService.syncCatalog().block();
+
+        assertNotNull(result);
+        assertEquals(0, result.inserted());
+        assertEquals(1, result.updated());
+        assertEquals(1, result.unchanged());
+        assertEquals(1, result.skipped());
+
+        Map<String, String> symbolsById = assetSymbolMappingRepository.findAll().stream()
+                .collect(Collectors.toMap(AssetSymbolMapping::getId, AssetSymbolMapping::getSymbol));
+        assertEquals(Map.of("bitcoin", "BTC", "matic-network", "POL"), symbolsById);
+    }
+
+    @Test
+    public void syncCatalog_whenSymbolRenamed_thenCachedMappingsAreEvicted() {
+        assetSymbolMappingRepository.save(AssetSymbolMapping.builder().id("matic-network").symbol("MATIC").build());
+        assertEquals("MATIC", assetSymbolMappingRepository.findById("matic-network").orElseThrow().getSymbol());
+        assertTrue(assetSymbolMappingRepository.findBySymbolIgnoreCase("MATIC").isPresent());
+
+        when(coinCapAssetUpdateService.fetchAssetsPage(2, 0)).thenReturn(Mono.just(List.of(
+                new CoinCapData("matic-network", "POL", new BigDecimal("0.50")))));
+
+        coinCapCatalogSyncService.syncCatalog().block();
+
+        assertEquals("POL", assetSymbolMappingRepository.findById("matic-network").orElseThrow().getSymbol());
+        assertTrue(assetSymbolMappingRepository.findBySymbolIgnoreCase("MATIC").isEmpty());
+    }
+
+    @Test
+    public void scheduledCatalogSync_whenAnotherNodeOwnsTheSync_thenMappingsAreReloadedFromTheTable() {
+        ClusterCoordinator follower = mock(ClusterCoordinator.class);
+        when(follower.owns("catalog-sync")).thenReturn(false);
+        CoinCapCatalogSyncService followerSync = new CoinCapCatalogSyncService(coinCapAssetUpdateService,
+                assetSymbolIndex, assetPriceCache, jdbcTemplate, transactionTemplate, entityManagerFactory, follower);
+        assetSymbolMappingRepository.save(AssetSymbolMapping.builder().id("solana").symbol("SOL").build());
+
+        followerSync.init();
+        followerSync.scheduledCatalogSync();
+
+        verify(coinCapAssetUpdateService, never()).fetchAssetsPage(anyInt(), anyInt());
+        assertEquals("solana", assetSymbolIndex.lookup("SOL").orElseThrow().id());
+    }
+}
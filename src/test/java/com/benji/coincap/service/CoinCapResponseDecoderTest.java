@@ -0,0 +1,84 @@
+package com.benji.coincap.service;
+
+import com.benji.coincap.service.dto.CoinCapAssetResponse;
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoinCapResponseDecoderTest {
+
+    private final CoinCapResponseDecoder decoder = new CoinCapResponseDecoder(new ObjectMapper());
+
+    @Test
+    public void decodeHistory_whenPayloadHasDates_thenKeepsTimeAndPrice() {
+        List<CoinCapHistoryPoint> history = decoder.decodeHistory(json("""
+                {
+                    "data": [
+                        {"priceUsd": "42000.1234", "time": 1704067200000, "date": "2024-01-01T00:00:00.000Z"},
+                        {"priceUsd": null, "time": 1704153600000, "date": "2024-01-02T00:00:00.000Z"}
+                    ],
+                    "timestamp": 1704240000000
+                }
+                """));
+
+        assertEquals(List.of(new CoinCapHistoryPoint(1704067200000L, new BigDecimal("42000.1234"))), history);
+    }
+
+    @Test
+    public void decodeAsset_whenFullPayload_thenExtractsIdSymbolAndPrice() {
+        CoinCapAssetResponse response = decoder.decodeAsset(json("""
+                {
+                    "data": {
+                        "id": "bitcoin",
+                        "rank": "1",
+                        "symbol": "BTC",
+                        "supply": "19700000.0000000000000000",
+                        "tokens": {"1": ["0x2260fac5e5542a773aa44fbcfedf7c193bc2c599"]},
+                        "priceUsd": "64123.4567890123456789",
+                        "explorer": "https://blockchain.info/"
+                    },
+                    "timestamp": 1700000000000
+                }
+                """));
+
+        assertEquals(new CoinCapData("bitcoin", "BTC", new BigDecimal("64123.4567890123456789")), response.data());
+    }
+
+    @Test
+    public void decodeAssets_whenPricesMissingOrNumeric_thenHandlesBoth() {
+        List<CoinCapData> assets = decoder.decodeAssets(json("""
+                {
+                    "data": [
+                        {"id": "bitcoin", "symbol": "BTC", "priceUsd": 64000.5},
+                        {"id": "ethereum", "symbol": "ETH"},
+                        {"id": "tether", "symbol": "USDT", "priceUsd": null, "extra": [1, 2, {"nested": true}]}
+                    ],
+                    "timestamp": 1700000000000
+                }
+                """));
+
+        assertEquals(List.of(
+                new CoinCapData("bitcoin", "BTC", new BigDecimal("64000.5")),
+                new CoinCapData("ethereum", "ETH", null),
+                new CoinCapData("tether", "USDT", null)
+        ), assets);
+    }
+
+    @Test
+    public void decodeAssets_whenDataMissing_thenReturnsEmptyList() {
+        assertTrue(decoder.decodeAssets(json("{\"error\": \"unknown\"}")).isEmpty());
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package com.benji.config;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ActuatorExposureTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @Test
+    void metricsEndpoint_IsExposed() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,132 @@
+package com.benji.config;
+
+import com.benji.MutableClock;
+import com.benji.services.ReplicaRoutingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final Long WALLET_ID = 7L;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaRoutingService replicaRoutingService;
+    private ReplicaLagMonitor replicaLagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        for (DriverManagerDataSource dataSource : new DriverManagerDataSource[]{primary, replica}) {
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            template.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(6) WITH TIME ZONE NOT NULL)");
+            template.execute("CREATE TABLE wallet (id BIGINT PRIMARY KEY, label VARCHAR(32))");
+            template.update("INSERT INTO wallet (id, label) VALUES (?, 'old')", WALLET_ID);
+        }
+
+        replicaRoutingService = new ReplicaRoutingService(true, Duration.ofSeconds(5), clock);
+        replicaLagMonitor = new ReplicaLagMonitor(primary, replica, replicaRoutingService, clock);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, replicaRoutingService));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaCaughtUp_ReadsReplicaWhileWritesGoToPrimary() {
+        replicaLagMonitor.heartbeat();
+        replicate();
+        replicaLagMonitor.heartbeat();
+
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE wallet SET label = 'new' WHERE id = ?", WALLET_ID));
+
+        assertEquals("old", readOnlyTransaction.execute(status -> readLabel()));
+        assertEquals("new", writeTransaction.execute(status -> readLabel()));
+    }
+
+    @Test
+    void readYourWrites_WhenReplicaBehindOwnWrite_ReadsPrimaryUntilReplayed() {
+        replicaLagMonitor.heartbeat();
+        replicate();
+        replicaLagMonitor.heartbeat();
+
+        clock.advance(Duration.ofMillis(100));
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE wallet SET label = 'new' WHERE id = ?", WALLET_ID);
+            replicaRoutingService.recordWrite(WALLET_ID);
+        });
+
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(WALLET_ID)) {
+            assertEquals("new", readOnlyTransaction.execute(status -> readLabel()));
+        }
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(99L)) {
+            assertEquals("old", readOnlyTransaction.execute(status -> readLabel()));
+        }
+
+        clock.advance(Duration.ofMillis(100));
+        replicaLagMonitor.heartbeat();
+        replicate();
+        replicaLagMonitor.heartbeat();
+        new JdbcTemplate(replica).update("UPDATE wallet SET label = 'replica' WHERE id = ?", WALLET_ID);
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.readYourWrites(WALLET_ID)) {
+            assertEquals("replica", readOnlyTransaction.execute(status -> readLabel()));
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaLagsOrIsUnavailable_FallsBackToPrimary() {
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE wallet SET label = 'new' WHERE id = ?", WALLET_ID));
+
+        replicaLagMonitor.heartbeat();
+        assertFalse(replicaRoutingService.replicaFresh());
+        assertEquals("new", readOnlyTransaction.execute(status -> readLabel()));
+
+        replicate();
+        replicaLagMonitor.heartbeat();
+        assertTrue(replicaRoutingService.replicaFresh());
+
+        clock.advance(Duration.ofSeconds(6));
+        replicaLagMonitor.heartbeat();
+        assertFalse(replicaRoutingService.replicaFresh());
+        new JdbcTemplate(replica).update("UPDATE wallet SET label = 'stale' WHERE id = ?", WALLET_ID);
+        assertEquals("new", readOnlyTransaction.execute(status -> readLabel()));
+    }
+
+    private String readLabel() {
+        return jdbcTemplate.queryForObject("SELECT label FROM wallet WHERE id = ?", String.class, WALLET_ID);
+    }
+
+    /** Stands in for replication: copies the primary's rows to the replica. */
+    private void replicate() {
+        JdbcTemplate source = new JdbcTemplate(primary);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.update("DELETE FROM replica_heartbeat");
+        source.queryForList("SELECT id, beat_at FROM replica_heartbeat").forEach(row ->
+                target.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (?, ?)", row.get("ID"), row.get("BEAT_AT")));
+        target.update("UPDATE wallet SET label = ? WHERE id = ?",
+                source.queryForObject("SELECT label FROM wallet WHERE id = ?", String.class, WALLET_ID), WALLET_ID);
+    }
+
+    private static DriverManagerDataSource h2(String role) {
+        return new DriverManagerDataSource("jdbc:h2:mem:routing-" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,116 @@
+package com.benji.config;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.services.ReplicaRoutingService;
+import com.benji.services.WalletService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-jpa-primary;DB_CLOSE_DELAY=-1",
+        "benji.datasource.replica.enabled=true",
+        "benji.datasource.replica.url=jdbc:h2:mem:routing-jpa-replica;DB_CLOSE_DELAY=-1",
+        "benji.datasource.replica.heartbeat-rate=3600000"
+})
+@ActiveProfiles("test")
+public class ReadWriteRoutingJpaTest {
+
+    private static final long WALLET_ID = 9001L;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private ReplicaRoutingService replicaRoutingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource replicaDataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:routing-jpa-replica;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        saveWallet(primary, "3");
+        saveWallet(replica, "2");
+        replicaRoutingService.onReplicaPosition(Instant.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (JdbcTemplate template : List.of(primary, replica)) {
+            template.update("DELETE FROM assets WHERE wallet_id = ?", WALLET_ID);
+            template.update("DELETE FROM wallets WHERE id = ?", WALLET_ID);
+            template.update("DELETE FROM users WHERE id = ?", WALLET_ID);
+        }
+    }
+
+    @Test
+    void getWalletInformation_WhenReplicaCaughtUp_ReadsTheReplica() {
+        assertEquals(0, new BigDecimal("2").compareTo(bitcoinQuantity()));
+    }
+
+    @Test
+    void getWalletInformation_AfterAWriteOnThisNode_ReadsThePrimary() {
+        replicaRoutingService.recordWrite(WALLET_ID);
+
+        assertEquals(0, new BigDecimal("3").compareTo(bitcoinQuantity()));
+    }
+
+    @Test
+    void getWalletInformation_AfterAClientWriteOnAnotherNode_ReadsThePrimary() {
+        List<Instant> written = new ArrayList<>();
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.client(Instant.now().plusSeconds(1), written::add)) {
+            assertEquals(0, new BigDecimal("3").compareTo(bitcoinQuantity()));
+        }
+        try (ReplicaRoutingService.Scope ignored = replicaRoutingService.client(Instant.now().minusSeconds(1), written::add)) {
+            assertEquals(0, new BigDecimal("2").compareTo(bitcoinQuantity()), "Writes the replica already replayed don't pin reads");
+            replicaRoutingService.recordWrite(WALLET_ID + 1);
+        }
+        assertEquals(1, written.size(), "The client is handed the commit time of its write");
+    }
+
+    private BigDecimal bitcoinQuantity() {
+        entityManagerFactory.getCache().evictAll();
+        CreateUserWalletResponse response = walletService.getWalletInformation(WALLET_ID);
+        return new BigDecimal(response.assets().get(0).quantity());
+    }
+
+    private static void saveWallet(JdbcTemplate template, String quantity) {
+        template.update("INSERT INTO users (id, email) VALUES (?, 'routing@example.com')", WALLET_ID);
+        template.update("INSERT INTO wallets (id, user_id, cost_basis_method) VALUES (?, ?, 'FIFO')", WALLET_ID, WALLET_ID);
+        template.update("INSERT INTO assets (symbol, name, quantity, price_usd, cost_basis, realized_pnl, ledger_tracked, wallet_id) "
+                + "VALUES ('BTC', 'bitcoin', ?, 100, 0, 0, TRUE, ?)", new BigDecimal(quantity), WALLET_ID);
+    }
+}
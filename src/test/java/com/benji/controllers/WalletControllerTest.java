@@ -1,22 +1,50 @@
 package com.benji.controllers;
 
 import com.benji.controllers.dto.*;
+import com.benji.exception.PriceAlertDoesNotExistException;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.services.PriceAlertService;
+import com.benji.services.StrategySweepService;
+import com.benji.services.WalletAssetQueryService;
+import com.benji.services.WalletBacktestService;
+import com.benji.services.WalletImportService;
+import com.benji.services.WalletLedgerService;
+import com.benji.services.WalletMonteCarloService;
+import com.benji.services.WalletResponseCache;
+import com.benji.services.WalletRiskService;
 import com.benji.services.WalletService;
 import com.benji.services.WalletSimulationService;
+import com.benji.services.WalletValueHistoryService;
+import com.benji.services.WalletValuationStreamService;
+import com.benji.services.WalletVersionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 
 @WebMvcTest(WalletController.class)
+@Import(WalletResponseCache.class)
 public class WalletControllerTest {
 
     @Autowired
@@ -38,6 +67,47 @@ public class WalletControllerTest {
     @MockBean
     private WalletSimulationService walletSimulationService;
 
+    @MockBean
+    private WalletValuationStreamService walletValuationStreamService;
+
+    @MockBean
+    private WalletVersionService walletVersionService;
+
+    @MockBean
+    private WalletAssetQueryService walletAssetQueryService;
+
+    @MockBean
+    private WalletBacktestService walletBacktestService;
+
+    @MockBean
+    private WalletMonteCarloService walletMonteCarloService;
+
+    @MockBean
+    private StrategySweepService strategySweepService;
+
+    @MockBean
+    private WalletRiskService walletRiskService;
+
+    @MockBean
+    private PriceAlertService priceAlertService;
+
+    @MockBean
+    private WalletLedgerService walletLedgerService;
+
+    @MockBean
+    private WalletValueHistoryService walletValueHistoryService;
+
+    @MockBean
+    private WalletImportService walletImportService;
+
+    @BeforeEach
+    void setUpWalletVersions() {
+        when(walletVersionService.currentVersion(anyLong())).thenReturn(0L);
+        when(walletVersionService.currentETag(1L)).thenReturn("\"test-1-0\"");
+        when(walletVersionService.eTag(eq(1L), anyLong())).thenReturn("\"test-1-0\"");
+        when(walletService.walletExists(1L)).thenReturn(true);
+    }
+
     @Test
     public void createWallet_ValidRequest_ReturnsCreatedWallet() throws Exception {
         CreateWalletRequest req = new CreateWalletRequest("test@example.com");
@@ -75,6 +145,73 @@ public class WalletControllerTest {
                 .andExpect(jsonPath("$.userEmail").value("test@example.com"));
     }
 
+    @Test
+    public void getWalletInformation_RepeatedReads_ServedFromCacheWithETag() throws Exception {
+        CreateUserWalletResponse res = new CreateUserWalletResponse("1", "test@example.com", List.of());
+        when(walletService.getWalletInformation(1L)).thenReturn(res);
+
+        mockMvc.perform(get("/api/wallets/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"test-1-0\""));
+        mockMvc.perform(get("/api/wallets/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.walletId").value("1"));
+
+        verify(walletService, atMost(1)).getWalletInformation(1L);
+    }
+
+    @Test
+    public void getWalletInformation_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/api/wallets/1").header("If-None-Match", "\"test-1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(walletService, times(0)).getWalletInformation(1L);
+    }
+
+    @Test
+    public void getWalletInformation_UnknownWalletWithIfNoneMatch_ReturnsNotFound() throws Exception {
+        when(walletVersionService.currentETag(99L)).thenReturn("\"test-99-0\"");
+
+        mockMvc.perform(get("/api/wallets/99").header("If-None-Match", "\"test-99-0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void streamWalletInformation_ExistingWallet_StreamsServerSentEvents() throws Exception {
+        CreateUserWalletResponse res = new CreateUserWalletResponse("1", "test@example.com", List.of());
+        when(walletValuationStreamService.streamWallet(1L))
+                .thenReturn(Flux.just(ServerSentEvent.builder(res).event("wallet").build()));
+
+        MvcResult result = mockMvc.perform(get("/api/wallets/1/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:wallet")))
+                .andExpect(content().string(containsString("\"walletId\":\"1\"")));
+    }
+
+    @Test
+    public void getWalletAssets_WithSortAndCursor_ReturnsPage() throws Exception {
+        WalletAssetsPageResponse res = new WalletAssetsPageResponse("1", "symbol", "asc",
+                List.of(new CreateUserWalletResponse.UserAssets("BTC", "1", new BigDecimal("50000"), new BigDecimal("50000"),
+                        new BigDecimal("40000"), new BigDecimal("10000"), BigDecimal.ZERO)),
+                "next");
+        when(walletAssetQueryService.getWalletAssetsPage(1L, "symbol", "asc", 1, "abc")).thenReturn(res);
+
+        mockMvc.perform(get("/api/wallets/1/assets")
+                        .param("sort", "symbol")
+                        .param("direction", "asc")
+                        .param("limit", "1")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assets[0].symbol").value("BTC"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
     @Test
     public void addAssetToWallet_ValidRequest_ReturnsUpdatedWallet() throws Exception {
         AddAssetRequest req = new AddAssetRequest("ETH", BigDecimal.valueOf(5));
@@ -128,4 +265,85 @@ public class WalletControllerTest {
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void backtestWallet_ValidRequest_ReturnsBacktestResponse() throws Exception {
+        WalletBacktestRequest req = new WalletBacktestRequest(
+                List.of(new WalletBacktestRequest.BacktestAsset("BTC", new BigDecimal("1"))),
+                LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"));
+        WalletBacktestResponse res = new WalletBacktestResponse(
+                LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"),
+                new BigDecimal("40000.00"), new BigDecimal("44000.00"), new BigDecimal("10.00"), new BigDecimal("5.00"),
+                "BTC", new BigDecimal("10.00"), "BTC", new BigDecimal("10.00"), List.of());
+        when(walletBacktestService.backtest(any(WalletBacktestRequest.class))).thenReturn(res);
+
+        mockMvc.perform(post("/api/wallets/simulate/backtest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returnPercentage").value(10.0))
+                .andExpect(jsonPath("$.maxDrawdownPercentage").value(5.0));
+    }
+
+    @Test
+    public void backtestWallet_MissingDates_ReturnsBadRequest() throws Exception {
+        WalletBacktestRequest req = new WalletBacktestRequest(
+                List.of(new WalletBacktestRequest.BacktestAsset("BTC", new BigDecimal("1"))), null, null);
+
+        mockMvc.perform(post("/api/wallets/simulate/backtest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void simulateWalletMonteCarlo_TooManyCheckpoints_ReturnsBadRequest() throws Exception {
+        WalletMonteCarloRequest req = new WalletMonteCarloRequest(
+                List.of(new WalletMonteCarloRequest.ProjectedAsset("BTC", new BigDecimal("1"))), 365, 1000, 500, null, 1L);
+
+        mockMvc.perform(post("/api/wallets/simulate/monte-carlo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void sweepStrategy_EmptyIntervals_ReturnsBadRequest() throws Exception {
+        StrategySweepRequest req = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("BTC", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.DCA, LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"),
+                BigDecimal.ZERO, null, new StrategySweepRequest.ParameterGrid(List.of(BigDecimal.TEN), List.of(), null),
+                null, null);
+
+        mockMvc.perform(post("/api/wallets/simulate/sweep")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getWalletRisk_WalletMissing_ReturnsNotFound() throws Exception {
+        when(walletRiskService.getWalletRisk(eq(99L), eq(90), any()))
+                .thenThrow(new WalletDoesNotExistException("Wallet not found!"));
+
+        mockMvc.perform(get("/api/wallets/99/risk"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void createPriceAlert_MissingDirection_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/wallets/1/alerts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"symbol\":\"BTC\",\"threshold\":50000}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void deletePriceAlert_AlertMissing_ReturnsNotFound() throws Exception {
+        doThrow(new PriceAlertDoesNotExistException("Alert 7 does not exist for wallet 1."))
+                .when(priceAlertService).deleteAlert(1L, 7L);
+
+        mockMvc.perform(delete("/api/wallets/1/alerts/7"))
+                .andExpect(status().isNotFound());
+    }
 }
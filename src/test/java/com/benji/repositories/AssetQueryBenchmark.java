@@ -0,0 +1,137 @@
+package com.benji.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Generates a large file-backed H2 database and times the refresh and wallet read queries on the
+ * baseline schema (V1) and again after the index migration (V2), printing each query plan.
+ * <p>
+ * Usage: {@code AssetQueryBenchmark [assetRows] [walletCount] [distinctAssets]}, defaults
+ * 10,000,000 rows over 100,000 wallets and 2,000 assets. See the README for the classpath setup.
+ */
+public class AssetQueryBenchmark {
+
+    private static final int INSERT_BATCH_ROWS = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long walletCount;
+    private final int distinctAssets;
+
+    private AssetQueryBenchmark(JdbcTemplate jdbcTemplate, long walletCount, int distinctAssets) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletCount = walletCount;
+        this.distinctAssets = distinctAssets;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long assetRows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long walletCount = args.length > 1 ? Long.parseLong(args[1]) : Math.max(1, assetRows / 100);
+        int distinctAssets = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        Path directory = Files.createTempDirectory("benji-benchmark");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + directory.resolve("benchmark") + ";CACHE_SIZE=262144", "sa", "", true);
+        try {
+            Flyway.configure().dataSource(dataSource).target(MigrationVersion.fromVersion("1")).load().migrate();
+            AssetQueryBenchmark benchmark = new AssetQueryBenchmark(new JdbcTemplate(dataSource), walletCount, distinctAssets);
+            benchmark.generate(assetRows);
+
+            System.out.println("== Baseline schema (V1)");
+            benchmark.run(3);
+
+            long start = System.nanoTime();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            System.out.printf("%nIndex migration took %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+            System.out.println("== Indexed schema (latest)");
+            benchmark.run(50);
+        } finally {
+            dataSource.destroy();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private void generate(long assetRows) {
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO users (email) SELECT 'bench-' || X || '@benji.test' FROM SYSTEM_RANGE(1, ?)", walletCount);
+        jdbcTemplate.update("INSERT INTO wallets (user_id) SELECT id FROM users ORDER BY id");
+        for (long from = 1; from <= assetRows; from += INSERT_BATCH_ROWS) {
+            long to = Math.min(assetRows, from + INSERT_BATCH_ROWS - 1);
+            // Consecutive rows land in different wallets; each wallet holds distinct assets.
+            jdbcTemplate.update("""
+                    INSERT INTO assets (symbol, name, quantity, price_usd, wallet_id)
+                    SELECT 'S' || MOD(X / ? + X, ?), 'asset-' || MOD(X / ? + X, ?), 1, 100, MOD(X, ?) + 1
+                    FROM SYSTEM_RANGE(?, ?)""",
+                    walletCount, distinctAssets, walletCount, distinctAssets, walletCount, from, to);
+        }
+        System.out.printf("Generated %,d assets in %,d wallets in %d ms%n%n",
+                assetRows, walletCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void run(int iterations) {
+        measure("refresh update", iterations,
+                "UPDATE assets SET price_usd = ? WHERE name = ? AND price_usd <> ?",
+                i -> new Object[]{price(i), assetName(i), price(i)});
+        measure("wallets by asset names", iterations,
+                "SELECT DISTINCT wallet_id FROM assets WHERE name IN (?, ?)",
+                i -> new Object[]{assetName(i), assetName(i + 1)});
+        measure("wallet assets", iterations,
+                "SELECT id, symbol, name, quantity, price_usd FROM assets WHERE wallet_id = ? ORDER BY id",
+                i -> new Object[]{walletId(i)});
+        measure("wallet symbol match", iterations,
+                "SELECT id FROM assets WHERE wallet_id = ? AND symbol = ?",
+                i -> new Object[]{walletId(i), "S" + (i % distinctAssets)});
+    }
+
+    private void measure(String label, int iterations, String sql, IntFunction<Object[]> parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.apply(0));
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            Object[] arguments = parameters.apply(i + 1);
+            long start = System.nanoTime();
+            if (sql.startsWith("UPDATE")) {
+                jdbcTemplate.update(sql, arguments);
+            } else {
+                jdbcTemplate.queryForList(sql, arguments);
+            }
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-24s median %9.3f ms  max %9.3f ms  plan: %s%n",
+                label, nanos[iterations / 2] / 1e6, nanos[iterations - 1] / 1e6, planAccess(plan));
+    }
+
+    private static String planAccess(String plan) {
+        List<String> access = plan.lines()
+                .map(String::trim)
+                .filter(line -> line.startsWith("/* PUBLIC."))
+                .toList();
+        return access.isEmpty() ? plan.replace('\n', ' ') : String.join(" ", access);
+    }
+
+    private String assetName(int i) {
+        return "asset-" + (i % distinctAssets);
+    }
+
+    private long walletId(int i) {
+        return (i * 7919L) % walletCount + 1;
+    }
+
+    private static int price(int i) {
+        return 100 + (i % 2) + 1;
+    }
+}
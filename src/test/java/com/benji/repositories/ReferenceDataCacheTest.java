@@ -0,0 +1,114 @@
+package com.benji.repositories;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.config.HibernateCacheConfig;
+import com.benji.models.entities.User;
+import com.benji.services.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReferenceDataCacheTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findById_WhenWalletRead_ServesWalletHeaderFromSecondLevelCache() {
+        Long walletId = Long.valueOf(walletService.createWallet("cached@example.com").walletId());
+        readOnlyTransaction.execute(status -> walletRepository.findById(walletId).orElseThrow().getUser().getEmail());
+
+        statistics.clear();
+        String email = readOnlyTransaction.execute(status -> walletRepository.findById(walletId).orElseThrow().getUser().getEmail());
+
+        assertEquals("cached@example.com", email);
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        // Only the inverse side of the user <-> wallet one-to-one still needs a lookup.
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", HibernateCacheConfig.WALLETS_REGION, "result", "hit")
+                .functionCounter());
+    }
+
+    @Test
+    void findByEmail_WhenUsersWritten_InvalidatesCachedQueryResult() {
+        assertTrue(userRepository.findByEmail("late@example.com").isEmpty());
+        statistics.clear();
+        assertTrue(userRepository.findByEmail("late@example.com").isEmpty());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        walletService.createWallet("late@example.com");
+
+        User user = userRepository.findByEmail("late@example.com").orElseThrow();
+        assertEquals("late@example.com", user.getEmail());
+    }
+
+    @Test
+    void hibernateCacheManager_InClusterModes_KeepsNoUserOrWalletEntries() {
+        try (CacheManager cacheManager = new HibernateCacheConfig().hibernateCacheManager(
+                10, Duration.ofHours(1), 10, Duration.ofMinutes(30), "leader")) {
+            for (String region : List.of(HibernateCacheConfig.USERS_REGION, HibernateCacheConfig.WALLETS_REGION,
+                    HibernateCacheConfig.USER_QUERIES_REGION)) {
+                Cache<Object, Object> cache = cacheManager.getCache(region);
+                cache.put("key", "value");
+                assertNull(cache.get("key"), region);
+            }
+            Cache<Object, Object> mappings = cacheManager.getCache(HibernateCacheConfig.SYMBOL_MAPPINGS_REGION);
+            mappings.put("key", "value");
+            assertEquals("value", mappings.get("key"), "Reference data stays cached");
+        }
+    }
+}
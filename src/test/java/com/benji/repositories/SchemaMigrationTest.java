@@ -0,0 +1,60 @@
+package com.benji.repositories;
+
+import com.benji.config.HibernateCacheConfig;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrationdb;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
+public class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_AppliedInOrder_AndMatchEntityMappings() {
+        // Context startup already ran Hibernate's schema validation against the migrated schema.
+        assertEquals("9", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void refreshAndWalletQueries_UseAssetIndexes() {
+        assertPlanUses("idx_assets_name_wallet",
+                "EXPLAIN UPDATE assets SET price_usd = 1 WHERE name = 'bitcoin' AND price_usd <> 1");
+        assertPlanUses("idx_assets_name_wallet",
+                "EXPLAIN SELECT DISTINCT wallet_id FROM assets WHERE name IN ('bitcoin', 'ethereum')");
+        // H2 also indexes the wallet_id foreign key on its own, so either index satisfies wallet reads.
+        assertIndexLookup("EXPLAIN SELECT id, symbol, name, quantity, price_usd FROM assets WHERE wallet_id = 1 ORDER BY id");
+        assertIndexLookup("EXPLAIN SELECT id FROM assets WHERE wallet_id = 1 AND symbol = 'BTC'");
+        assertPlanUses("idx_assets_wallet_value",
+                "EXPLAIN SELECT id FROM assets WHERE wallet_id = 1 AND value_usd < 100 ORDER BY value_usd DESC, id");
+    }
+
+    private void assertPlanUses(String index, String explain) {
+        String plan = jdbcTemplate.queryForObject(explain, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.toLowerCase().contains(index), () -> "Expected " + index + " in plan: " + plan);
+    }
+
+    private void assertIndexLookup(String explain) {
+        String plan = jdbcTemplate.queryForObject(explain, String.class);
+        assertNotNull(plan);
+        assertFalse(plan.contains("tableScan"), () -> "Expected an index lookup in plan: " + plan);
+    }
+}
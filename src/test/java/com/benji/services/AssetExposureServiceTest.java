@@ -0,0 +1,173 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.ExposureReportResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.repositories.AssetExposureRepository;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.ClusterLeaseRepository;
+import com.benji.repositories.ClusterNodeRepository;
+import com.benji.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AssetExposureServiceTest {
+
+    @Autowired
+    private AssetExposureService assetExposureService;
+
+    @Autowired
+    private AssetExposureRepository assetExposureRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private ClusterLeaseRepository clusterLeaseRepository;
+
+    @Autowired
+    private WalletFixtures walletFixtures;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        assetExposureService.flush();
+        assetExposureRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        assetExposureRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getReport_ReflectsHoldingChangesAndPriceTicks() {
+        assetExposureService.recordHoldingChange("bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("2"), new BigDecimal("100"));
+        assetExposureService.recordHoldingChange("bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("3"), new BigDecimal("120"));
+        assetExposureService.recordHoldingChange("bitcoin", "BTC", new BigDecimal("3"), new BigDecimal("4"), new BigDecimal("120"));
+        assetExposureService.recordHoldingChange("ethereum", "ETH", BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("50"));
+        assetExposureService.recordHoldingChange("dogecoin", "DOGE", BigDecimal.ZERO, new BigDecimal("5"), new BigDecimal("1"));
+        assetExposureService.recordHoldingChange("dogecoin", "DOGE", new BigDecimal("5"), BigDecimal.ZERO, new BigDecimal("1"));
+        assetExposureService.flush();
+
+        ExposureReportResponse report = assetExposureService.getReport(10);
+        assertEquals(3, report.assetCount());
+        assertEquals(3, report.holdingCount(), "Emptied holdings no longer count");
+        assertEquals(0, new BigDecimal("1100").compareTo(report.totalAumUsd()));
+        ExposureReportResponse.AssetExposureEntry bitcoin = report.topAssets().get(0);
+        assertEquals("bitcoin", bitcoin.name());
+        assertEquals(2, bitcoin.holderCount());
+        assertEquals(0, new BigDecimal("6").compareTo(bitcoin.totalQuantity()));
+        assertEquals(0, new BigDecimal("600").compareTo(bitcoin.exposureUsd()), "Known assets keep their refreshed price");
+
+        assetExposureService.onAssetPricesUpdated(new AssetPricesUpdatedEvent(Map.of("ethereum", new BigDecimal("80")), Instant.now()));
+
+        ExposureReportResponse top = assetExposureService.getReport(1);
+        assertEquals(1, top.topAssets().size());
+        assertEquals("ethereum", top.topAssets().get(0).name());
+        assertEquals(0, new BigDecimal("800").compareTo(top.topAssets().get(0).exposureUsd()));
+        assertEquals(0, new BigDecimal("1400").compareTo(top.totalAumUsd()));
+        assertThrows(IllegalArgumentException.class, () -> assetExposureService.getReport(0));
+    }
+
+    @Test
+    void flush_AppliesOnlyDeltasOfCommittedTransactions() {
+        transactionTemplate.executeWithoutResult(status -> assetExposureService.recordHoldingChange(
+                "bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("2"), new BigDecimal("100")));
+        transactionTemplate.executeWithoutResult(status -> {
+            assetExposureService.recordHoldingChange("bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("5"), new BigDecimal("100"));
+            status.setRollbackOnly();
+        });
+
+        assetExposureService.flush();
+
+        ExposureReportResponse report = assetExposureService.getReport(10);
+        assertEquals(1, report.holdingCount());
+        assertEquals(0, new BigDecimal("200").compareTo(report.totalAumUsd()));
+    }
+
+    @Test
+    void reconcile_RebuildsCountersFromHoldings() {
+        walletFixtures.saveAsset(walletFixtures.createWallet("first@example.com"), "bitcoin", "BTC", "2", "100");
+        walletFixtures.saveAsset(walletFixtures.createWallet("second@example.com"), "bitcoin", "BTC", "3", "100");
+        assetExposureService.recordHoldingChange("bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("9"), new BigDecimal("100"));
+        assetExposureService.recordHoldingChange("solana", "SOL", BigDecimal.ZERO, new BigDecimal("1"), new BigDecimal("20"));
+
+        assetExposureService.reconcile();
+
+        ExposureReportResponse report = assetExposureService.getReport(10);
+        assertEquals(1, report.assetCount(), "Assets nobody holds are dropped");
+        assertEquals(2, report.topAssets().get(0).holderCount());
+        assertEquals(0, new BigDecimal("5").compareTo(report.topAssets().get(0).totalQuantity()));
+        assertEquals(0, new BigDecimal("500").compareTo(report.totalAumUsd()));
+    }
+
+    @Test
+    void reconcile_DoesNotCountQueuedDeltasTwice() {
+        Long walletId = walletFixtures.createWallet("first@example.com");
+        transactionTemplate.executeWithoutResult(status -> {
+            walletFixtures.saveAsset(walletId, "bitcoin", "BTC", "2", "100");
+            assetExposureService.recordHoldingChange("bitcoin", "BTC", BigDecimal.ZERO, new BigDecimal("2"), new BigDecimal("100"));
+        });
+
+        assetExposureService.reconcile();
+        assetExposureService.flush();
+
+        ExposureReportResponse report = assetExposureService.getReport(10);
+        assertEquals(1, report.holdingCount());
+        assertEquals(0, new BigDecimal("200").compareTo(report.totalAumUsd()));
+    }
+
+    @Test
+    void reconcileAndReprice_OnlyRunOnTheOwningNode() {
+        walletFixtures.saveAsset(walletFixtures.createWallet("first@example.com"), "bitcoin", "BTC", "2", "100");
+        ClusterCoordinator follower = new ClusterCoordinator(clusterNodeRepository, clusterLeaseRepository,
+                ClusterCoordinator.Mode.LEADER, "follower", Duration.ofSeconds(30), 16, Clock.systemUTC());
+        AssetExposureService followerExposure = new AssetExposureService(assetExposureRepository, jdbcTemplate,
+                transactionManager, follower, 100);
+
+        followerExposure.reconcile();
+        assertEquals(0, assetExposureRepository.count());
+
+        assetExposureService.reconcile();
+        followerExposure.onAssetPricesUpdated(new AssetPricesUpdatedEvent(Map.of("bitcoin", new BigDecimal("80")), Instant.now()));
+        assertEquals(0, new BigDecimal("200").compareTo(assetExposureService.getReport(1).totalAumUsd()));
+    }
+}
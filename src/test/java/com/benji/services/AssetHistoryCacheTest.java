@@ -0,0 +1,79 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.benji.services.models.DailyPriceSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AssetHistoryCacheTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-02-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path tempDir;
+
+    private final CoinCapAssetUpdateService coinCapAssetUpdateService = mock(CoinCapAssetUpdateService.class);
+
+    @Test
+    public void dailyCloses_whenRangeCached_thenServedWithoutCoinCap() {
+        when(coinCapAssetUpdateService.fetchDailyHistory(eq("bitcoin"), any(), any())).thenReturn(Mono.just(List.of(
+                point("2024-01-01", "40000"),
+                point("2024-01-03", "42000")
+        )));
+
+        DailyPriceSeries first = new AssetHistoryCache(coinCapAssetUpdateService, tempDir, true, CLOCK)
+                .dailyCloses("bitcoin", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-04"));
+        DailyPriceSeries reloaded = new AssetHistoryCache(coinCapAssetUpdateService, tempDir, true, CLOCK)
+                .dailyCloses("bitcoin", LocalDate.parse("2024-01-02"), LocalDate.parse("2024-01-03"));
+
+        assertArrayEquals(new double[]{40000, 40000, 42000, 42000}, first.closes());
+        assertEquals(LocalDate.parse("2024-01-02"), reloaded.firstDay());
+        assertArrayEquals(new double[]{40000, 42000}, reloaded.closes());
+        verify(coinCapAssetUpdateService, times(1)).fetchDailyHistory(any(), any(), any());
+    }
+
+    @Test
+    public void dailyCloses_whenRangeExtended_thenFetchesOnlyMissingDays() {
+        when(coinCapAssetUpdateService.fetchDailyHistory(eq("ethereum"), any(), any()))
+                .thenReturn(Mono.just(List.of(point("2024-01-10", "2500"))))
+                .thenReturn(Mono.just(List.of(point("2024-01-12", "2600"))));
+        AssetHistoryCache cache = new AssetHistoryCache(coinCapAssetUpdateService, tempDir, false, CLOCK);
+
+        cache.dailyCloses("ethereum", LocalDate.parse("2024-01-10"), LocalDate.parse("2024-01-10"));
+        DailyPriceSeries extended = cache.dailyCloses("ethereum", LocalDate.parse("2024-01-10"), LocalDate.parse("2024-01-12"));
+
+        assertArrayEquals(new double[]{2500, 2500, 2600}, extended.closes());
+        verify(coinCapAssetUpdateService).fetchDailyHistory("ethereum",
+                Instant.parse("2024-01-11T00:00:00Z"), Instant.parse("2024-01-12T23:59:59.999Z"));
+    }
+
+    @Test
+    public void dailyCloses_whenRangeInFuture_thenClampsToLastCompleteDay() {
+        when(coinCapAssetUpdateService.fetchDailyHistory(eq("solana"), any(), any()))
+                .thenReturn(Mono.just(List.of(point("2024-01-31", "100"))));
+        AssetHistoryCache cache = new AssetHistoryCache(coinCapAssetUpdateService, tempDir, false, CLOCK);
+
+        DailyPriceSeries series = cache.dailyCloses("solana", LocalDate.parse("2024-01-31"), LocalDate.parse("2024-03-01"));
+
+        assertEquals(LocalDate.parse("2024-01-31"), series.lastDay());
+    }
+
+    private static CoinCapHistoryPoint point(String day, String price) {
+        return new CoinCapHistoryPoint(LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(), new BigDecimal(price));
+    }
+}
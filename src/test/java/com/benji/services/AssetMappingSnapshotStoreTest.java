@@ -0,0 +1,55 @@
+package com.benji.services;
+
+import com.benji.services.models.AssetMappingSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssetMappingSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void write_whenSnapshotLoaded_thenEntriesRoundTrip() {
+        AssetMappingSnapshotStore store = new AssetMappingSnapshotStore(tempDir.resolve("mappings.snapshot").toString(), true);
+        Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        AssetMappingSnapshot snapshot = new AssetMappingSnapshot(createdAt, List.of(
+                new AssetMappingSnapshot.Entry("bitcoin", "BTC", new BigDecimal("64123.123456789"), createdAt),
+                new AssetMappingSnapshot.Entry("ethereum", "ETH", null, null)
+        ));
+
+        store.write(snapshot);
+        AssetMappingSnapshot loaded = store.load().orElseThrow();
+
+        assertEquals(createdAt, loaded.createdAt());
+        assertEquals(snapshot.entries(), loaded.entries());
+    }
+
+    @Test
+    public void load_whenFileMissingOrCorrupt_thenReturnsEmpty() throws Exception {
+        Path snapshotPath = tempDir.resolve("mappings.snapshot");
+        AssetMappingSnapshotStore store = new AssetMappingSnapshotStore(snapshotPath.toString(), true);
+        assertTrue(store.load().isEmpty());
+
+        Files.writeString(snapshotPath, "not a snapshot");
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    public void write_whenDisabled_thenNothingIsPersisted() {
+        Path snapshotPath = tempDir.resolve("mappings.snapshot");
+        AssetMappingSnapshotStore store = new AssetMappingSnapshotStore(snapshotPath.toString(), false);
+
+        store.write(new AssetMappingSnapshot(Instant.now(), List.of()));
+
+        assertFalse(Files.exists(snapshotPath));
+    }
+}
@@ -0,0 +1,76 @@
+package com.benji.services;
+
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.services.models.SymbolMapping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AssetSymbolIndexTest {
+
+    private AssetSymbolMappingRepository assetSymbolMappingRepository;
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @BeforeEach
+    void setUp() {
+        assetSymbolMappingRepository = mock(AssetSymbolMappingRepository.class);
+        assetSymbolIndex = new AssetSymbolIndex(assetSymbolMappingRepository);
+        ReflectionTestUtils.setField(assetSymbolIndex, "maxUnknownSymbols", 100);
+    }
+
+    @Test
+    public void lookup_whenSymbolIndexed_thenResolvesCaseInsensitivelyWithoutQuerying() {
+        assetSymbolIndex.rebuild(List.of(mapping("bitcoin", "BTC"), mapping("ethereum", "ETH")));
+
+        Optional<SymbolMapping> result = assetSymbolIndex.lookup(" btc ");
+
+        assertTrue(result.isPresent());
+        assertEquals("bitcoin", result.get().id());
+        assertEquals("BTC", result.get().symbol());
+        verifyNoInteractions(assetSymbolMappingRepository);
+    }
+
+    @Test
+    public void lookup_whenSymbolUnknown_thenQueriesOnceAndCachesMiss() {
+        when(assetSymbolMappingRepository.findBySymbolIgnoreCase(anyString())).thenReturn(Optional.empty());
+
+        assertTrue(assetSymbolIndex.lookup("UNKNOWN").isEmpty());
+        assertTrue(assetSymbolIndex.lookup("unknown").isEmpty());
+
+        verify(assetSymbolMappingRepository, times(1)).findBySymbolIgnoreCase("UNKNOWN");
+    }
+
+    @Test
+    public void lookup_whenSymbolOnlyInDatabase_thenAddsItToIndex() {
+        when(assetSymbolMappingRepository.findBySymbolIgnoreCase("SOL")).thenReturn(Optional.of(mapping("solana", "SOL")));
+
+        assertEquals("solana", assetSymbolIndex.lookup("SOL").orElseThrow().id());
+        assertEquals("solana", assetSymbolIndex.lookup("sol").orElseThrow().id());
+
+        verify(assetSymbolMappingRepository, times(1)).findBySymbolIgnoreCase("SOL");
+        assertEquals(1, assetSymbolIndex.size());
+    }
+
+    @Test
+    public void rebuild_whenMappingsSynced_thenReplacesIndexAndClearsNegativeCache() {
+        when(assetSymbolMappingRepository.findBySymbolIgnoreCase("DOGE")).thenReturn(Optional.empty());
+        assertTrue(assetSymbolIndex.lookup("DOGE").isEmpty());
+
+        assetSymbolIndex.rebuild(List.of(mapping("dogecoin", "DOGE")));
+
+        assertEquals("dogecoin", assetSymbolIndex.lookup("DOGE").orElseThrow().id());
+        assertEquals(1, assetSymbolIndex.size());
+    }
+
+    private static AssetSymbolMapping mapping(String id, String symbol) {
+        return AssetSymbolMapping.builder().id(id).symbol(symbol).build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.benji.services;
+
+import com.benji.MutableClock;
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.repositories.ClusterLeaseRepository;
+import com.benji.repositories.ClusterNodeRepository;
+import com.benji.services.models.ConsistentHashRing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ClusterCoordinatorTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private ClusterLeaseRepository clusterLeaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+
+    @AfterEach
+    void tearDown() {
+        clusterNodeRepository.deleteAll();
+        clusterLeaseRepository.deleteAll();
+    }
+
+    @Test
+    void assetsToRefresh_WhenSharded_CoversEveryAssetOnceAndRebalancesAfterLeaseExpiry() {
+        List<String> assets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            assets.add("asset-" + i);
+        }
+        ClusterCoordinator a = coordinator(ClusterCoordinator.Mode.SHARDED, "node-a");
+        ClusterCoordinator b = coordinator(ClusterCoordinator.Mode.SHARDED, "node-b");
+        ClusterCoordinator c = coordinator(ClusterCoordinator.Mode.SHARDED, "node-c");
+        List.of(a, b, c).forEach(ClusterCoordinator::heartbeat);
+        List.of(a, b, c).forEach(ClusterCoordinator::heartbeat);
+
+        assertPartition(assets, a.assetsToRefresh(assets), b.assetsToRefresh(assets), c.assetsToRefresh(assets));
+        List<String> ownedByA = a.assetsToRefresh(assets);
+
+        expireLeases();
+        List.of(a, b).forEach(ClusterCoordinator::heartbeat);
+        List.of(a, b).forEach(ClusterCoordinator::heartbeat);
+
+        assertEquals(List.of(), c.assetsToRefresh(assets));
+        assertPartition(assets, a.assetsToRefresh(assets), b.assetsToRefresh(assets));
+        assertTrue(a.assetsToRefresh(assets).containsAll(ownedByA));
+    }
+
+    @Test
+    void assetsToRefresh_WhenLeaderMode_OnlyLeaseHolderRefreshesUntilItExpires() {
+        List<String> assets = List.of("bitcoin", "ethereum");
+        ClusterCoordinator a = coordinator(ClusterCoordinator.Mode.LEADER, "node-a");
+        ClusterCoordinator b = coordinator(ClusterCoordinator.Mode.LEADER, "node-b");
+        a.heartbeat();
+        b.heartbeat();
+
+        assertEquals(assets, a.assetsToRefresh(assets));
+        assertEquals(List.of(), b.assetsToRefresh(assets));
+        assertTrue(a.owns("wallet:1"));
+        assertFalse(b.owns("wallet:1"));
+
+        expireLeases();
+        b.heartbeat();
+
+        assertEquals(List.of(), a.assetsToRefresh(assets));
+        assertEquals(assets, b.assetsToRefresh(assets));
+
+        b.leave();
+        a.heartbeat();
+        assertEquals(assets, a.assetsToRefresh(assets));
+    }
+
+    @Test
+    void heartbeat_WhenNodeClockRunsAhead_DoesNotTakeOverALiveLease() {
+        List<String> assets = List.of("bitcoin", "ethereum");
+        ClusterCoordinator a = coordinator(ClusterCoordinator.Mode.LEADER, "node-a");
+        MutableClock skewed = new MutableClock(clock.instant().plus(LEASE.multipliedBy(10)));
+        ClusterCoordinator b = new ClusterCoordinator(clusterNodeRepository, clusterLeaseRepository,
+                ClusterCoordinator.Mode.LEADER, "node-b", LEASE, 128, skewed);
+        a.heartbeat();
+        b.heartbeat();
+
+        assertEquals(assets, a.assetsToRefresh(assets));
+        assertEquals(List.of(), b.assetsToRefresh(assets));
+    }
+
+    @Test
+    void consistentHashRing_WhenNodeRemoved_OnlyItsKeysMove() {
+        ConsistentHashRing full = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+        ConsistentHashRing withoutC = new ConsistentHashRing(List.of("a", "b", "d"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "asset-" + i;
+            String owner = full.owner(key);
+            counts.merge(owner, 1, Integer::sum);
+            if (owner.equals("c")) {
+                assertNotEquals("c", withoutC.owner(key));
+            } else {
+                assertEquals(owner, withoutC.owner(key));
+            }
+        }
+        counts.values().forEach(count -> assertTrue(count > 1_500 && count < 3_500, "Unbalanced ring: " + counts));
+    }
+
+    /** Lets every lease lapse, on the database clock that decides ownership and on the local one. */
+    private void expireLeases() {
+        clock.advance(LEASE.plusSeconds(1));
+        long millis = LEASE.plusSeconds(1).toMillis();
+        jdbcTemplate.update("UPDATE cluster_nodes SET lease_expires_at = DATEADD(MILLISECOND, ?, lease_expires_at)", -millis);
+        jdbcTemplate.update("UPDATE cluster_leases SET expires_at = DATEADD(MILLISECOND, ?, expires_at)", -millis);
+    }
+
+    private ClusterCoordinator coordinator(ClusterCoordinator.Mode mode, String nodeId) {
+        return new ClusterCoordinator(clusterNodeRepository, clusterLeaseRepository, mode, nodeId, LEASE, 128, clock);
+    }
+
+    @SafeVarargs
+    private static void assertPartition(List<String> assets, List<String>... shards) {
+        Set<String> covered = new HashSet<>();
+        int total = 0;
+        for (List<String> shard : shards) {
+            assertFalse(shard.isEmpty());
+            covered.addAll(shard);
+            total += shard.size();
+        }
+        assertEquals(assets.size(), total);
+        assertEquals(new HashSet<>(assets), covered);
+    }
+}
@@ -0,0 +1,132 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.Wallet;
+import com.benji.repositories.AssetLotRepository;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CostBasisServiceTest {
+
+    @Autowired
+    private CostBasisService costBasisService;
+
+    @Autowired
+    private AssetLotRepository assetLotRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WalletFixtures walletFixtures;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @AfterEach
+    void tearDown() {
+        assetLotRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void dispose_ReleasesCostAccordingToWalletMethod() {
+        // Lots: 2 @ 100 then 3 @ 200, cost basis 800; withdraw 3 @ 300 for 900 proceeds.
+        assertDisposal(Wallet.CostBasisMethod.FIFO, "500", "400");
+        assertDisposal(Wallet.CostBasisMethod.LIFO, "300", "200");
+        assertDisposal(Wallet.CostBasisMethod.AVERAGE, "420", "320");
+    }
+
+    @Test
+    void dispose_WithManyLots_OnlyConsumesTheLotsItNeeds() {
+        Long walletId = walletFixtures.createWallet("many-lots@example.com");
+        int lots = 10_000;
+        Long assetId = new TransactionTemplate(transactionManager).execute(status -> {
+            Asset asset = newAsset(walletId);
+            for (int i = 0; i < lots; i++) {
+                costBasisService.acquire(walletId, asset, BigDecimal.ONE, BigDecimal.valueOf(i + 1));
+                asset.setQuantity(asset.getQuantity().add(BigDecimal.ONE));
+            }
+            return assetRepository.save(asset).getId();
+        });
+
+        BigDecimal realized = new TransactionTemplate(transactionManager).execute(status -> {
+            Asset asset = assetRepository.findById(assetId).orElseThrow();
+            BigDecimal pnl = costBasisService.dispose(walletId, Wallet.CostBasisMethod.LIFO, asset,
+                    new BigDecimal("2.5"), BigDecimal.valueOf(lots + 1));
+            asset.setQuantity(asset.getQuantity().subtract(new BigDecimal("2.5")));
+            return pnl;
+        });
+
+        // Consumes the newest lots, costing lots and lots - 1, then half of the one costing lots - 2.
+        BigDecimal releasedCost = BigDecimal.valueOf(lots + (lots - 1)).add(BigDecimal.valueOf(lots - 2).divide(BigDecimal.valueOf(2)));
+        assertEquals(0, new BigDecimal("2.5").multiply(BigDecimal.valueOf(lots + 1)).subtract(releasedCost).compareTo(realized));
+        assertEquals(lots - 2, assetLotRepository.count());
+        Asset asset = assetRepository.findById(assetId).orElseThrow();
+        BigDecimal expectedCost = BigDecimal.valueOf((long) lots * (lots + 1) / 2).subtract(releasedCost);
+        assertEquals(0, expectedCost.compareTo(asset.getCostBasis()));
+    }
+
+    private void assertDisposal(Wallet.CostBasisMethod method, String expectedRealized, String expectedRemainingCost) {
+        Long walletId = walletFixtures.createWallet(method.name().toLowerCase() + "@example.com");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long assetId = transactionTemplate.execute(status -> {
+            Asset asset = newAsset(walletId);
+            costBasisService.acquire(walletId, asset, new BigDecimal("2"), new BigDecimal("100"));
+            asset.setQuantity(asset.getQuantity().add(new BigDecimal("2")));
+            asset = assetRepository.save(asset);
+            costBasisService.acquire(walletId, asset, new BigDecimal("3"), new BigDecimal("200"));
+            asset.setQuantity(asset.getQuantity().add(new BigDecimal("3")));
+            return asset.getId();
+        });
+
+        BigDecimal realized = transactionTemplate.execute(status -> {
+            Asset asset = assetRepository.findById(assetId).orElseThrow();
+            BigDecimal pnl = costBasisService.dispose(walletId, method, asset, new BigDecimal("3"), new BigDecimal("300"));
+            asset.setQuantity(asset.getQuantity().subtract(new BigDecimal("3")));
+            return pnl;
+        });
+
+        Asset asset = assetRepository.findById(assetId).orElseThrow();
+        assertEquals(0, new BigDecimal(expectedRealized).compareTo(realized), method.name());
+        assertEquals(0, new BigDecimal(expectedRealized).compareTo(asset.getRealizedPnl()), method.name());
+        assertEquals(0, new BigDecimal(expectedRemainingCost).compareTo(asset.getCostBasis()), method.name());
+        assertEquals(0, new BigDecimal("2").compareTo(asset.getQuantity()), method.name());
+    }
+
+    private Asset newAsset(Long walletId) {
+        Asset asset = new Asset();
+        asset.setName("bitcoin");
+        asset.setSymbol("BTC");
+        asset.setQuantity(BigDecimal.ZERO);
+        asset.setPriceUsd(new BigDecimal("100"));
+        asset.setWallet(walletRepository.getReferenceById(walletId));
+        return asset;
+    }
+}
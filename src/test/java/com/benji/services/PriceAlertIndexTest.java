@@ -0,0 +1,62 @@
+package com.benji.services;
+
+import com.benji.models.entities.PriceAlert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceAlertIndexTest {
+
+    private final PriceAlertIndex priceAlertIndex = new PriceAlertIndex();
+
+    @Test
+    public void evaluate_whenPriceRises_thenFiresOnlyAboveAlertsInsideTheCrossedRange() {
+        priceAlertIndex.add("bitcoin", above(1, "100"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", above(2, "105"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", above(3, "110"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", above(4, "111"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", below(5, "105"), new BigDecimal("100"));
+
+        List<PriceAlertIndex.IndexedAlert> fired = priceAlertIndex.evaluate("bitcoin", new BigDecimal("110.00"));
+
+        assertEquals(List.of(2L, 3L), fired.stream().map(PriceAlertIndex.IndexedAlert::alertId).toList());
+        assertEquals(3, priceAlertIndex.size());
+    }
+
+    @Test
+    public void evaluate_whenPriceFallsAndRises_thenEachAlertFiresOnce() {
+        priceAlertIndex.add("bitcoin", below(1, "90"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", below(2, "80"), new BigDecimal("100"));
+        priceAlertIndex.add("bitcoin", above(3, "95"), new BigDecimal("100"));
+
+        assertEquals(List.of(1L), ids(priceAlertIndex.evaluate("bitcoin", new BigDecimal("85"))));
+        assertEquals(List.of(3L), ids(priceAlertIndex.evaluate("bitcoin", new BigDecimal("99"))));
+        assertEquals(List.of(), ids(priceAlertIndex.evaluate("bitcoin", new BigDecimal("85"))));
+        assertEquals(List.of(2L), ids(priceAlertIndex.evaluate("bitcoin", new BigDecimal("80"))));
+        assertEquals(0, priceAlertIndex.size());
+    }
+
+    @Test
+    public void evaluate_whenAlertRemovedOrAssetUnknown_thenNothingFires() {
+        priceAlertIndex.add("bitcoin", above(1, "110"), new BigDecimal("100"));
+
+        assertTrue(priceAlertIndex.remove("bitcoin", above(1, "110")));
+        assertEquals(List.of(), priceAlertIndex.evaluate("bitcoin", new BigDecimal("120")));
+        assertEquals(List.of(), priceAlertIndex.evaluate("ethereum", new BigDecimal("120")));
+    }
+
+    private static PriceAlertIndex.IndexedAlert above(long id, String threshold) {
+        return new PriceAlertIndex.IndexedAlert(id, 1L, PriceAlert.Direction.ABOVE, new BigDecimal(threshold));
+    }
+
+    private static PriceAlertIndex.IndexedAlert below(long id, String threshold) {
+        return new PriceAlertIndex.IndexedAlert(id, 1L, PriceAlert.Direction.BELOW, new BigDecimal(threshold));
+    }
+
+    private static List<Long> ids(List<PriceAlertIndex.IndexedAlert> alerts) {
+        return alerts.stream().map(PriceAlertIndex.IndexedAlert::alertId).toList();
+    }
+}
@@ -0,0 +1,152 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.CreatePriceAlertRequest;
+import com.benji.controllers.dto.PriceAlertResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.exception.PriceAlertDoesNotExistException;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.models.entities.PriceAlert;
+import com.benji.models.entities.User;
+import com.benji.models.entities.Wallet;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.repositories.PriceAlertRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PriceAlertServiceTest {
+
+    @Autowired
+    private PriceAlertService priceAlertService;
+
+    @Autowired
+    private PriceAlertIndex priceAlertIndex;
+
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+
+    @Autowired
+    private AssetSymbolMappingRepository assetSymbolMappingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        assetSymbolIndex.rebuild(List.of());
+        assetSymbolMappingRepository.save(AssetSymbolMapping.builder().id("alert-coin").symbol("ALRT").build());
+        assetSymbolMappingRepository.save(AssetSymbolMapping.builder().id("other-coin").symbol("OTHR").build());
+
+        User user = userRepository.save(User.builder().email("alerts@example.com").build());
+        Wallet wallet = walletRepository.save(Wallet.builder().user(user).assets(new ArrayList<>()).build());
+        walletId = wallet.getId();
+        assetRepository.save(Asset.builder()
+                .symbol("ALRT")
+                .name("alert-coin")
+                .quantity(BigDecimal.ONE)
+                .priceUsd(new BigDecimal("100"))
+                .wallet(wallet)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceAlertIndex.clear();
+        priceAlertRepository.deleteAll();
+        assetRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onAssetPricesUpdated_WhenThresholdCrossed_MarksOnlyThatAlertTriggered() throws InterruptedException {
+        PriceAlertResponse crossed = create(PriceAlert.Direction.ABOVE, "105");
+        PriceAlertResponse tooHigh = create(PriceAlert.Direction.ABOVE, "120");
+        PriceAlertResponse below = create(PriceAlert.Direction.BELOW, "95");
+
+        priceAlertService.onAssetPricesUpdated(new AssetPricesUpdatedEvent(
+                Map.of("alert-coin", new BigDecimal("110")), Instant.now()));
+
+        PriceAlert triggered = awaitTriggered(crossed.id());
+        assertEquals(0, new BigDecimal("110").compareTo(triggered.getTriggeredPrice()));
+        assertEquals(PriceAlert.Status.ACTIVE, priceAlertRepository.findById(tooHigh.id()).orElseThrow().getStatus());
+        assertEquals(PriceAlert.Status.ACTIVE, priceAlertRepository.findById(below.id()).orElseThrow().getStatus());
+        assertEquals(2, priceAlertIndex.size());
+    }
+
+    @Test
+    void createAlert_WhenAssetNotHeldOrWalletMissing_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> priceAlertService.createAlert(walletId,
+                new CreatePriceAlertRequest("OTHR", PriceAlert.Direction.ABOVE, BigDecimal.TEN)));
+        assertThrows(WalletDoesNotExistException.class, () -> priceAlertService.createAlert(-1L,
+                new CreatePriceAlertRequest("ALRT", PriceAlert.Direction.ABOVE, BigDecimal.TEN)));
+    }
+
+    @Test
+    void createAlert_WhenThresholdAlreadyCrossed_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> create(PriceAlert.Direction.ABOVE, "100"));
+        assertThrows(IllegalArgumentException.class, () -> create(PriceAlert.Direction.BELOW, "120"));
+        assertTrue(priceAlertService.getAlerts(walletId).isEmpty());
+    }
+
+    @Test
+    void deleteAlert_RemovesItFromListingAndIndex() {
+        PriceAlertResponse alert = create(PriceAlert.Direction.BELOW, "90");
+
+        priceAlertService.deleteAlert(walletId, alert.id());
+
+        assertTrue(priceAlertService.getAlerts(walletId).isEmpty());
+        assertEquals(0, priceAlertIndex.size());
+        assertThrows(PriceAlertDoesNotExistException.class, () -> priceAlertService.deleteAlert(walletId, alert.id()));
+    }
+
+    private PriceAlertResponse create(PriceAlert.Direction direction, String threshold) {
+        return priceAlertService.createAlert(walletId, new CreatePriceAlertRequest("ALRT", direction, new BigDecimal(threshold)));
+    }
+
+    private PriceAlert awaitTriggered(Long alertId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            PriceAlert alert = priceAlertRepository.findById(alertId).orElseThrow();
+            if (alert.getStatus() == PriceAlert.Status.TRIGGERED) {
+                return alert;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Alert " + alertId + " was not triggered");
+    }
+}
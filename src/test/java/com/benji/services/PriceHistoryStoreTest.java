@@ -0,0 +1,106 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.PricePoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceHistoryStoreTest {
+
+    private static final Instant DAY_START = Instant.parse("2024-01-10T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void read_whenTicksAppended_thenReturnsRangeInOrder() {
+        PriceHistoryStore store = newStore(4, Clock.systemUTC());
+        for (int minute = 0; minute < 10; minute++) {
+            store.append("bitcoin", new BigDecimal(50000 + minute), DAY_START.plusSeconds(minute * 60L).toEpochMilli());
+        }
+
+        List<PricePoint> points = store.read("bitcoin", DAY_START.plusSeconds(120), DAY_START.plusSeconds(360), 100);
+
+        assertEquals(5, points.size());
+        assertEquals(DAY_START.plusSeconds(120), points.get(0).timestamp());
+        assertEquals(0, new BigDecimal("50002").compareTo(points.get(0).priceUsd()));
+        assertEquals(0, new BigDecimal("50006").compareTo(points.get(4).priceUsd()));
+    }
+
+    @Test
+    public void read_whenStoreReopened_thenKeepsAppendingToLatestSegment() throws Exception {
+        newStore(16, Clock.systemUTC()).append("ethereum", new BigDecimal("2000.1234567891"), DAY_START.toEpochMilli());
+
+        PriceHistoryStore reopened = newStore(16, Clock.systemUTC());
+        reopened.onAssetPricesUpdated(new AssetPricesUpdatedEvent(Map.of("ethereum", new BigDecimal("2001")), DAY_START.plusSeconds(60)));
+
+        List<PricePoint> points = reopened.read("ethereum", DAY_START, DAY_START.plusSeconds(3600), 100);
+        assertEquals(2, points.size());
+        assertEquals(new BigDecimal("2000.1234567891"), points.get(0).priceUsd());
+        try (Stream<Path> segments = Files.list(tempDir.resolve("ethereum"))) {
+            assertEquals(1, segments.count());
+        }
+    }
+
+    @Test
+    public void runMaintenance_whenSegmentsAge_thenDownsamplesAndExpires() throws Exception {
+        Clock clock = Clock.fixed(DAY_START.plus(Duration.ofDays(30)), ZoneOffset.UTC);
+        PriceHistoryStore store = newStore(256, clock);
+        Instant expiredDay = DAY_START.plus(Duration.ofDays(1));
+        Instant oldDay = DAY_START.plus(Duration.ofDays(20));
+        store.append("solana", new BigDecimal("90"), DAY_START.minus(Duration.ofDays(10)).toEpochMilli());
+        for (int minute = 0; minute < 120; minute++) {
+            store.append("solana", new BigDecimal(100 + minute), oldDay.plusSeconds(minute * 60L).toEpochMilli());
+        }
+
+        store.runMaintenance();
+
+        assertTrue(store.read("solana", DAY_START.minus(Duration.ofDays(11)), expiredDay, 100).isEmpty());
+        List<PricePoint> downsampled = store.read("solana", oldDay, oldDay.plus(Duration.ofDays(1)), 100);
+        assertEquals(2, downsampled.size());
+        assertEquals(0, new BigDecimal("159").compareTo(downsampled.get(0).priceUsd()));
+        assertEquals(0, new BigDecimal("219").compareTo(downsampled.get(1).priceUsd()));
+    }
+
+    @Test
+    public void dailyCloses_whenDaysMissing_thenCarriesTheLastCaptureForward() {
+        PriceHistoryStore store = newStore(16, Clock.systemUTC());
+        LocalDate firstDay = LocalDate.ofInstant(DAY_START, ZoneOffset.UTC);
+        store.append("ethereum", new BigDecimal("2000"), DAY_START.plusSeconds(60).toEpochMilli());
+        store.append("ethereum", new BigDecimal("2100"), DAY_START.plusSeconds(7_200).toEpochMilli());
+        store.append("ethereum", new BigDecimal("2300"), DAY_START.plus(Duration.ofDays(3)).toEpochMilli());
+
+        DailyPriceSeries series = store.dailyCloses("ethereum", firstDay.minusDays(1), firstDay.plusDays(5));
+
+        assertEquals(firstDay, series.firstDay());
+        assertArrayEquals(new double[]{2100, 2100, 2100, 2300}, series.closes());
+        assertTrue(store.dailyCloses("ripple", firstDay, firstDay.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void read_whenAssetIdInvalid_thenThrowsIllegalArgument() {
+        PriceHistoryStore store = newStore(4, Clock.systemUTC());
+
+        assertThrows(IllegalArgumentException.class, () -> store.read("../etc", DAY_START, DAY_START, 10));
+    }
+
+    private PriceHistoryStore newStore(int segmentCapacity, Clock clock) {
+        return new PriceHistoryStore(tempDir, true, Duration.ofDays(1), segmentCapacity,
+                Duration.ofDays(15), Duration.ofDays(7), Duration.ofHours(1), clock);
+    }
+}
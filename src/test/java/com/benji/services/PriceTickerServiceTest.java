@@ -0,0 +1,85 @@
+package com.benji.services;
+
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.services.models.PriceTick;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceTickerServiceTest {
+
+    private final AssetPriceCache assetPriceCache = new AssetPriceCache();
+    private final PriceTickerService priceTickerService = new PriceTickerService(assetPriceCache);
+
+    @Test
+    public void subscribe_whenConsumerIsSlow_thenOnlyLatestPricePerAssetIsDelivered() {
+        CollectingSubscriber slowSubscriber = new CollectingSubscriber();
+        priceTickerService.subscribe(Set.of()).subscribe(slowSubscriber);
+
+        publish("bitcoin", "60000");
+        publish("bitcoin", "61000");
+        publish("ethereum", "3000");
+        publish("bitcoin", "62000");
+        assertTrue(slowSubscriber.received.isEmpty());
+
+        slowSubscriber.request(10);
+
+        assertEquals(2, slowSubscriber.received.size());
+        assertEquals(Map.of("bitcoin", new BigDecimal("62000"), "ethereum", new BigDecimal("3000")),
+                Map.of(slowSubscriber.received.get(0).assetId(), slowSubscriber.received.get(0).priceUsd(),
+                        slowSubscriber.received.get(1).assetId(), slowSubscriber.received.get(1).priceUsd()));
+    }
+
+    @Test
+    public void subscribe_whenFilteredByAsset_thenOtherAssetsAreIgnored() {
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        priceTickerService.subscribe(Set.of("ethereum")).subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+
+        publish("bitcoin", "60000");
+        publish("ethereum", "3000");
+
+        assertEquals(List.of("ethereum"), subscriber.received.stream().map(PriceTick::assetId).toList());
+    }
+
+    @Test
+    public void subscribe_whenCacheHasPrices_thenStartsWithLastKnownPrices() {
+        assetPriceCache.put("solana", new BigDecimal("150"), Instant.now());
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        priceTickerService.subscribe(Set.of("solana")).subscribe(subscriber);
+
+        subscriber.request(1);
+
+        assertEquals(1, subscriber.received.size());
+        assertEquals(new BigDecimal("150"), subscriber.received.get(0).priceUsd());
+
+        subscriber.dispose();
+        assertEquals(0, priceTickerService.subscriberCount());
+    }
+
+    private void publish(String assetId, String price) {
+        priceTickerService.onAssetPricesUpdated(new AssetPricesUpdatedEvent(Map.of(assetId, new BigDecimal(price)), Instant.now()));
+    }
+
+    private static class CollectingSubscriber extends BaseSubscriber<PriceTick> {
+        private final List<PriceTick> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(PriceTick value) {
+            received.add(value);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.events.SharedVersionsChangedEvent;
+import com.benji.events.WalletAssetsChangedEvent;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.PriceSnapshotEntryRepository;
+import com.benji.repositories.PriceSnapshotVersionRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SharedPriceSnapshotServiceTest {
+
+    @Autowired
+    private PriceSnapshotEntryRepository priceSnapshotEntryRepository;
+
+    @Autowired
+    private PriceSnapshotVersionRepository priceSnapshotVersionRepository;
+
+    @Autowired
+    private WalletVersionRepository walletVersionRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WalletFixtures walletFixtures;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private final AssetPriceCache publisherCache = new AssetPriceCache();
+    private final AssetPriceCache followerCache = new AssetPriceCache();
+    private final List<AssetPricesUpdatedEvent> followerEvents = new ArrayList<>();
+    private final List<SharedVersionsChangedEvent> followerSharedEvents = new ArrayList<>();
+    private SharedPriceSnapshotService publisher;
+    private SharedPriceSnapshotService follower;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new SharedPriceSnapshotService(priceSnapshotEntryRepository, priceSnapshotVersionRepository,
+                walletVersionRepository, publisherCache, event -> { }, transactionManager, true);
+        follower = new SharedPriceSnapshotService(priceSnapshotEntryRepository, priceSnapshotVersionRepository,
+                walletVersionRepository, followerCache, event -> {
+                    if (event instanceof SharedVersionsChangedEvent shared) {
+                        followerSharedEvents.add(shared);
+                    } else {
+                        followerEvents.add((AssetPricesUpdatedEvent) event);
+                    }
+                }, transactionManager, true);
+        publisher.init();
+        follower.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceSnapshotEntryRepository.deleteAll();
+        priceSnapshotVersionRepository.deleteAll();
+        walletVersionRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void poll_WhenPublisherAdvancesVersion_PullsOnlyNewRowsAndRaisesEventForMovedPrices() {
+        Instant refreshedAt = Instant.parse("2024-01-01T00:00:00Z");
+        publisher.publish(Map.of("bitcoin", new BigDecimal("42000.123456789"), "ethereum", new BigDecimal("2200")), refreshedAt);
+
+        follower.poll();
+
+        assertEquals(0, new BigDecimal("42000.123456789").compareTo(followerCache.get("bitcoin").orElseThrow().priceUsd()));
+        assertEquals(1, followerEvents.size());
+        assertEquals(2, followerEvents.get(0).pricesByAssetName().size());
+
+        publisher.publish(Map.of("bitcoin", new BigDecimal("42000.123456789"), "ethereum", new BigDecimal("2300")),
+                refreshedAt.plusSeconds(10));
+        follower.poll();
+        follower.poll();
+
+        assertEquals(2, followerEvents.size());
+        assertEquals(Map.of("ethereum", new BigDecimal("2300")).keySet(), followerEvents.get(1).pricesByAssetName().keySet());
+        assertEquals(refreshedAt.plusSeconds(10), followerCache.get("bitcoin").orElseThrow().updatedAt());
+        assertEquals(publisher.localVersion() + 2, follower.localVersion());
+    }
+
+    @Test
+    void walletVersions_WhenChangedOnAnotherNode_MatchAndInvalidateOnEveryNode() {
+        Long walletId = createWalletHoldingBitcoin();
+        WalletVersionService writer = new WalletVersionService(assetRepository, walletVersionRepository, publisher, true);
+        WalletVersionService reader = new WalletVersionService(assetRepository, walletVersionRepository, follower, true);
+        List<Long> invalidated = new ArrayList<>();
+        reader.onVersionChange(invalidated::add);
+        String initialETag = reader.currentETag(walletId);
+        assertEquals(writer.currentETag(walletId), initialETag);
+
+        writer.onWalletAssetsChanged(new WalletAssetsChangedEvent(walletId, "bitcoin"));
+        pollIntoReader(reader);
+
+        assertEquals(List.of(walletId), invalidated);
+        assertNotEquals(initialETag, reader.currentETag(walletId));
+        assertEquals(writer.currentETag(walletId), reader.currentETag(walletId), "ETags match behind a load balancer");
+
+        publisher.publish(Map.of("bitcoin", new BigDecimal("42000")), Instant.now());
+        pollIntoReader(reader);
+        long repriced = reader.currentVersion(walletId);
+        assertEquals(2, invalidated.size(), "A price move of a held asset advances the wallet");
+
+        publisher.publish(Map.of("bitcoin", new BigDecimal("42000")), Instant.now());
+        pollIntoReader(reader);
+        assertEquals(repriced, reader.currentVersion(walletId), "Re-publishing an unchanged price keeps the version");
+        assertEquals(2, invalidated.size());
+    }
+
+    @Test
+    void currentPrice_WhenLocalPriceFresh_DoesNotCallCoinCap() {
+        followerCache.put("bitcoin", new BigDecimal("42000"), Instant.now());
+        PriceLookupService priceLookupService = new PriceLookupService(followerCache, coinCapAssetUpdateService,
+                follower, Duration.ofSeconds(60));
+
+        assertEquals(new BigDecimal("42000"), priceLookupService.currentPrice("bitcoin").orElseThrow());
+        verify(coinCapAssetUpdateService, never()).fetchLatestPrice(anyString());
+    }
+
+    private void pollIntoReader(WalletVersionService reader) {
+        follower.poll();
+        followerSharedEvents.forEach(reader::onSharedVersionsChanged);
+        followerSharedEvents.clear();
+    }
+
+    private Long createWalletHoldingBitcoin() {
+        Long walletId = walletFixtures.createWallet("shared@example.com");
+        walletFixtures.saveAsset(walletId, "bitcoin", "BTC", "1", "40000");
+        return walletId;
+    }
+}
@@ -0,0 +1,143 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.StrategySweepRequest;
+import com.benji.controllers.dto.StrategySweepResponse;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.SymbolMapping;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StrategySweepServiceTest {
+
+    private static final LocalDate FROM = LocalDate.parse("2024-01-01");
+    private static final LocalDate TO = LocalDate.parse("2024-01-31");
+
+    private final AssetSymbolIndex assetSymbolIndex = mock(AssetSymbolIndex.class);
+    private final AssetHistoryCache assetHistoryCache = mock(AssetHistoryCache.class);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private StrategySweepService strategySweepService;
+
+    @BeforeEach
+    void setUp() {
+        strategySweepService = new StrategySweepService(assetSymbolIndex, assetHistoryCache, pool, 50_000, 50, 3650);
+
+        double[] flat = new double[31];
+        Arrays.fill(flat, 10);
+        double[] doubling = new double[31];
+        for (int day = 0; day < doubling.length; day++) {
+            doubling[day] = 100 * Math.pow(2, day / 30.0);
+        }
+        stubAsset("USDT", "tether", flat);
+        stubAsset("BTC", "bitcoin", doubling);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void sweep_whenDcaOnFlatPrices_thenInvestsEveryInterval() {
+        StrategySweepRequest request = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("USDT", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.DCA, FROM, TO, BigDecimal.ZERO, null,
+                new StrategySweepRequest.ParameterGrid(List.of(new BigDecimal("100")), List.of(10), null),
+                null, null);
+
+        StrategySweepResponse response = strategySweepService.sweep(request);
+
+        StrategySweepResponse.SweepResult result = response.results().get(0);
+        assertEquals(1, response.combinations());
+        assertEquals(new BigDecimal("400.00"), result.totalInvested());
+        assertEquals(new BigDecimal("400.00"), result.finalValue());
+        assertEquals(4, result.trades());
+        assertEquals(new BigDecimal("0.00"), result.maxDrawdownPercentage());
+    }
+
+    @Test
+    public void sweep_whenRebalancing_thenTightThresholdsTradeMoreAndRankLower() {
+        StrategySweepRequest request = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("USDT", BigDecimal.ONE),
+                        new StrategySweepRequest.TargetAsset("BTC", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.REBALANCE, FROM, TO, new BigDecimal("1000"), BigDecimal.ZERO,
+                new StrategySweepRequest.ParameterGrid(null, List.of(1, 7),
+                        List.of(new BigDecimal("1"), new BigDecimal("50"))),
+                null, StrategySweepRequest.Ranking.RETURN);
+
+        StrategySweepResponse response = strategySweepService.sweep(request);
+
+        assertEquals(4, response.combinations());
+        StrategySweepResponse.SweepResult best = response.results().get(0);
+        StrategySweepResponse.SweepResult worst = response.results().get(3);
+        // Never rebalancing lets the appreciating asset run: 500 + 500 * 2 = 1500.
+        assertEquals(new BigDecimal("50"), best.rebalanceThreshold());
+        assertEquals(new BigDecimal("1500.00"), best.finalValue());
+        assertEquals(1, best.trades());
+        assertTrue(worst.trades() > 1);
+        assertTrue(worst.finalValue().compareTo(best.finalValue()) < 0);
+    }
+
+    @Test
+    public void sweep_whenGridLarge_thenRunsAsOneJobAndRanks() {
+        List<BigDecimal> amounts = new ArrayList<>();
+        for (int amount = 1; amount <= 500; amount++) {
+            amounts.add(BigDecimal.valueOf(amount));
+        }
+        List<Integer> intervals = new ArrayList<>();
+        for (int interval = 1; interval <= 20; interval++) {
+            intervals.add(interval);
+        }
+        StrategySweepRequest request = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("BTC", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.DCA, FROM, TO, new BigDecimal("1000"), null,
+                new StrategySweepRequest.ParameterGrid(amounts, intervals, null),
+                5, StrategySweepRequest.Ranking.TIME_WEIGHTED_RETURN);
+
+        StrategySweepResponse response = strategySweepService.sweep(request);
+
+        assertEquals(10_000, response.combinations());
+        assertEquals(5, response.results().size());
+        for (int i = 1; i < response.results().size(); i++) {
+            assertTrue(response.results().get(i - 1).timeWeightedReturnPercentage()
+                    .compareTo(response.results().get(i).timeWeightedReturnPercentage()) >= 0);
+        }
+    }
+
+    @Test
+    public void sweep_whenGridTooLargeOrMissingValues_thenThrowsIllegalArgument() {
+        StrategySweepService limited = new StrategySweepService(assetSymbolIndex, assetHistoryCache, pool, 3, 50, 3650);
+        StrategySweepRequest tooLarge = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("BTC", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.DCA, FROM, TO, BigDecimal.ZERO, null,
+                new StrategySweepRequest.ParameterGrid(List.of(BigDecimal.ONE, BigDecimal.TEN), List.of(1, 2), null),
+                null, null);
+        StrategySweepRequest missingThresholds = new StrategySweepRequest(
+                List.of(new StrategySweepRequest.TargetAsset("BTC", BigDecimal.ONE)),
+                StrategySweepRequest.Strategy.REBALANCE, FROM, TO, BigDecimal.TEN, null,
+                new StrategySweepRequest.ParameterGrid(null, List.of(1), null),
+                null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> limited.sweep(tooLarge));
+        assertThrows(IllegalArgumentException.class, () -> strategySweepService.sweep(missingThresholds));
+    }
+
+    private void stubAsset(String symbol, String assetId, double[] closes) {
+        when(assetSymbolIndex.lookup(symbol)).thenReturn(Optional.of(new SymbolMapping(assetId, symbol)));
+        when(assetHistoryCache.dailyCloses(eq(assetId), any(), any())).thenReturn(new DailyPriceSeries(assetId, FROM, closes));
+    }
+}
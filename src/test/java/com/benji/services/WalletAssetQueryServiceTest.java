@@ -0,0 +1,137 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.controllers.dto.WalletAssetsPageResponse;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.User;
+import com.benji.models.entities.Wallet;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletAssetQueryServiceTest {
+
+    @Autowired
+    private WalletAssetQueryService walletAssetQueryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder().email("pages@example.com").build());
+        Wallet wallet = walletRepository.save(Wallet.builder().user(user).assets(new ArrayList<>()).build());
+        walletId = wallet.getId();
+
+        saveAsset(wallet, "BTC", "bitcoin", "1", "50000");
+        saveAsset(wallet, "ETH", "ethereum", "10", "2000");
+        saveAsset(wallet, "SOL", "solana", "100", "100");
+        saveAsset(wallet, "ADA", "cardano", "10000", "0.5");
+        saveAsset(wallet, "DOT", "polkadot", "500", "10");
+    }
+
+    @AfterEach
+    void tearDown() {
+        assetRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getWalletAssetsPage_ByValueDescending_WalksAllPagesInOrder() {
+        List<String> symbols = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            WalletAssetsPageResponse page = walletAssetQueryService.getWalletAssetsPage(walletId, "value", "desc", 2, cursor);
+            page.assets().forEach(asset -> symbols.add(asset.symbol()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // BTC and ETH tie at 20000 and DOT and ADA at 5000, so ties fall back to insertion order.
+        assertEquals(List.of("BTC", "ETH", "SOL", "ADA", "DOT"), symbols);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void getWalletAssetsPage_BySymbolAscending_ReturnsSortedPage() {
+        WalletAssetsPageResponse firstPage = walletAssetQueryService.getWalletAssetsPage(walletId, "symbol", "asc", 3, null);
+        WalletAssetsPageResponse secondPage = walletAssetQueryService.getWalletAssetsPage(
+                walletId, "symbol", "asc", 3, firstPage.nextCursor());
+
+        assertEquals(List.of("ADA", "BTC", "DOT"), firstPage.assets().stream().map(CreateUserWalletResponse.UserAssets::symbol).toList());
+        assertEquals(List.of("ETH", "SOL"), secondPage.assets().stream().map(CreateUserWalletResponse.UserAssets::symbol).toList());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void getWalletAssetsPage_CursorFromOtherSort_ThrowsIllegalArgument() {
+        WalletAssetsPageResponse page = walletAssetQueryService.getWalletAssetsPage(walletId, "quantity", "asc", 1, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> walletAssetQueryService.getWalletAssetsPage(walletId, "symbol", "asc", 1, page.nextCursor()));
+        assertThrows(IllegalArgumentException.class,
+                () -> walletAssetQueryService.getWalletAssetsPage(walletId, "price", "asc", 1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> walletAssetQueryService.getWalletAssetsPage(walletId, "value", "asc", 0, null));
+    }
+
+    @Test
+    void getWalletAssetsPage_UnknownWallet_ThrowsWalletDoesNotExist() {
+        assertThrows(WalletDoesNotExistException.class,
+                () -> walletAssetQueryService.getWalletAssetsPage(-1L, "value", "desc", 10, null));
+    }
+
+    @Test
+    void writeWalletAssets_WritesOneJsonLinePerAsset() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        walletAssetQueryService.writeWalletAssets(walletId, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{\"symbol\":\"BTC\""));
+        assertTrue(lines[4].contains("\"symbol\":\"DOT\""));
+    }
+
+    private void saveAsset(Wallet wallet, String symbol, String name, String quantity, String price) {
+        assetRepository.save(Asset.builder()
+                .wallet(wallet)
+                .symbol(symbol)
+                .name(name)
+                .quantity(new BigDecimal(quantity))
+                .priceUsd(new BigDecimal(price))
+                .build());
+    }
+}
@@ -0,0 +1,92 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.coincap.service.dto.CoinCapHistoryPoint;
+import com.benji.controllers.dto.WalletBacktestRequest;
+import com.benji.controllers.dto.WalletBacktestResponse;
+import com.benji.exception.AssetDoesNotExistException;
+import com.benji.services.models.SymbolMapping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WalletBacktestServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-02-01T12:00:00Z"), ZoneOffset.UTC);
+
+    private final CoinCapAssetUpdateService coinCapAssetUpdateService = mock(CoinCapAssetUpdateService.class);
+    private final AssetSymbolIndex assetSymbolIndex = mock(AssetSymbolIndex.class);
+    private WalletBacktestService walletBacktestService;
+
+    @BeforeEach
+    void setUp() {
+        AssetHistoryCache assetHistoryCache = new AssetHistoryCache(coinCapAssetUpdateService, Path.of("unused"), false, CLOCK);
+        walletBacktestService = new WalletBacktestService(assetSymbolIndex, assetHistoryCache, 3650);
+
+        when(assetSymbolIndex.lookup("BTC")).thenReturn(Optional.of(new SymbolMapping("bitcoin", "BTC")));
+        when(assetSymbolIndex.lookup("ETH")).thenReturn(Optional.of(new SymbolMapping("ethereum", "ETH")));
+        when(assetSymbolIndex.lookup("NOPE")).thenReturn(Optional.empty());
+        when(coinCapAssetUpdateService.fetchDailyHistory(eq("bitcoin"), any(), any())).thenReturn(Mono.just(List.of(
+                point("2024-01-01", "100"),
+                point("2024-01-02", "120"),
+                point("2024-01-03", "90"),
+                point("2024-01-04", "110")
+        )));
+        when(coinCapAssetUpdateService.fetchDailyHistory(eq("ethereum"), any(), any())).thenReturn(Mono.just(List.of(
+                point("2024-01-02", "10"),
+                point("2024-01-03", "10"),
+                point("2024-01-04", "8")
+        )));
+    }
+
+    @Test
+    public void backtest_whenHistoriesOverlap_thenReturnsCurveAndStatistics() {
+        WalletBacktestRequest request = new WalletBacktestRequest(List.of(
+                new WalletBacktestRequest.BacktestAsset("BTC", new BigDecimal("1")),
+                new WalletBacktestRequest.BacktestAsset("ETH", new BigDecimal("10"))
+        ), LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-04"));
+
+        WalletBacktestResponse response = walletBacktestService.backtest(request);
+
+        // ETH only has history from 2024-01-02, so the backtest starts there: 220 -> 190 -> 190.
+        assertEquals(LocalDate.parse("2024-01-02"), response.from());
+        assertEquals(3, response.series().size());
+        assertEquals(new BigDecimal("220.00"), response.startValue());
+        assertEquals(new BigDecimal("190.00"), response.endValue());
+        assertEquals(new BigDecimal("-13.64"), response.returnPercentage());
+        assertEquals(new BigDecimal("13.64"), response.maxDrawdownPercentage());
+        assertEquals("BTC", response.bestAsset());
+        assertEquals(new BigDecimal("-8.33"), response.bestPerformance());
+        assertEquals("ETH", response.worstAsset());
+        assertEquals(new BigDecimal("-20.00"), response.worstPerformance());
+    }
+
+    @Test
+    public void backtest_whenSymbolUnknownOrRangeInverted_thenThrows() {
+        assertThrows(AssetDoesNotExistException.class, () -> walletBacktestService.backtest(new WalletBacktestRequest(
+                List.of(new WalletBacktestRequest.BacktestAsset("NOPE", BigDecimal.ONE)),
+                LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-04"))));
+        assertThrows(IllegalArgumentException.class, () -> walletBacktestService.backtest(new WalletBacktestRequest(
+                List.of(new WalletBacktestRequest.BacktestAsset("BTC", BigDecimal.ONE)),
+                LocalDate.parse("2024-01-04"), LocalDate.parse("2024-01-01"))));
+    }
+
+    private static CoinCapHistoryPoint point(String day, String price) {
+        return new CoinCapHistoryPoint(LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(), new BigDecimal(price));
+    }
+}
@@ -0,0 +1,47 @@
+package com.benji.services;
+
+import com.benji.models.entities.Asset;
+import com.benji.models.entities.User;
+import com.benji.models.entities.Wallet;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+/** Saves users, wallets and holdings directly, without the ledger, lots or exposure bookkeeping. */
+@Component
+class WalletFixtures {
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final AssetRepository assetRepository;
+
+    WalletFixtures(UserRepository userRepository, WalletRepository walletRepository, AssetRepository assetRepository) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.assetRepository = assetRepository;
+    }
+
+    Long createWallet(String email) {
+        User user = new User();
+        user.setEmail(email);
+        Wallet wallet = new Wallet();
+        wallet.setAssets(new ArrayList<>());
+        wallet.setUser(user);
+        user.setWallet(wallet);
+        return userRepository.save(user).getWallet().getId();
+    }
+
+    void saveAsset(Long walletId, String name, String symbol, String quantity, String priceUsd) {
+        Asset asset = new Asset();
+        asset.setName(name);
+        asset.setSymbol(symbol);
+        asset.setQuantity(new BigDecimal(quantity));
+        asset.setPriceUsd(new BigDecimal(priceUsd));
+        asset.setWallet(walletRepository.getReferenceById(walletId));
+        assetRepository.save(asset);
+    }
+}
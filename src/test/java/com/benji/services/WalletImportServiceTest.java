@@ -0,0 +1,230 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.coincap.service.dto.CoinCapAssetResponse;
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.controllers.dto.WalletImportResponse;
+import com.benji.models.entities.AssetExposure;
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.models.entities.User;
+import com.benji.models.entities.Wallet;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.repositories.AssetExposureRepository;
+import com.benji.repositories.AssetLotRepository;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletLedgerEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletImportServiceTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private AssetPriceCache assetPriceCache;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @Autowired
+    private AssetExposureService assetExposureService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private AssetLotRepository assetLotRepository;
+
+    @Autowired
+    private AssetExposureRepository assetExposureRepository;
+
+    @Autowired
+    private AssetSymbolMappingRepository assetSymbolMappingRepository;
+
+    @Autowired
+    private WalletLedgerEntryRepository walletLedgerEntryRepository;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private WalletImportService walletImportService;
+
+    @BeforeEach
+    void setUp() {
+        assetSymbolIndex.rebuild(List.of());
+        assetPriceCache.clear();
+        assetExposureService.flush();
+        assetExposureRepository.deleteAll();
+        walletImportService = new WalletImportService(objectMapper, validator, assetSymbolIndex, priceLookupService,
+                assetExposureService, jdbcTemplate, namedParameterJdbcTemplate, transactionTemplate, entityManagerFactory,
+                2, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletLedgerEntryRepository.deleteAll();
+        assetLotRepository.deleteAll();
+        assetExposureRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+        assetSymbolMappingRepository.deleteAll();
+    }
+
+    @Test
+    void importWallets_CreatesValidLinesAndReportsTheRest() {
+        saveMapping("bitcoin", "BTC", "100");
+        saveMapping("ethereum", "ETH", "10");
+        saveMapping("dogecoin", "DOGE", null);
+        saveExistingUser("existing@example.com");
+
+        String ndjson = String.join("\n",
+                "{\"email\":\"a@example.com\",\"holdings\":[{\"symbol\":\"BTC\",\"quantity\":1},{\"symbol\":\"btc\",\"quantity\":2},{\"symbol\":\"ETH\",\"quantity\":5}]}",
+                "",
+                "not json",
+                "{\"email\":\"b@example.com\",\"holdings\":[{\"symbol\":\"ETH\",\"quantity\":3}]}",
+                "{\"email\":\"a@example.com\",\"holdings\":[]}",
+                "{\"email\":\"existing@example.com\"}",
+                "{\"email\":\"c@example.com\",\"holdings\":[{\"symbol\":\"DOGE\",\"quantity\":1}]}",
+                "{\"email\":\"d@example.com\",\"holdings\":[{\"symbol\":\"XYZ\",\"quantity\":1}]}",
+                "{\"email\":\"not-an-email\",\"holdings\":[{\"symbol\":\"BTC\",\"quantity\":-1}]}",
+                "{\"email\":\"e@example.com\",\"holdings\":[{\"symbol\":\"DOGE\",\"quantity\":2}]}",
+                "{\"email\":\"f@example.com\"}");
+
+        WalletImportResponse response = walletImportService.importWallets(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(10, response.lines());
+        assertEquals(3, response.walletsCreated());
+        assertEquals(3, response.holdingsImported());
+        assertEquals(7, response.errorCount());
+        assertEquals(5, response.errors().size(), "Listed errors are capped");
+        Map<Long, String> errors = response.errors().stream()
+                .collect(Collectors.toMap(WalletImportResponse.LineError::line, WalletImportResponse.LineError::message));
+        assertTrue(errors.get(3L).startsWith("Malformed JSON"));
+        assertEquals("A wallet for this email already exists", errors.get(5L));
+        assertEquals("A wallet for this email already exists", errors.get(6L));
+        assertEquals("CoinCap Data not retrived for : DOGE", errors.get(7L));
+        assertEquals("Invalid incoming Symbol, no Asset exists for Symbol: XYZ", errors.get(8L));
+        verify(coinCapAssetUpdateService, times(1)).fetchLatestPrice("dogecoin");
+
+        Long walletId = userRepository.findByEmail("a@example.com").orElseThrow().getWallet().getId();
+        List<WalletAssetRow> assets = assetRepository.findWalletAssetRows(walletId);
+        assertEquals(2, assets.size());
+        WalletAssetRow bitcoin = assets.stream().filter(row -> row.name().equals("bitcoin")).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("3").compareTo(bitcoin.quantity()), "Repeated symbols are one holding");
+        assertEquals(0, new BigDecimal("300").compareTo(bitcoin.costBasis()));
+        assertTrue(userRepository.findByEmail("f@example.com").isPresent());
+        assertEquals(3, assetLotRepository.count());
+        assertEquals(3, walletLedgerEntryRepository.count());
+
+        assetExposureService.flush();
+        AssetExposure ethereum = assetExposureRepository.findById("ethereum").orElseThrow();
+        assertEquals(2, ethereum.getHolderCount());
+        assertEquals(0, new BigDecimal("80").compareTo(ethereum.getExposureUsd()));
+    }
+
+    @Test
+    void importWallets_EvictsCachedUserLookupsAfterEachChunk() {
+        saveMapping("bitcoin", "BTC", "100");
+        assertTrue(userRepository.findByEmail("a@example.com").isEmpty());
+        List<Boolean> foundWhileImporting = new ArrayList<>();
+        InputStream firstChunk = new ByteArrayInputStream(String.join("\n",
+                "{\"email\":\"a@example.com\"}",
+                "{\"email\":\"b@example.com\"}",
+                "").getBytes(StandardCharsets.UTF_8));
+        InputStream secondChunk = new InputStream() {
+            private InputStream lines;
+
+            @Override
+            public int read() throws IOException {
+                if (lines == null) {
+                    foundWhileImporting.add(userRepository.findByEmail("a@example.com").isPresent());
+                    lines = new ByteArrayInputStream("{\"email\":\"c@example.com\"}".getBytes(StandardCharsets.UTF_8));
+                }
+                return lines.read();
+            }
+        };
+
+        WalletImportResponse response = walletImportService.importWallets(new SequenceInputStream(firstChunk, secondChunk));
+
+        assertEquals(3, response.walletsCreated());
+        assertEquals(List.of(true), foundWhileImporting, "Wallets of committed chunks are visible to lookups");
+    }
+
+    private void saveMapping(String id, String symbol, String priceUsd) {
+        AssetSymbolMapping mapping = new AssetSymbolMapping();
+        mapping.setId(id);
+        mapping.setSymbol(symbol);
+        assetSymbolMappingRepository.save(mapping);
+        if (priceUsd != null) {
+            when(coinCapAssetUpdateService.fetchLatestPrice(id))
+                    .thenReturn(Mono.just(new CoinCapAssetResponse(new CoinCapData(id, symbol, new BigDecimal(priceUsd)))));
+        } else {
+            when(coinCapAssetUpdateService.fetchLatestPrice(id)).thenReturn(Mono.empty());
+        }
+    }
+
+    private void saveExistingUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        Wallet wallet = new Wallet();
+        wallet.setAssets(new ArrayList<>());
+        wallet.setUser(user);
+        user.setWallet(wallet);
+        userRepository.save(user);
+    }
+}
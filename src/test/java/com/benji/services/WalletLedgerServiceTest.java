@@ -0,0 +1,186 @@
+package com.benji.services;
+
+import com.benji.MutableClock;
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.WalletBalancesResponse;
+import com.benji.models.entities.WalletLedgerEntry;
+import com.benji.repositories.AssetLotRepository;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletBalanceSnapshotRepository;
+import com.benji.repositories.WalletLedgerEntryRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.services.models.LedgerReconciliation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletLedgerServiceTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private WalletLedgerEntryRepository walletLedgerEntryRepository;
+
+    @Autowired
+    private WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private CostBasisService costBasisService;
+
+    @Autowired
+    private AssetExposureService assetExposureService;
+
+    @Autowired
+    private AssetLotRepository assetLotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WalletFixtures walletFixtures;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private final MutableClock clock = new MutableClock(START);
+    private WalletLedgerService walletLedgerService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        walletLedgerService = ledgerService(true);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletLedgerEntryRepository.deleteAll();
+        walletBalanceSnapshotRepository.deleteAll();
+        assetLotRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getBalances_RebuildsAnyPointInTimeFromSnapshotAndTail() {
+        Long walletId = walletFixtures.createWallet("ledger@example.com");
+        deposit(walletId, "bitcoin", "BTC", "2");
+        clock.advance(Duration.ofMinutes(10));
+        deposit(walletId, "bitcoin", "BTC", "3");
+        deposit(walletId, "ethereum", "ETH", "7");
+        clock.advance(Duration.ofMinutes(10));
+
+        assertTrue(walletLedgerService.snapshot(walletId));
+        assertFalse(walletLedgerService.snapshot(walletId), "Nothing settled since the last snapshot");
+        clock.advance(Duration.ofMinutes(10));
+        deposit(walletId, "bitcoin", "BTC", "1");
+
+        WalletBalancesResponse current = walletLedgerService.getBalances(walletId, null);
+        assertNotNull(current.snapshotEntryId());
+        assertEquals(List.of(
+                new WalletBalancesResponse.Balance("BTC", "bitcoin", new BigDecimal("6.00")),
+                new WalletBalancesResponse.Balance("ETH", "ethereum", new BigDecimal("7.00"))), current.balances());
+
+        WalletBalancesResponse beforeSnapshot = walletLedgerService.getBalances(walletId, START.plus(Duration.ofMinutes(5)));
+        assertNull(beforeSnapshot.snapshotEntryId());
+        assertEquals(List.of(new WalletBalancesResponse.Balance("BTC", "bitcoin", new BigDecimal("2.00"))),
+                beforeSnapshot.balances());
+
+        WalletBalancesResponse atSnapshot = walletLedgerService.getBalances(walletId, START.plus(Duration.ofMinutes(15)));
+        assertEquals(current.snapshotEntryId(), atSnapshot.snapshotEntryId());
+        assertEquals(new BigDecimal("5.00"), atSnapshot.balances().get(0).quantity());
+
+        clock.advance(Duration.ofMinutes(5));
+        walletLedgerService.snapshotDueWallets();
+        assertEquals(new BigDecimal("6.00"), walletLedgerService.getBalances(walletId, null).balances().get(0).quantity(),
+                "A second snapshot builds on the first");
+        assertNotEquals(current.snapshotEntryId(), walletLedgerService.getBalances(walletId, null).snapshotEntryId());
+    }
+
+    @Test
+    void reconcile_AddsOpeningBalancesAndRepairsDriftedAssets() {
+        Long walletId = walletFixtures.createWallet("reconcile@example.com");
+        walletFixtures.saveAsset(walletId, "ethereum", "ETH", "4", "100");
+        walletFixtures.saveAsset(walletId, "bitcoin", "BTC", "9", "100");
+        deposit(walletId, "bitcoin", "BTC", "2");
+        deposit(walletId, "bitcoin", "BTC", "3");
+
+        LedgerReconciliation result = walletLedgerService.reconcile();
+        assertEquals(1, result.openingEntries());
+        assertEquals(1, result.repairedAssets());
+
+        List<WalletLedgerEntry> entries = walletLedgerEntryRepository
+                .findByWalletIdAndIdGreaterThanOrderById(walletId, 0L, Limit.of(10));
+        assertEquals(3, entries.size());
+        WalletLedgerEntry opening = entries.get(2);
+        assertEquals(WalletLedgerEntry.Type.OPENING_BALANCE, opening.getType());
+        assertEquals("ethereum", opening.getAssetName());
+        assertEquals(0, new BigDecimal("4").compareTo(opening.getQuantity()));
+
+        assertEquals(0, new BigDecimal("5").compareTo(assetRepository.findWalletAssetRows(walletId).stream()
+                .filter(row -> row.name().equals("bitcoin"))
+                .findFirst().orElseThrow().quantity()), "Asset row is reset to the ledger balance");
+        assertEquals(0, new BigDecimal("500").compareTo(assetRepository.findWalletAssetRows(walletId).stream()
+                .filter(row -> row.name().equals("bitcoin"))
+                .findFirst().orElseThrow().costBasis()), "Cost basis follows the repaired quantity");
+
+        walletLedgerService.reconcile();
+        assertEquals(3, walletLedgerEntryRepository.findByWalletIdAndIdGreaterThanOrderById(walletId, 0L, Limit.of(10)).size(),
+                "A consistent wallet is left alone");
+    }
+
+    @Test
+    void reconcile_OnlyReportsDriftUnlessRepairIsEnabled() {
+        Long walletId = walletFixtures.createWallet("report@example.com");
+        walletFixtures.saveAsset(walletId, "bitcoin", "BTC", "9", "100");
+        deposit(walletId, "bitcoin", "BTC", "2");
+
+        LedgerReconciliation result = ledgerService(false).reconcile();
+
+        assertEquals(1, result.driftedAssets());
+        assertEquals(0, result.repairedAssets());
+        assertEquals(0, new BigDecimal("9").compareTo(assetRepository.findWalletAssetRows(walletId).get(0).quantity()),
+                "Drift is left for an operator to look at");
+    }
+
+    private WalletLedgerService ledgerService(boolean repairDrift) {
+        return new WalletLedgerService(walletLedgerEntryRepository, walletBalanceSnapshotRepository,
+                assetRepository, walletRepository, new ReplicaRoutingService(false, Duration.ofSeconds(5)),
+                clusterCoordinator, costBasisService, assetExposureService, transactionManager, 1, 500, false,
+                repairDrift, clock);
+    }
+
+    private void deposit(Long walletId, String assetName, String symbol, String quantity) {
+        transactionTemplate.executeWithoutResult(status -> walletLedgerService.recordDeposit(
+                walletId, null, assetName, symbol, new BigDecimal(quantity), new BigDecimal("100")));
+    }
+}
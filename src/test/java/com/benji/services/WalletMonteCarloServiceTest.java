@@ -0,0 +1,124 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletMonteCarloRequest;
+import com.benji.controllers.dto.WalletMonteCarloResponse;
+import com.benji.services.models.DailyPriceSeries;
+import com.benji.services.models.SymbolMapping;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WalletMonteCarloServiceTest {
+
+    private final AssetSymbolIndex assetSymbolIndex = mock(AssetSymbolIndex.class);
+    private final AssetHistoryCache assetHistoryCache = mock(AssetHistoryCache.class);
+    private final AssetPriceCache assetPriceCache = new AssetPriceCache();
+    private final List<ForkJoinPool> pools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(ForkJoinPool::shutdownNow);
+    }
+
+    @Test
+    public void simulate_whenSeeded_thenResultIndependentOfParallelism() {
+        stubAsset("BTC", "bitcoin", randomWalk(1, 40000, 0.03));
+        stubAsset("ETH", "ethereum", randomWalk(2, 2000, 0.04));
+        WalletMonteCarloRequest request = request(20_000, 42L, "BTC", "ETH");
+
+        WalletMonteCarloResponse sequential = newService(1).simulate(request);
+        WalletMonteCarloResponse parallel = newService(4).simulate(request);
+
+        assertEquals(sequential, parallel);
+        assertEquals(42L, parallel.seed());
+        assertEquals(4, parallel.bands().size());
+        assertEquals(90, parallel.bands().get(3).day());
+        for (WalletMonteCarloResponse.PercentileBand band : parallel.bands()) {
+            assertTrue(band.p5().compareTo(band.p25()) <= 0);
+            assertTrue(band.p25().compareTo(band.p50()) <= 0);
+            assertTrue(band.p50().compareTo(band.p75()) <= 0);
+            assertTrue(band.p75().compareTo(band.p95()) <= 0);
+        }
+        assertTrue(parallel.bands().get(0).p95().subtract(parallel.bands().get(0).p5())
+                .compareTo(parallel.bands().get(3).p95().subtract(parallel.bands().get(3).p5())) < 0);
+    }
+
+    @Test
+    public void simulate_whenPricesFlat_thenEveryPathKeepsStartValue() {
+        double[] flat = new double[30];
+        Arrays.fill(flat, 10);
+        stubAsset("USDT", "tether", flat);
+
+        WalletMonteCarloResponse response = newService(2).simulate(request(5_000, 7L, "USDT"));
+
+        assertEquals(new BigDecimal("1000.00"), response.startValue());
+        assertEquals(new BigDecimal("0.0000"), response.probabilityOfLoss());
+        response.bands().forEach(band -> {
+            assertEquals(new BigDecimal("1000.00"), band.p5());
+            assertEquals(new BigDecimal("1000.00"), band.p95());
+        });
+    }
+
+    @Test
+    public void simulate_whenPathsAboveLimit_thenThrowsIllegalArgument() {
+        stubAsset("BTC", "bitcoin", randomWalk(1, 40000, 0.03));
+
+        assertThrows(IllegalArgumentException.class, () -> newService(1).simulate(request(2_000_000, 1L, "BTC")));
+    }
+
+    @Test
+    public void simulate_whenSamplesOrLookbackAboveLimit_thenThrowsIllegalArgument() {
+        stubAsset("BTC", "bitcoin", randomWalk(1, 40000, 0.03));
+        List<WalletMonteCarloRequest.ProjectedAsset> assets =
+                List.of(new WalletMonteCarloRequest.ProjectedAsset("BTC", new BigDecimal("100")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> newService(1).simulate(new WalletMonteCarloRequest(assets, 365, 1_000_000, 100, 365, 1L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> newService(1).simulate(new WalletMonteCarloRequest(assets, 90, 1_000, 4, 100_000, 1L)));
+    }
+
+    private WalletMonteCarloService newService(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        pools.add(pool);
+        return new WalletMonteCarloService(assetSymbolIndex, assetHistoryCache, assetPriceCache, pool, 1_000_000, 12_000_000, 10_000, 12, 365, 3650);
+    }
+
+    private static WalletMonteCarloRequest request(int paths, long seed, String... symbols) {
+        List<WalletMonteCarloRequest.ProjectedAsset> assets = new ArrayList<>();
+        for (String symbol : symbols) {
+            assets.add(new WalletMonteCarloRequest.ProjectedAsset(symbol, new BigDecimal("100")));
+        }
+        return new WalletMonteCarloRequest(assets, 90, paths, 4, 365, seed);
+    }
+
+    private void stubAsset(String symbol, String assetId, double[] closes) {
+        when(assetSymbolIndex.lookup(symbol)).thenReturn(Optional.of(new SymbolMapping(assetId, symbol)));
+        when(assetHistoryCache.dailyCloses(eq(assetId), any(), any()))
+                .thenReturn(new DailyPriceSeries(assetId, LocalDate.parse("2024-01-01"), closes));
+    }
+
+    private static double[] randomWalk(long seed, double start, double volatility) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] closes = new double[365];
+        closes[0] = start;
+        for (int day = 1; day < closes.length; day++) {
+            closes[day] = closes[day - 1] * Math.exp(volatility * random.nextGaussian());
+        }
+        return closes;
+    }
+}
@@ -0,0 +1,203 @@
+package com.benji.services;
+
+import com.benji.controllers.dto.WalletRiskResponse;
+import com.benji.events.WalletAssetsChangedEvent;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.projections.WalletAssetRow;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.services.models.DailyPriceSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class WalletRiskServiceTest {
+
+    private static final Long WALLET_ID = 1L;
+
+    private final AssetRepository assetRepository = mock(AssetRepository.class);
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final AssetHistoryCache assetHistoryCache = mock(AssetHistoryCache.class);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    @TempDir
+    Path tempDir;
+    private PriceHistoryStore priceHistoryStore;
+    private WalletVersionService walletVersionService;
+    private WalletRiskService walletRiskService;
+
+    @BeforeEach
+    void setUp() {
+        walletVersionService = new WalletVersionService(assetRepository);
+        priceHistoryStore = new PriceHistoryStore(tempDir, true, Duration.ofDays(1), 64,
+                Duration.ofDays(3650), Duration.ofDays(3650), Duration.ofHours(1), Clock.systemUTC());
+        walletRiskService = new WalletRiskService(assetRepository, walletRepository, walletVersionService,
+                new ReplicaRoutingService(false, Duration.ofSeconds(5)),
+                priceHistoryStore, assetHistoryCache, pool, 1825, 100);
+        when(walletRepository.existsById(WALLET_ID)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void getWalletRisk_whenAssetsMoveTogetherOrOpposite_thenReportsCorrelationAndTailRisk() {
+        double[] closes = {100, 110, 99, 108.9, 98.01, 107.811};
+        double[] doubled = new double[closes.length];
+        double[] inverse = new double[closes.length];
+        for (int day = 0; day < closes.length; day++) {
+            doubled[day] = closes[day] * 2;
+            inverse[day] = 10_000 / closes[day];
+        }
+        stubHoldings(List.of(
+                new WalletAssetRow(1L, "AAA", "aaa", BigDecimal.ONE, new BigDecimal("107.811")),
+                new WalletAssetRow(2L, "BBB", "bbb", BigDecimal.ONE, new BigDecimal("215.622")),
+                new WalletAssetRow(3L, "CCC", "ccc", BigDecimal.ZERO, new BigDecimal("92.75"))));
+        stubHistory("aaa", closes);
+        stubHistory("bbb", doubled);
+        stubHistory("ccc", inverse);
+
+        WalletRiskResponse response = walletRiskService.getWalletRisk(WALLET_ID, 5, new BigDecimal("0.80"));
+
+        assertEquals(5, response.observations());
+        assertEquals(new BigDecimal("323.43"), response.currentValue());
+        assertEquals(new BigDecimal("33.33"), response.assets().get(0).weightPercentage());
+        assertEquals(1.0, response.correlation()[0][1]);
+        assertEquals(-1.0, response.correlation()[0][2]);
+        assertEquals(1.0, response.correlation()[2][2]);
+        // The worst day is a 10% loss; with 5 observations the 80% tail is that single day.
+        assertEquals(new BigDecimal("32.34"), response.valueAtRisk());
+        assertEquals(new BigDecimal("32.34"), response.expectedShortfall());
+        assertEquals(new BigDecimal("10.90"), response.maxDrawdownPercentage());
+    }
+
+    @Test
+    public void getWalletRisk_whenManyAssets_thenCorrelationMatchesDirectComputation() {
+        int assets = 70;
+        int days = 400;
+        SplittableRandom random = new SplittableRandom(42);
+        double[] market = new double[days];
+        for (int day = 0; day < days; day++) {
+            market[day] = random.nextGaussian() * 0.02;
+        }
+        List<WalletAssetRow> rows = new ArrayList<>();
+        double[][] logReturns = new double[assets][days - 1];
+        for (int asset = 0; asset < assets; asset++) {
+            double beta = random.nextDouble(-1, 2);
+            double[] closes = new double[days];
+            closes[0] = 10 + asset;
+            for (int day = 1; day < days; day++) {
+                logReturns[asset][day - 1] = beta * market[day] + random.nextGaussian() * 0.01;
+                closes[day] = closes[day - 1] * Math.exp(logReturns[asset][day - 1]);
+            }
+            String assetId = "asset" + asset;
+            rows.add(new WalletAssetRow((long) asset, "A" + asset, assetId, BigDecimal.ONE, BigDecimal.valueOf(closes[days - 1])));
+            stubHistory(assetId, closes);
+        }
+        stubHoldings(rows);
+
+        WalletRiskResponse response = walletRiskService.getWalletRisk(WALLET_ID, days - 1, new BigDecimal("0.95"));
+
+        double[][] correlation = response.correlation();
+        for (int i = 0; i < assets; i++) {
+            assertEquals(1.0, correlation[i][i]);
+            for (int j = 0; j < i; j++) {
+                assertEquals(pearson(logReturns[i], logReturns[j]), correlation[i][j], 1e-4);
+                assertEquals(correlation[i][j], correlation[j][i]);
+            }
+        }
+    }
+
+    @Test
+    public void getWalletRisk_whenRequestedTwice_thenServesCacheUntilWalletChanges() {
+        stubHoldings(List.of(new WalletAssetRow(1L, "AAA", "aaa", BigDecimal.ONE, new BigDecimal("12"))));
+        stubHistory("aaa", new double[]{10, 11, 12, 11, 12});
+
+        WalletRiskResponse first = walletRiskService.getWalletRisk(WALLET_ID, 30, new BigDecimal("0.95"));
+        WalletRiskResponse second = walletRiskService.getWalletRisk(WALLET_ID, 30, new BigDecimal("0.950"));
+        walletVersionService.onWalletAssetsChanged(new WalletAssetsChangedEvent(WALLET_ID, "aaa"));
+        walletRiskService.getWalletRisk(WALLET_ID, 30, new BigDecimal("0.95"));
+
+        assertSame(first, second);
+        verify(assetHistoryCache, times(2)).dailyCloses(eq("aaa"), any(), any());
+    }
+
+    @Test
+    public void getWalletRisk_whenCapturedTicksCoverTheWindow_thenUsesThemInsteadOfCoinCapHistory() {
+        stubHoldings(List.of(new WalletAssetRow(1L, "AAA", "aaa", BigDecimal.ONE, new BigDecimal("11"))));
+        stubHistory("aaa", new double[]{50, 50, 50, 50, 50});
+        LocalDate from = LocalDate.now(ZoneOffset.UTC).minusDays(4);
+        double[] closes = {10, 11, 12, 11};
+        for (int day = 0; day < closes.length; day++) {
+            long dayStart = from.plusDays(day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            priceHistoryStore.append("aaa", BigDecimal.valueOf(closes[day] - 5), dayStart);
+            priceHistoryStore.append("aaa", BigDecimal.valueOf(closes[day]), dayStart + 3_600_000);
+        }
+
+        WalletRiskResponse captured = walletRiskService.getWalletRisk(WALLET_ID, 3, new BigDecimal("0.95"));
+        WalletRiskResponse longer = walletRiskService.getWalletRisk(WALLET_ID, 4, new BigDecimal("0.95"));
+
+        assertEquals(from, captured.from());
+        assertEquals(3, captured.observations());
+        assertEquals(new BigDecimal("8.33"), captured.maxDrawdownPercentage());
+        assertEquals(new BigDecimal("0.00"), longer.maxDrawdownPercentage(),
+                "A window the capture does not reach back to falls back to CoinCap closes");
+        verify(assetHistoryCache, times(1)).dailyCloses(eq("aaa"), any(), any());
+    }
+
+    @Test
+    public void getWalletRisk_whenParametersInvalidOrWalletMissing_thenThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> walletRiskService.getWalletRisk(WALLET_ID, 1, new BigDecimal("0.95")));
+        assertThrows(IllegalArgumentException.class,
+                () -> walletRiskService.getWalletRisk(WALLET_ID, 90, BigDecimal.ONE));
+        assertThrows(WalletDoesNotExistException.class,
+                () -> walletRiskService.getWalletRisk(2L, 90, new BigDecimal("0.95")));
+    }
+
+    private void stubHoldings(List<WalletAssetRow> rows) {
+        when(assetRepository.findWalletAssetRows(WALLET_ID)).thenReturn(rows);
+    }
+
+    private void stubHistory(String assetId, double[] closes) {
+        LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).minusDays(closes.length);
+        when(assetHistoryCache.dailyCloses(eq(assetId), any(), any()))
+                .thenReturn(new DailyPriceSeries(assetId, firstDay, closes));
+    }
+
+    private static double pearson(double[] left, double[] right) {
+        double leftMean = 0;
+        double rightMean = 0;
+        for (int k = 0; k < left.length; k++) {
+            leftMean += left[k] / left.length;
+            rightMean += right[k] / right.length;
+        }
+        double covariance = 0;
+        double leftVariance = 0;
+        double rightVariance = 0;
+        for (int k = 0; k < left.length; k++) {
+            covariance += (left[k] - leftMean) * (right[k] - rightMean);
+            leftVariance += (left[k] - leftMean) * (left[k] - leftMean);
+            rightVariance += (right[k] - rightMean) * (right[k] - rightMean);
+        }
+        return covariance / Math.sqrt(leftVariance * rightVariance);
+    }
+}
@@ -5,6 +5,9 @@ import com.benji.coincap.service.dto.CoinCapAssetResponse;
 import com.benji.coincap.service.dto.CoinCapData;
 import com.benji.controllers.dto.AddAssetRequest;
 import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.controllers.dto.WalletBalancesResponse;
+import com.benji.controllers.dto.WalletLedgerResponse;
+import com.benji.controllers.dto.WithdrawAssetRequest;
 import com.benji.exception.AssetDoesNotExistException;
 import com.benji.exception.NoCoinCapApiResponseException;
 import com.benji.exception.WalletAlreadyExistsException;
@@ -13,21 +16,26 @@ import com.benji.models.entities.Asset;
 import com.benji.models.entities.AssetSymbolMapping;
 import com.benji.models.entities.User;
 import com.benji.models.entities.Wallet;
+import com.benji.models.entities.WalletLedgerEntry;
 import com.benji.repositories.AssetRepository;
 import com.benji.repositories.AssetSymbolMappingRepository;
 import com.benji.repositories.UserRepository;
 import com.benji.repositories.WalletRepository;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,9 +61,27 @@ public class WalletServiceTest {
     @Autowired
     private AssetSymbolMappingRepository assetSymbolMappingRepository;
 
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private AssetPriceCache assetPriceCache;
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @MockBean
     private CoinCapAssetUpdateService coinCapAssetUpdateService;
 
+    @BeforeEach
+    void resetSymbolIndex() {
+        assetSymbolIndex.rebuild(List.of());
+        assetPriceCache.clear();
+    }
+
     @AfterEach
     void tearDown() {
         userRepository.deleteAll();
@@ -106,7 +132,7 @@ public class WalletServiceTest {
         mapping.setSymbol(assetSymbol);
         assetSymbolMappingRepository.save(mapping);
 
-        CoinCapData coinCapData = new CoinCapData("ethereum", "ETH", "2000.00");
+        CoinCapData coinCapData = new CoinCapData("ethereum", "ETH", new BigDecimal("2000.00"));
         CoinCapAssetResponse mockResponse = new CoinCapAssetResponse(coinCapData);
         when(coinCapAssetUpdateService.fetchLatestPrice(mapping.getId()))
                 .thenReturn(Mono.just(mockResponse));
@@ -151,7 +177,7 @@ public class WalletServiceTest {
         mapping.setSymbol(assetSymbol);
         assetSymbolMappingRepository.save(mapping);
 
-        CoinCapData coinCapData = new CoinCapData(assetId, assetSymbol, priceUsd);
+        CoinCapData coinCapData = new CoinCapData(assetId, assetSymbol, new BigDecimal(priceUsd));
         CoinCapAssetResponse mockResponse = new CoinCapAssetResponse(coinCapData);
         when(coinCapAssetUpdateService.fetchLatestPrice(mapping.getId()))
                 .thenReturn(Mono.just(mockResponse));
@@ -166,6 +192,108 @@ public class WalletServiceTest {
         assertEquals(initialQuantity.add(additionalQuantity), updatedWallet.getAssets().get(0).getQuantity());
     }
 
+    @Test
+    public void addAssetToWallet_whenAssetPredatesLedger_thenOpeningBalanceAndDepositRecorded() {
+        String email = "ledger@example.com";
+        User user = setupMockUser(email);
+        userRepository.save(user);
+
+        Asset existingAsset = new Asset();
+        existingAsset.setName("bitcoin");
+        existingAsset.setSymbol("BTC");
+        existingAsset.setQuantity(BigDecimal.valueOf(2));
+        existingAsset.setWallet(user.getWallet());
+        existingAsset.setPriceUsd(new BigDecimal("40000.00"));
+        existingAsset.setLedgerTracked(false);
+        user.getWallet().getAssets().add(existingAsset);
+        walletRepository.save(user.getWallet());
+        assetRepository.save(existingAsset);
+
+        AssetSymbolMapping mapping = new AssetSymbolMapping();
+        mapping.setId("bitcoin");
+        mapping.setSymbol("BTC");
+        assetSymbolMappingRepository.save(mapping);
+        when(coinCapAssetUpdateService.fetchLatestPrice("bitcoin"))
+                .thenReturn(Mono.just(new CoinCapAssetResponse(new CoinCapData("bitcoin", "BTC", new BigDecimal("50000.00")))));
+
+        Long walletId = user.getWallet().getId();
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.valueOf(3)));
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.ONE));
+
+        WalletLedgerResponse ledger = walletLedgerService.getLedger(walletId, 0L, 2);
+        assertEquals(List.of(WalletLedgerEntry.Type.OPENING_BALANCE, WalletLedgerEntry.Type.DEPOSIT),
+                ledger.entries().stream().map(WalletLedgerResponse.Entry::type).toList());
+        assertEquals(0, new BigDecimal("40000").compareTo(ledger.entries().get(0).priceUsd()));
+        assertEquals(0, new BigDecimal("50000").compareTo(ledger.entries().get(1).priceUsd()));
+        assertNotNull(ledger.nextAfter());
+        assertEquals(1, walletLedgerService.getLedger(walletId, ledger.nextAfter(), 2).entries().size());
+
+        WalletBalancesResponse balances = walletLedgerService.getBalances(walletId, null);
+        assertEquals(0, BigDecimal.valueOf(6).compareTo(balances.balances().get(0).quantity()));
+    }
+
+    @Test
+    public void withdrawAssetFromWallet_whenFifo_thenRealizesOldestLotsAndReportsPnl() {
+        String email = "withdraw@example.com";
+        User user = setupMockUser(email);
+        userRepository.save(user);
+        Long walletId = user.getWallet().getId();
+
+        AssetSymbolMapping mapping = new AssetSymbolMapping();
+        mapping.setId("bitcoin");
+        mapping.setSymbol("BTC");
+        assetSymbolMappingRepository.save(mapping);
+        when(coinCapAssetUpdateService.fetchLatestPrice("bitcoin"))
+                .thenReturn(Mono.just(new CoinCapAssetResponse(new CoinCapData("bitcoin", "BTC", new BigDecimal("100.00")))));
+
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.valueOf(2)));
+        assetPriceCache.put("bitcoin", new BigDecimal("200.00"), Instant.now());
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.valueOf(2)));
+        assetPriceCache.put("bitcoin", new BigDecimal("300.00"), Instant.now());
+
+        CreateUserWalletResponse response = walletService.withdrawAssetFromWallet(walletId,
+                new WithdrawAssetRequest("BTC", BigDecimal.valueOf(3)));
+
+        CreateUserWalletResponse.UserAssets btc = response.assets().get(0);
+        assertEquals(0, BigDecimal.ONE.compareTo(new BigDecimal(btc.quantity())));
+        assertEquals(0, new BigDecimal("200").compareTo(btc.costBasis()));
+        assertEquals(0, new BigDecimal("500").compareTo(btc.realizedPnl()), "900 proceeds against 2 @ 100 + 1 @ 200");
+        assertEquals(0, new BigDecimal("-100").compareTo(btc.unrealizedPnl()), "Valued at the stored price until the next refresh");
+
+        IllegalArgumentException tooMuch = assertThrows(IllegalArgumentException.class, () -> walletService
+                .withdrawAssetFromWallet(walletId, new WithdrawAssetRequest("BTC", BigDecimal.valueOf(2))));
+        assertTrue(tooMuch.getMessage().startsWith("Cannot withdraw 2 BTC"));
+        assertThrows(IllegalArgumentException.class,
+                () -> walletService.setCostBasisMethod(walletId, Wallet.CostBasisMethod.LIFO));
+    }
+
+    @Test
+    public void withdrawAssetFromWallet_whenMethodSwitchedBehindTheCache_thenDisposesWithTheStoredMethod() {
+        User user = setupMockUser("switched@example.com");
+        userRepository.save(user);
+        Long walletId = user.getWallet().getId();
+
+        AssetSymbolMapping mapping = new AssetSymbolMapping();
+        mapping.setId("bitcoin");
+        mapping.setSymbol("BTC");
+        assetSymbolMappingRepository.save(mapping);
+        when(coinCapAssetUpdateService.fetchLatestPrice("bitcoin"))
+                .thenReturn(Mono.just(new CoinCapAssetResponse(new CoinCapData("bitcoin", "BTC", new BigDecimal("100.00")))));
+
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.ONE));
+        assetPriceCache.put("bitcoin", new BigDecimal("200.00"), Instant.now());
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("BTC", BigDecimal.ONE));
+        assertEquals(Wallet.CostBasisMethod.FIFO, walletRepository.findById(walletId).orElseThrow().getCostBasisMethod());
+        jdbcTemplate.update("UPDATE wallets SET cost_basis_method = 'LIFO' WHERE id = ?", walletId);
+        assetPriceCache.put("bitcoin", new BigDecimal("300.00"), Instant.now());
+
+        CreateUserWalletResponse response = walletService.withdrawAssetFromWallet(walletId,
+                new WithdrawAssetRequest("BTC", BigDecimal.ONE));
+
+        assertEquals(0, new BigDecimal("100").compareTo(response.assets().get(0).realizedPnl()),
+                "300 proceeds against the newest lot @ 200");
+    }
+
     @Test
     public void addAssetToWallet_whenWalletNotFound_thenExceptionThrown() {
         Long nonExistentWalletId = 999L;
@@ -10,6 +10,10 @@ import com.benji.exception.NoCoinCapApiResponseException;
 import com.benji.models.entities.AssetSymbolMapping;
 import com.benji.repositories.AssetSymbolMappingRepository;
 import jakarta.transaction.Transactional;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,8 +21,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,9 +44,21 @@ public class WalletSimulationServiceTest {
     @Autowired
     private AssetSymbolMappingRepository assetSymbolMappingRepository;
 
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private AssetPriceCache assetPriceCache;
+
     @MockBean
     private CoinCapAssetUpdateService coinCapAssetUpdateService;
 
+    @BeforeEach
+    void resetSymbolIndex() {
+        assetSymbolIndex.rebuild(List.of());
+        assetPriceCache.clear();
+    }
+
     @Test
     public void simulateWalletEvolution_whenDataValid_thenReturnCorrectResponse() {
         AssetSymbolMapping mappingEth = new AssetSymbolMapping();
@@ -51,11 +71,11 @@ public class WalletSimulationServiceTest {
         mappingBtc.setSymbol("BTC");
         assetSymbolMappingRepository.save(mappingBtc);
 
-        CoinCapData coinCapDataEth = new CoinCapData("eth-mapping", "ETH", "2200.00");
+        CoinCapData coinCapDataEth = new CoinCapData("eth-mapping", "ETH", new BigDecimal("2200.00"));
         CoinCapAssetResponse responseEth = new CoinCapAssetResponse(coinCapDataEth);
         when(coinCapAssetUpdateService.fetchLatestPrice("eth-mapping")).thenReturn(Mono.just(responseEth));
 
-        CoinCapData coinCapDataBtc = new CoinCapData("btc-mapping", "BTC", "38000.00");
+        CoinCapData coinCapDataBtc = new CoinCapData("btc-mapping", "BTC", new BigDecimal("38000.00"));
         CoinCapAssetResponse responseBtc = new CoinCapAssetResponse(coinCapDataBtc);
         when(coinCapAssetUpdateService.fetchLatestPrice("btc-mapping")).thenReturn(Mono.just(responseBtc));
 
@@ -115,7 +135,7 @@ public class WalletSimulationServiceTest {
         mapping.setSymbol("ETH");
         assetSymbolMappingRepository.save(mapping);
 
-        CoinCapData coinCapData = new CoinCapData("eth-mapping", "ETH", "2000.00");
+        CoinCapData coinCapData = new CoinCapData("eth-mapping", "ETH", new BigDecimal("2000.00"));
         when(coinCapAssetUpdateService.fetchLatestPrice("eth-mapping"))
                 .thenReturn(Mono.just(new CoinCapAssetResponse(coinCapData)));
 
@@ -126,4 +146,36 @@ public class WalletSimulationServiceTest {
 
         assertThrows(ArithmeticException.class, () -> walletSimulationService.simulateWalletEvolution(request));
     }
+
+    @Test
+    public void simulateWalletEvolution_whenRecording_thenEmitsWalletSimulationEvent() throws IOException {
+        AssetSymbolMapping mapping = new AssetSymbolMapping();
+        mapping.setId("eth-mapping");
+        mapping.setSymbol("ETH");
+        assetSymbolMappingRepository.save(mapping);
+
+        CoinCapData coinCapData = new CoinCapData("eth-mapping", "ETH", new BigDecimal("2000.00"));
+        when(coinCapAssetUpdateService.fetchLatestPrice("eth-mapping"))
+                .thenReturn(Mono.just(new CoinCapAssetResponse(coinCapData)));
+
+        WalletSimulationRequest request = new WalletSimulationRequest(List.of(
+                new WalletSimulationRequest.SimulatedAsset("ETH", BigDecimal.ONE, BigDecimal.valueOf(1000))
+        ));
+
+        Path recordingFile = Files.createTempFile("benji-simulation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.benji.WalletSimulation").withThreshold(Duration.ZERO);
+            recording.start();
+            walletSimulationService.simulateWalletEvolution(request);
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertEquals(1, events.size());
+            assertEquals(1, events.get(0).getInt("assetCount"));
+            assertTrue(events.get(0).getBoolean("success"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package com.benji.services;
+
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.coincap.service.dto.CoinCapAssetResponse;
+import com.benji.coincap.service.dto.CoinCapData;
+import com.benji.controllers.dto.AddAssetRequest;
+import com.benji.controllers.dto.CreateUserWalletResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.exception.WalletDoesNotExistException;
+import com.benji.models.entities.AssetSymbolMapping;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.AssetSymbolMappingRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletValuationStreamServiceTest {
+
+    @Autowired
+    private WalletValuationStreamService walletValuationStreamService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private AssetSymbolIndex assetSymbolIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private AssetSymbolMappingRepository assetSymbolMappingRepository;
+
+    @Autowired
+    private AssetPriceCache assetPriceCache;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        assetSymbolIndex.rebuild(List.of());
+        assetPriceCache.clear();
+        assetSymbolMappingRepository.save(AssetSymbolMapping.builder().id("ethereum").symbol("ETH").build());
+        when(coinCapAssetUpdateService.fetchLatestPrice("ethereum"))
+                .thenReturn(Mono.just(new CoinCapAssetResponse(new CoinCapData("ethereum", "ETH", new BigDecimal("2000.00")))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        assetRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+        assetSymbolMappingRepository.deleteAll();
+    }
+
+    @Test
+    public void streamWallet_whenAssetPriceChanges_thenPushesUpdatedValuation() {
+        Long walletId = Long.valueOf(walletService.createWallet("stream@example.com").walletId());
+        walletService.addAssetToWallet(walletId, new AddAssetRequest("ETH", BigDecimal.valueOf(2)));
+
+        List<CreateUserWalletResponse> received = walletValuationStreamService.streamWallet(walletId)
+                .map(ServerSentEvent::data)
+                .filter(Objects::nonNull)
+                .doOnNext(response -> {
+                    if (response.assets().get(0).price().compareTo(new BigDecimal("2000.00")) == 0) {
+                        assetRepository.updatePriceUsdByName("ethereum", new BigDecimal("2500.00"));
+                        eventPublisher.publishEvent(new AssetPricesUpdatedEvent(
+                                Map.of("ethereum", new BigDecimal("2500.00")), Instant.now()));
+                    }
+                })
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(received);
+        assertEquals(0, new BigDecimal("4000.00").compareTo(received.get(0).assets().get(0).value()));
+        assertEquals(0, new BigDecimal("5000.00").compareTo(received.get(1).assets().get(0).value()));
+        assertEquals(0, walletValuationStreamService.activeStreams());
+    }
+
+    @Test
+    public void streamWallet_whenWalletMissing_thenThrowsBeforeStreaming() {
+        assertThrows(WalletDoesNotExistException.class, () -> walletValuationStreamService.streamWallet(999_999L));
+    }
+}
@@ -0,0 +1,215 @@
+package com.benji.services;
+
+import com.benji.MutableClock;
+import com.benji.coincap.service.CoinCapAssetUpdateService;
+import com.benji.controllers.dto.WalletValueHistoryResponse;
+import com.benji.events.AssetPricesUpdatedEvent;
+import com.benji.models.entities.WalletValueBucket;
+import com.benji.repositories.AssetRepository;
+import com.benji.repositories.ClusterLeaseRepository;
+import com.benji.repositories.ClusterNodeRepository;
+import com.benji.repositories.UserRepository;
+import com.benji.repositories.WalletRepository;
+import com.benji.repositories.WalletValueBucketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletValueHistoryServiceTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private WalletValueBucketRepository walletValueBucketRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private ClusterLeaseRepository clusterLeaseRepository;
+
+    @Autowired
+    private WalletFixtures walletFixtures;
+
+    @MockBean
+    private CoinCapAssetUpdateService coinCapAssetUpdateService;
+
+    private final MutableClock clock = new MutableClock(START);
+    private WalletVersionService walletVersionService;
+    private WalletValueHistoryService walletValueHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        walletVersionService = new WalletVersionService(assetRepository);
+        walletValueHistoryService = historyService(clusterCoordinator);
+        walletValueHistoryService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletValueBucketRepository.deleteAll();
+        clusterLeaseRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void flush_RollsValuesOfRepricedWalletsIntoBuckets() {
+        Long bitcoinWalletId = createWallet("btc@example.com", "bitcoin", "BTC");
+        Long ethereumWalletId = createWallet("eth@example.com", "ethereum", "ETH");
+
+        reprice("bitcoin", "100");
+        clock.advance(Duration.ofSeconds(20));
+        reprice("bitcoin", "130");
+        clock.advance(Duration.ofSeconds(20));
+        reprice("bitcoin", "90");
+        clock.advance(Duration.ofSeconds(30));
+        reprice("bitcoin", "110");
+
+        List<WalletValueHistoryResponse.Point> minutes = walletValueHistoryService
+                .getValueHistory(bitcoinWalletId, START, clock.instant(), "minute").points();
+        assertEquals(2, minutes.size());
+        assertPoint(minutes.get(0), START, "200", "260", "180", "180");
+        assertPoint(minutes.get(1), START.plus(Duration.ofMinutes(1)), "220", "220", "220", "220");
+
+        WalletValueHistoryResponse hours = walletValueHistoryService.getValueHistory(bitcoinWalletId, START, clock.instant(), "hour");
+        assertEquals(1, hours.points().size());
+        assertPoint(hours.points().get(0), START, "200", "260", "180", "220");
+
+        assertTrue(walletValueHistoryService.getValueHistory(ethereumWalletId, START, clock.instant(), null).points().isEmpty(),
+                "Wallets without repriced assets are not touched");
+        walletValueHistoryService.flush();
+        assertEquals(4, walletValueBucketRepository.count(), "Nothing is recorded without a change");
+    }
+
+    @Test
+    void flush_KeepsWalletsDirtyUntilRecordedOrOwnedByAnotherLiveNode() {
+        ClusterCoordinator leader = leaderModeCoordinator("leader");
+        ClusterCoordinator follower = leaderModeCoordinator("follower");
+        WalletValueHistoryService leaderHistory = historyService(leader);
+        WalletValueHistoryService followerHistory = historyService(follower);
+        leaderHistory.init();
+        followerHistory.init();
+        Long walletId = createWallet("owned@example.com", "bitcoin", "BTC");
+
+        walletVersionService.onAssetPricesUpdated(
+                new AssetPricesUpdatedEvent(Map.of("bitcoin", new BigDecimal("100")), clock.instant()));
+        leaderHistory.flush();
+        assertEquals(0, walletValueBucketRepository.count(), "A node without a live lease records nothing");
+
+        leader.heartbeat();
+        follower.heartbeat();
+        followerHistory.flush();
+        leaderHistory.flush();
+        assertEquals(3, walletValueBucketRepository.count(), "The change kept dirty is recorded once the lease is held");
+
+        walletFixtures.saveAsset(walletId, "bitcoin", "BTC", "3", "1");
+        leader.leave();
+        follower.heartbeat();
+        followerHistory.flush();
+        List<WalletValueHistoryResponse.Point> minutes = walletValueHistoryService
+                .getValueHistory(walletId, START, clock.instant(), "minute").points();
+        assertPoint(minutes.get(0), START, "2", "2", "2", "2");
+    }
+
+    @Test
+    void getValueHistory_PicksTheFinestRetainedResolutionWithinMaxPoints() {
+        Long walletId = createWallet("chart@example.com", "bitcoin", "BTC");
+        reprice("bitcoin", "100");
+        clock.advance(Duration.ofDays(60));
+        reprice("bitcoin", "150");
+        Instant now = clock.instant();
+
+        assertEquals(WalletValueBucket.Resolution.MINUTE,
+                walletValueHistoryService.getValueHistory(walletId, now.minus(Duration.ofMinutes(90)), now, null).resolution());
+        assertEquals(WalletValueBucket.Resolution.HOUR,
+                walletValueHistoryService.getValueHistory(walletId, null, null, null).resolution());
+        assertEquals(WalletValueBucket.Resolution.DAY,
+                walletValueHistoryService.getValueHistory(walletId, now.minus(Duration.ofDays(2)), now, null).resolution(),
+                "48 hours fit into max points, but 2 days ago is past the hour retention");
+        assertThrows(IllegalArgumentException.class,
+                () -> walletValueHistoryService.getValueHistory(walletId, START, now, "minute"));
+
+        WalletValueHistoryResponse all = walletValueHistoryService.getValueHistory(walletId, START, now, null);
+        assertEquals(WalletValueBucket.Resolution.DAY, all.resolution());
+        assertEquals(2, all.points().size());
+
+        walletValueHistoryService.prune();
+        assertEquals(0, walletValueHistoryService.getValueHistory(walletId, START, START.plus(Duration.ofHours(1)), "hour")
+                .points().size(), "Old hour buckets are pruned");
+        assertEquals(2, walletValueHistoryService.getValueHistory(walletId, START, now, "day").points().size(),
+                "Day buckets are retained");
+    }
+
+    private WalletValueHistoryService historyService(ClusterCoordinator coordinator) {
+        return new WalletValueHistoryService(assetRepository, walletRepository,
+                walletValueBucketRepository, walletVersionService, new ReplicaRoutingService(false, Duration.ofSeconds(5)),
+                coordinator, jdbcTemplate, true, 100, Map.of(
+                        WalletValueBucket.Resolution.MINUTE, Duration.ofHours(2),
+                        WalletValueBucket.Resolution.HOUR, Duration.ofDays(1),
+                        WalletValueBucket.Resolution.DAY, Duration.ofDays(3650)),
+                clock);
+    }
+
+    private ClusterCoordinator leaderModeCoordinator(String nodeId) {
+        return new ClusterCoordinator(clusterNodeRepository, clusterLeaseRepository,
+                ClusterCoordinator.Mode.LEADER, nodeId, Duration.ofSeconds(30), 16, clock);
+    }
+
+    private void reprice(String assetName, String price) {
+        assetRepository.findAll().stream()
+                .filter(asset -> asset.getName().equals(assetName))
+                .forEach(asset -> {
+                    asset.setPriceUsd(new BigDecimal(price));
+                    assetRepository.save(asset);
+                });
+        walletVersionService.onAssetPricesUpdated(
+                new AssetPricesUpdatedEvent(Map.of(assetName, new BigDecimal(price)), clock.instant()));
+        walletValueHistoryService.flush();
+    }
+
+    private static void assertPoint(WalletValueHistoryResponse.Point point, Instant start,
+                                    String open, String high, String low, String close) {
+        assertEquals(start, point.start());
+        assertEquals(0, new BigDecimal(open).compareTo(point.open()), "open");
+        assertEquals(0, new BigDecimal(high).compareTo(point.high()), "high");
+        assertEquals(0, new BigDecimal(low).compareTo(point.low()), "low");
+        assertEquals(0, new BigDecimal(close).compareTo(point.close()), "close");
+    }
+
+    private Long createWallet(String email, String assetName, String symbol) {
+        Long walletId = walletFixtures.createWallet(email);
+        walletFixtures.saveAsset(walletId, assetName, symbol, "2", "1");
+        return walletId;
+    }
+}